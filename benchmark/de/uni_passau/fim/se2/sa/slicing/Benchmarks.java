@@ -0,0 +1,31 @@
+package de.uni_passau.fim.se2.sa.slicing;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the analysis pipeline with the GC profiler attached.
+ *
+ * <p>All arguments are passed on to JMH, e.g., {@code java -jar target/benchmarks.jar
+ * Synthetic -p instructions=1000}. Besides the throughput and the latency of every phase, the
+ * results report the allocation rate per operation.
+ */
+public final class Benchmarks {
+
+  private Benchmarks() {}
+
+  public static void main(String[] pArgs)
+      throws CommandLineOptionException, IOException, RunnerException {
+    CommandLineOptions options = new CommandLineOptions(pArgs);
+    if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers()) {
+      org.openjdk.jmh.Main.main(pArgs);
+      return;
+    }
+    new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+  }
+}
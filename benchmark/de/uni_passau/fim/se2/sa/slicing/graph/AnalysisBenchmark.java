@@ -0,0 +1,170 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.CFGExtractor;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.output.ByteCodeExtractor;
+import de.uni_passau.fim.se2.sa.slicing.output.XMLFileExtractor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures every phase of the analysis pipeline on the methods of a class.
+ *
+ * <p>Each phase is a benchmark of its own and starts from the results of the previous phases,
+ * which are computed once per trial. The throughput mode shows how many classes are handled per
+ * second, the sample mode the latency distribution of a single phase. Subclasses decide which
+ * class is analysed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class AnalysisBenchmark {
+
+  private ClassNode classNode;
+  private List<MethodNode> methods;
+  private List<AnalysisContext> contexts;
+  private List<ProgramDependenceGraph> pdgs;
+  private List<List<Node>> criteria;
+  private List<Set<Node>> slices;
+
+  /**
+   * Provides the class whose methods are analysed.
+   *
+   * @return The class node
+   * @throws Exception In case the class cannot be created
+   */
+  protected abstract ClassNode createClass() throws Exception;
+
+  /**
+   * Checks the dependence graph of a method before anything is measured.
+   *
+   * @param pPDG The program-dependence graph of the method
+   * @param pSlice The slice of the method's return instructions
+   */
+  protected void check(ProgramDependenceGraph pPDG, Set<Node> pSlice) {}
+
+  @Setup
+  public void setUp() throws Exception {
+    classNode = createClass();
+    methods = new ArrayList<>();
+    contexts = new ArrayList<>();
+    pdgs = new ArrayList<>();
+    criteria = new ArrayList<>();
+    slices = new ArrayList<>();
+    for (MethodNode methodNode : classNode.methods) {
+      if (methodNode.instructions.size() == 0) {
+        continue;
+      }
+      AnalysisContext context = AnalysisContext.of(classNode, methodNode);
+      ProgramDependenceGraph pdg = new ProgramDependenceGraph(context);
+      List<Node> returns = returnsOf(pdg.computeResult());
+      Set<Node> slice = pdg.backwardSliceAll(returns);
+      check(pdg, slice);
+      methods.add(methodNode);
+      contexts.add(context);
+      pdgs.add(pdg);
+      criteria.add(returns);
+      slices.add(slice);
+    }
+  }
+
+  @Benchmark
+  public void buildCFG(Blackhole pBlackhole) throws AnalyzerException {
+    for (MethodNode methodNode : methods) {
+      pBlackhole.consume(CFGExtractor.buildCFG(classNode.name, methodNode));
+    }
+  }
+
+  @Benchmark
+  public void analyze(Blackhole pBlackhole) throws AnalyzerException {
+    for (MethodNode methodNode : methods) {
+      pBlackhole.consume(AnalysisContext.of(classNode, methodNode));
+    }
+  }
+
+  @Benchmark
+  public void postDominatorTree(Blackhole pBlackhole) {
+    for (AnalysisContext context : contexts) {
+      pBlackhole.consume(new PostDominatorTree(context).computeResult());
+    }
+  }
+
+  @Benchmark
+  public void controlDependenceGraph(Blackhole pBlackhole) {
+    for (AnalysisContext context : contexts) {
+      pBlackhole.consume(new ControlDependenceGraph(context).computeResult());
+    }
+  }
+
+  @Benchmark
+  public void dataDependenceGraph(Blackhole pBlackhole) {
+    for (AnalysisContext context : contexts) {
+      pBlackhole.consume(new DataDependenceGraph(context).computeResult());
+    }
+  }
+
+  @Benchmark
+  public void programDependenceGraph(Blackhole pBlackhole) {
+    for (AnalysisContext context : contexts) {
+      pBlackhole.consume(new ProgramDependenceGraph(context).computeResult());
+    }
+  }
+
+  /** Slices from the return instructions on a new slicer, such that nothing is precomputed. */
+  @Benchmark
+  public void backwardSlice(Blackhole pBlackhole) {
+    for (int i = 0; i < pdgs.size(); i++) {
+      DependenceSlicer slicer = new DependenceSlicer(pdgs.get(i).getSlicer().getGraph());
+      pBlackhole.consume(slicer.backwardSliceAll(criteria.get(i)));
+    }
+  }
+
+  @Benchmark
+  public void extractByteCode(Blackhole pBlackhole) {
+    for (Set<Node> slice : slices) {
+      pBlackhole.consume(new ByteCodeExtractor(slice).extract());
+    }
+  }
+
+  @Benchmark
+  public void extractXML(Blackhole pBlackhole) {
+    for (Set<Node> slice : slices) {
+      pBlackhole.consume(new XMLFileExtractor(slice).extract());
+    }
+  }
+
+  private static List<Node> returnsOf(ProgramGraph pGraph) {
+    List<Node> returns = new ArrayList<>();
+    for (Node node : pGraph.getNodes()) {
+      AbstractInsnNode instruction = node.getInstruction();
+      if (instruction != null
+          && instruction.getOpcode() >= Opcodes.IRETURN
+          && instruction.getOpcode() <= Opcodes.RETURN) {
+        returns.add(node);
+      }
+    }
+    return returns;
+  }
+}
@@ -0,0 +1,20 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.openjdk.jmh.annotations.Param;
+
+/** Measures the analysis pipeline on the shipped example classes. */
+public class ExampleAnalysisBenchmark extends AnalysisBenchmark {
+
+  @Param({"Rational", "Complex", "NestedLoop", "Calculator"})
+  public String example;
+
+  @Override
+  protected ClassNode createClass() throws Exception {
+    ClassNode classNode = new ClassNode(Opcodes.ASM9);
+    new ClassReader("de.uni_passau.fim.se2.sa.examples." + example).accept(classNode, 0);
+    return classNode;
+  }
+}
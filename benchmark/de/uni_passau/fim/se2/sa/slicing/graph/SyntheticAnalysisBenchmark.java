@@ -0,0 +1,60 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.synthetic.SyntheticClass;
+import de.uni_passau.fim.se2.sa.slicing.synthetic.SyntheticClassGenerator;
+import java.util.Set;
+import java.util.TreeSet;
+import org.objectweb.asm.tree.ClassNode;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures how the analysis pipeline scales with the size and the structure of a generated
+ * method.
+ *
+ * <p>Before measuring, the slice of the method's return is checked against the slice the
+ * generator expects, such that a faster but wrong analysis does not go unnoticed.
+ */
+public class SyntheticAnalysisBenchmark extends AnalysisBenchmark {
+
+  /**
+   * The number of instructions of the method, including labels and line numbers.
+   *
+   * <p>Larger methods are left out by default, as the setup of every phase benchmark would build
+   * their pipeline anew; the worst case is measured on request, e.g., with {@code -p
+   * instructions=100000}. Such methods exceed the 64 KB limit of a class file, which does not
+   * matter as they are never loaded.
+   */
+  @Param({"1000", "10000"})
+  public int instructions;
+
+  /** The maximum nesting depth of loops; without loops, the method has no back edges. */
+  @Param({"0", "2"})
+  public int loopDepth;
+
+  private SyntheticClass synthetic;
+
+  @Override
+  protected ClassNode createClass() {
+    synthetic =
+        SyntheticClassGenerator.newBuilder()
+            .instructions(instructions)
+            .loopDepth(loopDepth)
+            .build()
+            .generate();
+    return synthetic.getClassNode();
+  }
+
+  @Override
+  protected void check(ProgramDependenceGraph pPDG, Set<Node> pSlice) {
+    Set<Integer> lines = new TreeSet<>();
+    for (Node node : pSlice) {
+      if (node.getLineNumber() > 0) {
+        lines.add(node.getLineNumber());
+      }
+    }
+    if (!lines.equals(synthetic.expectedSlice(synthetic.getReturnLine()))) {
+      throw new IllegalStateException("The slice of the return differs from the expected one");
+    }
+  }
+}
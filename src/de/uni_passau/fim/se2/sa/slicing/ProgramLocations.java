@@ -0,0 +1,131 @@
+package de.uni_passau.fim.se2.sa.slicing;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.LocalVariable;
+import de.uni_passau.fim.se2.sa.slicing.cfg.LocalVariableTable;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import java.util.Optional;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/** Maps slicing criteria, i.e., a variable name and a source line, to nodes of a CFG. */
+public final class ProgramLocations {
+
+  /** Prevent initialisation of utility class. */
+  private ProgramLocations() {}
+
+  /**
+   * Finds the node that defines a variable in a given source line.
+   *
+   * <p>Starting at the first instruction of the line, the instructions of the line are searched
+   * for a store to a local variable or a write to a field with the given name.
+   *
+   * @param pCFG The control-flow graph of the method
+   * @param pMethodNode The method
+   * @param pLocalVariableTable The local variable table of the method
+   * @param pLineNumber The source line
+   * @param pVariableName The name of the local variable or field
+   * @return The node defining the variable
+   * @throws IllegalStateException If no such node exists
+   */
+  public static Node find(
+      final ProgramGraph pCFG,
+      final MethodNode pMethodNode,
+      final LocalVariableTable pLocalVariableTable,
+      final int pLineNumber,
+      final String pVariableName) {
+    // Search for the instruction that is located at the given line number.
+    AbstractInsnNode targetInstruction = null;
+    for (final AbstractInsnNode insnNode : pMethodNode.instructions) {
+      if (insnNode instanceof LineNumberNode lineNumberNode) {
+        if (lineNumberNode.line == pLineNumber) {
+          targetInstruction = insnNode;
+          break;
+        }
+      }
+    }
+
+    // Search for the node that contains the instruction.
+    Node cfgNode = null;
+    if (targetInstruction != null) {
+      for (final Node node : pCFG.getNodes()) {
+        if (targetInstruction.equals(node.getInstruction())) {
+          cfgNode = node;
+          break;
+        }
+      }
+    }
+
+    if (cfgNode == null) {
+      throw new IllegalStateException(
+          "We were not able to find an instruction in line " + pLineNumber + ".");
+    }
+
+    for (final Node successor : pCFG.getSuccessorsUntilNextLineNumber(cfgNode)) {
+      if ((successor.getInstruction() instanceof VarInsnNode
+              || successor.getInstruction() instanceof IincInsnNode)
+          && isStoreOpCode(successor.getInstruction().getOpcode())) {
+        // For a local variable search in the local variable table if we find a candidate
+        final int idx;
+        if (successor.getInstruction() instanceof VarInsnNode varInsnNode) {
+          idx = varInsnNode.var;
+        } else {
+          idx = ((IincInsnNode) successor.getInstruction()).var;
+        }
+
+        final Optional<LocalVariable> entry = pLocalVariableTable.getEntry(idx);
+        if (entry.isPresent() && entry.get().name().equals(pVariableName)) {
+          return successor;
+        }
+      } else if (successor.getInstruction() instanceof FieldInsnNode fieldInsnNode
+          && isFieldOpCode(successor.getInstruction().getOpcode())) {
+        // For a field access compare the name directly
+        final String instructionVariableName = fieldInsnNode.name;
+        if (instructionVariableName != null && instructionVariableName.equals(pVariableName)) {
+          return successor;
+        }
+      }
+    }
+
+    throw new IllegalStateException(
+        "We were not able to determine a correct program location for the searched node.");
+  }
+
+  /**
+   * Checks whether an opcode stores a value into a local variable or an array.
+   *
+   * @param pOpCode The opcode
+   * @return {@code true} for store opcodes and {@code IINC}
+   */
+  public static boolean isStoreOpCode(final int pOpCode) {
+    return pOpCode == Opcodes.AASTORE
+        || pOpCode == Opcodes.BASTORE
+        || pOpCode == Opcodes.CASTORE
+        || pOpCode == Opcodes.DASTORE
+        || pOpCode == Opcodes.FASTORE
+        || pOpCode == Opcodes.IASTORE
+        || pOpCode == Opcodes.LASTORE
+        || pOpCode == Opcodes.SASTORE
+        || pOpCode == Opcodes.ASTORE
+        || pOpCode == Opcodes.DSTORE
+        || pOpCode == Opcodes.FSTORE
+        || pOpCode == Opcodes.ISTORE
+        || pOpCode == Opcodes.LSTORE
+        || pOpCode == Opcodes.IINC;
+  }
+
+  /**
+   * Checks whether an opcode writes a field.
+   *
+   * @param pOpCode The opcode
+   * @return {@code true} for {@code PUTFIELD} and {@code PUTSTATIC}
+   */
+  public static boolean isFieldOpCode(final int pOpCode) {
+    return pOpCode == Opcodes.PUTFIELD || pOpCode == Opcodes.PUTSTATIC;
+  }
+}
@@ -2,23 +2,52 @@
 
 import com.google.common.base.Preconditions;
 import de.uni_passau.fim.se2.sa.slicing.agent.SlicerAgent;
+import de.uni_passau.fim.se2.sa.slicing.cache.PDGCache;
 import de.uni_passau.fim.se2.sa.slicing.cfg.CFGLocalVariableTableVisitor;
 import de.uni_passau.fim.se2.sa.slicing.cfg.LocalVariable;
 import de.uni_passau.fim.se2.sa.slicing.cfg.LocalVariableTable;
 import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
 import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
 import de.uni_passau.fim.se2.sa.slicing.coverage.CoverageTracker;
+import de.uni_passau.fim.se2.sa.slicing.graph.AnalysisContext;
+import de.uni_passau.fim.se2.sa.slicing.graph.BlockDependenceGraph;
+import de.uni_passau.fim.se2.sa.slicing.graph.DynamicSlicer;
 import de.uni_passau.fim.se2.sa.slicing.graph.ProgramDependenceGraph;
+import de.uni_passau.fim.se2.sa.slicing.graph.SystemDependenceGraph;
 import de.uni_passau.fim.se2.sa.slicing.output.ByteCodeExtractor;
 import de.uni_passau.fim.se2.sa.slicing.output.Extractor;
 import de.uni_passau.fim.se2.sa.slicing.output.SourceLineExtractor;
 import de.uni_passau.fim.se2.sa.slicing.output.XMLFileExtractor;
+import de.uni_passau.fim.se2.sa.slicing.pipeline.SlicingPipeline;
+import de.uni_passau.fim.se2.sa.slicing.server.SliceServer;
+import de.uni_passau.fim.se2.sa.slicing.server.SliceService;
+import de.uni_passau.fim.se2.sa.slicing.stats.JsonStatisticsWriter;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.PhaseListener;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
+import de.uni_passau.fim.se2.sa.slicing.trace.ExecutionTrace;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
 import org.junit.platform.engine.discovery.DiscoverySelectors;
 import org.junit.platform.engine.discovery.MethodSelector;
 import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
@@ -29,9 +58,9 @@
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldInsnNode;
 import org.objectweb.asm.tree.IincInsnNode;
-import org.objectweb.asm.tree.LineNumberNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.VarInsnNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
 import picocli.CommandLine;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
@@ -45,14 +74,50 @@ public final class SlicerMain implements Callable<Integer> {
   private String methodName;
   private String methodDescriptor;
   private String variableName;
-  private int lineNumber;
+  private Integer lineNumber;
   private Path sourceFilePath;
   private Path targetFilePath;
   private boolean xmlExtraction;
   private Map<String, LocalVariableTable> localVariableTables;
   private MethodNode methodNode;
   private boolean dynamicSlicing;
+  private boolean traceSlicing;
+  private boolean basicBlocks;
+  private boolean interprocedural;
+  private List<String> calledClasses = List.of();
+  private DynamicSlicer traceSlicer;
   private String testCase;
+  private List<String> tests = List.of();
+  private Path criteriaFilePath;
+  private final List<Criterion> criteria = new ArrayList<>();
+  private boolean allDefinitions;
+  private Path inputPath;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+  private boolean server;
+  private Integer port;
+  private Path statisticsPath;
+  private Path cacheDirectory;
+  private long cacheLimit = 256;
+  private byte[] classBytes;
+
+  /** A slicing criterion: a variable that is defined in a certain source line. */
+  private record Criterion(String variableName, int lineNumber) {
+
+    /** Parses a criterion in {@code <variablename>:<linenumber>} syntax. */
+    static Criterion parse(final String pCriterion) {
+      final int separator = pCriterion.lastIndexOf(':');
+      Preconditions.checkArgument(
+          separator > 0, "Criterion %s does not match <variablename>:<linenumber>", pCriterion);
+      return new Criterion(
+          pCriterion.substring(0, separator).trim(),
+          Integer.parseInt(pCriterion.substring(separator + 1).trim()));
+    }
+
+    @Override
+    public String toString() {
+      return variableName + ":" + lineNumber;
+    }
+  }
 
   public static void main(String[] pArgs) {
     new CommandLine(new SlicerMain()).execute(pArgs);
@@ -62,157 +127,540 @@ private SlicerMain() {}
 
   @Override
   public Integer call() throws Exception {
-    run();
+    if (statisticsPath == null) {
+      run();
+    } else {
+      runWithStatistics();
+    }
     return 0;
   }
 
+  /** Runs while writing the costs of every phase as JSON lines, to standard error for "-". */
+  private void runWithStatistics() throws IOException {
+    final boolean standardError = "-".equals(statisticsPath.toString());
+    final Writer writer =
+        standardError
+            ? new OutputStreamWriter(System.err, StandardCharsets.UTF_8)
+            : Files.newBufferedWriter(statisticsPath, StandardCharsets.UTF_8);
+    final PhaseListener listener = new JsonStatisticsWriter(writer);
+    Statistics.addListener(listener);
+    try {
+      run();
+    } finally {
+      Statistics.removeListener(listener);
+      if (standardError) {
+        writer.flush();
+      } else {
+        writer.close();
+      }
+    }
+  }
+
   private void run() throws IOException {
+    if (server) {
+      runServer();
+      return;
+    }
+    if (inputPath != null) {
+      runPipeline();
+      return;
+    }
+    if (className == null || methodName == null) {
+      throw new CommandLine.ParameterException(
+          spec.commandLine(), "Either --class and --method or --input are required");
+    }
+
+    final boolean batch = criteriaFilePath != null || !criteria.isEmpty() || allDefinitions;
+    if (!batch && (variableName == null || lineNumber == null)) {
+      throw new CommandLine.ParameterException(
+          spec.commandLine(),
+          "Either --variablename and --linenumber or one of the batch options are required");
+    }
+
+    if (basicBlocks && (dynamicSlicing || !tests.isEmpty())) {
+      throw new CommandLine.ParameterException(
+          spec.commandLine(),
+          "--basic-blocks cannot be combined with --dynamic or --dynamic-tests");
+    }
+
+    if (interprocedural) {
+      if (batch || basicBlocks || dynamicSlicing || !tests.isEmpty()) {
+        throw new CommandLine.ParameterException(
+            spec.commandLine(),
+            "--interprocedural cannot be combined with --basic-blocks, dynamic or batch options");
+      }
+      runInterprocedural();
+      return;
+    }
+
+    if (!tests.isEmpty()) {
+      if (batch || dynamicSlicing || traceSlicing) {
+        throw new CommandLine.ParameterException(
+            spec.commandLine(),
+            "--dynamic-tests cannot be combined with --dynamic, --trace or batch options");
+      }
+      if (!SlicerAgent.wasInvoked()) {
+        throw new IllegalStateException(
+            "The SlicerAgent must have been invoked for dynamic slicing");
+      }
+      SlicerAgent.restrictTo(className, methodName, methodDescriptor);
+      runTests();
+      return;
+    }
+
+    if (traceSlicing && !dynamicSlicing) {
+      throw new CommandLine.ParameterException(
+          spec.commandLine(), "--trace requires --dynamic");
+    }
     if (dynamicSlicing) {
       if (!SlicerAgent.wasInvoked()) {
         throw new IllegalStateException(
             "The SlicerAgent must have been invoked for dynamic slicing");
       }
+      if (traceSlicing && !SlicerAgent.isRecordingTrace()) {
+        throw new IllegalStateException(
+            "The SlicerAgent must have been invoked with the trace option for trace slicing");
+      }
 
+      // Only the sliced method is of interest, hence no other method needs to be instrumented
+      SlicerAgent.restrictTo(className, methodName, methodDescriptor);
       SlicerUtil.executeTest(className, testCase);
     }
 
+    if (batch) {
+      runBatch();
+      return;
+    }
+
     final Set<Node> slice = executeSlicing();
+    final Extractor extractor = createExtractor(slice);
+
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.EXTRACT, internalClassName(), methodNode)) {
+      measurement.nodes(slice.size());
+      if (targetFilePath == null) {
+        System.out.println(extractor.extract());
+      } else {
+        extractor.extractToFile(targetFilePath);
+      }
+    }
+  }
 
-    final Extractor extractor;
-    if (sourceFilePath != null) {
-      extractor =
-          new SourceLineExtractor(
-              sourceFilePath, localVariableTables, className, methodNode, slice);
-    } else if (xmlExtraction) {
-      extractor = new XMLFileExtractor(slice);
+  /** Answers slice requests until standard input ends or, with a port, until terminated. */
+  private void runServer() throws IOException {
+    final SliceServer sliceServer = new SliceServer(new SliceService(256));
+    if (port == null) {
+      sliceServer.serve(
+          new InputStreamReader(System.in, StandardCharsets.UTF_8),
+          new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
     } else {
-      extractor = new ByteCodeExtractor(slice);
+      try (ServerSocket socket = SliceServer.openLocalSocket(port)) {
+        System.err.println("Listening on port " + socket.getLocalPort());
+        sliceServer.listen(socket);
+      }
     }
+  }
 
+  /** Slices every definition of every method of a jar file or directory in parallel. */
+  private void runPipeline() throws IOException {
+    final SlicingPipeline.Summary summary;
     if (targetFilePath == null) {
-      System.out.println(extractor.extract());
+      // Do not close System.out
+      final Writer writer =
+          new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+      summary = new SlicingPipeline(parallelism, 4 * parallelism, writer).run(inputPath);
     } else {
-      extractor.extractToFile(targetFilePath);
+      try (Writer writer = Files.newBufferedWriter(targetFilePath)) {
+        summary = new SlicingPipeline(parallelism, 4 * parallelism, writer).run(inputPath);
+      }
     }
+    System.err.printf(
+        "Sliced %d criteria in %d methods of %d classes (%d failures)%n",
+        summary.criteria(), summary.methods(), summary.classes(), summary.failures());
   }
 
-  private Set<Node> executeSlicing() throws IOException {
-    final int apiLevel = Opcodes.ASM9;
-    final ClassNode classNode = new ClassNode(apiLevel);
-    final ClassReader classReader = new ClassReader(className);
-    classReader.accept(classNode, 0);
-
-    final CFGLocalVariableTableVisitor visitor = new CFGLocalVariableTableVisitor(apiLevel);
-    classReader.accept(visitor, 0);
-    localVariableTables = visitor.getLocalVariableTables();
-
-    methodNode =
-        classNode.methods.stream()
-            .filter(m -> methodName.equals(m.name) && methodDescriptor.equals(m.desc))
-            .findAny()
-            .orElse(null);
-    Preconditions.checkNotNull(methodNode, "Could not find an appropriate method!");
-
-    ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+  /**
+   * Runs the tests concurrently and slices the method for the coverage of every single test.
+   *
+   * <p>Every slice is preceded by a header line that states the test, its outcome and the size of
+   * the slice; the union and the intersection of all slices follow last.
+   */
+  private void runTests() throws IOException {
+    final SortedMap<String, TestCoverageRunner.Result> results =
+        new TestCoverageRunner(parallelism)
+            .run(tests.stream().map(TestCoverageRunner::select).toList());
+
+    final ProgramDependenceGraph pdg = buildProgramDependenceGraph();
     final Node programLocation =
-        getProgramLocation(
+        ProgramLocations.find(
             pdg.getCFG(),
             methodNode,
             localVariableTables.get(methodNode.name + ": " + methodNode.desc),
             lineNumber,
             variableName);
+    final String owner = className.replace('.', '/');
+
+    final Writer writer =
+        targetFilePath == null
+            // Do not close System.out
+            ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+            : Files.newBufferedWriter(targetFilePath);
+    try {
+      final Set<Node> union = new HashSet<>();
+      Set<Node> intersection = null;
+      for (final Map.Entry<String, TestCoverageRunner.Result> entry : results.entrySet()) {
+        final Set<Integer> visitedLines =
+            entry.getValue().coverage().getVisitedLines(owner, methodNode.name, methodNode.desc);
+        final Set<Node> slice =
+            SlicerUtil.simplify(pdg, visitedLines).backwardSlice(programLocation);
+        writeSlice(writer, entry.getKey() + ", " + entry.getValue().status(), slice);
+        union.addAll(slice);
+        if (intersection == null) {
+          intersection = new HashSet<>(slice);
+        } else {
+          intersection.retainAll(slice);
+        }
+      }
+      writeSlice(writer, "union", union);
+      writeSlice(writer, "intersection", intersection == null ? Set.of() : intersection);
+    } finally {
+      if (targetFilePath == null) {
+        writer.flush();
+      } else {
+        writer.close();
+      }
+    }
+  }
 
-    if (dynamicSlicing) {
-      pdg = SlicerUtil.simplify(pdg);
+  private void writeSlice(final Writer pWriter, final String pTitle, final Set<Node> pSlice)
+      throws IOException {
+    pWriter.write(String.format(Locale.ROOT, "### %s (%d nodes)%n", pTitle, pSlice.size()));
+    final String result = createExtractor(pSlice).extract();
+    if (!result.isEmpty()) {
+      pWriter.write(result);
+      pWriter.write(System.lineSeparator());
+    }
+    pWriter.flush();
+  }
+
+  /**
+   * Slices all requested criteria of the method with a single program-dependence graph.
+   *
+   * <p>Every result is written as soon as it is computed, preceded by a header line that states
+   * the criterion, the size of the slice and the time it took to locate the criterion, compute the
+   * slice and extract it.
+   */
+  private void runBatch() throws IOException {
+    final ProgramGraph cfg;
+    final ProgramDependenceGraph pdg;
+    final Function<Node, Set<Node>> slicer;
+    if (basicBlocks) {
+      final BlockDependenceGraph blockGraph = buildBlockDependenceGraph();
+      cfg = blockGraph.getCFG();
+      pdg = null;
+      slicer = blockGraph::backwardSlice;
+    } else {
+      final ProgramDependenceGraph fullPDG = buildProgramDependenceGraph();
+      cfg = fullPDG.getCFG();
+      pdg = dynamicSlicing && !traceSlicing ? SlicerUtil.simplify(fullPDG) : fullPDG;
+      slicer = criterion -> backwardSlice(pdg, criterion);
+    }
+    final LocalVariableTable localVariableTable =
+        localVariableTables.get(methodNode.name + ": " + methodNode.desc);
+
+    final Set<Criterion> batchCriteria = new LinkedHashSet<>(criteria);
+    if (criteriaFilePath != null) {
+      for (final String line : Files.readAllLines(criteriaFilePath)) {
+        final String criterion = line.strip();
+        if (!criterion.isEmpty() && !criterion.startsWith("#")) {
+          batchCriteria.add(Criterion.parse(criterion));
+        }
+      }
+    }
+    if (allDefinitions) {
+      batchCriteria.addAll(collectDefinitions(cfg, localVariableTable));
+    }
+    if (pdg != null && batchCriteria.size() > 1) {
+      pdg.precomputeSlices();
     }
 
-    return pdg.backwardSlice(programLocation);
+    if (targetFilePath == null) {
+      // Do not close System.out
+      final Writer writer =
+          new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+      sliceAll(slicer, cfg, localVariableTable, batchCriteria, writer);
+    } else {
+      try (Writer writer = Files.newBufferedWriter(targetFilePath)) {
+        sliceAll(slicer, cfg, localVariableTable, batchCriteria, writer);
+      }
+    }
   }
 
-  private Node getProgramLocation(
+  private void sliceAll(
+      final Function<Node, Set<Node>> pSlicer,
       final ProgramGraph pCFG,
-      final MethodNode pMethodNode,
       final LocalVariableTable pLocalVariableTable,
-      final int pLineNumber,
-      final String pVariableName) {
-    // Search for the instruction that is located at the given line number.
-    AbstractInsnNode targetInstruction = null;
-    for (final AbstractInsnNode insnNode : methodNode.instructions) {
-      if (insnNode instanceof LineNumberNode lineNumberNode) {
-        if (lineNumberNode.line == pLineNumber) {
-          targetInstruction = insnNode;
-          break;
-        }
+      final Set<Criterion> pCriteria,
+      final Writer pWriter)
+      throws IOException {
+    for (final Criterion criterion : pCriteria) {
+      final long start = System.nanoTime();
+      String result;
+      String summary;
+      try {
+        final Node programLocation =
+            ProgramLocations.find(
+                pCFG,
+                methodNode,
+                pLocalVariableTable,
+                criterion.lineNumber(),
+                criterion.variableName());
+        final Set<Node> slice = pSlicer.apply(programLocation);
+        result = createExtractor(slice).extract();
+        summary = slice.size() + " nodes";
+      } catch (IllegalStateException e) {
+        result = "";
+        summary = e.getMessage();
+      }
+      final double millis = (System.nanoTime() - start) / 1_000_000.0;
+      pWriter.write(
+          String.format(Locale.ROOT, "### %s (%s, %.3f ms)%n", criterion, summary, millis));
+      if (!result.isEmpty()) {
+        pWriter.write(result);
+        pWriter.write(System.lineSeparator());
       }
+      pWriter.flush();
+    }
+  }
+
+  /**
+   * Collects a criterion for every store to a named local variable and for every field write of
+   * the method that has a line number.
+   */
+  private List<Criterion> collectDefinitions(
+      final ProgramGraph pCFG, final LocalVariableTable pLocalVariableTable) {
+    final Map<AbstractInsnNode, Node> nodes = new IdentityHashMap<>();
+    for (final Node node : pCFG.getNodes()) {
+      nodes.put(node.getInstruction(), node);
     }
 
-    // Search for the node that contains the instruction.
-    Node cfgNode = null;
-    if (targetInstruction != null) {
-      for (final Node node : pCFG.getNodes()) {
-        if (node.getInstruction().equals(targetInstruction)) {
-          cfgNode = node;
-          break;
-        }
+    final List<Criterion> definitions = new ArrayList<>();
+    for (final AbstractInsnNode insnNode : methodNode.instructions) {
+      final Node node = nodes.get(insnNode);
+      if (node == null || node.getLineNumber() < 0) {
+        continue;
+      }
+
+      String name = null;
+      if (insnNode instanceof VarInsnNode varInsnNode && ProgramLocations.isStoreOpCode(insnNode.getOpcode())) {
+        name = pLocalVariableTable.getEntry(varInsnNode.var).map(LocalVariable::name).orElse(null);
+      } else if (insnNode instanceof IincInsnNode iincInsnNode) {
+        name = pLocalVariableTable.getEntry(iincInsnNode.var).map(LocalVariable::name).orElse(null);
+      } else if (insnNode instanceof FieldInsnNode fieldInsnNode
+          && ProgramLocations.isFieldOpCode(insnNode.getOpcode())) {
+        name = fieldInsnNode.name;
+      }
+      if (name != null) {
+        definitions.add(new Criterion(name, node.getLineNumber()));
       }
     }
+    return definitions;
+  }
 
-    for (final Node successor : pCFG.getSuccessorsUntilNextLineNumber(cfgNode)) {
-      if ((successor.getInstruction() instanceof VarInsnNode
-              || successor.getInstruction() instanceof IincInsnNode)
-          && isStoreOpCode(successor.getInstruction().getOpcode())) {
-        // For a local variable search in the local variable table if we find a candidate
-        final int idx;
-        if (successor.getInstruction() instanceof VarInsnNode varInsnNode) {
-          idx = varInsnNode.var;
-        } else {
-          idx = ((IincInsnNode) successor.getInstruction()).var;
-        }
+  /**
+   * Slices the method together with the methods of its class and of the further given classes,
+   * following calls in both directions, and writes the slice of every method that is part of it.
+   */
+  private void runInterprocedural() throws IOException {
+    final List<ClassNode> classes = new ArrayList<>();
+    final ClassNode classNode = loadMethod();
+    classes.add(classNode);
+    for (final String calledClass : calledClasses) {
+      final ClassNode called = new ClassNode(Opcodes.ASM9);
+      new ClassReader(calledClass).accept(called, 0);
+      classes.add(called);
+    }
 
-        final Optional<LocalVariable> entry = pLocalVariableTable.getEntry(idx);
-        if (entry.isPresent() && entry.get().name().equals(variableName)) {
-          return successor;
-        }
-      } else if (successor.getInstruction() instanceof FieldInsnNode fieldInsnNode
-          && isFieldOpCode(successor.getInstruction().getOpcode())) {
-        // For a field access compare the name directly
-        final String instructionVariableName = fieldInsnNode.name;
-        if (instructionVariableName != null && instructionVariableName.equals(variableName)) {
-          return successor;
-        }
+    final SystemDependenceGraph sdg;
+    try {
+      sdg = new SystemDependenceGraph(classes);
+    } catch (final AnalyzerException e) {
+      throw new IllegalStateException("The methods could not be analysed", e);
+    }
+    final Node programLocation =
+        ProgramLocations.find(
+            sdg.getCFG(methodNode),
+            methodNode,
+            localVariableTables.get(methodNode.name + ": " + methodNode.desc),
+            lineNumber,
+            variableName);
+
+    final StringBuilder output = new StringBuilder();
+    for (final Map.Entry<MethodNode, Set<Node>> entry :
+        sdg.backwardSliceByMethod(programLocation).entrySet()) {
+      final MethodNode method = entry.getKey();
+      final String owner = sdg.getOwningClass(method);
+      output.append(
+          String.format(
+              Locale.ROOT,
+              "### %s.%s%s (%d nodes)%n",
+              owner.replace('/', '.'), method.name, method.desc, entry.getValue().size()));
+      output.append(
+          createExtractor(classNode.name.equals(owner), method, entry.getValue()).extract());
+      output.append(System.lineSeparator());
+    }
+
+    if (targetFilePath == null) {
+      System.out.print(output);
+    } else {
+      Files.writeString(targetFilePath, output);
+    }
+  }
+
+  private Extractor createExtractor(final Set<Node> pSlice) {
+    return createExtractor(true, methodNode, pSlice);
+  }
+
+  /**
+   * Creates the extractor for the slice of a method; source lines are only available for the
+   * methods of the class whose source file is given.
+   */
+  private Extractor createExtractor(
+      final boolean pInSourceFile, final MethodNode pMethodNode, final Set<Node> pSlice) {
+    if (sourceFilePath != null && pInSourceFile) {
+      return new SourceLineExtractor(
+          sourceFilePath, localVariableTables, className, pMethodNode, pSlice);
+    } else if (xmlExtraction) {
+      return new XMLFileExtractor(pSlice);
+    } else {
+      return new ByteCodeExtractor(pSlice);
+    }
+  }
+
+  private Set<Node> executeSlicing() throws IOException {
+    if (basicBlocks) {
+      final BlockDependenceGraph blockGraph = buildBlockDependenceGraph();
+      return blockGraph.backwardSlice(
+          ProgramLocations.find(
+              blockGraph.getCFG(),
+              methodNode,
+              localVariableTables.get(methodNode.name + ": " + methodNode.desc),
+              lineNumber,
+              variableName));
+    }
+
+    ProgramDependenceGraph pdg = buildProgramDependenceGraph();
+    final Node programLocation =
+        ProgramLocations.find(
+            pdg.getCFG(),
+            methodNode,
+            localVariableTables.get(methodNode.name + ": " + methodNode.desc),
+            lineNumber,
+            variableName);
+
+    if (dynamicSlicing && !traceSlicing) {
+      pdg = SlicerUtil.simplify(pdg);
+    }
+
+    return backwardSlice(pdg, programLocation);
+  }
+
+  /**
+   * Slices the program-dependence graph or, for trace slicing, the recorded execution.
+   *
+   * <p>The dynamic slice of the trace also contains the instructions that only move values across
+   * the operand stack, which the program-dependence graph does not model. Hence, the result is
+   * the part of the static slice the execution actually depended on.
+   */
+  private Set<Node> backwardSlice(final ProgramDependenceGraph pPDG, final Node pCriterion) {
+    if (!traceSlicing) {
+      return pPDG.backwardSlice(pCriterion);
+    }
+    if (traceSlicer == null) {
+      try {
+        traceSlicer = new DynamicSlicer(AnalysisContext.of(pPDG.getClassNode(), methodNode));
+      } catch (final AnalyzerException e) {
+        throw new IllegalStateException("The method could not be analysed", e);
       }
+      Preconditions.checkState(
+          traceSlicer.isTraced(), "The method was not instrumented for trace slicing");
+    }
+    final Set<Node> slice = pPDG.backwardSlice(pCriterion);
+    slice.retainAll(traceSlicer.backwardSlice(ExecutionTrace.getTrace(), pCriterion));
+    return slice;
+  }
+
+  /**
+   * Builds the program-dependence graph of the method, or loads it from the cache if --cache is
+   * given and the class file has been analysed before.
+   */
+  private ProgramDependenceGraph buildProgramDependenceGraph() throws IOException {
+    final ClassNode classNode = loadMethod();
+    if (cacheDirectory == null) {
+      return new ProgramDependenceGraph(classNode, methodNode);
+    }
+
+    final PDGCache cache = new PDGCache(cacheDirectory, cacheLimit * 1024 * 1024);
+    final Optional<ProgramDependenceGraph> cached = cache.load(classBytes, classNode, methodNode);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    final ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+    if (pdg.computeResult() != null) {
+      cache.store(classBytes, pdg);
     }
+    return pdg;
+  }
 
-    throw new IllegalStateException(
-        "We were not able to determine a correct program location for the searched node.");
+  private BlockDependenceGraph buildBlockDependenceGraph() throws IOException {
+    final ClassNode classNode = loadMethod();
+    try {
+      return new BlockDependenceGraph(AnalysisContext.of(classNode, methodNode));
+    } catch (final AnalyzerException e) {
+      throw new IllegalStateException("The method could not be analysed", e);
+    }
   }
 
-  private boolean isStoreOpCode(final int pOpCode) {
-    return pOpCode == Opcodes.AASTORE
-        || pOpCode == Opcodes.BASTORE
-        || pOpCode == Opcodes.CASTORE
-        || pOpCode == Opcodes.DASTORE
-        || pOpCode == Opcodes.FASTORE
-        || pOpCode == Opcodes.IASTORE
-        || pOpCode == Opcodes.LASTORE
-        || pOpCode == Opcodes.SASTORE
-        || pOpCode == Opcodes.ASTORE
-        || pOpCode == Opcodes.DSTORE
-        || pOpCode == Opcodes.FSTORE
-        || pOpCode == Opcodes.ISTORE
-        || pOpCode == Opcodes.LSTORE
-        || pOpCode == Opcodes.IINC;
+  /** Reads the class, its local variable tables and the method to slice. */
+  @SuppressWarnings("try") // The class has no graph yet, hence no nodes or edges are reported
+  private ClassNode loadMethod() throws IOException {
+    final int apiLevel = Opcodes.ASM9;
+    final ClassNode classNode = new ClassNode(apiLevel);
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.PARSE, internalClassName(), null)) {
+      final String resource = internalClassName() + ".class";
+      try (InputStream in = ClassLoader.getSystemResourceAsStream(resource)) {
+        if (in == null) {
+          throw new IOException("Class not found: " + className);
+        }
+        classBytes = in.readAllBytes();
+      }
+      final ClassReader classReader = new ClassReader(classBytes);
+      classReader.accept(classNode, 0);
+
+      final CFGLocalVariableTableVisitor visitor = new CFGLocalVariableTableVisitor(apiLevel);
+      classReader.accept(visitor, 0);
+      localVariableTables = visitor.getLocalVariableTables();
+    }
+
+    methodNode =
+        classNode.methods.stream()
+            .filter(m -> methodName.equals(m.name) && methodDescriptor.equals(m.desc))
+            .findAny()
+            .orElse(null);
+    Preconditions.checkNotNull(methodNode, "Could not find an appropriate method!");
+    return classNode;
   }
 
-  private boolean isFieldOpCode(final int pOpCode) {
-    return pOpCode == Opcodes.PUTFIELD || pOpCode == Opcodes.PUTSTATIC;
+  private String internalClassName() {
+    return className == null ? null : className.replace('.', '/');
   }
 
   // @formatter:off
   @Option(
       names = {"-c", "--class"},
-      required = true,
-      description = "The class that contains the method to slice.")
+      description =
+          "The class that contains the method to slice. Required unless --input is given.")
   // @formatter:on
   public void setClassName(final String pClassName) {
     className = pClassName;
@@ -221,8 +669,7 @@ public void setClassName(final String pClassName) {
   // @formatter:off
   @Option(
       names = {"-v", "--variablename"},
-      required = true,
-      description = "Name of the variable to slice.")
+      description = "Name of the variable to slice. Required unless a batch option is given.")
   // @formatter:on
   public void setVariableName(final String pVariableName) {
     variableName = pVariableName;
@@ -231,8 +678,9 @@ public void setVariableName(final String pVariableName) {
   // @formatter:off
   @Option(
       names = {"-m", "--method"},
-      required = true,
-      description = "The method to slice. Requires <methodname>:<descriptor> syntax.")
+      description =
+          "The method to slice. Requires <methodname>:<descriptor> syntax. Required unless --input"
+              + " is given.")
   // @formatter:on
   public void setMethod(final String pMethod) {
     final String[] method = pMethod.split(":");
@@ -243,8 +691,8 @@ public void setMethod(final String pMethod) {
   // @formatter:off
   @Option(
       names = {"-l", "--linenumber"},
-      required = true,
-      description = "The line number of the variable to slice.")
+      description =
+          "The line number of the variable to slice. Required unless a batch option is given.")
   // @formatter:on
   public void setLineNumber(final int pLineNumber) {
     lineNumber = pLineNumber;
@@ -286,4 +734,175 @@ public void setDynamicSlicing(final String pTestCase) {
     dynamicSlicing = true;
     testCase = pTestCase;
   }
+
+  // @formatter:off
+  @Option(
+      names = {"-D", "--dynamic-tests"},
+      split = ",",
+      description =
+          "Create a dynamic slice per test by running the given test classes or Class#method"
+              + " tests concurrently, followed by the union and intersection of the slices.")
+  // @formatter:on
+  public void setTests(final List<String> pTests) {
+    tests = pTests;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-T", "--trace"},
+      description =
+          "With --dynamic, slices the recorded execution trace instead of the covered lines."
+              + " Requires the agent option <package>,trace.")
+  // @formatter:on
+  public void setTraceSlicing(final boolean pTraceSlicing) {
+    traceSlicing = pTraceSlicing;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-B", "--basic-blocks"},
+      description =
+          "Compute the dependences over basic blocks instead of single instructions, which is"
+              + " faster for large methods and yields the same slices.")
+  // @formatter:on
+  public void setBasicBlocks(final boolean pBasicBlocks) {
+    basicBlocks = pBasicBlocks;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-I", "--interprocedural"},
+      description =
+          "Slice across the calls between the methods of the class and the classes given by"
+              + " --classes, printing the slice of every method that is part of it.")
+  // @formatter:on
+  public void setInterprocedural(final boolean pInterprocedural) {
+    interprocedural = pInterprocedural;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-C", "--classes"},
+      split = ",",
+      description = "Further fully qualified classes an interprocedural slice spans.")
+  // @formatter:on
+  public void setCalledClasses(final List<String> pCalledClasses) {
+    calledClasses = pCalledClasses;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-b", "--batchfile"},
+      description =
+          "Slices every criterion of the given file, one <variablename>:<linenumber> per line.")
+  // @formatter:on
+  public void setCriteriaFilePath(final Path pCriteriaFilePath) {
+    criteriaFilePath = pCriteriaFilePath;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-a", "--criteria"},
+      split = ",",
+      description = "Slices every given criterion in <variablename>:<linenumber> syntax.")
+  // @formatter:on
+  public void setCriteria(final List<String> pCriteria) {
+    criteria.clear();
+    for (final String criterion : pCriteria) {
+      criteria.add(Criterion.parse(criterion));
+    }
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-A", "--all-definitions"},
+      description = "Slices every definition of a variable or field in the method.")
+  // @formatter:on
+  public void setAllDefinitions(final boolean pAllDefinitions) {
+    allDefinitions = pAllDefinitions;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-i", "--input"},
+      description =
+          "Slices every definition of every method of the classes in the given jar file or"
+              + " directory.")
+  // @formatter:on
+  public void setInputPath(final Path pInputPath) {
+    inputPath = pInputPath;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-p", "--parallelism"},
+      description = "The number of threads used with --input. Defaults to the number of cores.")
+  // @formatter:on
+  public void setParallelism(final int pParallelism) {
+    parallelism = pParallelism;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"-S", "--server"},
+      description =
+          "Keeps running and answers slice requests given as JSON lines on standard input, or on"
+              + " a local socket if --port is given.")
+  // @formatter:on
+  public void setServer(final boolean pServer) {
+    server = pServer;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"--port"},
+      description = "The local port the server listens on; 0 selects a free port.")
+  // @formatter:on
+  public void setPort(final int pPort) {
+    port = pPort;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"--stats"},
+      arity = "0..1",
+      fallbackValue = "-",
+      paramLabel = "<file>",
+      description =
+          "Reports wall time, CPU time, allocated bytes, graph sizes and fixpoint iterations of"
+              + " every analysis phase as JSON lines to the given file, or to standard error if"
+              + " no file is given.")
+  // @formatter:on
+  public void setStatisticsPath(final Path pStatisticsPath) {
+    statisticsPath = pStatisticsPath;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"--cache"},
+      paramLabel = "<directory>",
+      description =
+          "Keeps the program-dependence graphs of analysed methods in the given directory and"
+              + " reuses them as long as the class file and the analysis are unchanged.")
+  // @formatter:on
+  public void setCacheDirectory(final Path pCacheDirectory) {
+    cacheDirectory = pCacheDirectory;
+  }
+
+  // @formatter:off
+  @Option(
+      names = {"--cache-limit"},
+      paramLabel = "<megabytes>",
+      description =
+          "The maximum size of the --cache directory; the least recently used graphs are"
+              + " deleted beyond it. Defaults to 256.")
+  // @formatter:on
+  public void setCacheLimit(final long pCacheLimit) {
+    // The limit is converted to bytes, which must not overflow
+    Preconditions.checkArgument(
+        pCacheLimit > 0 && pCacheLimit <= Long.MAX_VALUE / (1024 * 1024),
+        "The cache limit must be between 1 and %s megabytes",
+        Long.MAX_VALUE / (1024 * 1024));
+    cacheLimit = pCacheLimit;
+  }
 }
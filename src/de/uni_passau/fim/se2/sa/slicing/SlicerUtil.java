@@ -1,6 +1,8 @@
 package de.uni_passau.fim.se2.sa.slicing;
 
 import de.uni_passau.fim.se2.sa.slicing.graph.ProgramDependenceGraph;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
 
 public class SlicerUtil {
 
@@ -29,42 +31,66 @@ public static void executeTest(String className, String testCase) {
      * @return The simplified program dependence graph.
      */
     public static ProgramDependenceGraph simplify(final ProgramDependenceGraph pPDG) {
-        // Get the original PDG
-        de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph originalGraph = pPDG.computeResult();
-        
-        // Get the visited lines from the coverage tracker
-        java.util.Set<Integer> visitedLines = de.uni_passau.fim.se2.sa.slicing.coverage.CoverageTracker.getVisitedLines();
-        
-        // Filter nodes based on coverage: only keep nodes whose line numbers were visited
-        java.util.Set<de.uni_passau.fim.se2.sa.slicing.cfg.Node> coveredNodes = new java.util.HashSet<>();
-        if (originalGraph != null) {
-            for (de.uni_passau.fim.se2.sa.slicing.cfg.Node node : originalGraph.getNodes()) {
-                // Check if this node's line number was covered during execution
-                int lineNumber = node.getLineNumber();
-                if (lineNumber > 0 && visitedLines.contains(lineNumber)) {
-                    coveredNodes.add(node);
+        // Get the visited lines of the analysed method from the coverage tracker, such that lines
+        // of other classes and methods do not leak into the graph
+        java.util.Set<Integer> visitedLines;
+        if (pPDG.getClassNode() != null && pPDG.getMethodNode() != null) {
+            visitedLines = de.uni_passau.fim.se2.sa.slicing.coverage.CoverageTracker.getVisitedLines(
+                pPDG.getClassNode().name, pPDG.getMethodNode().name, pPDG.getMethodNode().desc);
+        } else {
+            visitedLines = de.uni_passau.fim.se2.sa.slicing.coverage.CoverageTracker.getVisitedLines();
+        }
+        return simplify(pPDG, visitedLines);
+    }
+
+    /**
+     * Simplifies the given program dependence graph by removing all nodes and corresponding edges
+     * whose lines are not among the given visited lines, e.g., the lines covered by a single test.
+     *
+     * @param pPDG The program dependence graph to simplify.
+     * @param visitedLines The line numbers of the analysed method that were executed.
+     * @return The simplified program dependence graph.
+     */
+    public static ProgramDependenceGraph simplify(
+            final ProgramDependenceGraph pPDG, final java.util.Set<Integer> visitedLines) {
+        try (Statistics.Measurement measurement = Statistics.start(
+                Phase.SIMPLIFY,
+                pPDG.getClassNode() == null ? null : pPDG.getClassNode().name,
+                pPDG.getMethodNode())) {
+            de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph originalGraph = pPDG.computeResult();
+
+            // Filter nodes based on coverage: only keep nodes whose line numbers were visited
+            java.util.Set<de.uni_passau.fim.se2.sa.slicing.cfg.Node> coveredNodes = new java.util.HashSet<>();
+            if (originalGraph != null) {
+                for (de.uni_passau.fim.se2.sa.slicing.cfg.Node node : originalGraph.getNodes()) {
+                    // Check if this node's line number was covered during execution
+                    int lineNumber = node.getLineNumber();
+                    if (lineNumber > 0 && visitedLines.contains(lineNumber)) {
+                        coveredNodes.add(node);
+                    }
                 }
             }
-        }
         
-        // Create a new reduced PDG containing only covered nodes and their edges
-        de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph reducedGraph = 
-            new de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph();
+            // Create a new reduced PDG containing only covered nodes and their edges
+            de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph reducedGraph = 
+                new de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph();
         
-        // Add only covered nodes
-        for (de.uni_passau.fim.se2.sa.slicing.cfg.Node node : coveredNodes) {
-            reducedGraph.addNode(node);
-        }
+            // Add only covered nodes
+            for (de.uni_passau.fim.se2.sa.slicing.cfg.Node node : coveredNodes) {
+                reducedGraph.addNode(node);
+            }
         
-        // Add only edges between covered nodes
-        for (de.uni_passau.fim.se2.sa.slicing.cfg.Node src : coveredNodes) {
-            for (de.uni_passau.fim.se2.sa.slicing.cfg.Node tgt : originalGraph.getSuccessors(src)) {
-                if (coveredNodes.contains(tgt)) {
-                    reducedGraph.addEdge(src, tgt);
+            // Add only edges between covered nodes
+            for (de.uni_passau.fim.se2.sa.slicing.cfg.Node src : coveredNodes) {
+                for (de.uni_passau.fim.se2.sa.slicing.cfg.Node tgt : originalGraph.getSuccessors(src)) {
+                    if (coveredNodes.contains(tgt)) {
+                        reducedGraph.addEdge(src, tgt);
+                    }
                 }
             }
-        }
         
-        return new ProgramDependenceGraph(reducedGraph);
+            measurement.graph(reducedGraph);
+            return new ProgramDependenceGraph(reducedGraph);
+        }
     }
 }
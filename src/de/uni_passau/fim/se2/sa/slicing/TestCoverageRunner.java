@@ -0,0 +1,129 @@
+package de.uni_passau.fim.se2.sa.slicing;
+
+import com.google.common.base.Preconditions;
+import de.uni_passau.fim.se2.sa.slicing.coverage.CoverageScope;
+import de.uni_passau.fim.se2.sa.slicing.coverage.CoverageTracker;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+/**
+ * Runs tests concurrently on the JUnit Platform and records the coverage of every test separately.
+ *
+ * <p>Every test is executed within a {@link CoverageScope} that is opened and closed by the thread
+ * executing the test, hence lines executed by threads the test starts itself are not attributed to
+ * it.
+ */
+public final class TestCoverageRunner {
+
+  private final int parallelism;
+
+  /**
+   * Creates a runner.
+   *
+   * @param pParallelism The number of tests to execute at once
+   */
+  public TestCoverageRunner(final int pParallelism) {
+    Preconditions.checkArgument(pParallelism > 0, "The parallelism must be positive");
+    parallelism = pParallelism;
+  }
+
+  /**
+   * Parses a test given by the name of its class, optionally followed by {@code #} and the name of
+   * a test method.
+   *
+   * @param pTest The test, e.g., {@code my.pkg.FooTest} or {@code my.pkg.FooTest#testBar}
+   * @return The selector of the test
+   */
+  public static DiscoverySelector select(final String pTest) {
+    return pTest.contains("#")
+        ? DiscoverySelectors.selectMethod(pTest)
+        : DiscoverySelectors.selectClass(pTest);
+  }
+
+  /**
+   * Runs the selected tests and provides their coverage.
+   *
+   * @param pSelectors The selectors of the tests
+   * @return The coverage of every executed test by its name, i.e., its class and method separated
+   *     by {@code #}; invocations of a parameterised test are further distinguished by their
+   *     display names
+   */
+  public SortedMap<String, Result> run(final List<? extends DiscoverySelector> pSelectors) {
+    final LauncherDiscoveryRequest request =
+        LauncherDiscoveryRequestBuilder.request()
+            .selectors(pSelectors)
+            .configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+            .configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+            .configurationParameter(
+                "junit.jupiter.execution.parallel.mode.classes.default", "concurrent")
+            .configurationParameter("junit.jupiter.execution.parallel.config.strategy", "fixed")
+            .configurationParameter(
+                "junit.jupiter.execution.parallel.config.fixed.parallelism",
+                String.valueOf(parallelism))
+            .build();
+
+    final ScopingListener listener = new ScopingListener();
+    LauncherFactory.create().execute(request, listener);
+    return new TreeMap<>(listener.results);
+  }
+
+  /**
+   * The outcome and coverage of a single test.
+   *
+   * @param status The outcome of the test
+   * @param coverage The coverage recorded while the test was executed
+   */
+  public record Result(TestExecutionResult.Status status, CoverageScope coverage) {}
+
+  private static final class ScopingListener implements TestExecutionListener {
+
+    private final ConcurrentMap<String, CoverageScope> openScopes = new ConcurrentHashMap<>();
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+
+    @Override
+    public void executionStarted(final TestIdentifier pTestIdentifier) {
+      // Tests are started and finished by the thread that executes them
+      if (pTestIdentifier.isTest()) {
+        openScopes.put(pTestIdentifier.getUniqueId(), CoverageTracker.openScope());
+      }
+    }
+
+    @Override
+    public void executionFinished(
+        final TestIdentifier pTestIdentifier, final TestExecutionResult pResult) {
+      final CoverageScope scope = openScopes.remove(pTestIdentifier.getUniqueId());
+      if (scope == null) {
+        return;
+      }
+      scope.close();
+      results.put(nameOf(pTestIdentifier), new Result(pResult.getStatus(), scope));
+    }
+
+    private static String nameOf(final TestIdentifier pTestIdentifier) {
+      final String name =
+          pTestIdentifier
+              .getSource()
+              .filter(MethodSource.class::isInstance)
+              .map(MethodSource.class::cast)
+              .map(source -> source.getClassName() + "#" + source.getMethodName())
+              .orElse(pTestIdentifier.getDisplayName());
+      // Invocations of parameterised, repeated and dynamic tests share their method
+      return "method".equals(pTestIdentifier.getUniqueIdObject().getLastSegment().getType())
+          ? name
+          : name + " " + pTestIdentifier.getDisplayName();
+    }
+  }
+}
@@ -1,33 +1,193 @@
 package de.uni_passau.fim.se2.sa.slicing.agent;
 
+import com.google.common.base.Preconditions;
 import de.uni_passau.fim.se2.sa.slicing.instrumentation.LineCoverageTransformer;
 import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 public final class SlicerAgent {
 
-  private static boolean invoked = false;
+  private static final String TRACE_OPTION = "trace";
   private static final String DEFAULT_PACKAGE = "de.uni_passau.fim.se2.sa.examples";
 
+  /**
+   * The state of an invoked agent, published at once such that threads calling the agent see
+   * either no state or all of it.
+   *
+   * @param transformer The transformer instrumenting the classes
+   * @param instrumentation The instrumentation the transformer is registered with
+   * @param recordingTrace Whether the instrumented classes record their execution trace
+   * @param retransforming Whether the agent was attached and retransforms loaded classes
+   */
+  private record State(
+      LineCoverageTransformer transformer,
+      Instrumentation instrumentation,
+      boolean recordingTrace,
+      boolean retransforming) {}
+
+  private static volatile State state;
+
   private SlicerAgent() {}
 
   /**
    * Entry point for the agent.
    *
+   * <p>The agent arguments are the package to instrument, optionally followed by {@code ,trace}
+   * to additionally record the execution trace for precise dynamic slicing.
+   *
    * @param pPackageToInstrument The package name to instrument
    * @param pInstrumentation The instrumentation instance
    */
-  public static void premain(String pPackageToInstrument, Instrumentation pInstrumentation) {
-    if (!invoked) {
-      String target =
-          pPackageToInstrument != null && !pPackageToInstrument.isBlank()
-              ? pPackageToInstrument
-              : DEFAULT_PACKAGE;
-      pInstrumentation.addTransformer(new LineCoverageTransformer(target));
-      invoked = true;
+  public static synchronized void premain(
+      String pPackageToInstrument, Instrumentation pInstrumentation) {
+    if (state == null) {
+      boolean recordingTrace = requestsTrace(pPackageToInstrument);
+      LineCoverageTransformer transformer =
+          new LineCoverageTransformer(targetOf(pPackageToInstrument), recordingTrace);
+      pInstrumentation.addTransformer(transformer);
+      state = new State(transformer, pInstrumentation, recordingTrace, false);
     }
   }
 
+  /**
+   * Entry point for the agent when it is attached to a running JVM.
+   *
+   * <p>The agent takes the same arguments as {@link #premain(String, Instrumentation)}, but does
+   * not instrument any method until it is requested by {@link #instrument(String, String,
+   * String)}. Methods are instrumented and restored by retransforming their classes.
+   *
+   * @param pPackageToInstrument The package name to instrument
+   * @param pInstrumentation The instrumentation instance
+   */
+  public static synchronized void agentmain(
+      String pPackageToInstrument, Instrumentation pInstrumentation) {
+    if (state == null) {
+      Preconditions.checkState(
+          pInstrumentation.isRetransformClassesSupported(),
+          "The JVM does not support retransforming classes");
+      boolean recordingTrace = requestsTrace(pPackageToInstrument);
+      LineCoverageTransformer transformer =
+          LineCoverageTransformer.onDemand(targetOf(pPackageToInstrument), recordingTrace);
+      pInstrumentation.addTransformer(transformer, true);
+      state = new State(transformer, pInstrumentation, recordingTrace, true);
+    }
+  }
+
+  /**
+   * Restricts the instrumentation to a single method.
+   *
+   * <p>When started at JVM start, classes loaded from now on are instrumented accordingly. When
+   * attached, the classes of the previously instrumented methods and the class of the method are
+   * retransformed, such that only the method remains instrumented.
+   *
+   * @param pClassName The fully qualified name of the class declaring the method
+   * @param pMethodName The name of the method
+   * @param pDescriptor The descriptor of the method
+   * @see LineCoverageTransformer#restrictTo(String, String, String)
+   */
+  public static void restrictTo(String pClassName, String pMethodName, String pDescriptor) {
+    State current = state;
+    Preconditions.checkState(current != null, "The SlicerAgent has not been invoked");
+    Set<String> previous = current.transformer().restrictTo(pClassName, pMethodName, pDescriptor);
+    if (current.retransforming()) {
+      previous.add(pClassName.replace('.', '/'));
+      retransform(current.instrumentation(), previous);
+    }
+  }
+
+  /**
+   * Instruments a method of a loaded or yet to be loaded class in addition to the instrumented
+   * ones; requires the agent to be attached.
+   *
+   * @param pClassName The fully qualified name of the class declaring the method
+   * @param pMethodName The name of the method
+   * @param pDescriptor The descriptor of the method
+   */
+  public static void instrument(String pClassName, String pMethodName, String pDescriptor) {
+    State current = attached();
+    current.transformer().select(pClassName, pMethodName, pDescriptor);
+    retransform(current.instrumentation(), Set.of(pClassName.replace('.', '/')));
+  }
+
+  /**
+   * Restores the original code of an instrumented method; requires the agent to be attached.
+   *
+   * @param pClassName The fully qualified name of the class declaring the method
+   * @param pMethodName The name of the method
+   * @param pDescriptor The descriptor of the method
+   */
+  public static void uninstrument(String pClassName, String pMethodName, String pDescriptor) {
+    State current = attached();
+    current.transformer().deselect(pClassName, pMethodName, pDescriptor);
+    retransform(current.instrumentation(), Set.of(pClassName.replace('.', '/')));
+  }
+
   public static boolean wasInvoked() {
-    return invoked;
+    return state != null;
+  }
+
+  /**
+   * Checks whether the instrumented classes record their execution trace.
+   *
+   * @return {@code true} if the agent was started with the {@code trace} option
+   */
+  public static boolean isRecordingTrace() {
+    State current = state;
+    return current != null && current.recordingTrace();
+  }
+
+  /**
+   * Unregisters the transformer and forgets the state of the agent, such that it can be invoked
+   * again; classes instrumented before keep their instrumentation.
+   */
+  static synchronized void reset() {
+    if (state != null) {
+      state.instrumentation().removeTransformer(state.transformer());
+      state = null;
+    }
+  }
+
+  private static State attached() {
+    State current = state;
+    Preconditions.checkState(
+        current != null && current.retransforming(), "The SlicerAgent has not been attached");
+    return current;
+  }
+
+  private static boolean requestsTrace(String pArguments) {
+    return TRACE_OPTION.equals(pArguments)
+        || (pArguments != null && pArguments.endsWith("," + TRACE_OPTION));
+  }
+
+  private static String targetOf(String pArguments) {
+    String target = pArguments;
+    if (TRACE_OPTION.equals(target)) {
+      target = null;
+    } else if (target != null && target.endsWith("," + TRACE_OPTION)) {
+      target = target.substring(0, target.length() - TRACE_OPTION.length() - 1);
+    }
+    return target == null || target.isBlank() ? DEFAULT_PACKAGE : target;
+  }
+
+  private static void retransform(Instrumentation pInstrumentation, Set<String> pClassNames) {
+    List<Class<?>> classes = new ArrayList<>();
+    for (Class<?> loaded : pInstrumentation.getAllLoadedClasses()) {
+      if (pClassNames.contains(loaded.getName().replace('.', '/'))
+          && pInstrumentation.isModifiableClass(loaded)) {
+        classes.add(loaded);
+      }
+    }
+    if (classes.isEmpty()) {
+      // Classes that are not loaded yet are instrumented when they are loaded
+      return;
+    }
+    try {
+      pInstrumentation.retransformClasses(classes.toArray(Class<?>[]::new));
+    } catch (UnmodifiableClassException e) {
+      throw new IllegalStateException("Cannot retransform " + pClassNames, e);
+    }
   }
 }
@@ -0,0 +1,202 @@
+package de.uni_passau.fim.se2.sa.slicing.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import de.uni_passau.fim.se2.sa.slicing.cfg.GraphCodec;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.graph.ProgramDependenceGraph;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * A persistent cache of program-dependence graphs in a directory, shared between runs.
+ *
+ * <p>Every method is stored in its own file in the format of {@link GraphCodec}, named after the
+ * SHA-256 hash of {@link #ANALYSIS_VERSION}, the bytes of the class file and the method's name and
+ * descriptor. A recompiled class or a changed analysis thus misses the cache, and stale entries
+ * are never read but eventually evicted. Entries are written to a temporary file and moved into
+ * place, such that concurrent runs never observe a partially written entry.
+ *
+ * <p>Entries are read through memory-mapped files. An entry that cannot be decoded is deleted and
+ * treated as a miss.
+ *
+ * <p>The size of the directory is bounded: after storing an entry, the least recently used entries
+ * are deleted until all entries fit into the limit. The last-modified time of an entry, which is
+ * updated on every hit, serves as its time of last use.
+ */
+public final class PDGCache {
+
+  /**
+   * The version of the analyses whose results are cached; incremented whenever a change of the
+   * analyses changes their results, which invalidates all existing entries.
+   */
+  public static final int ANALYSIS_VERSION = 1;
+
+  private static final String SUFFIX = ".pdg";
+
+  private final Path directory;
+  private final long maxBytes;
+
+  /**
+   * Creates a cache in a directory, which is created on the first store.
+   *
+   * @param pDirectory The directory of the cache
+   * @param pMaxBytes The maximum total size of all entries in bytes
+   */
+  public PDGCache(Path pDirectory, long pMaxBytes) {
+    Preconditions.checkNotNull(pDirectory);
+    Preconditions.checkArgument(pMaxBytes > 0, "The cache limit must be positive");
+    directory = pDirectory;
+    maxBytes = pMaxBytes;
+  }
+
+  /**
+   * Loads the program-dependence graph of a method.
+   *
+   * @param pClassBytes The bytes of the class file declaring the method
+   * @param pClassNode The class parsed from these bytes
+   * @param pMethodNode The method of the parsed class
+   * @return The program-dependence graph, or nothing if the method is not in the cache
+   */
+  public Optional<ProgramDependenceGraph> load(
+      byte[] pClassBytes, ClassNode pClassNode, MethodNode pMethodNode) {
+    Path entry = entryOf(pClassBytes, pMethodNode);
+    GraphCodec.Graphs graphs;
+    try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      graphs = GraphCodec.read(buffer, pMethodNode);
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException | RuntimeException e) {
+      // A truncated or otherwise corrupt entry is replaced by the next store
+      delete(entry);
+      return Optional.empty();
+    }
+
+    try {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      // The entry has been evicted by a concurrent run, which does not affect the loaded graphs
+    }
+    return Optional.of(
+        new ProgramDependenceGraph(
+            pClassNode, pMethodNode, graphs.cfg(), graphs.dependences()));
+  }
+
+  /**
+   * Stores the program-dependence graph of a method and evicts the least recently used entries
+   * if the cache exceeds its limit.
+   *
+   * @param pClassBytes The bytes of the class file declaring the method
+   * @param pPDG The program-dependence graph of a method of this class
+   * @throws IOException If the entry cannot be written
+   */
+  public void store(byte[] pClassBytes, ProgramDependenceGraph pPDG) throws IOException {
+    MethodNode methodNode = pPDG.getMethodNode();
+    ProgramGraph cfg = pPDG.getCFG();
+    ProgramGraph pdg = pPDG.computeResult();
+    Preconditions.checkArgument(
+        methodNode != null && cfg != null && pdg != null,
+        "Only program-dependence graphs of analysed methods can be stored");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      GraphCodec.write(output, methodNode, cfg, pdg);
+    }
+
+    Files.createDirectories(directory);
+    Path entry = entryOf(pClassBytes, methodNode);
+    Path temporary = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+    try {
+      Files.write(temporary, bytes.toByteArray());
+      try {
+        Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    evict();
+  }
+
+  /**
+   * Provides the file of the entry of a method.
+   *
+   * @param pClassBytes The bytes of the class file declaring the method
+   * @param pMethodNode The method
+   * @return The path of the entry, which need not exist
+   */
+  public Path entryOf(byte[] pClassBytes, MethodNode pMethodNode) {
+    String key =
+        Hashing.sha256()
+            .newHasher()
+            .putInt(ANALYSIS_VERSION)
+            .putInt(GraphCodec.FORMAT_VERSION)
+            .putBytes(pClassBytes)
+            .putString(pMethodNode.name, StandardCharsets.UTF_8)
+            .putString(pMethodNode.desc, StandardCharsets.UTF_8)
+            .hash()
+            .toString();
+    return directory.resolve(key + SUFFIX);
+  }
+
+  /** Deletes the least recently used entries until the total size is within the limit. */
+  private void evict() throws IOException {
+    record Entry(Path path, long size, FileTime lastUsed) {}
+
+    List<Entry> entries = new ArrayList<>();
+    long total = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (Path path : stream) {
+        BasicFileAttributes attributes;
+        try {
+          attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+          continue; // Evicted by a concurrent run
+        }
+        entries.add(new Entry(path, attributes.size(), attributes.lastModifiedTime()));
+        total += attributes.size();
+      }
+    }
+    if (total <= maxBytes) {
+      return;
+    }
+
+    entries.sort(Comparator.comparing(Entry::lastUsed));
+    for (Entry entry : entries) {
+      if (total <= maxBytes) {
+        break;
+      }
+      delete(entry.path());
+      total -= entry.size();
+    }
+  }
+
+  private static void delete(Path pEntry) {
+    try {
+      Files.deleteIfExists(pEntry);
+    } catch (IOException e) {
+      // Another run may hold the entry open; it is retried on the next eviction
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package de.uni_passau.fim.se2.sa.slicing.cfg;
+
+import java.util.Arrays;
+
+/**
+ * Partitions a control-flow graph into basic blocks, i.e., maximal straight-line sequences of
+ * nodes.
+ *
+ * <p>A node starts a block, i.e., is a leader, unless it has exactly one predecessor and this
+ * predecessor has exactly one successor. Every block is the chain from its leader along the single
+ * successors up to the next leader. Control thus enters a block only at its first node and leaves
+ * it only at its last node. Nodes on cycles without any leader, which are unreachable, are split
+ * into chains as well.
+ *
+ * <p>Blocks are numbered densely in the order of the ids of their leaders. The block graph is a
+ * {@link CompactGraph} whose nodes are the leaders, with an edge between two blocks for every
+ * edge from the last node of the one to the first node of the other.
+ */
+public final class BasicBlocks {
+
+  private final CompactGraph cfg;
+  private final CompactGraph blockGraph;
+
+  /** The block of every node id. */
+  private final int[] blockOf;
+
+  /** The position of every node id within its block. */
+  private final int[] positionOf;
+
+  /** The node ids of all blocks in execution order, indexed by {@link #blockStarts}. */
+  private final int[] members;
+
+  private final int[] blockStarts;
+
+  private BasicBlocks(
+      CompactGraph pCFG, int[] pBlockOf, int[] pPositionOf, int[] pMembers, int[] pBlockStarts) {
+    cfg = pCFG;
+    blockOf = pBlockOf;
+    positionOf = pPositionOf;
+    members = pMembers;
+    blockStarts = pBlockStarts;
+    blockGraph = buildBlockGraph();
+  }
+
+  /**
+   * Partitions a control-flow graph into its basic blocks.
+   *
+   * @param pCFG The control-flow graph
+   * @return The basic blocks of the graph
+   */
+  public static BasicBlocks of(CompactGraph pCFG) {
+    int size = pCFG.size();
+    int[] blockOf = new int[size];
+    int[] positionOf = new int[size];
+    int[] members = new int[size];
+    int[] blockStarts = new int[size + 1];
+    Arrays.fill(blockOf, -1);
+
+    int blocks = 0;
+    int filled = 0;
+    // Chains from all leaders first, then from the nodes left over on cycles without a leader
+    for (int pass = 0; pass < 2; pass++) {
+      for (int v = 0; v < size; v++) {
+        if (blockOf[v] >= 0 || (pass == 0 && !isLeader(pCFG, v))) {
+          continue;
+        }
+        blockStarts[blocks] = filled;
+        int position = 0;
+        int current = v;
+        while (true) {
+          blockOf[current] = blocks;
+          positionOf[current] = position++;
+          members[filled++] = current;
+          if (pCFG.outDegree(current) != 1) {
+            break;
+          }
+          int next = pCFG.successor(current, 0);
+          if (blockOf[next] >= 0 || isLeader(pCFG, next)) {
+            break;
+          }
+          current = next;
+        }
+        blocks++;
+      }
+    }
+    blockStarts[blocks] = filled;
+
+    return new BasicBlocks(
+        pCFG, blockOf, positionOf, members, Arrays.copyOf(blockStarts, blocks + 1));
+  }
+
+  private static boolean isLeader(CompactGraph pCFG, int pId) {
+    return pCFG.inDegree(pId) != 1 || pCFG.outDegree(pCFG.predecessor(pId, 0)) != 1;
+  }
+
+  private CompactGraph buildBlockGraph() {
+    CompactGraph.Builder builder = new CompactGraph.Builder();
+    for (int b = 0; b < size(); b++) {
+      builder.addNode(cfg.node(first(b)));
+    }
+    for (int b = 0; b < size(); b++) {
+      int last = last(b);
+      for (int i = 0; i < cfg.outDegree(last); i++) {
+        builder.addEdge(b, blockOf[cfg.successor(last, i)]);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Provides the partitioned control-flow graph.
+   *
+   * @return The control-flow graph whose node ids the blocks consist of
+   */
+  public CompactGraph getCFG() {
+    return cfg;
+  }
+
+  /**
+   * Provides the graph of the blocks, whose node ids are the block numbers.
+   *
+   * @return The block graph
+   */
+  public CompactGraph getBlockGraph() {
+    return blockGraph;
+  }
+
+  /**
+   * Provides the number of blocks.
+   *
+   * @return The number of blocks
+   */
+  public int size() {
+    return blockStarts.length - 1;
+  }
+
+  /**
+   * Provides the block a node belongs to.
+   *
+   * @param pId The id of the node in the control-flow graph
+   * @return The number of the block
+   */
+  public int blockOf(int pId) {
+    return blockOf[pId];
+  }
+
+  /**
+   * Provides the position of a node within its block.
+   *
+   * @param pId The id of the node in the control-flow graph
+   * @return The position, {@code 0} for the first node of a block
+   */
+  public int positionOf(int pId) {
+    return positionOf[pId];
+  }
+
+  /**
+   * Provides the number of nodes of a block.
+   *
+   * @param pBlock The number of the block
+   * @return The number of nodes
+   */
+  public int length(int pBlock) {
+    return blockStarts[pBlock + 1] - blockStarts[pBlock];
+  }
+
+  /**
+   * Provides a node of a block.
+   *
+   * @param pBlock The number of the block
+   * @param pPosition The position of the node within the block
+   * @return The id of the node in the control-flow graph
+   */
+  public int member(int pBlock, int pPosition) {
+    return members[blockStarts[pBlock] + pPosition];
+  }
+
+  /**
+   * Provides the node control enters a block at.
+   *
+   * @param pBlock The number of the block
+   * @return The id of the first node of the block
+   */
+  public int first(int pBlock) {
+    return members[blockStarts[pBlock]];
+  }
+
+  /**
+   * Provides the node control leaves a block at.
+   *
+   * @param pBlock The number of the block
+   * @return The id of the last node of the block
+   */
+  public int last(int pBlock) {
+    return members[blockStarts[pBlock + 1] - 1];
+  }
+}
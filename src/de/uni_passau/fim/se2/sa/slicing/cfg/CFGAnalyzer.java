@@ -0,0 +1,137 @@
+package de.uni_passau.fim.se2.sa.slicing.cfg;
+
+import com.google.errorprone.annotations.Var;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.Interpreter;
+import org.objectweb.asm.tree.analysis.Value;
+
+/**
+ * An ASM {@link Analyzer} that records the control-flow graph of the analysed method while it
+ * runs.
+ *
+ * <p>Since the control-flow edges do not depend on the interpreter, any interpreter can be used.
+ * This allows to extract the CFG as a by-product of another analysis, e.g., a def/use analysis,
+ * such that a method's bytecode only needs to be analysed once.
+ *
+ * <p>Every call to {@link #analyze(String, MethodNode)} is counted; see {@link
+ * #getAnalysisCount()}.
+ *
+ * @param <V> The type of the values of the interpreter
+ */
+public class CFGAnalyzer<V extends Value> extends Analyzer<V> {
+
+  private static final AtomicLong analysisCount = new AtomicLong();
+
+  private final MethodNode method;
+  private final InsnList instructions;
+  private final Map<AbstractInsnNode, Node> nodes = new LinkedHashMap<>();
+  private final ProgramGraph cfg = new ProgramGraph();
+  private boolean completed = false;
+
+  /** The line number of every instruction by its index, computed before the analysis runs. */
+  private int[] lineNumbers;
+
+  /** Node ids are numbered in the order the instructions are discovered, starting at 1. */
+  private int nextId = 1;
+
+  /**
+   * Creates a new analyzer for the given method.
+   *
+   * @param pMethodNode The method that will be analysed
+   * @param pInterpreter The interpreter to use
+   */
+  public CFGAnalyzer(MethodNode pMethodNode, Interpreter<V> pInterpreter) {
+    super(pInterpreter);
+    method = pMethodNode;
+    instructions = pMethodNode.instructions;
+  }
+
+  /**
+   * Provides the number of bytecode analyses that were run by all analyzers of this type.
+   *
+   * @return The number of bytecode analyses
+   */
+  public static long getAnalysisCount() {
+    return analysisCount.get();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Frame<V>[] analyze(String pOwner, MethodNode pMethod) throws AnalyzerException {
+    analysisCount.incrementAndGet();
+    lineNumbers = computeLineNumbers(instructions);
+    return super.analyze(pOwner, pMethod);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void newControlFlowEdge(int pSourceIndex, int pTargetIndex) {
+    AbstractInsnNode source = instructions.get(pSourceIndex);
+    AbstractInsnNode target = instructions.get(pTargetIndex);
+    int sourceLineNumber = lineNumbers[pSourceIndex];
+    int targetLineNumber = lineNumbers[pTargetIndex];
+
+    // Add the source node to the CFG if it does not exist yet.
+    @Var Node sourceNode = nodes.get(source);
+    if (sourceNode == null) {
+      sourceNode = new Node(method, source, pSourceIndex, sourceLineNumber, nextId++);
+      nodes.put(source, sourceNode);
+      cfg.addNode(sourceNode);
+    }
+
+    // Add the target node to the CFG if it does not exist yet.
+    @Var Node targetNode = nodes.get(target);
+    if (targetNode == null) {
+      targetNode = new Node(method, target, pTargetIndex, targetLineNumber, nextId++);
+      nodes.put(target, targetNode);
+      cfg.addNode(targetNode);
+    }
+
+    // Finally, establish the connection between source and target node.
+    cfg.addEdge(sourceNode, targetNode);
+  }
+
+  /**
+   * Maps every instruction to its line number in a single pass.
+   *
+   * <p>ASM also encodes meta-information about instructions in the instructions list, e.g., via
+   * LineNumberNodes. An instruction belongs to the line of the closest LineNumberNode in front of
+   * it, or to line {@code -1} if there is none.
+   */
+  static int[] computeLineNumbers(InsnList pInstructions) {
+    int[] lineNumbers = new int[pInstructions.size()];
+    @Var int line = -1;
+    @Var int index = 0;
+    for (AbstractInsnNode current : pInstructions) {
+      if (current instanceof LineNumberNode lineNumberNode) {
+        line = lineNumberNode.line;
+      }
+      lineNumbers[index++] = line;
+    }
+    return lineNumbers;
+  }
+
+  /**
+   * Provides the control-flow graph recorded during the analysis.
+   *
+   * <p>On the first call, the distinguished entry and exit nodes are added to the graph.
+   *
+   * @return The control-flow graph of the analysed method
+   */
+  public ProgramGraph getCFG() {
+    if (!completed) {
+      CFGExtractor.addEntryAndExit(cfg);
+      completed = true;
+    }
+    return cfg;
+  }
+}
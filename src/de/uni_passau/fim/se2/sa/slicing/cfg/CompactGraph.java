@@ -0,0 +1,339 @@
+package de.uni_passau.fim.se2.sa.slicing.cfg;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable graph in compressed sparse row (CSR) format.
+ *
+ * <p>Nodes are numbered densely from {@code 0} to {@code size() - 1}. The successors and the
+ * predecessors of all nodes are stored in one {@code int[]} per direction, indexed by an offset
+ * array, so iterating the neighbours of a node neither allocates nor hashes:
+ *
+ * <pre>{@code
+ * for (int i = 0; i < graph.outDegree(v); i++) {
+ *   int w = graph.successor(v, i);
+ * }
+ * }</pre>
+ *
+ * <p>Parallel edges are merged, i.e., the neighbours of a node are distinct, in the order in which
+ * the edges were added. Use {@link #of(ProgramGraph)} and {@link #toProgramGraph()} to convert
+ * from and to a {@link ProgramGraph}.
+ */
+public final class CompactGraph {
+
+  private final Node[] nodes;
+  private final Map<Node, Integer> ids;
+  private final int[] successorOffsets;
+  private final int[] successors;
+  private final int[] predecessorOffsets;
+  private final int[] predecessors;
+
+  private CompactGraph(
+      Node[] pNodes,
+      Map<Node, Integer> pIds,
+      int[] pSuccessorOffsets,
+      int[] pSuccessors,
+      int[] pPredecessorOffsets,
+      int[] pPredecessors) {
+    nodes = pNodes;
+    ids = pIds;
+    successorOffsets = pSuccessorOffsets;
+    successors = pSuccessors;
+    predecessorOffsets = pPredecessorOffsets;
+    predecessors = pPredecessors;
+  }
+
+  /**
+   * Converts a {@link ProgramGraph} into its compact representation.
+   *
+   * <p>Node ids follow the iteration order of {@link ProgramGraph#getNodes()}.
+   *
+   * @param pGraph The graph to convert
+   * @return The compact graph
+   */
+  public static CompactGraph of(ProgramGraph pGraph) {
+    Builder builder = new Builder();
+    for (Node node : pGraph.getNodes()) {
+      builder.addNode(node);
+    }
+    for (Node node : pGraph.getNodes()) {
+      for (Node successor : pGraph.getSuccessors(node)) {
+        builder.addEdge(node, successor);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Converts this graph back into a {@link ProgramGraph}.
+   *
+   * @return A new program graph with the same nodes and edges
+   */
+  public ProgramGraph toProgramGraph() {
+    ProgramGraph graph = new ProgramGraph();
+    for (Node node : nodes) {
+      graph.addNode(node);
+    }
+    for (int v = 0; v < nodes.length; v++) {
+      for (int i = successorOffsets[v]; i < successorOffsets[v + 1]; i++) {
+        graph.addEdge(nodes[v], nodes[successors[i]]);
+      }
+    }
+    return graph;
+  }
+
+  /**
+   * Provides the number of nodes.
+   *
+   * @return The number of nodes
+   */
+  public int size() {
+    return nodes.length;
+  }
+
+  /**
+   * Provides the number of distinct edges.
+   *
+   * @return The number of edges
+   */
+  public int edgeCount() {
+    return successors.length;
+  }
+
+  /**
+   * Provides the node with the given id.
+   *
+   * @param pId The id of the node
+   * @return The node
+   */
+  public Node node(int pId) {
+    return nodes[pId];
+  }
+
+  /**
+   * Provides the id of a node.
+   *
+   * @param pNode The node
+   * @return The id of the node, or {@code -1} if the node is not part of the graph
+   */
+  public int id(Node pNode) {
+    Integer id = ids.get(pNode);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Provides the entry node, i.e., the first node without predecessors.
+   *
+   * @return The id of the entry node, or {@code -1} if every node has a predecessor
+   * @see ProgramGraph#getEntry()
+   */
+  public int entry() {
+    for (int v = 0; v < nodes.length; v++) {
+      if (inDegree(v) == 0) {
+        return v;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Provides the exit node, i.e., the first node without successors.
+   *
+   * @return The id of the exit node, or {@code -1} if every node has a successor
+   * @see ProgramGraph#getExit()
+   */
+  public int exit() {
+    for (int v = 0; v < nodes.length; v++) {
+      if (outDegree(v) == 0) {
+        return v;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Provides the number of successors of a node.
+   *
+   * @param pId The id of the node
+   * @return The number of successors
+   */
+  public int outDegree(int pId) {
+    return successorOffsets[pId + 1] - successorOffsets[pId];
+  }
+
+  /**
+   * Provides a successor of a node.
+   *
+   * @param pId The id of the node
+   * @param pIndex The index of the successor, between {@code 0} and {@code outDegree(pId) - 1}
+   * @return The id of the successor
+   */
+  public int successor(int pId, int pIndex) {
+    return successors[successorOffsets[pId] + pIndex];
+  }
+
+  /**
+   * Provides the number of predecessors of a node.
+   *
+   * @param pId The id of the node
+   * @return The number of predecessors
+   */
+  public int inDegree(int pId) {
+    return predecessorOffsets[pId + 1] - predecessorOffsets[pId];
+  }
+
+  /**
+   * Provides a predecessor of a node.
+   *
+   * @param pId The id of the node
+   * @param pIndex The index of the predecessor, between {@code 0} and {@code inDegree(pId) - 1}
+   * @return The id of the predecessor
+   */
+  public int predecessor(int pId, int pIndex) {
+    return predecessors[predecessorOffsets[pId] + pIndex];
+  }
+
+  /**
+   * Provides the nodes of the graph, indexed by their id.
+   *
+   * @return An unmodifiable list of all nodes
+   */
+  public List<Node> getNodes() {
+    return Collections.unmodifiableList(Arrays.asList(nodes));
+  }
+
+  /** Collects nodes and edges and creates a {@link CompactGraph} from them. */
+  public static final class Builder {
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Node, Integer> ids = new HashMap<>();
+    private int[] sources = new int[16];
+    private int[] targets = new int[16];
+    private int edgeCount = 0;
+
+    /**
+     * Adds a node unless it is already part of the graph.
+     *
+     * @param pNode The node to add
+     * @return The id of the node
+     */
+    public int addNode(Node pNode) {
+      Integer id = ids.get(pNode);
+      if (id != null) {
+        return id;
+      }
+      ids.put(pNode, nodes.size());
+      nodes.add(pNode);
+      return nodes.size() - 1;
+    }
+
+    /**
+     * Adds a directed edge, adding its end points if necessary.
+     *
+     * @param pSource The start node of the edge
+     * @param pTarget The end node of the edge
+     */
+    public void addEdge(Node pSource, Node pTarget) {
+      addEdge(addNode(pSource), addNode(pTarget));
+    }
+
+    /**
+     * Adds a directed edge between two nodes that were already added.
+     *
+     * @param pSource The id of the start node of the edge
+     * @param pTarget The id of the end node of the edge
+     */
+    public void addEdge(int pSource, int pTarget) {
+      Preconditions.checkElementIndex(pSource, nodes.size());
+      Preconditions.checkElementIndex(pTarget, nodes.size());
+      if (edgeCount == sources.length) {
+        sources = Arrays.copyOf(sources, edgeCount * 2);
+        targets = Arrays.copyOf(targets, edgeCount * 2);
+      }
+      sources[edgeCount] = pSource;
+      targets[edgeCount] = pTarget;
+      edgeCount++;
+    }
+
+    /**
+     * Creates the immutable graph.
+     *
+     * @return The compact graph
+     */
+    public CompactGraph build() {
+      int size = nodes.size();
+      int[] lastSeen = new int[size];
+      Arrays.fill(lastSeen, -1);
+
+      // Drop parallel edges, keeping the first occurrence of each edge per source node
+      int[] outDegrees = new int[size];
+      boolean[] keep = new boolean[edgeCount];
+      int[] bySource = sortedBy(sources, size);
+      for (int k = 0; k < edgeCount; k++) {
+        int e = bySource[k];
+        if (lastSeen[targets[e]] != sources[e]) {
+          lastSeen[targets[e]] = sources[e];
+          keep[e] = true;
+          outDegrees[sources[e]]++;
+        }
+      }
+
+      int[] successorOffsets = new int[size + 1];
+      int[] inDegrees = new int[size];
+      for (int v = 0; v < size; v++) {
+        successorOffsets[v + 1] = successorOffsets[v] + outDegrees[v];
+      }
+      int[] successors = new int[successorOffsets[size]];
+      int[] fill = Arrays.copyOf(successorOffsets, size);
+      for (int k = 0; k < edgeCount; k++) {
+        int e = bySource[k];
+        if (keep[e]) {
+          successors[fill[sources[e]]++] = targets[e];
+          inDegrees[targets[e]]++;
+        }
+      }
+
+      int[] predecessorOffsets = new int[size + 1];
+      for (int v = 0; v < size; v++) {
+        predecessorOffsets[v + 1] = predecessorOffsets[v] + inDegrees[v];
+      }
+      int[] predecessors = new int[predecessorOffsets[size]];
+      fill = Arrays.copyOf(predecessorOffsets, size);
+      for (int e = 0; e < edgeCount; e++) {
+        if (keep[e]) {
+          predecessors[fill[targets[e]]++] = sources[e];
+        }
+      }
+
+      return new CompactGraph(
+          nodes.toArray(new Node[0]),
+          new HashMap<>(ids),
+          successorOffsets,
+          successors,
+          predecessorOffsets,
+          predecessors);
+    }
+
+    /** Stable counting sort of the edge indices by the given end point. */
+    private int[] sortedBy(int[] pEndPoints, int pSize) {
+      int[] starts = new int[pSize + 1];
+      for (int e = 0; e < edgeCount; e++) {
+        starts[pEndPoints[e] + 1]++;
+      }
+      for (int v = 0; v < pSize; v++) {
+        starts[v + 1] += starts[v];
+      }
+      int[] order = new int[edgeCount];
+      for (int e = 0; e < edgeCount; e++) {
+        order[starts[pEndPoints[e]]++] = e;
+      }
+      return order;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package de.uni_passau.fim.se2.sa.slicing.cfg;
+
+import com.google.common.base.Preconditions;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Encodes the control-flow graph and a dependence graph of a method in a compact binary format.
+ *
+ * <p>Both graphs share one node table. A node is stored as its instruction index, its line number
+ * and its number, or as its name if it has no instruction; the instruction itself is restored from
+ * the method's instruction list. Each graph follows as the ids of its nodes and its edges in
+ * compressed sparse row (CSR) format, i.e., an offset per node into one array of target ids. All
+ * values are big-endian {@code int}s:
+ *
+ * <pre>
+ * magic, version, instruction count, node count,
+ * node count x (instruction index, line number, number | name length, UTF-8 name),
+ * 2 x (graph node count n, n node ids, n + 1 offsets, target ids)
+ * </pre>
+ *
+ * <p>Nodes and edges are stored in the iteration order of the graphs, such that a decoded graph
+ * iterates in the same order as the encoded one.
+ */
+public final class GraphCodec {
+
+  /** The first bytes of every encoded method. */
+  public static final int MAGIC = 0x50444731; // "PDG1"
+
+  /** The version of the format; incremented whenever the layout changes. */
+  public static final int FORMAT_VERSION = 1;
+
+  private GraphCodec() {}
+
+  /**
+   * The graphs of a decoded method.
+   *
+   * @param cfg The control-flow graph
+   * @param dependences The dependence graph
+   */
+  public record Graphs(ProgramGraph cfg, ProgramGraph dependences) {}
+
+  /**
+   * Writes the graphs of a method.
+   *
+   * @param pOutput The output to write to
+   * @param pMethodNode The method the graphs were built from
+   * @param pCFG The control-flow graph of the method
+   * @param pDependences A dependence graph of the method, e.g., its program-dependence graph
+   * @throws IOException If writing fails
+   */
+  public static void write(
+      DataOutput pOutput, MethodNode pMethodNode, ProgramGraph pCFG, ProgramGraph pDependences)
+      throws IOException {
+    Preconditions.checkNotNull(pMethodNode);
+    Map<Node, Integer> ids = new LinkedHashMap<>();
+    for (Node node : pCFG.getNodes()) {
+      ids.putIfAbsent(node, ids.size());
+    }
+    for (Node node : pDependences.getNodes()) {
+      ids.putIfAbsent(node, ids.size());
+    }
+
+    pOutput.writeInt(MAGIC);
+    pOutput.writeInt(FORMAT_VERSION);
+    pOutput.writeInt(pMethodNode.instructions.size());
+    pOutput.writeInt(ids.size());
+    for (Node node : ids.keySet()) {
+      pOutput.writeInt(node.getInstructionIndex());
+      pOutput.writeInt(node.getLineNumber());
+      if (node.getInstructionIndex() >= 0) {
+        pOutput.writeInt(node.getNumber());
+      } else {
+        // Named nodes have a quoted id
+        String id = node.getID();
+        byte[] name = id.substring(1, id.length() - 1).getBytes(StandardCharsets.UTF_8);
+        pOutput.writeInt(name.length);
+        pOutput.write(name);
+      }
+    }
+    writeGraph(pOutput, pCFG, ids);
+    writeGraph(pOutput, pDependences, ids);
+  }
+
+  private static void writeGraph(
+      DataOutput pOutput, ProgramGraph pGraph, Map<Node, Integer> pIds) throws IOException {
+    pOutput.writeInt(pGraph.getNodes().size());
+    for (Node node : pGraph.getNodes()) {
+      pOutput.writeInt(pIds.get(node));
+    }
+    List<Integer> targets = new ArrayList<>();
+    pOutput.writeInt(0);
+    for (Node node : pGraph.getNodes()) {
+      for (Node successor : pGraph.getSuccessors(node)) {
+        targets.add(pIds.get(successor));
+      }
+      pOutput.writeInt(targets.size());
+    }
+    for (int target : targets) {
+      pOutput.writeInt(target);
+    }
+  }
+
+  /**
+   * Reads the graphs of a method.
+   *
+   * @param pBuffer The buffer to read from, positioned at the start of the encoded method
+   * @param pMethodNode The method the graphs were built from; its nodes are restored on it
+   * @return The control-flow and the dependence graph
+   * @throws IllegalArgumentException If the buffer does not hold graphs of this method in the
+   *     current format
+   */
+  public static Graphs read(ByteBuffer pBuffer, MethodNode pMethodNode) {
+    Preconditions.checkNotNull(pMethodNode);
+    Preconditions.checkArgument(pBuffer.getInt() == MAGIC, "Not an encoded method");
+    int version = pBuffer.getInt();
+    Preconditions.checkArgument(
+        version == FORMAT_VERSION, "Unsupported format version %s", version);
+    int instructionCount = pBuffer.getInt();
+    Preconditions.checkArgument(
+        instructionCount == pMethodNode.instructions.size(),
+        "Encoded for %s instructions, but the method has %s",
+        instructionCount,
+        pMethodNode.instructions.size());
+
+    int size = pBuffer.getInt();
+    Preconditions.checkArgument(size >= 0, "Negative node count %s", size);
+    Node[] nodes = new Node[size];
+    for (int id = 0; id < size; id++) {
+      int instructionIndex = pBuffer.getInt();
+      int lineNumber = pBuffer.getInt();
+      if (instructionIndex >= 0) {
+        nodes[id] =
+            new Node(
+                pMethodNode,
+                pMethodNode.instructions.get(instructionIndex),
+                instructionIndex,
+                lineNumber,
+                pBuffer.getInt());
+      } else {
+        byte[] name = new byte[pBuffer.getInt()];
+        pBuffer.get(name);
+        nodes[id] = new Node(new String(name, StandardCharsets.UTF_8));
+      }
+    }
+    ProgramGraph cfg = readGraph(pBuffer, nodes);
+    ProgramGraph dependences = readGraph(pBuffer, nodes);
+    return new Graphs(cfg, dependences);
+  }
+
+  private static ProgramGraph readGraph(ByteBuffer pBuffer, Node[] pNodes) {
+    int size = pBuffer.getInt();
+    Preconditions.checkArgument(
+        size >= 0 && size <= pNodes.length, "Corrupt graph size %s", size);
+    ProgramGraph graph = new ProgramGraph();
+    Node[] nodes = new Node[size];
+    for (int i = 0; i < size; i++) {
+      nodes[i] = pNodes[pBuffer.getInt()];
+      graph.addNode(nodes[i]);
+    }
+    int[] offsets = new int[size + 1];
+    for (int i = 0; i <= size; i++) {
+      offsets[i] = pBuffer.getInt();
+      Preconditions.checkArgument(i == 0 || offsets[i] >= offsets[i - 1], "Corrupt offsets");
+    }
+    for (int i = 0; i < size; i++) {
+      for (int edge = offsets[i]; edge < offsets[i + 1]; edge++) {
+        graph.addEdge(nodes[i], pNodes[pBuffer.getInt()]);
+      }
+    }
+    return graph;
+  }
+}
@@ -2,8 +2,6 @@
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.FrameNode;
@@ -20,26 +18,52 @@ public class Node {
   private AbstractInsnNode instruction = null;
   private final int lineNumber;
 
-  private static Map<Object, String> sIds = null;
-  static int sNextId = 1;
+  /** The method the node belongs to, compared by identity; {@code null} for named nodes. */
+  private final Object method;
 
+  /** The per-method number of the node; {@code 0} for named nodes. */
+  private final int number;
+
+  private final int instructionIndex;
   private final String id;
+  private final int hash;
 
   /**
    * Creates a new node object.
    *
+   * <p>Ids are allocated per method by the creator of the node, such that no global state is
+   * shared between graphs that are built concurrently. Two nodes are equal if they have the same
+   * number and belong to the same method; both go into the hash code, such that the nodes of
+   * different methods can share a hash set without colliding.
+   *
+   * @param pMethod The method the instruction belongs to, used as an identity handle
    * @param pInstructionNode The instruction node this node is based on
+   * @param pInstructionIndex The index of the instruction in the method's instruction list
    * @param pLineNumber The line number in the source file
+   * @param pNumber The number of the node, unique within its method
    */
-  Node(AbstractInsnNode pInstructionNode, int pLineNumber) {
+  Node(
+      Object pMethod,
+      AbstractInsnNode pInstructionNode,
+      int pInstructionIndex,
+      int pLineNumber,
+      int pNumber) {
+    method = pMethod;
     instruction = pInstructionNode;
+    instructionIndex = pInstructionIndex;
     lineNumber = pLineNumber;
-    id = getID(pInstructionNode);
+    number = pNumber;
+    id = Integer.toString(pNumber);
+    hash = 31 * System.identityHashCode(pMethod) + id.hashCode();
   }
 
   public Node(String pID) {
+    method = null;
+    number = 0;
+    instructionIndex = -1;
     id = "\"" + pID + "\"";
     lineNumber = -1;
+    hash = 31 + id.hashCode();
   }
 
   public int getLineNumber() {
@@ -66,16 +90,26 @@ public String prettyPrint() {
     return writer.toString();
   }
 
-  private static String getID(Object pObject) {
-    if (sIds == null) {
-      sIds = new LinkedHashMap<>();
-    }
+  public String getID() {
+    return id;
+  }
 
-    return sIds.computeIfAbsent(pObject, k -> Integer.toString(sNextId++));
+  /**
+   * Provides the index of the node's instruction in the instruction list of its method.
+   *
+   * @return The instruction index, or {@code -1} for nodes without an instruction
+   */
+  public int getInstructionIndex() {
+    return instructionIndex;
   }
 
-  public String getID() {
-    return id;
+  /**
+   * Provides the per-method number of the node.
+   *
+   * @return The number, or {@code 0} for named nodes
+   */
+  int getNumber() {
+    return number;
   }
 
   /**
@@ -109,14 +143,14 @@ public String toString() {
         }
       }
     }
-    builder.append(getID(instruction));
+    builder.append(id);
     builder.append("  ").append("line number: ").append(lineNumber);
     return "\"" + builder + "\"";
   }
 
   @Override
   public int hashCode() {
-    return 31 + ((id == null) ? 0 : id.hashCode());
+    return hash;
   }
 
   @Override
@@ -129,10 +163,10 @@ public boolean equals(Object pOther) {
     }
 
     Node other = (Node) pOther;
-    if (id == null) {
-      return other.id == null;
-    } else {
-      return id.equals(other.id);
+    if (hash != other.hash || number != other.number || method != other.method) {
+      return false;
     }
+    // Only named nodes need to compare their names
+    return method != null || id.equals(other.id);
   }
 }
@@ -20,7 +20,6 @@ public class ProgramGraph {
   private final Graph<Node, DefaultEdge> graph;
 
   public ProgramGraph() {
-    Node.sNextId = 1;
     graph =
         GraphTypeBuilder.<Node, DefaultEdge>directed()
             .allowingSelfLoops(true)
@@ -0,0 +1,115 @@
+package de.uni_passau.fim.se2.sa.slicing.coverage;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The coverage of one instrumented class.
+ *
+ * <p>The instrumented code of the class writes into a single probe array. Every slot of the array
+ * belongs to one line of one method, as described by the layout registered at instrumentation
+ * time. Slots are only ever set to {@code true}, and the Java memory model forbids word tearing
+ * between array elements, hence concurrent writers cannot corrupt each other's probes without any
+ * synchronisation.
+ */
+final class ClassCoverage {
+
+  /** The method key of probes whose method is not known. */
+  static final String UNKNOWN_METHOD = "";
+
+  private final List<String> methods;
+  private final int[] probeMethods;
+  private final int[] probeLines;
+  private final boolean[] probes;
+  private final boolean indexedByLine;
+
+  private ClassCoverage(
+      List<String> pMethods, int[] pProbeMethods, int[] pProbeLines, boolean pIndexedByLine) {
+    methods = pMethods;
+    probeMethods = pProbeMethods;
+    probeLines = pProbeLines;
+    probes = new boolean[pProbeLines.length];
+    indexedByLine = pIndexedByLine;
+  }
+
+  /**
+   * Creates the coverage of a class with a known probe layout.
+   *
+   * @param pMethods The keys of the methods, i.e., their names concatenated with their descriptors
+   * @param pProbeMethods The index of the method of every probe
+   * @param pProbeLines The line number of every probe
+   * @return The coverage of the class
+   */
+  static ClassCoverage of(List<String> pMethods, int[] pProbeMethods, int[] pProbeLines) {
+    Preconditions.checkArgument(
+        pProbeMethods.length == pProbeLines.length, "Every probe needs a method and a line");
+    return new ClassCoverage(
+        List.copyOf(pMethods), pProbeMethods.clone(), pProbeLines.clone(), false);
+  }
+
+  /**
+   * Creates the coverage of a class whose probes are indexed by line number, without knowing the
+   * methods the lines belong to.
+   *
+   * @param pProbeCount The number of probes
+   * @return The coverage of the class
+   */
+  static ClassCoverage ofLines(int pProbeCount) {
+    int[] lines = new int[pProbeCount];
+    Arrays.setAll(lines, line -> line);
+    return new ClassCoverage(List.of(UNKNOWN_METHOD), new int[pProbeCount], lines, true);
+  }
+
+  /**
+   * Creates the coverage of the same class with the same layout, but with probes of its own.
+   *
+   * @return The coverage of the class, initially empty
+   */
+  ClassCoverage withNewProbes() {
+    // The layout is never modified, hence it can be shared
+    return new ClassCoverage(methods, probeMethods, probeLines, indexedByLine);
+  }
+
+  boolean[] getProbes() {
+    return probes;
+  }
+
+  int getProbeCount() {
+    return probes.length;
+  }
+
+  /**
+   * Tells whether the probes are indexed by line number because no layout was registered.
+   *
+   * @return {@code true} if the coverage was created by {@link #ofLines(int)}
+   */
+  boolean isIndexedByLine() {
+    return indexedByLine;
+  }
+
+  /**
+   * Adds the executed lines of a method, or of all methods, to a set.
+   *
+   * @param pMethod The key of the method, or {@code null} for all methods
+   * @param pLines The set to add the lines to
+   */
+  void addVisitedLines(String pMethod, Set<Integer> pLines) {
+    int method = pMethod == null ? -1 : methods.indexOf(pMethod);
+    // Lines of unknown methods could belong to the requested method
+    int unknownMethod = methods.indexOf(UNKNOWN_METHOD);
+    for (int probe = 0; probe < probes.length; probe++) {
+      if (probes[probe]
+          && (pMethod == null
+              || probeMethods[probe] == method
+              || probeMethods[probe] == unknownMethod)) {
+        pLines.add(probeLines[probe]);
+      }
+    }
+  }
+
+  void reset() {
+    Arrays.fill(probes, false);
+  }
+}
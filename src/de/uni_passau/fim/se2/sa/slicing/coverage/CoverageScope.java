@@ -0,0 +1,99 @@
+package de.uni_passau.fim.se2.sa.slicing.coverage;
+
+import com.google.common.base.Preconditions;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coverage that is recorded apart from the global coverage, e.g., the coverage of a single test.
+ *
+ * <p>A scope is opened by {@link CoverageTracker#openScope()} and bound to the opening thread until
+ * it is closed. Instrumented methods that this thread enters meanwhile record their lines into
+ * probe arrays of the scope instead of the global ones, which allows telling concurrently executed
+ * tests apart. Methods executed by other threads, e.g., by threads the test starts, and lines
+ * tracked by {@link CoverageTracker#trackLineVisit(int)} are not attributed to the scope.
+ */
+public final class CoverageScope implements AutoCloseable {
+
+  private final ConcurrentMap<String, ClassCoverage> classes = new ConcurrentHashMap<>();
+  private final Thread owner;
+  private final CoverageScope enclosing;
+  private boolean closed;
+
+  CoverageScope(CoverageScope pEnclosing) {
+    owner = Thread.currentThread();
+    enclosing = pEnclosing;
+  }
+
+  /**
+   * Provides the set of visited lines of a class within this scope.
+   *
+   * @param pClassName The internal name of the class
+   * @return The set of visited lines
+   */
+  public Set<Integer> getVisitedLines(String pClassName) {
+    return getVisitedLines(pClassName, null);
+  }
+
+  /**
+   * Provides the set of visited lines of a method within this scope.
+   *
+   * @param pClassName The internal name of the class declaring the method
+   * @param pMethodName The name of the method
+   * @param pDescriptor The descriptor of the method
+   * @return The set of visited lines
+   */
+  public Set<Integer> getVisitedLines(String pClassName, String pMethodName, String pDescriptor) {
+    return getVisitedLines(pClassName, pMethodName + pDescriptor);
+  }
+
+  private Set<Integer> getVisitedLines(String pClassName, String pMethod) {
+    Set<Integer> lines = new TreeSet<>();
+    ClassCoverage coverage = classes.get(pClassName);
+    if (coverage != null) {
+      coverage.addVisitedLines(pMethod, lines);
+    }
+    return Collections.unmodifiableSet(lines);
+  }
+
+  /**
+   * Unbinds the scope from its thread; the enclosing scope, if any, is bound again.
+   *
+   * <p>The recorded coverage stays available. Scopes have to be closed by the thread that opened
+   * them, in the reverse order of opening.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    Preconditions.checkState(
+        Thread.currentThread() == owner, "A scope has to be closed by the thread that opened it");
+    CoverageTracker.unbind(this, enclosing);
+    closed = true;
+  }
+
+  ClassCoverage getCoverage(String pClassName, int pProbeCount, ClassCoverage pGlobal) {
+    ClassCoverage coverage = classes.get(pClassName);
+    if (coverage == null || coverage.getProbeCount() < pProbeCount) {
+      coverage =
+          classes.compute(
+              pClassName,
+              (name, existing) -> {
+                if (existing != null && existing.getProbeCount() >= pProbeCount) {
+                  return existing;
+                }
+                // Use the layout registered for the class, but probes of this scope
+                if (pGlobal != null && pGlobal.getProbeCount() >= pProbeCount) {
+                  return pGlobal.withNewProbes();
+                }
+                CoverageTracker.checkLayout(pClassName, pGlobal, pProbeCount);
+                return ClassCoverage.ofLines(pProbeCount);
+              });
+    }
+    return coverage;
+  }
+}
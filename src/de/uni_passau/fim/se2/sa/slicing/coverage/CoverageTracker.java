@@ -1,29 +1,85 @@
 package de.uni_passau.fim.se2.sa.slicing.coverage;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import java.util.Collections;
-import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Tracks line coverage information, i.e., which lines were executed and which were not.
  *
- * <p>The tracker is designed to track coverage information for a single class and a single
- * execution. It can be used for dynamic slicing.
+ * <p>Coverage is kept per class, identified by its internal name, and per method, identified by
+ * its name and descriptor. It can be used for dynamic slicing. The tracker may be used by many
+ * threads at once: instrumented classes record their lines in probe arrays handed out by {@link
+ * #getProbes(String, int)}, lines tracked explicitly by {@link #trackLineVisit(int)} are kept in a
+ * lock-free bitmap, and neither requires a lock. Both are only combined into sets of line numbers
+ * when these are requested.
+ *
+ * <p>Lines tracked by {@link #trackLineVisit(int)} are not attributed to any class, hence they are
+ * part of the visited lines of every class and method.
+ *
+ * <p>Code executed by a thread that has opened a {@link CoverageScope} is recorded in the scope
+ * instead; the global coverage is unaffected.
  */
 public final class CoverageTracker {
 
-  private static final Set<Integer> visitedLines = new LinkedHashSet<>();
+  private static final LineBitmap visitedLines = new LineBitmap();
+  private static final ConcurrentMap<String, ClassCoverage> classes = new ConcurrentHashMap<>();
+  private static final ThreadLocal<CoverageScope> currentScope = new ThreadLocal<>();
+  private static final AtomicInteger openScopes = new AtomicInteger();
 
   private CoverageTracker() {}
 
   /**
-   * Provides the set of visited lines (identified by their line numbers).
+   * Provides the set of visited lines (identified by their line numbers) of all classes.
    *
    * @return The set of visited lines
    */
   public static Set<Integer> getVisitedLines() {
-    return Collections.unmodifiableSet(visitedLines);
+    Set<Integer> lines = new TreeSet<>();
+    visitedLines.addTo(lines);
+    for (ClassCoverage coverage : classes.values()) {
+      coverage.addVisitedLines(null, lines);
+    }
+    return Collections.unmodifiableSet(lines);
+  }
+
+  /**
+   * Provides the set of visited lines of a class.
+   *
+   * @param pClassName The internal name of the class
+   * @return The set of visited lines
+   */
+  public static Set<Integer> getVisitedLines(String pClassName) {
+    return getVisitedLines(pClassName, null);
+  }
+
+  /**
+   * Provides the set of visited lines of a method.
+   *
+   * @param pClassName The internal name of the class declaring the method
+   * @param pMethodName The name of the method
+   * @param pDescriptor The descriptor of the method
+   * @return The set of visited lines
+   */
+  public static Set<Integer> getVisitedLines(
+      String pClassName, String pMethodName, String pDescriptor) {
+    return getVisitedLines(pClassName, pMethodName + pDescriptor);
+  }
+
+  private static Set<Integer> getVisitedLines(String pClassName, String pMethod) {
+    Set<Integer> lines = new TreeSet<>();
+    visitedLines.addTo(lines);
+    ClassCoverage coverage = classes.get(pClassName);
+    if (coverage != null) {
+      coverage.addVisitedLines(pMethod, lines);
+    }
+    return Collections.unmodifiableSet(lines);
   }
 
   /**
@@ -33,7 +89,110 @@ public static Set<Integer> getVisitedLines() {
    */
   // Needs to be public to be callable during test execution
   public static void trackLineVisit(int pLineNumber) {
-    visitedLines.add(pLineNumber);
+    visitedLines.set(pLineNumber);
+  }
+
+  /**
+   * Registers the probe layout of a class that is being instrumented.
+   *
+   * <p>The probe array of the class is replaced by a new one with a slot per probe, such that a
+   * redefined class does not inherit the coverage of its previous version.
+   *
+   * @param pClassName The internal name of the class
+   * @param pMethods The methods of the class, i.e., their names concatenated with their descriptors
+   * @param pProbeMethods The index of the method of every probe
+   * @param pProbeLines The line number of every probe
+   */
+  public static void registerProbes(
+      String pClassName, List<String> pMethods, int[] pProbeMethods, int[] pProbeLines) {
+    classes.put(pClassName, ClassCoverage.of(pMethods, pProbeMethods, pProbeLines));
+  }
+
+  /**
+   * Provides the probe array of an instrumented class.
+   *
+   * <p>Every slot of the array is set to {@code true} once its probe has been executed. The same
+   * array is returned for every call with the same class name, such that a class only needs to
+   * obtain it once. If no layout was registered for the class, the slots are assumed to be
+   * indexed by line number.
+   *
+   * @param pClassName The internal name of the instrumented class
+   * @param pProbeCount The number of probes of the class
+   * @return The probe array of the class
+   * @throws IllegalStateException If the layout registered for the class has fewer probes, i.e.,
+   *     the class was instrumented differently from the layout
+   */
+  // Needs to be public to be callable during test execution
+  public static boolean[] getProbes(String pClassName, int pProbeCount) {
+    if (openScopes.get() > 0) {
+      CoverageScope scope = currentScope.get();
+      if (scope != null) {
+        return scope.getCoverage(pClassName, pProbeCount, classes.get(pClassName)).getProbes();
+      }
+    }
+    ClassCoverage coverage = classes.get(pClassName);
+    if (coverage == null || coverage.getProbeCount() < pProbeCount) {
+      coverage =
+          classes.compute(
+              pClassName,
+              (name, existing) -> {
+                if (existing != null && existing.getProbeCount() >= pProbeCount) {
+                  return existing;
+                }
+                checkLayout(name, existing, pProbeCount);
+                return ClassCoverage.ofLines(pProbeCount);
+              });
+    }
+    return coverage.getProbes();
+  }
+
+  /**
+   * Checks that probes indexed by line number may replace the coverage of a class, which is only
+   * the case if no layout was registered for it.
+   */
+  static void checkLayout(String pClassName, ClassCoverage pCoverage, int pProbeCount) {
+    Preconditions.checkState(
+        pCoverage == null || pCoverage.isIndexedByLine(),
+        "The layout registered for %s has %s probes, but the class uses %s",
+        pClassName,
+        pCoverage == null ? 0 : pCoverage.getProbeCount(),
+        pProbeCount);
+  }
+
+  /**
+   * Checks whether any thread has an open {@link CoverageScope}.
+   *
+   * <p>Instrumented classes cache their global probe array, which they must not use while scopes
+   * are open, as the array of the current thread's scope may be another one.
+   *
+   * @return {@code true} if probe arrays have to be requested by {@link #getProbes(String, int)}
+   */
+  // Needs to be public to be callable during test execution
+  public static boolean hasOpenScopes() {
+    return openScopes.get() > 0;
+  }
+
+  /**
+   * Opens a scope that records the coverage of the current thread until it is closed.
+   *
+   * @return The scope, bound to the current thread
+   */
+  public static CoverageScope openScope() {
+    CoverageScope scope = new CoverageScope(currentScope.get());
+    currentScope.set(scope);
+    openScopes.incrementAndGet();
+    return scope;
+  }
+
+  static void unbind(CoverageScope pScope, CoverageScope pEnclosing) {
+    Preconditions.checkState(
+        currentScope.get() == pScope, "Scopes have to be closed in the reverse order of opening");
+    if (pEnclosing == null) {
+      currentScope.remove();
+    } else {
+      currentScope.set(pEnclosing);
+    }
+    openScopes.decrementAndGet();
   }
 
   /**
@@ -45,5 +204,9 @@ public static void trackLineVisit(int pLineNumber) {
   @VisibleForTesting
   public static void reset() {
     visitedLines.clear();
+    // Instrumented classes keep their probe arrays, hence they are cleared in place
+    for (ClassCoverage coverage : classes.values()) {
+      coverage.reset();
+    }
   }
 }
@@ -0,0 +1,57 @@
+package de.uni_passau.fim.se2.sa.slicing.coverage;
+
+import com.google.common.base.Preconditions;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free set of line numbers.
+ *
+ * <p>Line numbers are unsigned 16-bit values in the class file format, hence a fixed bitmap of
+ * 65536 bits covers every possible line. Setting a line that is already set is a plain read, such
+ * that lines executed repeatedly do not contend for the same word.
+ */
+final class LineBitmap {
+
+  /** The number of distinct line numbers a class file can express. */
+  static final int LINE_COUNT = 1 << 16;
+
+  private final AtomicLongArray words = new AtomicLongArray(LINE_COUNT / Long.SIZE);
+
+  /**
+   * Adds a line to the set.
+   *
+   * @param pLineNumber The line number
+   */
+  void set(int pLineNumber) {
+    Preconditions.checkArgument(
+        pLineNumber >= 0 && pLineNumber < LINE_COUNT, "Invalid line number %s", pLineNumber);
+    int index = pLineNumber >>> 6;
+    long mask = 1L << pLineNumber;
+    if ((words.get(index) & mask) == 0) {
+      words.getAndAccumulate(index, mask, (word, bit) -> word | bit);
+    }
+  }
+
+  /**
+   * Adds all lines of the set in ascending order to a collection.
+   *
+   * @param pLines The collection to add the lines to
+   */
+  void addTo(Set<Integer> pLines) {
+    for (int index = 0; index < words.length(); index++) {
+      long word = words.get(index);
+      while (word != 0) {
+        pLines.add((index << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+  }
+
+  /** Removes all lines from the set. */
+  void clear() {
+    for (int index = 0; index < words.length(); index++) {
+      words.set(index, 0);
+    }
+  }
+}
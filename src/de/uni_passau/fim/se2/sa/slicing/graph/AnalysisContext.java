@@ -0,0 +1,176 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import br.usp.each.saeg.asm.defuse.DefUseAnalyzer;
+import br.usp.each.saeg.asm.defuse.DefUseInterpreter;
+import br.usp.each.saeg.asm.defuse.Value;
+import de.uni_passau.fim.se2.sa.slicing.cfg.CFGAnalyzer;
+import de.uni_passau.fim.se2.sa.slicing.cfg.CompactGraph;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+
+/**
+ * Holds the analysis results of a method that are shared by all {@link Graph} analyses.
+ *
+ * <p>The method's bytecode is analysed exactly once: a {@link DefUseAnalyzer} is run on top of a
+ * {@link CFGAnalyzer}, which yields both the control-flow graph and the def/use frames of the
+ * method. The def/use information is also put into the cache of {@link DataFlowAnalysis}. The
+ * control-flow graph is additionally provided as a {@link CompactGraph}, which the fixpoint
+ * computations iterate over. The producers of the operand stack values, which only some analyses
+ * need, are computed on first request and kept as well.
+ *
+ * @see CFGAnalyzer#getAnalysisCount()
+ */
+public final class AnalysisContext {
+
+  private final ClassNode classNode;
+  private final String owningClass;
+  private final MethodNode methodNode;
+  private final ProgramGraph cfg;
+  private final CompactGraph compactCFG;
+  private final DefUseResult defUse;
+  private final PostDominatorTree postDominatorTree;
+  private int[][][] stackProducers;
+
+  private AnalysisContext(
+      ClassNode pClassNode,
+      String pOwningClass,
+      MethodNode pMethodNode,
+      ProgramGraph pCFG,
+      DefUseResult pDefUse) {
+    classNode = pClassNode;
+    owningClass = pOwningClass;
+    methodNode = pMethodNode;
+    cfg = pCFG;
+    compactCFG = CompactGraph.of(pCFG);
+    defUse = pDefUse;
+    postDominatorTree = new PostDominatorTree(this);
+  }
+
+  /**
+   * Analyses a method and creates the context holding the results.
+   *
+   * @param pClassNode The class that owns the method
+   * @param pMethodNode The method to analyse
+   * @return The analysis context of the method
+   * @throws AnalyzerException In case of problems during the analysis of the method
+   */
+  public static AnalysisContext of(ClassNode pClassNode, MethodNode pMethodNode)
+      throws AnalyzerException {
+    return analyze(pClassNode, pClassNode.name, pMethodNode);
+  }
+
+  /**
+   * Analyses a method for which no {@link ClassNode} is at hand.
+   *
+   * @param pOwningClass The internal name of the class that owns the method
+   * @param pMethodNode The method to analyse
+   * @return The analysis context of the method, without a class node
+   * @throws AnalyzerException In case of problems during the analysis of the method
+   */
+  static AnalysisContext of(String pOwningClass, MethodNode pMethodNode)
+      throws AnalyzerException {
+    return analyze(null, pOwningClass, pMethodNode);
+  }
+
+  private static AnalysisContext analyze(
+      ClassNode pClassNode, String pOwningClass, MethodNode pMethodNode)
+      throws AnalyzerException {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.CFG, pOwningClass, pMethodNode)) {
+      DefUseInterpreter interpreter = new DefUseInterpreter();
+      CFGAnalyzer<Value> analyzer = new CFGAnalyzer<>(pMethodNode, interpreter);
+      DefUseAnalyzer defUseAnalyzer = new DefUseAnalyzer(analyzer, interpreter);
+      defUseAnalyzer.analyze(pOwningClass, pMethodNode);
+
+      DefUseResult defUse =
+          DefUseResult.of(pMethodNode, defUseAnalyzer.getDefUseFrames(), analyzer.getFrames());
+      DataFlowAnalysis.cache(pOwningClass, defUse);
+      AnalysisContext context =
+          new AnalysisContext(pClassNode, pOwningClass, pMethodNode, analyzer.getCFG(), defUse);
+      measurement.nodes(context.compactCFG.size()).edges(context.compactCFG.edgeCount());
+      return context;
+    }
+  }
+
+  /**
+   * Provides the class that owns the analysed method.
+   *
+   * @return The class node, or {@code null} if the context was created from the class name only
+   */
+  public ClassNode getClassNode() {
+    return classNode;
+  }
+
+  /**
+   * Provides the internal name of the class that owns the analysed method.
+   *
+   * @return The internal name of the owning class
+   */
+  public String getOwningClass() {
+    return owningClass;
+  }
+
+  /**
+   * Provides the analysed method.
+   *
+   * @return The analysed method
+   */
+  public MethodNode getMethodNode() {
+    return methodNode;
+  }
+
+  /**
+   * Provides the control-flow graph of the method.
+   *
+   * @return The control-flow graph
+   */
+  public ProgramGraph getCFG() {
+    return cfg;
+  }
+
+  /**
+   * Provides the control-flow graph of the method in its compact, int-indexed representation.
+   *
+   * @return The compact control-flow graph
+   */
+  public CompactGraph getCompactCFG() {
+    return compactCFG;
+  }
+
+  /**
+   * Provides the definitions and uses of all instructions of the method.
+   *
+   * @return The def/use information
+   */
+  public DefUseResult getDefUse() {
+    return defUse;
+  }
+
+  /**
+   * Provides the post-dominator tree of the method's control-flow graph.
+   *
+   * @return The post-dominator tree
+   */
+  public PostDominatorTree getPostDominatorTree() {
+    return postDominatorTree;
+  }
+
+  /**
+   * Provides the instructions that may have pushed the values every instruction pops from the
+   * operand stack. The operand stack is analysed on the first request only.
+   *
+   * @return For every instruction index and every popped value, the indices of its producers
+   * @throws AnalyzerException In case the operand stack of the method cannot be analysed
+   * @see StackProducers#analyze(String, MethodNode)
+   */
+  synchronized int[][][] getStackProducers() throws AnalyzerException {
+    if (stackProducers == null) {
+      stackProducers = StackProducers.analyze(owningClass, methodNode);
+    }
+    return stackProducers;
+  }
+}
@@ -0,0 +1,481 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import br.usp.each.saeg.asm.defuse.Variable;
+import de.uni_passau.fim.se2.sa.slicing.cfg.BasicBlocks;
+import de.uni_passau.fim.se2.sa.slicing.cfg.CompactGraph;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Provides the dependences of a method computed over its {@link BasicBlocks} instead of its single
+ * instructions.
+ *
+ * <p>Post-dominators, control dependences and reaching definitions are computed on the block
+ * graph, which is several times smaller than the control-flow graph. Every block summarises its
+ * definitions and uses: definitions that are not overwritten later in the block are generated,
+ * uses that are preceded by a definition within the block depend on that definition only, and all
+ * other uses depend on the definitions reaching the block. A block is control dependent on the
+ * last nodes of its controlling blocks as a whole. The dependences are mapped back to the nodes of
+ * the control-flow graph only when a slice is extracted, and the slices are the same as those of
+ * the {@link ProgramDependenceGraph}.
+ */
+public class BlockDependenceGraph extends Graph implements Sliceable<Node> {
+
+  private final BasicBlocks blocks;
+
+  /** The node ids every block is control dependent on. */
+  private int[][] controllers;
+
+  /**
+   * Whether a block reaches the exit node; the nodes of a block that does not are control dependent
+   * on their predecessor within the block only.
+   */
+  private boolean[] reachesExit;
+
+  /** For every node id, the node ids of the definitions it uses, indexed by the offsets. */
+  private int[] definitionOffsets;
+
+  private int[] definitions;
+
+  /** For every node id, the node ids that depend on it, indexed by the offsets; built on demand. */
+  private int[] dependentOffsets;
+
+  private int[] dependents;
+
+  /** The number of block visits until reaching definitions were solved. */
+  private int solverIterations;
+
+  /**
+   * Computes the dependences of a method from its shared analysis results.
+   *
+   * @param pContext The analysis context of the method
+   */
+  public BlockDependenceGraph(AnalysisContext pContext) {
+    super(pContext);
+    blocks = BasicBlocks.of(pContext.getCompactCFG());
+    try (Statistics.Measurement measurement =
+        Statistics.start(
+            Phase.CONTROL_DEPENDENCE, pContext.getOwningClass(), pContext.getMethodNode())) {
+      measurement.iterations(computeControlDependences());
+      if (measurement.isActive()) {
+        int edges = 0;
+        for (int[] blockControllers : controllers) {
+          edges += blockControllers.length;
+        }
+        measurement.nodes(blocks.size()).edges(edges);
+      }
+    }
+    try (Statistics.Measurement measurement =
+        Statistics.start(
+            Phase.DATA_DEPENDENCE, pContext.getOwningClass(), pContext.getMethodNode())) {
+      measurement
+          .iterations(computeDataDependences())
+          .nodes(blocks.getCFG().size())
+          .edges(definitions.length);
+    }
+  }
+
+  /**
+   * Provides the basic blocks the dependences are computed over.
+   *
+   * @return The basic blocks of the method
+   */
+  public BasicBlocks getBasicBlocks() {
+    return blocks;
+  }
+
+  /**
+   * Expands the block dependences to a program-dependence graph over the nodes of the
+   * control-flow graph.
+   *
+   * @return A new program-dependence graph, equal to {@link ProgramDependenceGraph#computeResult()}
+   */
+  @Override
+  public ProgramGraph computeResult() {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.PROGRAM_DEPENDENCE, owningClass(), methodNode)) {
+      CompactGraph graph = blocks.getCFG();
+      ProgramGraph pdg = new ProgramGraph();
+      for (Node node : graph.getNodes()) {
+        pdg.addNode(node);
+      }
+      for (int n = 0; n < graph.size(); n++) {
+        for (int c : controllersOf(n)) {
+          pdg.addEdge(graph.node(c), graph.node(n));
+        }
+        for (int i = definitionOffsets[n]; i < definitionOffsets[n + 1]; i++) {
+          pdg.addEdge(graph.node(definitions[i]), graph.node(n));
+        }
+      }
+      measurement.graph(pdg);
+      return pdg;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> backwardSlice(Node pCriterion) {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SLICE, owningClass(), methodNode)) {
+      Set<Node> slice = sliceOf(pCriterion, false);
+      measurement.nodes(slice.size());
+      return slice;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> forwardSlice(Node pCriterion) {
+    computeDependents();
+    return sliceOf(pCriterion, true);
+  }
+
+  /** Collects the nodes the criterion depends on, or that depend on it if forward. */
+  private Set<Node> sliceOf(Node pCriterion, boolean pForward) {
+    Set<Node> slice = new HashSet<>();
+    if (pCriterion == null) {
+      return slice;
+    }
+    CompactGraph graph = blocks.getCFG();
+    int id = graph.id(pCriterion);
+    if (id < 0) {
+      slice.add(pCriterion);
+      return slice;
+    }
+
+    BitSet visited = new BitSet(graph.size());
+    int[] queue = new int[graph.size()];
+    int head = 0;
+    int tail = 0;
+    visited.set(id);
+    queue[tail++] = id;
+    while (head < tail) {
+      int n = queue[head++];
+      if (pForward) {
+        for (int i = dependentOffsets[n]; i < dependentOffsets[n + 1]; i++) {
+          int d = dependents[i];
+          if (!visited.get(d)) {
+            visited.set(d);
+            queue[tail++] = d;
+          }
+        }
+        continue;
+      }
+      for (int c : controllersOf(n)) {
+        if (!visited.get(c)) {
+          visited.set(c);
+          queue[tail++] = c;
+        }
+      }
+      for (int i = definitionOffsets[n]; i < definitionOffsets[n + 1]; i++) {
+        int d = definitions[i];
+        if (!visited.get(d)) {
+          visited.set(d);
+          queue[tail++] = d;
+        }
+      }
+    }
+
+    for (int n = visited.nextSetBit(0); n >= 0; n = visited.nextSetBit(n + 1)) {
+      slice.add(graph.node(n));
+    }
+    return slice;
+  }
+
+  /** Inverts the control and data dependences of all nodes, unless done before. */
+  private synchronized void computeDependents() {
+    if (dependents != null) {
+      return;
+    }
+    int size = blocks.getCFG().size();
+    int[] offsets = new int[size + 1];
+    for (int n = 0; n < size; n++) {
+      for (int c : controllersOf(n)) {
+        offsets[c + 1]++;
+      }
+      for (int i = definitionOffsets[n]; i < definitionOffsets[n + 1]; i++) {
+        offsets[definitions[i] + 1]++;
+      }
+    }
+    for (int n = 0; n < size; n++) {
+      offsets[n + 1] += offsets[n];
+    }
+    int[] inverted = new int[offsets[size]];
+    int[] fill = Arrays.copyOf(offsets, size);
+    for (int n = 0; n < size; n++) {
+      for (int c : controllersOf(n)) {
+        inverted[fill[c]++] = n;
+      }
+      for (int i = definitionOffsets[n]; i < definitionOffsets[n + 1]; i++) {
+        inverted[fill[definitions[i]]++] = n;
+      }
+    }
+    dependentOffsets = offsets;
+    dependents = inverted;
+  }
+
+  /** Provides the node ids a node is control dependent on. */
+  private int[] controllersOf(int pId) {
+    int block = blocks.blockOf(pId);
+    int position = blocks.positionOf(pId);
+    if (reachesExit[block] || position == 0) {
+      return controllers[block];
+    }
+    return new int[] {blocks.member(block, position - 1)};
+  }
+
+  /**
+   * Computes the control dependences with the post-dominators of the block graph.
+   *
+   * <p>The immediate post-dominator of the last node of a block is the first node of the block's
+   * immediate post-dominator, and within a block that reaches the exit node every node is
+   * immediately post-dominated by its successor. Walking up the post-dominator tree from a
+   * successor of a block thus passes through whole blocks, which are control dependent on the last
+   * node of the block as a whole. Within a block that does not reach the exit node, no node has an
+   * immediate post-dominator; hence only its first node depends on the predecessor blocks and
+   * every other node depends on its predecessor.
+   *
+   * @return The number of passes until the post-dominators were computed
+   */
+  private int computeControlDependences() {
+    CompactGraph graph = blocks.getBlockGraph();
+    int size = blocks.size();
+    int[] ipdom = new int[size];
+    Arrays.fill(ipdom, -1);
+    reachesExit = new boolean[size];
+
+    int iterations = 0;
+    int exit = blocks.getCFG().exit();
+    if (exit >= 0) {
+      int exitBlock = blocks.blockOf(exit);
+      Dominators postDominators = Dominators.postDominators(graph, exitBlock);
+      iterations = postDominators.getIterations();
+      for (int b = 0; b < size; b++) {
+        Node dominator = postDominators.immediateDominator(graph.node(b));
+        ipdom[b] = dominator == null ? -1 : graph.id(dominator);
+        reachesExit[b] = b == exitBlock || dominator != null;
+      }
+    }
+
+    List<Set<Integer>> found = new ArrayList<>(size);
+    for (int b = 0; b < size; b++) {
+      found.add(new LinkedHashSet<>());
+    }
+    for (int a = 0; a < size; a++) {
+      int last = blocks.last(a);
+      for (int i = 0; i < graph.outDegree(a); i++) {
+        int s = graph.successor(a, i);
+        while (s >= 0 && s != ipdom[a]) {
+          found.get(s).add(last);
+          s = ipdom[s];
+        }
+      }
+    }
+
+    controllers = new int[size][];
+    for (int b = 0; b < size; b++) {
+      controllers[b] = found.get(b).stream().mapToInt(Integer::intValue).toArray();
+    }
+    return iterations;
+  }
+
+  /**
+   * Computes the data dependences by solving reaching definitions over the block graph.
+   *
+   * <p>The GEN set of a block holds its downward-exposed definitions and the KILL set is given by
+   * the variables the block defines. Uses that are resolved within their block are recorded
+   * directly; the upward-exposed uses are resolved with the IN set of their block.
+   *
+   * @return The number of block visits until reaching definitions were solved
+   */
+  private int computeDataDependences() {
+    CompactGraph flow = blocks.getCFG();
+    CompactGraph graph = blocks.getBlockGraph();
+    DefUseResult defUse = context.getDefUse();
+    int size = blocks.size();
+
+    Map<String, Integer> variableNumbers = new HashMap<>();
+    List<int[]> pairs = new ArrayList<>(); // Pairs of a use and the definition it depends on
+    List<int[]> exposedUses = new ArrayList<>(); // Pairs of a node and a variable it uses
+    List<Integer> defNodes = new ArrayList<>();
+    List<Integer> defVariables = new ArrayList<>();
+    int[][] generated = new int[size][];
+    int[][] killed = new int[size][];
+
+    for (int b = 0; b < size; b++) {
+      Map<Integer, Integer> lastDefinitions = new LinkedHashMap<>();
+      for (int p = 0; p < blocks.length(b); p++) {
+        int n = blocks.member(b, p);
+        Node node = flow.node(n);
+        for (Variable used : defUse.usedBy(node.getInstruction())) {
+          Integer v = variableNumbers.computeIfAbsent(used.toString(), k -> variableNumbers.size());
+          Integer definition = lastDefinitions.get(v);
+          if (definition != null) {
+            pairs.add(new int[] {n, definition});
+          } else {
+            exposedUses.add(new int[] {n, v});
+          }
+        }
+        for (Variable defined : defUse.definedBy(node.getInstruction())) {
+          Integer v =
+              variableNumbers.computeIfAbsent(defined.toString(), k -> variableNumbers.size());
+          lastDefinitions.put(v, n);
+        }
+      }
+      generated[b] = new int[lastDefinitions.size()];
+      killed[b] = new int[lastDefinitions.size()];
+      int i = 0;
+      for (Map.Entry<Integer, Integer> entry : lastDefinitions.entrySet()) {
+        generated[b][i] = defNodes.size();
+        killed[b][i++] = entry.getKey();
+        defNodes.add(entry.getValue());
+        defVariables.add(entry.getKey());
+      }
+    }
+
+    int words = Math.max(1, (defNodes.size() + 63) >>> 6);
+    long[][] variableMasks = new long[variableNumbers.size()][words];
+    List<List<Integer>> variableDefinitions = new ArrayList<>();
+    for (int v = 0; v < variableNumbers.size(); v++) {
+      variableDefinitions.add(new ArrayList<>());
+    }
+    for (int d = 0; d < defVariables.size(); d++) {
+      int v = defVariables.get(d);
+      variableMasks[v][d >>> 6] |= 1L << d;
+      variableDefinitions.get(v).add(d);
+    }
+
+    long[][] in = solveReachingDefinitions(graph, generated, killed, variableMasks, words);
+    for (int[] use : exposedUses) {
+      long[] blockIn = in[blocks.blockOf(use[0])];
+      for (int d : variableDefinitions.get(use[1])) {
+        if ((blockIn[d >>> 6] & (1L << d)) != 0) {
+          pairs.add(new int[] {use[0], defNodes.get(d)});
+        }
+      }
+    }
+
+    // Group the definitions by their uses
+    definitionOffsets = new int[flow.size() + 1];
+    for (int[] pair : pairs) {
+      definitionOffsets[pair[0] + 1]++;
+    }
+    for (int n = 0; n < flow.size(); n++) {
+      definitionOffsets[n + 1] += definitionOffsets[n];
+    }
+    definitions = new int[pairs.size()];
+    int[] fill = Arrays.copyOf(definitionOffsets, flow.size());
+    for (int[] pair : pairs) {
+      definitions[fill[pair[0]]++] = pair[1];
+    }
+    return solverIterations;
+  }
+
+  /**
+   * Computes the IN sets of all blocks with a worklist in reverse post-order.
+   *
+   * @see ReachingDefinitions#solve()
+   */
+  private long[][] solveReachingDefinitions(
+      CompactGraph pGraph, int[][] pGenerated, int[][] pKilled, long[][] pMasks, int pWords) {
+    int size = pGraph.size();
+    int[] order = reversePostOrder(pGraph);
+    int[] rank = new int[size];
+    for (int r = 0; r < size; r++) {
+      rank[order[r]] = r;
+    }
+
+    long[][] in = new long[size][pWords];
+    long[][] out = new long[size][pWords];
+    long[] newOut = new long[pWords];
+    BitSet worklist = new BitSet(size);
+    worklist.set(0, size);
+    solverIterations = 0;
+
+    for (int r = worklist.nextSetBit(0); r >= 0; r = worklist.nextSetBit(0)) {
+      worklist.clear(r);
+      solverIterations++;
+      int b = order[r];
+
+      long[] blockIn = in[b];
+      Arrays.fill(blockIn, 0L);
+      for (int i = 0; i < pGraph.inDegree(b); i++) {
+        long[] predOut = out[pGraph.predecessor(b, i)];
+        for (int w = 0; w < pWords; w++) {
+          blockIn[w] |= predOut[w];
+        }
+      }
+
+      System.arraycopy(blockIn, 0, newOut, 0, pWords);
+      for (int v : pKilled[b]) {
+        long[] mask = pMasks[v];
+        for (int w = 0; w < pWords; w++) {
+          newOut[w] &= ~mask[w];
+        }
+      }
+      for (int d : pGenerated[b]) {
+        newOut[d >>> 6] |= 1L << d;
+      }
+
+      if (!Arrays.equals(newOut, out[b])) {
+        System.arraycopy(newOut, 0, out[b], 0, pWords);
+        for (int i = 0; i < pGraph.outDegree(b); i++) {
+          worklist.set(rank[pGraph.successor(b, i)]);
+        }
+      }
+    }
+    return in;
+  }
+
+  private static int[] reversePostOrder(CompactGraph pGraph) {
+    int size = pGraph.size();
+    boolean[] visited = new boolean[size];
+    int[] postOrder = new int[size];
+    int count = 0;
+    int[] stack = new int[size];
+    int[] nextChild = new int[size];
+    int entry = pGraph.entry();
+    if (entry >= 0) {
+      int top = 0;
+      stack[0] = entry;
+      visited[entry] = true;
+      while (top >= 0) {
+        int v = stack[top];
+        if (nextChild[v] < pGraph.outDegree(v)) {
+          int w = pGraph.successor(v, nextChild[v]++);
+          if (!visited[w]) {
+            visited[w] = true;
+            stack[++top] = w;
+          }
+        } else {
+          postOrder[count++] = v;
+          top--;
+        }
+      }
+    }
+
+    int[] order = new int[size];
+    int position = 0;
+    for (int i = count - 1; i >= 0; i--) {
+      order[position++] = postOrder[i];
+    }
+    for (int v = 0; v < size; v++) {
+      if (!visited[v]) {
+        order[position++] = v; // Blocks that are unreachable from the entry
+      }
+    }
+    return order;
+  }
+}
@@ -1,6 +1,8 @@
 package de.uni_passau.fim.se2.sa.slicing.graph;
 
 import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
@@ -10,6 +12,10 @@ public class ControlDependenceGraph extends Graph {
     super(pClassNode, pMethodNode);
   }
 
+  ControlDependenceGraph(AnalysisContext pContext) {
+    super(pContext);
+  }
+
   ControlDependenceGraph(ProgramGraph pCFG) {
     super(pCFG);
   }
@@ -28,35 +34,31 @@ public ProgramGraph computeResult() {
       return new ProgramGraph();
     }
 
-    // Step 1: Compute the post-dominator tree
-    PostDominatorTree pdt = new PostDominatorTree(cfg);
-    ProgramGraph postDomTree = pdt.computeResult();
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.CONTROL_DEPENDENCE, owningClass(), methodNode)) {
+      // Step 1: Compute the immediate post-dominator of each node
+      PostDominatorTree pdt =
+          context != null ? context.getPostDominatorTree() : new PostDominatorTree(cfg);
+      var nodes = cfg.getNodes();
 
-    // Step 2: Compute immediate post-dominator for each node
-    var nodes = cfg.getNodes();
-    var ipdom = new java.util.HashMap<de.uni_passau.fim.se2.sa.slicing.cfg.Node, de.uni_passau.fim.se2.sa.slicing.cfg.Node>();
-    for (var node : nodes) {
-      var preds = postDomTree.getPredecessors(node);
-      if (!preds.isEmpty()) {
-        ipdom.put(node, preds.iterator().next()); // Only one parent in tree
+      // Step 2: Build the control dependence graph using the standard algorithm
+      ProgramGraph cdg = new ProgramGraph();
+      for (var node : nodes) {
+        cdg.addNode(node);
       }
-    }
-
-    // Step 3: Build the control dependence graph using the standard algorithm
-    ProgramGraph cdg = new ProgramGraph();
-    for (var node : nodes) {
-      cdg.addNode(node);
-    }
-    for (var a : nodes) {
-      for (var b : cfg.getSuccessors(a)) {
-        var s = b;
-        while (s != null && s != ipdom.get(a)) {
-          cdg.addEdge(a, s);
-          s = ipdom.get(s);
+      for (var a : nodes) {
+        var ipdomA = pdt.ipdom(a);
+        for (var b : cfg.getSuccessors(a)) {
+          var s = b;
+          while (s != null && s != ipdomA) {
+            cdg.addEdge(a, s);
+            s = pdt.ipdom(s);
+          }
         }
       }
+      measurement.graph(cdg);
+      return cdg;
     }
-    return cdg;
   }
 }
 // Example
@@ -1,10 +1,10 @@
 package de.uni_passau.fim.se2.sa.slicing.graph;
 
-import br.usp.each.saeg.asm.defuse.DefUseAnalyzer;
-import br.usp.each.saeg.asm.defuse.DefUseFrame;
 import br.usp.each.saeg.asm.defuse.Variable;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.Collection;
-import java.util.Collections;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.analysis.AnalyzerException;
@@ -12,9 +12,18 @@
 /**
  * Performs data flow analysis to identify variable definitions and uses.
  * This implementation leverages the DefUseAnalyzer for accurate analysis.
+ *
+ * <p>The analysis is run once per method; its {@link DefUseResult} is kept in a bounded cache keyed
+ * by owner class and method, so repeated queries on the same method are answered in constant time.
  */
 final class DataFlowAnalysis {
 
+    /** The maximum number of per-method results kept in the cache. */
+    private static final int CACHE_SIZE = 256;
+
+    private static final Cache<MethodKey, DefUseResult> cache =
+            CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
     // Private constructor to prevent instantiation
     private DataFlowAnalysis() {
         throw new AssertionError("Utility class should not be instantiated");
@@ -52,6 +61,45 @@ static Collection<Variable> definedBy(
         return performAnalysis(ownerClass, method, instruction, AnalysisType.DEFINITION);
     }
 
+    /**
+     * Provides the def/use information of all instructions of a method.
+     *
+     * <p>The result is taken from the cache if it was computed for the same {@link MethodNode}
+     * instance before; otherwise the method is analysed by an {@link AnalysisContext}, which
+     * caches the result.
+     *
+     * @param ownerClass The containing class name
+     * @param method The method being analyzed
+     * @return The def/use information of the method
+     * @throws AnalyzerException If analysis fails
+     */
+    static DefUseResult analyze(String ownerClass, MethodNode method) throws AnalyzerException {
+        MethodKey key = new MethodKey(ownerClass, method.name, method.desc);
+        DefUseResult result = cache.getIfPresent(key);
+        if (result != null && result.isValidFor(method)) {
+            return result;
+        }
+
+        return AnalysisContext.of(ownerClass, method).getDefUse();
+    }
+
+    /**
+     * Stores the def/use information of a method in the cache.
+     *
+     * @param ownerClass The containing class name
+     * @param result The def/use information of the method
+     */
+    static void cache(String ownerClass, DefUseResult result) {
+        MethodNode method = result.getMethodNode();
+        cache.put(new MethodKey(ownerClass, method.name, method.desc), result);
+    }
+
+    /** Removes all cached analysis results. */
+    @VisibleForTesting
+    static void clearCache() {
+        cache.invalidateAll();
+    }
+
     /**
      * Internal analysis method handling both use and definition cases.
      */
@@ -62,45 +110,12 @@ private static Collection<Variable> performAnalysis(
             AnalysisType analysisType) throws AnalyzerException {
         
         try {
-            DefUseAnalyzer analyzer = new DefUseAnalyzer();
-            analyzer.analyze(ownerClass, method);
-            
-            DefUseFrame[] analysisResults = analyzer.getDefUseFrames();
-            int instructionPosition = findInstructionPosition(method, instruction);
-            
-            if (isValidPosition(instructionPosition, analysisResults)) {
-                DefUseFrame frame = analysisResults[instructionPosition];
-                return analysisType == AnalysisType.USE ? 
-                       frame.getUses() : frame.getDefinitions();
-            }
+            DefUseResult result = analyze(ownerClass, method);
+            return analysisType == AnalysisType.USE ?
+                   result.usedBy(instruction) : result.definedBy(instruction);
         } catch (Exception e) {
             throw new AnalyzerException(instruction, "Analysis failed", e);
         }
-        
-        return Collections.emptyList();
-    }
-
-    /**
-     * Locates the position of an instruction in the method.
-     */
-    private static int findInstructionPosition(MethodNode method, AbstractInsnNode instruction) {
-        int position = 0;
-        for (AbstractInsnNode node = method.instructions.getFirst(); 
-             node != null; 
-             node = node.getNext()) {
-            if (node == instruction) {
-                return position;
-            }
-            position++;
-        }
-        return -1;
-    }
-
-    /**
-     * Validates if the instruction position is within bounds.
-     */
-    private static boolean isValidPosition(int position, DefUseFrame[] frames) {
-        return position >= 0 && position < frames.length && frames[position] != null;
     }
 
     /**
@@ -110,4 +125,7 @@ private enum AnalysisType {
         USE,
         DEFINITION
     }
-}
\ No newline at end of file
+
+    /** Identifies a method by its owning class, name and descriptor. */
+    private record MethodKey(String owner, String name, String descriptor) {}
+}
@@ -0,0 +1,208 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import br.usp.each.saeg.asm.defuse.DefUseAnalyzer;
+import br.usp.each.saeg.asm.defuse.DefUseFrame;
+import br.usp.each.saeg.asm.defuse.Value;
+import br.usp.each.saeg.asm.defuse.Variable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.Frame;
+
+/**
+ * Holds the result of a single {@link DefUseAnalyzer} run over a method.
+ *
+ * <p>The definitions and uses of every instruction are extracted once from the analyzer's frames,
+ * and instructions are mapped to their index in the method's instruction list, so that {@link
+ * #definedBy(AbstractInsnNode)} and {@link #usedBy(AbstractInsnNode)} answer in constant time.
+ * For method calls, the variables every argument is computed from are kept as well.
+ *
+ * @see AnalysisContext#getDefUse()
+ * @see DataFlowAnalysis#analyze(String, MethodNode)
+ */
+public final class DefUseResult {
+
+  private final MethodNode methodNode;
+  private final int instructionCount;
+  private final Map<AbstractInsnNode, Integer> instructionIndices;
+  private final List<Collection<Variable>> definitions;
+  private final List<Collection<Variable>> uses;
+  private final Map<Integer, List<Collection<Variable>>> arguments;
+
+  private DefUseResult(
+      MethodNode pMethodNode,
+      Map<AbstractInsnNode, Integer> pInstructionIndices,
+      List<Collection<Variable>> pDefinitions,
+      List<Collection<Variable>> pUses,
+      Map<Integer, List<Collection<Variable>>> pArguments) {
+    methodNode = pMethodNode;
+    instructionCount = pMethodNode.instructions.size();
+    instructionIndices = pInstructionIndices;
+    definitions = pDefinitions;
+    uses = pUses;
+    arguments = pArguments;
+  }
+
+  /**
+   * Collects the result of a def/use analysis of a method.
+   *
+   * @param pMethodNode The analysed method
+   * @param pFrames The frames computed by the {@link DefUseAnalyzer}, one per instruction
+   * @param pValueFrames The frames of the underlying analyzer, which hold the values before every
+   *     instruction
+   * @return The analysis result for the method
+   */
+  static DefUseResult of(
+      MethodNode pMethodNode, DefUseFrame[] pFrames, Frame<Value>[] pValueFrames) {
+    int size = pMethodNode.instructions.size();
+    Map<AbstractInsnNode, Integer> indices = new IdentityHashMap<>(size * 2);
+    Collection<Variable>[] defs = newArray(size);
+    Collection<Variable>[] used = newArray(size);
+    Map<Integer, List<Collection<Variable>>> arguments = new HashMap<>();
+
+    int index = 0;
+    for (AbstractInsnNode insn : pMethodNode.instructions) {
+      indices.put(insn, index);
+      DefUseFrame frame = index < pFrames.length ? pFrames[index] : null;
+      if (frame == null) {
+        defs[index] = Collections.emptyList();
+        used[index] = Collections.emptyList();
+      } else {
+        defs[index] = Collections.unmodifiableCollection(frame.getDefinitions());
+        used[index] = Collections.unmodifiableCollection(frame.getUses());
+        if (insn instanceof MethodInsnNode call
+            && index < pValueFrames.length
+            && pValueFrames[index] != null) {
+          arguments.put(index, argumentsOf(call, pValueFrames[index]));
+        }
+      }
+      index++;
+    }
+
+    return new DefUseResult(pMethodNode, indices, List.of(defs), List.of(used), arguments);
+  }
+
+  /** Reads the variables of the receiver and the arguments from the operand stack of a call. */
+  private static List<Collection<Variable>> argumentsOf(MethodInsnNode pCall, Frame<Value> pFrame) {
+    int count =
+        Type.getArgumentTypes(pCall.desc).length
+            + (pCall.getOpcode() == Opcodes.INVOKESTATIC ? 0 : 1);
+    int first = pFrame.getStackSize() - count;
+    List<Collection<Variable>> values = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      values.add(Collections.unmodifiableCollection(pFrame.getStack(first + i).getVariables()));
+    }
+    return Collections.unmodifiableList(values);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<Variable>[] newArray(int pSize) {
+    return (Collection<Variable>[]) new Collection<?>[pSize];
+  }
+
+  /**
+   * Provides the method this result was computed for.
+   *
+   * @return The analysed method
+   */
+  public MethodNode getMethodNode() {
+    return methodNode;
+  }
+
+  /**
+   * Checks whether this result still describes the given method, i.e., whether it was computed
+   * for the very same {@link MethodNode} instance and its instruction list was not changed in
+   * size since.
+   *
+   * @param pMethodNode The method to check
+   * @return {@code true} if the result can be used for the method
+   */
+  boolean isValidFor(MethodNode pMethodNode) {
+    return methodNode == pMethodNode && instructionCount == pMethodNode.instructions.size();
+  }
+
+  /**
+   * Provides the number of instructions of the analysed method.
+   *
+   * @return The number of instructions
+   */
+  public int size() {
+    return instructionCount;
+  }
+
+  /**
+   * Provides the index of an instruction in the method's instruction list.
+   *
+   * @param pInstruction The instruction
+   * @return The index of the instruction, or {@code -1} if it is not part of the method
+   */
+  public int indexOf(AbstractInsnNode pInstruction) {
+    if (pInstruction == null) {
+      return -1;
+    }
+    Integer index = instructionIndices.get(pInstruction);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Provides the variables defined by the instruction at the given index.
+   *
+   * @param pIndex The instruction index
+   * @return The defined variables, empty for unreachable instructions
+   */
+  public Collection<Variable> definedAt(int pIndex) {
+    return definitions.get(pIndex);
+  }
+
+  /**
+   * Provides the variables used by the instruction at the given index.
+   *
+   * @param pIndex The instruction index
+   * @return The used variables, empty for unreachable instructions
+   */
+  public Collection<Variable> usedAt(int pIndex) {
+    return uses.get(pIndex);
+  }
+
+  /**
+   * Provides the variables the receiver and the arguments of a method call are computed from.
+   *
+   * @param pIndex The instruction index of the call
+   * @return The variables of every argument, preceded by those of the receiver unless the call is
+   *     static; empty if the instruction is no reachable method call
+   */
+  public List<Collection<Variable>> argumentsAt(int pIndex) {
+    return arguments.getOrDefault(pIndex, List.of());
+  }
+
+  /**
+   * Provides the variables defined by an instruction.
+   *
+   * @param pInstruction The instruction
+   * @return The defined variables, empty if the instruction is not part of the method
+   */
+  public Collection<Variable> definedBy(AbstractInsnNode pInstruction) {
+    int index = indexOf(pInstruction);
+    return index < 0 ? Collections.emptyList() : definitions.get(index);
+  }
+
+  /**
+   * Provides the variables used by an instruction.
+   *
+   * @param pInstruction The instruction
+   * @return The used variables, empty if the instruction is not part of the method
+   */
+  public Collection<Variable> usedBy(AbstractInsnNode pInstruction) {
+    int index = indexOf(pInstruction);
+    return index < 0 ? Collections.emptyList() : uses.get(index);
+  }
+}
@@ -0,0 +1,360 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.CompactGraph;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Computes backward slices, forward slices, and chops on a dense-id copy of a dependence graph.
+ *
+ * <p>The graph is converted into a {@link CompactGraph} once. By default, every slice is computed
+ * by a breadth-first search against the edge direction that keeps its visited set and its queue in
+ * a {@link BitSet} and an {@code int[]}, respectively.
+ *
+ * <p>If many slices of the same graph are needed, {@link #precomputeClosure()} computes the
+ * backward reachability of all nodes at once: the strongly connected components of the graph are
+ * determined with Tarjan's algorithm, and the set of nodes reaching a component is propagated
+ * along the condensation in topological order as one {@link BitSet} per component. Afterwards, a
+ * slice is a lookup of the criterion's component followed by the materialisation of its set.
+ *
+ * <p>Forward slices run the same breadth-first search along the edge direction, such that the graph
+ * never has to be reversed. A chop first computes the backward slice of the sinks and then
+ * searches forward from the sources without leaving it: every node on a path from a source to a
+ * sink reaches the sink and thus lies in that slice. Batched criteria seed a single search.
+ */
+public final class DependenceSlicer implements Sliceable<Node> {
+
+  private final CompactGraph graph;
+
+  /** The component of every node id, only set once the closure has been precomputed. */
+  private int[] components;
+
+  /** The ids of all nodes that reach a component, indexed by component. */
+  private BitSet[] closure;
+
+  /**
+   * Creates a slicer for the given graph.
+   *
+   * @param pGraph The dependence graph, whose edges point from a node to its dependents
+   */
+  public DependenceSlicer(ProgramGraph pGraph) {
+    this(CompactGraph.of(pGraph));
+  }
+
+  /**
+   * Creates a slicer for the given compact graph.
+   *
+   * @param pGraph The dependence graph, whose edges point from a node to its dependents
+   */
+  public DependenceSlicer(CompactGraph pGraph) {
+    graph = pGraph;
+  }
+
+  /**
+   * Provides the compact graph the slices are computed on.
+   *
+   * @return The compact dependence graph
+   */
+  public CompactGraph getGraph() {
+    return graph;
+  }
+
+  /**
+   * Checks whether the backward reachability of all nodes has been precomputed.
+   *
+   * @return {@code true} if slices are answered from the precomputed closure
+   */
+  public boolean isPrecomputed() {
+    return closure != null;
+  }
+
+  /**
+   * Precomputes the backward reachability of all nodes, such that subsequent slices do not
+   * traverse the graph anymore.
+   *
+   * <p>This takes time linear in the size of the graph plus one bit vector union per edge of the
+   * condensation, and memory quadratic in the number of nodes.
+   *
+   * @return This slicer, for chaining
+   */
+  public DependenceSlicer precomputeClosure() {
+    if (closure != null) {
+      return this;
+    }
+    int size = graph.size();
+    int[] componentOf = new int[size];
+    int count = findComponents(componentOf);
+
+    // Tarjan's algorithm numbers the components in reverse topological order, i.e., every
+    // predecessor of a component has a higher number and is handled first when counting down.
+    BitSet[] reaching = new BitSet[count];
+    for (int c = 0; c < count; c++) {
+      reaching[c] = new BitSet(size);
+    }
+    for (int v = 0; v < size; v++) {
+      reaching[componentOf[v]].set(v);
+    }
+    int[][] members = membersOf(componentOf, count);
+    for (int c = count - 1; c >= 0; c--) {
+      for (int v : members[c]) {
+        for (int i = 0; i < graph.inDegree(v); i++) {
+          int p = componentOf[graph.predecessor(v, i)];
+          if (p != c) {
+            reaching[c].or(reaching[p]);
+          }
+        }
+      }
+    }
+
+    components = componentOf;
+    closure = reaching;
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> backwardSlice(Node pCriterion) {
+    if (pCriterion == null) {
+      return new HashSet<>();
+    }
+    int id = graph.id(pCriterion);
+    if (id < 0) {
+      Set<Node> slice = new HashSet<>();
+      slice.add(pCriterion);
+      return slice;
+    }
+    return materialize(sliceIds(id));
+  }
+
+  /**
+   * Computes the backward slice of a node given by its id in {@link #getGraph()}.
+   *
+   * @param pId The id of the slicing criterion
+   * @return The ids of all nodes in the slice; the caller may modify the returned set
+   */
+  public BitSet sliceIds(int pId) {
+    if (closure != null) {
+      return (BitSet) closure[components[pId]].clone();
+    }
+    BitSet seeds = new BitSet(graph.size());
+    seeds.set(pId);
+    return reach(seeds, false, null);
+  }
+
+  /**
+   * Computes the union of the backward slices of nodes given by their ids in {@link #getGraph()}.
+   *
+   * @param pIds The ids of the slicing criteria
+   * @return The ids of all nodes in the slice; the caller may modify the returned set
+   */
+  public BitSet sliceIds(BitSet pIds) {
+    if (closure == null) {
+      return reach(pIds, false, null);
+    }
+    BitSet slice = new BitSet(graph.size());
+    for (int v = pIds.nextSetBit(0); v >= 0; v = pIds.nextSetBit(v + 1)) {
+      slice.or(closure[components[v]]);
+    }
+    return slice;
+  }
+
+  /**
+   * Computes the union of the forward slices of nodes given by their ids in {@link #getGraph()}.
+   *
+   * @param pIds The ids of the slicing criteria
+   * @return The ids of all nodes in the slice; the caller may modify the returned set
+   */
+  public BitSet forwardSliceIds(BitSet pIds) {
+    return reach(pIds, true, null);
+  }
+
+  /**
+   * Computes the chop between nodes given by their ids in {@link #getGraph()}.
+   *
+   * @param pSources The ids of the source criteria
+   * @param pSinks The ids of the sink criteria
+   * @return The ids of all nodes on a path from a source to a sink; the caller may modify the
+   *     returned set
+   */
+  public BitSet chopIds(BitSet pSources, BitSet pSinks) {
+    BitSet within = sliceIds(pSinks);
+    BitSet sources = (BitSet) pSources.clone();
+    sources.and(within);
+    return reach(sources, true, within);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> backwardSliceAll(Collection<? extends Node> pCriteria) {
+    Set<Node> unknown = new HashSet<>();
+    Set<Node> slice = materialize(sliceIds(idsOf(pCriteria, unknown)));
+    slice.addAll(unknown);
+    return slice;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> forwardSlice(Node pCriterion) {
+    if (pCriterion == null) {
+      return new HashSet<>();
+    }
+    return forwardSliceAll(Set.of(pCriterion));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> forwardSliceAll(Collection<? extends Node> pCriteria) {
+    Set<Node> unknown = new HashSet<>();
+    Set<Node> slice = materialize(forwardSliceIds(idsOf(pCriteria, unknown)));
+    slice.addAll(unknown);
+    return slice;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A criterion that is not part of the graph is only connected to itself, i.e., it is in the
+   * chop if it is both a source and a sink.
+   */
+  @Override
+  public Set<Node> chopAll(
+      Collection<? extends Node> pSources, Collection<? extends Node> pSinks) {
+    Set<Node> unknownSources = new HashSet<>();
+    Set<Node> unknownSinks = new HashSet<>();
+    BitSet sources = idsOf(pSources, unknownSources);
+    BitSet sinks = idsOf(pSinks, unknownSinks);
+    Set<Node> chop = materialize(chopIds(sources, sinks));
+    unknownSources.retainAll(unknownSinks);
+    chop.addAll(unknownSources);
+    return chop;
+  }
+
+  /** Collects the ids of the given nodes; nodes outside the graph are added to the second set. */
+  private BitSet idsOf(Collection<? extends Node> pNodes, Set<Node> pUnknown) {
+    BitSet ids = new BitSet(graph.size());
+    for (Node node : pNodes) {
+      if (node == null) {
+        continue;
+      }
+      int id = graph.id(node);
+      if (id < 0) {
+        pUnknown.add(node);
+      } else {
+        ids.set(id);
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Breadth-first search from all seeds, against the edge direction unless {@code pForward} is
+   * set; if {@code pWithin} is given, the search does not leave these nodes.
+   */
+  private BitSet reach(BitSet pSeeds, boolean pForward, BitSet pWithin) {
+    BitSet visited = (BitSet) pSeeds.clone();
+    int[] queue = new int[graph.size()];
+    int head = 0;
+    int tail = 0;
+    for (int v = pSeeds.nextSetBit(0); v >= 0; v = pSeeds.nextSetBit(v + 1)) {
+      queue[tail++] = v;
+    }
+    while (head < tail) {
+      int v = queue[head++];
+      int degree = pForward ? graph.outDegree(v) : graph.inDegree(v);
+      for (int i = 0; i < degree; i++) {
+        int w = pForward ? graph.successor(v, i) : graph.predecessor(v, i);
+        if (!visited.get(w) && (pWithin == null || pWithin.get(w))) {
+          visited.set(w);
+          queue[tail++] = w;
+        }
+      }
+    }
+    return visited;
+  }
+
+  private Set<Node> materialize(BitSet pIds) {
+    Set<Node> slice = new HashSet<>(Math.max(16, pIds.cardinality() * 2));
+    for (int v = pIds.nextSetBit(0); v >= 0; v = pIds.nextSetBit(v + 1)) {
+      slice.add(graph.node(v));
+    }
+    return slice;
+  }
+
+  /** Iterative version of Tarjan's algorithm; returns the number of components. */
+  private int findComponents(int[] pComponentOf) {
+    int size = graph.size();
+    int[] index = new int[size];
+    int[] lowLink = new int[size];
+    int[] nextChild = new int[size];
+    boolean[] onStack = new boolean[size];
+    int[] stack = new int[size];
+    int[] callStack = new int[size];
+    Arrays.fill(index, -1);
+
+    int nextIndex = 0;
+    int count = 0;
+    int top = 0;
+    for (int root = 0; root < size; root++) {
+      if (index[root] >= 0) {
+        continue;
+      }
+      int depth = 0;
+      callStack[0] = root;
+      index[root] = lowLink[root] = nextIndex++;
+      stack[top++] = root;
+      onStack[root] = true;
+      while (depth >= 0) {
+        int v = callStack[depth];
+        if (nextChild[v] < graph.outDegree(v)) {
+          int w = graph.successor(v, nextChild[v]++);
+          if (index[w] < 0) {
+            index[w] = lowLink[w] = nextIndex++;
+            stack[top++] = w;
+            onStack[w] = true;
+            callStack[++depth] = w;
+          } else if (onStack[w]) {
+            lowLink[v] = Math.min(lowLink[v], index[w]);
+          }
+        } else {
+          if (lowLink[v] == index[v]) {
+            int w;
+            do {
+              w = stack[--top];
+              onStack[w] = false;
+              pComponentOf[w] = count;
+            } while (w != v);
+            count++;
+          }
+          depth--;
+          if (depth >= 0) {
+            int parent = callStack[depth];
+            lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  private static int[][] membersOf(int[] pComponentOf, int pCount) {
+    int[] sizes = new int[pCount];
+    for (int c : pComponentOf) {
+      sizes[c]++;
+    }
+    int[][] members = new int[pCount][];
+    for (int c = 0; c < pCount; c++) {
+      members[c] = new int[sizes[c]];
+      sizes[c] = 0;
+    }
+    for (int v = 0; v < pComponentOf.length; v++) {
+      int c = pComponentOf[v];
+      members[c][sizes[c]++] = v;
+    }
+    return members;
+  }
+}
@@ -0,0 +1,202 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.CompactGraph;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import java.util.Arrays;
+
+/**
+ * Computes immediate dominators with the iterative algorithm of Cooper, Harvey and Kennedy.
+ *
+ * <p>Nodes reachable from the root are numbered in post-order; the immediate dominators are kept
+ * in an array indexed by these numbers and refined in reverse post-order until nothing changes.
+ * The intersection of two dominator chains walks up the array using the post-order numbers, so no
+ * dominator sets are ever materialised.
+ *
+ * <p>The graph is given as a {@link CompactGraph} and can be traversed against its edge direction,
+ * which yields post-dominators without building a reversed copy of the graph.
+ *
+ * @see "K. D. Cooper, T. J. Harvey, K. Kennedy: A Simple, Fast Dominance Algorithm"
+ */
+final class Dominators {
+
+  private static final int UNDEFINED = -1;
+
+  private final CompactGraph graph;
+  private final boolean reverse;
+
+  /** The post-order number of every node id, {@link #UNDEFINED} for unreachable nodes. */
+  private final int[] numbers;
+
+  /** The node ids of the reachable nodes, indexed by their post-order number. */
+  private int[] nodes;
+
+  private int[] idom;
+  private int iterations;
+
+  private Dominators(CompactGraph pGraph, boolean pReverse) {
+    graph = pGraph;
+    reverse = pReverse;
+    numbers = new int[pGraph.size()];
+    Arrays.fill(numbers, UNDEFINED);
+  }
+
+  /**
+   * Computes the dominators of a graph.
+   *
+   * @param pGraph The graph
+   * @param pRoot The id of the root node all other nodes are dominated by
+   * @return The dominator information
+   */
+  static Dominators dominators(CompactGraph pGraph, int pRoot) {
+    return new Dominators(pGraph, false).compute(pRoot);
+  }
+
+  /**
+   * Computes the post-dominators of a graph, i.e., the dominators of its reverse graph.
+   *
+   * @param pGraph The graph
+   * @param pExit The id of the exit node all other nodes are post-dominated by
+   * @return The post-dominator information
+   */
+  static Dominators postDominators(CompactGraph pGraph, int pExit) {
+    return new Dominators(pGraph, true).compute(pExit);
+  }
+
+  /**
+   * Provides the immediate dominator of a node.
+   *
+   * @param pNode The node
+   * @return The immediate dominator, or {@code null} for the root and for unreachable nodes
+   */
+  Node immediateDominator(Node pNode) {
+    int id = graph.id(pNode);
+    if (id < 0) {
+      return null;
+    }
+    int number = numbers[id];
+    if (number == UNDEFINED || idom[number] == UNDEFINED || idom[number] == number) {
+      return null;
+    }
+    return graph.node(nodes[idom[number]]);
+  }
+
+  /**
+   * Provides the number of passes over the nodes until the fixpoint was reached.
+   *
+   * @return The number of passes
+   */
+  int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Provides the number of edges of the dominator tree, i.e., of nodes with an immediate
+   * dominator.
+   *
+   * @return The number of edges of the dominator tree
+   */
+  int edgeCount() {
+    int edges = 0;
+    for (int number = 0; number < nodes.length; number++) {
+      if (idom[number] != UNDEFINED && idom[number] != number) {
+        edges++;
+      }
+    }
+    return edges;
+  }
+
+  private int nextDegree(int pId) {
+    return reverse ? graph.inDegree(pId) : graph.outDegree(pId);
+  }
+
+  private int next(int pId, int pIndex) {
+    return reverse ? graph.predecessor(pId, pIndex) : graph.successor(pId, pIndex);
+  }
+
+  private int previousDegree(int pId) {
+    return reverse ? graph.outDegree(pId) : graph.inDegree(pId);
+  }
+
+  private int previous(int pId, int pIndex) {
+    return reverse ? graph.successor(pId, pIndex) : graph.predecessor(pId, pIndex);
+  }
+
+  private Dominators compute(int pRoot) {
+    numberPostOrder(pRoot);
+    int size = nodes.length;
+
+    idom = new int[size];
+    Arrays.fill(idom, UNDEFINED);
+    int root = size - 1;
+    idom[root] = root;
+
+    iterations = 0;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      iterations++;
+      // Reverse post-order, skipping the root
+      for (int b = root - 1; b >= 0; b--) {
+        int id = nodes[b];
+        int newIdom = UNDEFINED;
+        for (int i = 0; i < previousDegree(id); i++) {
+          int p = numbers[previous(id, i)];
+          if (p == UNDEFINED || idom[p] == UNDEFINED) {
+            continue;
+          }
+          newIdom = newIdom == UNDEFINED ? p : intersect(p, newIdom);
+        }
+        if (idom[b] != newIdom) {
+          idom[b] = newIdom;
+          changed = true;
+        }
+      }
+    }
+    return this;
+  }
+
+  private int intersect(int pFirst, int pSecond) {
+    int finger1 = pFirst;
+    int finger2 = pSecond;
+    while (finger1 != finger2) {
+      while (finger1 < finger2) {
+        finger1 = idom[finger1];
+      }
+      while (finger2 < finger1) {
+        finger2 = idom[finger2];
+      }
+    }
+    return finger1;
+  }
+
+  private void numberPostOrder(int pRoot) {
+    int size = graph.size();
+    int[] order = new int[size];
+    int count = 0;
+    int[] stack = new int[size];
+    int[] nextChild = new int[size];
+    boolean[] visited = new boolean[size];
+
+    int top = 0;
+    stack[0] = pRoot;
+    visited[pRoot] = true;
+    while (top >= 0) {
+      int v = stack[top];
+      if (nextChild[v] < nextDegree(v)) {
+        int w = next(v, nextChild[v]++);
+        if (!visited[w]) {
+          visited[w] = true;
+          stack[++top] = w;
+        }
+      } else {
+        order[count++] = v;
+        top--;
+      }
+    }
+
+    nodes = Arrays.copyOf(order, count);
+    for (int i = 0; i < count; i++) {
+      numbers[nodes[i]] = i;
+    }
+  }
+}
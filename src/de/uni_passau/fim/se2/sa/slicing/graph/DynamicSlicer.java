@@ -0,0 +1,280 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import com.google.common.base.Preconditions;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
+import de.uni_passau.fim.se2.sa.slicing.trace.ExecutionTrace;
+import de.uni_passau.fim.se2.sa.slicing.trace.TraceBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+
+/**
+ * Computes precise dynamic slices of a method from a recorded {@link ExecutionTrace}.
+ *
+ * <p>The slicer walks the trace backward from the last execution of the criterion, following the
+ * dynamic dependences of every relevant instruction instance in the manner of Agrawal and Horgan:
+ *
+ * <ul>
+ *   <li>a value taken from the operand stack depends on the latest execution of one of the
+ *       instructions that may have produced it, in the same frame,
+ *   <li>a read local variable depends on the latest write of that variable in the same frame,
+ *   <li>a read field or array element depends on the latest write of the very same location, as
+ *       recorded by the trace,
+ *   <li>an instruction depends on the latest execution of one of the predicates it is statically
+ *       control-dependent on, in the same frame.
+ * </ul>
+ *
+ * <p>Only instructions of the sliced method are added to the slice. Writes of other methods still
+ * end the dependence on a location, but the callees themselves are not sliced, just like in the
+ * static {@link ProgramDependenceGraph}. The memory accesses of an instruction are attributed to
+ * the step recorded right before them, hence the sliced execution should not run concurrently with
+ * other instrumented code.
+ */
+public final class DynamicSlicer {
+
+  private final String owningClass;
+  private final MethodNode methodNode;
+  private final int methodId;
+  private final Node[] nodes;
+  private final int[][][] producers;
+  private final int[] readLocals;
+  private final int[] writtenLocals;
+  private final int[][] controllers;
+
+  /**
+   * Creates the slicer for a method.
+   *
+   * @param pContext The analysis context of the uninstrumented method
+   * @throws AnalyzerException In case the operand stack of the method cannot be analysed
+   */
+  public DynamicSlicer(AnalysisContext pContext) throws AnalyzerException {
+    MethodNode method = pContext.getMethodNode();
+    owningClass = pContext.getOwningClass();
+    methodNode = method;
+    methodId =
+        ExecutionTrace.getMethodId(pContext.getOwningClass(), method.name, method.desc);
+
+    int size = method.instructions.size();
+    nodes = new Node[size];
+    for (Node node : pContext.getCFG().getNodes()) {
+      if (node.getInstructionIndex() >= 0) {
+        nodes[node.getInstructionIndex()] = node;
+      }
+    }
+
+    readLocals = new int[size];
+    writtenLocals = new int[size];
+    for (int i = 0; i < size; i++) {
+      AbstractInsnNode insn = method.instructions.get(i);
+      readLocals[i] = -1;
+      writtenLocals[i] = -1;
+      if (insn instanceof VarInsnNode varInsn) {
+        int opcode = varInsn.getOpcode();
+        if (opcode >= Opcodes.ISTORE && opcode <= Opcodes.ASTORE) {
+          writtenLocals[i] = varInsn.var;
+        } else if (opcode >= Opcodes.ILOAD && opcode <= Opcodes.ALOAD) {
+          readLocals[i] = varInsn.var;
+        }
+      } else if (insn instanceof IincInsnNode iincInsn) {
+        readLocals[i] = iincInsn.var;
+        writtenLocals[i] = iincInsn.var;
+      }
+    }
+
+    producers = pContext.getStackProducers();
+
+    List<List<Integer>> controlling = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      controlling.add(new ArrayList<>());
+    }
+    ProgramGraph cdg = new ControlDependenceGraph(pContext).computeResult();
+    for (Node predicate : cdg.getNodes()) {
+      if (predicate.getInstructionIndex() < 0) {
+        continue;
+      }
+      for (Node dependent : cdg.getSuccessors(predicate)) {
+        if (dependent.getInstructionIndex() >= 0) {
+          controlling.get(dependent.getInstructionIndex()).add(predicate.getInstructionIndex());
+        }
+      }
+    }
+    controllers = new int[size][];
+    for (int i = 0; i < size; i++) {
+      controllers[i] = controlling.get(i).stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+
+  /**
+   * Checks whether the method was instrumented for trace recording.
+   *
+   * @return {@code true} if the trace can contain executions of the method
+   */
+  public boolean isTraced() {
+    return methodId >= 0;
+  }
+
+  /**
+   * Computes the dynamic slice for the last execution of a criterion.
+   *
+   * @param pTrace The recorded trace
+   * @param pCriterion The slicing criterion, a node of the method's control-flow graph
+   * @return The nodes of the slice, or an empty set if the criterion was never executed
+   */
+  public Set<Node> backwardSlice(TraceBuffer pTrace, Node pCriterion) {
+    Preconditions.checkArgument(
+        pCriterion.getInstructionIndex() >= 0
+            && pCriterion.getInstructionIndex() < nodes.length
+            && pCriterion.equals(nodes[pCriterion.getInstructionIndex()]),
+        "The criterion is not part of the method");
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SLICE, owningClass, methodNode)) {
+      BitSet sliced = slice(pTrace, pCriterion.getInstructionIndex());
+      Set<Node> slice = new LinkedHashSet<>();
+      for (int i = sliced.nextSetBit(0); i >= 0; i = sliced.nextSetBit(i + 1)) {
+        if (nodes[i] != null) {
+          slice.add(nodes[i]);
+        }
+      }
+      measurement.nodes(slice.size());
+      return slice;
+    }
+  }
+
+  private BitSet slice(TraceBuffer pTrace, int pCriterion) {
+    BitSet sliced = new BitSet(nodes.length);
+    if (methodId < 0) {
+      return sliced;
+    }
+
+    // The frames that execute the sliced method
+    BitSet frames = new BitSet();
+    long size = pTrace.size();
+    for (long position = 0; position < size; position++) {
+      long record = pTrace.get(position);
+      if (ExecutionTrace.kind(record) == ExecutionTrace.ENTER
+          && ExecutionTrace.payload(record) == methodId) {
+        frames.set(ExecutionTrace.frame(record));
+      }
+    }
+
+    Map<Integer, List<int[]>> pendingInstructions = new HashMap<>();
+    Map<Integer, BitSet> wantedLocals = new HashMap<>();
+    Set<Long> wantedLocations = new HashSet<>();
+    List<Long> accesses = new ArrayList<>();
+    boolean criterionFound = false;
+
+    for (long position = size - 1; position >= 0; position--) {
+      long record = pTrace.get(position);
+      int kind = ExecutionTrace.kind(record);
+      if (kind == ExecutionTrace.READ || kind == ExecutionTrace.WRITE) {
+        // Accesses follow the step of their instruction, hence they are seen first
+        accesses.add(record);
+        continue;
+      }
+
+      int frame = ExecutionTrace.frame(record);
+      if (kind == ExecutionTrace.ENTER) {
+        // Whatever is still wanted from this frame was passed in by the caller
+        pendingInstructions.remove(frame);
+        wantedLocals.remove(frame);
+        accesses.clear();
+        if (criterionFound
+            && pendingInstructions.isEmpty()
+            && wantedLocals.isEmpty()
+            && wantedLocations.isEmpty()) {
+          // No dependence is left to resolve
+          break;
+        }
+        continue;
+      }
+
+      if (!frames.get(frame)) {
+        for (long access : accesses) {
+          if (ExecutionTrace.kind(access) == ExecutionTrace.WRITE) {
+            wantedLocations.remove(ExecutionTrace.address(access));
+          }
+        }
+        accesses.clear();
+        continue;
+      }
+
+      int insn = ExecutionTrace.payload(record);
+      boolean relevant = false;
+      if (!criterionFound && insn == pCriterion) {
+        criterionFound = true;
+        relevant = true;
+      }
+      List<int[]> pending = pendingInstructions.get(frame);
+      if (pending != null) {
+        for (Iterator<int[]> iterator = pending.iterator(); iterator.hasNext(); ) {
+          if (contains(iterator.next(), insn)) {
+            iterator.remove();
+            relevant = true;
+          }
+        }
+        if (pending.isEmpty()) {
+          pendingInstructions.remove(frame);
+        }
+      }
+      BitSet locals = wantedLocals.get(frame);
+      if (writtenLocals[insn] >= 0 && locals != null && locals.get(writtenLocals[insn])) {
+        locals.clear(writtenLocals[insn]);
+        if (locals.isEmpty()) {
+          wantedLocals.remove(frame);
+        }
+        relevant = true;
+      }
+      for (long access : accesses) {
+        if (ExecutionTrace.kind(access) == ExecutionTrace.WRITE
+            && wantedLocations.remove(ExecutionTrace.address(access))) {
+          relevant = true;
+        }
+      }
+
+      if (relevant) {
+        sliced.set(insn);
+        List<int[]> wanted = new ArrayList<>(List.of(producers[insn]));
+        if (controllers[insn].length > 0) {
+          wanted.add(controllers[insn]);
+        }
+        if (!wanted.isEmpty()) {
+          pendingInstructions.computeIfAbsent(frame, f -> new ArrayList<>()).addAll(wanted);
+        }
+        if (readLocals[insn] >= 0) {
+          wantedLocals.computeIfAbsent(frame, f -> new BitSet()).set(readLocals[insn]);
+        }
+        for (long access : accesses) {
+          if (ExecutionTrace.kind(access) == ExecutionTrace.READ) {
+            wantedLocations.add(ExecutionTrace.address(access));
+          }
+        }
+      }
+      accesses.clear();
+    }
+    return sliced;
+  }
+
+  private static boolean contains(int[] pInstructions, int pInstruction) {
+    for (int instruction : pInstructions) {
+      if (instruction == pInstruction) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
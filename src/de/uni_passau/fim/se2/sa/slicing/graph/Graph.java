@@ -1,7 +1,6 @@
 package de.uni_passau.fim.se2.sa.slicing.graph;
 
 import com.google.errorprone.annotations.Var;
-import de.uni_passau.fim.se2.sa.slicing.cfg.CFGExtractor;
 import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
 import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
 
@@ -15,32 +14,76 @@ public abstract class Graph {
   protected final ProgramGraph cfg;
   protected final MethodNode methodNode;
   protected final ClassNode classNode;
+  protected final AnalysisContext context;
 
   protected Graph(ClassNode pClassNode, MethodNode pMethodNode) {
-    @Var ProgramGraph graph = null;
+    @Var AnalysisContext analysisContext = null;
     if (pClassNode == null) {
       // This should only happen under testing conditions.
       classNode = null;
       methodNode = null;
       cfg = null;
+      context = null;
       return;
     }
 
     try {
-      graph = CFGExtractor.buildCFG(pClassNode.name, pMethodNode);
+      analysisContext = AnalysisContext.of(pClassNode, pMethodNode);
     } catch (AnalyzerException e) {
       e.printStackTrace(); // ugly but should not happen anyway
     }
 
-    cfg = graph;
+    context = analysisContext;
+    cfg = analysisContext == null ? null : analysisContext.getCFG();
     methodNode = pMethodNode;
     classNode = pClassNode;
   }
 
+  /**
+   * Creates the analysis on top of the shared results of a method, without analysing its bytecode
+   * again.
+   *
+   * @param pContext The analysis context of the method
+   */
+  protected Graph(AnalysisContext pContext) {
+    context = pContext;
+    cfg = pContext.getCFG();
+    methodNode = pContext.getMethodNode();
+    classNode = pContext.getClassNode();
+  }
+
+  /**
+   * Creates the analysis of a method whose control-flow graph is already known, e.g., restored
+   * from a cache, without analysing its bytecode.
+   *
+   * @param pClassNode The class declaring the method
+   * @param pMethodNode The method
+   * @param pCFG The control-flow graph of the method
+   */
+  protected Graph(ClassNode pClassNode, MethodNode pMethodNode, ProgramGraph pCFG) {
+    cfg = pCFG;
+    methodNode = pMethodNode;
+    classNode = pClassNode;
+    context = null;
+  }
+
   protected Graph(ProgramGraph pCFG) {
     cfg = pCFG;
     methodNode = null;
     classNode = null;
+    context = null;
+  }
+
+  /**
+   * Provides the internal name of the class declaring the analysed method, for reporting.
+   *
+   * @return The internal name, or {@code null} if the graph was not created from bytecode
+   */
+  protected String owningClass() {
+    if (context != null) {
+      return context.getOwningClass();
+    }
+    return classNode == null ? null : classNode.name;
   }
 
   /**
@@ -52,6 +95,24 @@ public ProgramGraph getCFG() {
     return cfg;
   }
 
+  /**
+   * Returns the class declaring the analysed method.
+   *
+   * @return the class node, or {@code null} if the graph was not created from bytecode
+   */
+  public ClassNode getClassNode() {
+    return classNode;
+  }
+
+  /**
+   * Returns the analysed method.
+   *
+   * @return the method node, or {@code null} if the graph was not created from bytecode
+   */
+  public MethodNode getMethodNode() {
+    return methodNode;
+  }
+
   /**
    * Computes the graph transformation and returns a new {@link ProgramGraph} of the result.
    *
@@ -2,6 +2,10 @@
 
 import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
 import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
@@ -10,6 +14,7 @@
 public class ProgramDependenceGraph extends Graph implements Sliceable<Node> {
 
   private ProgramGraph pdg;
+  private DependenceSlicer slicer;
   private final ProgramGraph cdg;
   private final ProgramGraph ddg;
 
@@ -17,17 +22,49 @@ public ProgramDependenceGraph(ClassNode pClassNode, MethodNode pMethodNode) {
     super(pClassNode, pMethodNode);
     pdg = null;
 
-    if (cfg != null) {
-      cdg = new ControlDependenceGraph(pClassNode, pMethodNode).computeResult();
-      ddg = new DataDependenceGraph(pClassNode, pMethodNode).computeResult();
+    if (context != null) {
+      cdg = new ControlDependenceGraph(context).computeResult();
+      ddg = new DataDependenceGraph(context).computeResult();
     } else {
       cdg = null;
       ddg = null;
     }
   }
 
+  /**
+   * Creates the program-dependence graph from the shared analysis results of a method.
+   *
+   * <p>The control- and data-dependence graphs are computed from the given context, such that the
+   * method's bytecode is not analysed again.
+   *
+   * @param pContext The analysis context of the method
+   */
+  public ProgramDependenceGraph(AnalysisContext pContext) {
+    super(pContext);
+    pdg = null;
+    cdg = new ControlDependenceGraph(context).computeResult();
+    ddg = new DataDependenceGraph(context).computeResult();
+  }
+
+  /**
+   * Creates the program-dependence graph of a method from graphs computed before, e.g., restored
+   * from a {@link de.uni_passau.fim.se2.sa.slicing.cache.PDGCache}.
+   *
+   * @param pClassNode The class declaring the method
+   * @param pMethodNode The method
+   * @param pCFG The control-flow graph of the method
+   * @param pProgramGraph The program-dependence graph of the method
+   */
+  public ProgramDependenceGraph(
+      ClassNode pClassNode, MethodNode pMethodNode, ProgramGraph pCFG, ProgramGraph pProgramGraph) {
+    super(pClassNode, pMethodNode, pCFG);
+    pdg = pProgramGraph;
+    cdg = null;
+    ddg = null;
+  }
+
   public ProgramDependenceGraph(ProgramGraph pProgramGraph) {
-    super(null);
+    super((ProgramGraph) null);
     pdg = pProgramGraph;
     cdg = null;
     ddg = null;
@@ -49,53 +86,141 @@ public ProgramGraph computeResult() {
     if (cdg == null && ddg == null) {
       return null;
     }
-    // Create a new ProgramGraph for the PDG
-    pdg = new ProgramGraph();
-    // Add all nodes from both CDG and DDG (union)
-    java.util.Set<Node> allNodes = new java.util.HashSet<>();
-    allNodes.addAll(cdg.getNodes());
-    allNodes.addAll(ddg.getNodes());
-    for (Node node : allNodes) {
-      pdg.addNode(node);
-    }
-    // Add all control dependence edges
-    for (Node src : cdg.getNodes()) {
-      for (Node tgt : cdg.getSuccessors(src)) {
-        pdg.addEdge(src, tgt);
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.PROGRAM_DEPENDENCE, owningClass(), methodNode)) {
+      // Create a new ProgramGraph for the PDG
+      pdg = new ProgramGraph();
+      // Add all nodes from both CDG and DDG (union)
+      Set<Node> allNodes = new HashSet<>();
+      allNodes.addAll(cdg.getNodes());
+      allNodes.addAll(ddg.getNodes());
+      for (Node node : allNodes) {
+        pdg.addNode(node);
       }
-    }
-    // Add all data dependence edges
-    for (Node src : ddg.getNodes()) {
-      for (Node tgt : ddg.getSuccessors(src)) {
-        // Avoid duplicate edges (if already present from CDG)
-        if (!pdg.getSuccessors(src).contains(tgt)) {
+      // Add all control dependence edges
+      for (Node src : cdg.getNodes()) {
+        for (Node tgt : cdg.getSuccessors(src)) {
           pdg.addEdge(src, tgt);
         }
       }
+      // Add all data dependence edges
+      for (Node src : ddg.getNodes()) {
+        for (Node tgt : ddg.getSuccessors(src)) {
+          // Avoid duplicate edges (if already present from CDG)
+          if (!pdg.getSuccessors(src).contains(tgt)) {
+            pdg.addEdge(src, tgt);
+          }
+        }
+      }
+      measurement.graph(pdg);
+      return pdg;
+    }
+  }
+
+  /**
+   * Provides the slicer that answers {@link #backwardSlice(Node)} on a dense-id copy of the PDG.
+   *
+   * @return The slicer, or {@code null} if there is no program-dependence graph
+   */
+  public DependenceSlicer getSlicer() {
+    if (slicer == null) {
+      ProgramGraph pdgGraph = computeResult();
+      if (pdgGraph == null) {
+        return null;
+      }
+      slicer = new DependenceSlicer(pdgGraph);
+    }
+    return slicer;
+  }
+
+  /**
+   * Precomputes the backward reachability of all nodes of the PDG, such that every following
+   * call of {@link #backwardSlice(Node)} is a lookup instead of a graph traversal.
+   *
+   * <p>Worthwhile if many criteria of the same method are sliced.
+   *
+   * @see DependenceSlicer#precomputeClosure()
+   */
+  public void precomputeSlices() {
+    DependenceSlicer dependenceSlicer = getSlicer();
+    if (dependenceSlicer != null) {
+      dependenceSlicer.precomputeClosure();
     }
-    return pdg;
   }
 
   /** {@inheritDoc} */
   @Override
   public Set<Node> backwardSlice(Node pCriterion) {
-    ProgramGraph pdgGraph = computeResult();
-    Set<Node> slice = new java.util.HashSet<>();
-    if (pdgGraph == null || pCriterion == null) {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SLICE, owningClass(), methodNode)) {
+      DependenceSlicer dependenceSlicer = getSlicer();
+      if (dependenceSlicer == null || pCriterion == null) {
+        return new HashSet<>();
+      }
+      Set<Node> slice = dependenceSlicer.backwardSlice(pCriterion);
+      measurement.nodes(slice.size());
       return slice;
     }
-    // Worklist algorithm: traverse PDG backward from pCriterion
-    java.util.Deque<Node> worklist = new java.util.ArrayDeque<>();
-    worklist.add(pCriterion);
-    slice.add(pCriterion);
-    while (!worklist.isEmpty()) {
-      Node current = worklist.remove();
-      for (Node pred : pdgGraph.getPredecessors(current)) {
-        if (slice.add(pred)) {
-          worklist.add(pred);
-        }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> backwardSliceAll(Collection<? extends Node> pCriteria) {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SLICE, owningClass(), methodNode)) {
+      DependenceSlicer dependenceSlicer = getSlicer();
+      if (dependenceSlicer == null) {
+        return new HashSet<>();
+      }
+      Set<Node> slice = dependenceSlicer.backwardSliceAll(pCriteria);
+      measurement.nodes(slice.size());
+      return slice;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> forwardSlice(Node pCriterion) {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SLICE, owningClass(), methodNode)) {
+      DependenceSlicer dependenceSlicer = getSlicer();
+      if (dependenceSlicer == null || pCriterion == null) {
+        return new HashSet<>();
+      }
+      Set<Node> slice = dependenceSlicer.forwardSlice(pCriterion);
+      measurement.nodes(slice.size());
+      return slice;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> forwardSliceAll(Collection<? extends Node> pCriteria) {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SLICE, owningClass(), methodNode)) {
+      DependenceSlicer dependenceSlicer = getSlicer();
+      if (dependenceSlicer == null) {
+        return new HashSet<>();
+      }
+      Set<Node> slice = dependenceSlicer.forwardSliceAll(pCriteria);
+      measurement.nodes(slice.size());
+      return slice;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Set<Node> chopAll(
+      Collection<? extends Node> pSources, Collection<? extends Node> pSinks) {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SLICE, owningClass(), methodNode)) {
+      DependenceSlicer dependenceSlicer = getSlicer();
+      if (dependenceSlicer == null) {
+        return new HashSet<>();
       }
+      Set<Node> chop = dependenceSlicer.chopAll(pSources, pSinks);
+      measurement.nodes(chop.size());
+      return chop;
     }
-    return slice;
   }
 }
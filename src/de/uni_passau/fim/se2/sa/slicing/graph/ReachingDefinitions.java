@@ -0,0 +1,273 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import br.usp.each.saeg.asm.defuse.Variable;
+import de.uni_passau.fim.se2.sa.slicing.cfg.CompactGraph;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Solves the reaching-definitions problem of a method with dense bit vectors.
+ *
+ * <p>The CFG is given as a {@link CompactGraph}, so all per-node state is kept in arrays indexed by
+ * node id. Every definition, i.e., every pair of a CFG node and a variable defined at that node,
+ * is numbered once. The GEN, IN and OUT sets of a node are {@code long[]} bit vectors over these
+ * numbers and are updated in place; the KILL set of a node is given implicitly by the masks of the
+ * variables the node defines. The fixpoint is computed with a worklist that always continues at
+ * the changed node that comes first in reverse post-order, so only nodes whose input changed are
+ * revisited.
+ *
+ * <p>Variables are identified by their {@link Variable#toString()} representation, which is
+ * computed once per definition or use when the problem is set up.
+ */
+final class ReachingDefinitions {
+
+  private final CompactGraph cfg;
+  private final DefUseResult defUse;
+
+  /** The CFG node ids in reverse post-order. */
+  private int[] order;
+
+  /** The position of every CFG node id in {@link #order}. */
+  private int[] rank;
+
+  /** The variable number of every definition. */
+  private int[] definitionVariable;
+
+  /** The node number of every definition. */
+  private int[] definitionNode;
+
+  /** The definitions of every node. */
+  private int[][] generated;
+
+  /** The variables defined at every node. */
+  private int[][] definedVariables;
+
+  /** For every variable, the bit vector of all its definitions. */
+  private long[][] variableMasks;
+
+  /** For every variable, the numbers of all its definitions. */
+  private int[][] variableDefinitions;
+
+  private final Map<String, Integer> variableNumbers = new HashMap<>();
+
+  private long[][] in;
+  private long[][] out;
+  private int iterations;
+
+  ReachingDefinitions(CompactGraph pCFG, DefUseResult pDefUse) {
+    cfg = pCFG;
+    defUse = pDefUse;
+  }
+
+  /**
+   * Numbers nodes and definitions and computes the IN and OUT sets of every node.
+   *
+   * @return This object, for chaining
+   */
+  ReachingDefinitions solve() {
+    numberNodes();
+    numberDefinitions();
+
+    int size = cfg.size();
+    int words = Math.max(1, (definitionNode.length + 63) >>> 6);
+    in = new long[size][words];
+    out = new long[size][words];
+    long[] newOut = new long[words];
+
+    BitSet worklist = new BitSet(size);
+    worklist.set(0, size);
+    iterations = 0;
+
+    for (int r = worklist.nextSetBit(0); r >= 0; r = worklist.nextSetBit(0)) {
+      worklist.clear(r);
+      iterations++;
+      int n = order[r];
+
+      // IN[n] = union of OUT[p] over all predecessors p of n
+      long[] nodeIn = in[n];
+      Arrays.fill(nodeIn, 0L);
+      for (int i = 0; i < cfg.inDegree(n); i++) {
+        long[] predOut = out[cfg.predecessor(n, i)];
+        for (int w = 0; w < words; w++) {
+          nodeIn[w] |= predOut[w];
+        }
+      }
+
+      // OUT[n] = GEN[n] ∪ (IN[n] - KILL[n])
+      System.arraycopy(nodeIn, 0, newOut, 0, words);
+      for (int v : definedVariables[n]) {
+        long[] mask = variableMasks[v];
+        for (int w = 0; w < words; w++) {
+          newOut[w] &= ~mask[w];
+        }
+      }
+      for (int d : generated[n]) {
+        newOut[d >>> 6] |= 1L << d;
+      }
+
+      if (!Arrays.equals(newOut, out[n])) {
+        System.arraycopy(newOut, 0, out[n], 0, words);
+        for (int i = 0; i < cfg.outDegree(n); i++) {
+          worklist.set(rank[cfg.successor(n, i)]);
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Provides the number of node visits the fixpoint computation needed.
+   *
+   * @return The number of node visits of the last call to {@link #solve()}
+   */
+  int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Adds an edge from every definition to each use it reaches to the given graph.
+   *
+   * @param pGraph The graph to add the data-dependence edges to
+   */
+  void addDataDependences(ProgramGraph pGraph) {
+    for (int n = 0; n < cfg.size(); n++) {
+      Node node = cfg.node(n);
+      long[] nodeIn = in[n];
+      for (Variable used : defUse.usedBy(node.getInstruction())) {
+        Integer v = variableNumbers.get(used.toString());
+        if (v == null) {
+          continue; // Never defined in this method
+        }
+        for (int d : variableDefinitions[v]) {
+          if ((nodeIn[d >>> 6] & (1L << d)) != 0) {
+            pGraph.addEdge(cfg.node(definitionNode[d]), node);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Provides the definitions of some variables that reach a node.
+   *
+   * @param pNode The id of the node
+   * @param pVariables The variables, e.g., those used by the node
+   * @param pConsumer Receives the {@link Variable#toString()} representation of the variable and
+   *     the id of the defining node for every reaching definition
+   */
+  void forEachReachingDefinition(
+      int pNode, Collection<Variable> pVariables, ObjIntConsumer<String> pConsumer) {
+    long[] nodeIn = in[pNode];
+    for (Variable variable : pVariables) {
+      String key = variable.toString();
+      Integer v = variableNumbers.get(key);
+      if (v == null) {
+        continue; // Never defined in this method
+      }
+      for (int d : variableDefinitions[v]) {
+        if ((nodeIn[d >>> 6] & (1L << d)) != 0) {
+          pConsumer.accept(key, definitionNode[d]);
+        }
+      }
+    }
+  }
+
+  private void numberNodes() {
+    int size = cfg.size();
+    order = new int[size];
+    rank = new int[size];
+    Arrays.fill(rank, -1);
+
+    // Depth-first search from the entry node
+    int[] postOrder = new int[size];
+    int count = 0;
+    int[] stack = new int[size];
+    int[] nextChild = new int[size];
+    int entry = cfg.entry();
+    if (entry >= 0) {
+      int top = 0;
+      stack[0] = entry;
+      rank[entry] = 0;
+      while (top >= 0) {
+        int v = stack[top];
+        if (nextChild[v] < cfg.outDegree(v)) {
+          int w = cfg.successor(v, nextChild[v]++);
+          if (rank[w] < 0) {
+            rank[w] = 0; // Mark as visited
+            stack[++top] = w;
+          }
+        } else {
+          postOrder[count++] = v;
+          top--;
+        }
+      }
+    }
+
+    int position = 0;
+    for (int i = count - 1; i >= 0; i--) {
+      order[position++] = postOrder[i];
+    }
+    for (int v = 0; v < size; v++) {
+      if (rank[v] < 0) {
+        order[position++] = v; // Nodes that are unreachable from the entry
+      }
+    }
+    for (int r = 0; r < size; r++) {
+      rank[order[r]] = r;
+    }
+  }
+
+  private void numberDefinitions() {
+    List<Integer> defNodes = new ArrayList<>();
+    List<Integer> defVariables = new ArrayList<>();
+    generated = new int[cfg.size()][];
+    definedVariables = new int[cfg.size()][];
+
+    for (int n = 0; n < cfg.size(); n++) {
+      Collection<Variable> defined = defUse.definedBy(cfg.node(n).getInstruction());
+      Set<Integer> variables = new LinkedHashSet<>();
+      for (Variable variable : defined) {
+        Integer v =
+            variableNumbers.computeIfAbsent(variable.toString(), k -> variableNumbers.size());
+        variables.add(v);
+      }
+      definedVariables[n] = variables.stream().mapToInt(Integer::intValue).toArray();
+      generated[n] = new int[definedVariables[n].length];
+      for (int i = 0; i < definedVariables[n].length; i++) {
+        generated[n][i] = defNodes.size();
+        defNodes.add(n);
+        defVariables.add(definedVariables[n][i]);
+      }
+    }
+
+    definitionNode = defNodes.stream().mapToInt(Integer::intValue).toArray();
+    definitionVariable = defVariables.stream().mapToInt(Integer::intValue).toArray();
+
+    int words = Math.max(1, (definitionNode.length + 63) >>> 6);
+    int[] counts = new int[variableNumbers.size()];
+    for (int v : definitionVariable) {
+      counts[v]++;
+    }
+    variableMasks = new long[counts.length][words];
+    variableDefinitions = new int[counts.length][];
+    for (int v = 0; v < counts.length; v++) {
+      variableDefinitions[v] = new int[counts[v]];
+      counts[v] = 0;
+    }
+    for (int d = 0; d < definitionVariable.length; d++) {
+      int v = definitionVariable[d];
+      variableMasks[v][d >>> 6] |= 1L << d;
+      variableDefinitions[v][counts[v]++] = d;
+    }
+  }
+}
@@ -1,10 +1,17 @@
 package de.uni_passau.fim.se2.sa.slicing.graph;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
  * A interface defining a sliceable graph.
  *
+ * <p>Backward and forward slices are mandatory. The batched variants default to the union of the
+ * slices of the single criteria, and chops default to the intersection of a forward and a backward
+ * slice; implementations that can do better override them.
+ *
  * @param <T> the type of the nodes in the graph
  */
 public interface Sliceable<T> {
@@ -16,4 +23,67 @@
    * @return A set of nodes that are in the backward slice
    */
   Set<T> backwardSlice(T pCriterion);
+
+  /**
+   * Computes the union of the backward slices of all given criteria.
+   *
+   * @param pCriteria The slicing criteria
+   * @return A set of nodes that are in the backward slice of at least one criterion
+   */
+  default Set<T> backwardSliceAll(Collection<? extends T> pCriteria) {
+    Set<T> slice = new HashSet<>();
+    for (T criterion : pCriteria) {
+      slice.addAll(backwardSlice(criterion));
+    }
+    return slice;
+  }
+
+  /**
+   * Computes the forward slice of the graph with the given criterion, i.e., all nodes that
+   * depend on the criterion.
+   *
+   * @param pCriterion The slicing criterion
+   * @return A set of nodes that are in the forward slice
+   */
+  Set<T> forwardSlice(T pCriterion);
+
+  /**
+   * Computes the union of the forward slices of all given criteria.
+   *
+   * @param pCriteria The slicing criteria
+   * @return A set of nodes that are in the forward slice of at least one criterion
+   */
+  default Set<T> forwardSliceAll(Collection<? extends T> pCriteria) {
+    Set<T> slice = new HashSet<>();
+    for (T criterion : pCriteria) {
+      slice.addAll(forwardSlice(criterion));
+    }
+    return slice;
+  }
+
+  /**
+   * Computes the chop between a source and a sink, i.e., all nodes on a dependence path from the
+   * source to the sink.
+   *
+   * @param pSource The source criterion
+   * @param pSink The sink criterion
+   * @return A set of nodes that depend on the source and that the sink depends on
+   */
+  default Set<T> chop(T pSource, T pSink) {
+    return chopAll(Collections.singleton(pSource), Collections.singleton(pSink));
+  }
+
+  /**
+   * Computes the chop between a set of sources and a set of sinks, i.e., all nodes on a
+   * dependence path from any source to any sink.
+   *
+   * @param pSources The source criteria
+   * @param pSinks The sink criteria
+   * @return A set of nodes that depend on a source and that a sink depends on
+   */
+  default Set<T> chopAll(Collection<? extends T> pSources, Collection<? extends T> pSinks) {
+    Set<T> chop = forwardSliceAll(pSources);
+    chop.retainAll(backwardSliceAll(pSinks));
+    return chop;
+  }
 }
@@ -0,0 +1,147 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.Interpreter;
+import org.objectweb.asm.tree.analysis.SourceInterpreter;
+import org.objectweb.asm.tree.analysis.SourceValue;
+
+/**
+ * Determines for every instruction the instructions that may have produced each of the values
+ * it takes from the operand stack.
+ *
+ * <p>The values are numbered in the order the instruction pops them, hence the arguments of a call
+ * keep the order of its descriptor. Instructions that duplicate or swap stack values consume them
+ * and produce new ones. The analysis is run once per method by {@link
+ * AnalysisContext#getStackProducers()}.
+ */
+final class StackProducers extends SourceInterpreter {
+
+  private final MethodNode method;
+  private final List<List<BitSet>> consumed;
+  private int current;
+  private int ordinal;
+
+  private StackProducers(MethodNode pMethod) {
+    super(Opcodes.ASM9);
+    method = pMethod;
+    consumed = new ArrayList<>(pMethod.instructions.size());
+    for (int i = 0; i < pMethod.instructions.size(); i++) {
+      consumed.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Analyses the operand stack of a method.
+   *
+   * @param pOwner The internal name of the class that owns the method
+   * @param pMethod The method to analyse
+   * @return For every instruction index and every value the instruction pops, the indices of the
+   *     instructions that may have pushed the value
+   * @throws AnalyzerException In case the operand stack of the method cannot be analysed
+   */
+  static int[][][] analyze(String pOwner, MethodNode pMethod) throws AnalyzerException {
+    StackProducers interpreter = new StackProducers(pMethod);
+    new Analyzer<>(interpreter) {
+      @Override
+      protected Frame<SourceValue> newFrame(int pLocals, int pStack) {
+        return interpreter.new RecordingFrame(pLocals, pStack);
+      }
+
+      @Override
+      protected Frame<SourceValue> newFrame(Frame<? extends SourceValue> pFrame) {
+        return interpreter.new RecordingFrame(pFrame);
+      }
+    }.analyze(pOwner, pMethod);
+
+    int[][][] producers = new int[interpreter.consumed.size()][][];
+    for (int i = 0; i < producers.length; i++) {
+      List<BitSet> values = interpreter.consumed.get(i);
+      producers[i] = new int[values.size()][];
+      for (int value = 0; value < values.size(); value++) {
+        producers[i][value] = values.get(value).stream().toArray();
+      }
+    }
+    return producers;
+  }
+
+  @Override
+  public SourceValue copyOperation(AbstractInsnNode pInsn, SourceValue pValue) {
+    int opcode = pInsn.getOpcode();
+    if (opcode < Opcodes.ILOAD || opcode > Opcodes.ALOAD) {
+      // Loads copy a local variable, every other copy takes a value from the stack
+      consume(pValue);
+    }
+    return super.copyOperation(pInsn, pValue);
+  }
+
+  @Override
+  public SourceValue unaryOperation(AbstractInsnNode pInsn, SourceValue pValue) {
+    if (pInsn.getOpcode() != Opcodes.IINC) {
+      consume(pValue);
+    }
+    return super.unaryOperation(pInsn, pValue);
+  }
+
+  @Override
+  public SourceValue binaryOperation(
+      AbstractInsnNode pInsn, SourceValue pValue1, SourceValue pValue2) {
+    consume(pValue1);
+    consume(pValue2);
+    return super.binaryOperation(pInsn, pValue1, pValue2);
+  }
+
+  @Override
+  public SourceValue ternaryOperation(
+      AbstractInsnNode pInsn, SourceValue pValue1, SourceValue pValue2, SourceValue pValue3) {
+    consume(pValue1);
+    consume(pValue2);
+    consume(pValue3);
+    return super.ternaryOperation(pInsn, pValue1, pValue2, pValue3);
+  }
+
+  @Override
+  public SourceValue naryOperation(
+      AbstractInsnNode pInsn, List<? extends SourceValue> pValues) {
+    pValues.forEach(this::consume);
+    return super.naryOperation(pInsn, pValues);
+  }
+
+  private void consume(SourceValue pValue) {
+    List<BitSet> values = consumed.get(current);
+    if (ordinal == values.size()) {
+      values.add(new BitSet());
+    }
+    BitSet sources = values.get(ordinal++);
+    for (AbstractInsnNode source : pValue.insns) {
+      sources.set(method.instructions.indexOf(source));
+    }
+  }
+
+  /** A frame that tells the interpreter which instruction it is executing. */
+  private final class RecordingFrame extends Frame<SourceValue> {
+
+    RecordingFrame(int pLocals, int pStack) {
+      super(pLocals, pStack);
+    }
+
+    RecordingFrame(Frame<? extends SourceValue> pFrame) {
+      super(pFrame);
+    }
+
+    @Override
+    public void execute(AbstractInsnNode pInsn, Interpreter<SourceValue> pInterpreter)
+        throws AnalyzerException {
+      current = method.instructions.indexOf(pInsn);
+      ordinal = 0;
+      super.execute(pInsn, pInterpreter);
+    }
+  }
+}
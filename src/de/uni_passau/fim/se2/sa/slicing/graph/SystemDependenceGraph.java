@@ -0,0 +1,908 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import br.usp.each.saeg.asm.defuse.Local;
+import br.usp.each.saeg.asm.defuse.Variable;
+import de.uni_passau.fim.se2.sa.slicing.cfg.CompactGraph;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+
+/**
+ * Provides the system-dependence graph of all methods of a set of classes.
+ *
+ * <p>The graph joins the program-dependence graphs of the methods. Every method gets an entry
+ * vertex, which the nodes that are not control dependent on any other node depend on, a formal-in
+ * vertex per parameter, including the receiver, and a formal-out vertex for the returned value.
+ * Every call of a method of the class set gets an actual-in vertex per argument and an actual-out
+ * vertex for the result, which are connected to the formal vertices of every possible target of
+ * the call by parameter-in and parameter-out edges; the call itself is connected to the entry
+ * vertices of its targets by call edges. Fields and arrays are not passed between methods.
+ *
+ * <p>Summary edges connect the actual-in and actual-out vertices of a call whenever the result of
+ * a target depends on the argument. They are computed once for the whole graph, on the first
+ * slice, with the worklist algorithm of Reps et al., which visits every vertex at most once per
+ * formal-out vertex of its method. Slices are computed with the two-phase algorithm of Horwitz,
+ * Reps and Binkley: the first phase ascends into the callers and steps over calls by summary
+ * edges, the second one descends into the callees. Hence, both phases are linear in the size of
+ * the graph. Forward slices follow the edges in the opposite direction, with the first phase
+ * ascending into the callers along parameter-out edges.
+ */
+public final class SystemDependenceGraph implements Sliceable<Node> {
+
+  private static final byte INSTRUCTION = 0;
+  private static final byte ENTRY = 1;
+  private static final byte FORMAL_IN = 2;
+  private static final byte FORMAL_OUT = 3;
+  private static final byte ACTUAL_IN = 4;
+  private static final byte ACTUAL_OUT = 5;
+
+  /** Edges within a method: control and data dependences and the bindings of parameters. */
+  private static final byte INTRA = 0;
+
+  private static final byte CALL = 1;
+  private static final byte PARAMETER_IN = 2;
+  private static final byte PARAMETER_OUT = 3;
+
+  private final List<Procedure> procedures = new ArrayList<>();
+  private final Map<MethodNode, Procedure> proceduresByMethod = new IdentityHashMap<>();
+  private final List<Node> nodes = new ArrayList<>();
+  private byte[] kinds;
+  private int[] procedureOf;
+  private int[] parameterOf;
+
+  private int[] predecessorOffsets;
+  private int[] predecessors;
+  private byte[] edgeKinds;
+
+  /** The summary edges by their actual-out vertex, computed on the first slice. */
+  private int[] summaryOffsets;
+
+  private int[] summaryPredecessors;
+
+  /** The edges and summary edges by their source vertex, computed on the first forward slice. */
+  private int[] successorOffsets;
+
+  private int[] successors;
+  private byte[] successorKinds;
+  private int[] summaryOffsetsForward;
+  private int[] summarySuccessors;
+
+  /**
+   * Analyses all methods with code of the given classes and connects their calls.
+   *
+   * @param pClasses The classes, which may call each other
+   * @throws AnalyzerException In case of problems during the analysis of a method
+   */
+  public SystemDependenceGraph(Collection<ClassNode> pClasses) throws AnalyzerException {
+    Map<String, ClassNode> classes = new LinkedHashMap<>();
+    for (ClassNode classNode : pClasses) {
+      classes.put(classNode.name, classNode);
+    }
+    Map<String, Procedure> methods = new HashMap<>();
+    for (ClassNode classNode : classes.values()) {
+      for (MethodNode methodNode : classNode.methods) {
+        if (methodNode.instructions.size() == 0) {
+          continue; // Abstract and native methods
+        }
+        Procedure procedure =
+            new Procedure(procedures.size(), AnalysisContext.of(classNode, methodNode));
+        procedures.add(procedure);
+        proceduresByMethod.put(methodNode, procedure);
+        methods.put(classNode.name + "." + methodNode.name + methodNode.desc, procedure);
+      }
+    }
+
+    EdgeList edges = new EdgeList();
+    for (Procedure procedure : procedures) {
+      allocate(procedure, classes, methods);
+    }
+    for (Procedure procedure : procedures) {
+      connect(procedure, edges);
+    }
+    buildPredecessors(edges);
+  }
+
+  /**
+   * Provides the control-flow graph of an analysed method, whose nodes are those of the slices.
+   *
+   * @param pMethodNode The method
+   * @return The control-flow graph, or {@code null} if the method is not part of the graph
+   */
+  public ProgramGraph getCFG(MethodNode pMethodNode) {
+    Procedure procedure = proceduresByMethod.get(pMethodNode);
+    return procedure == null ? null : procedure.context.getCFG();
+  }
+
+  /**
+   * Provides the class declaring an analysed method.
+   *
+   * @param pMethodNode The method
+   * @return The internal name of the class, or {@code null} if the method is not part of the graph
+   */
+  public String getOwningClass(MethodNode pMethodNode) {
+    Procedure procedure = proceduresByMethod.get(pMethodNode);
+    return procedure == null ? null : procedure.context.getOwningClass();
+  }
+
+  /**
+   * Provides the number of vertices, including the entry, formal and actual vertices.
+   *
+   * @return The number of vertices
+   */
+  public int size() {
+    return nodes.size();
+  }
+
+  /**
+   * Provides the number of summary edges, computing them if necessary.
+   *
+   * @return The number of summary edges
+   */
+  public int getSummaryEdgeCount() {
+    computeSummaryEdges();
+    return summaryPredecessors.length;
+  }
+
+  /**
+   * Computes the interprocedural backward slice of a node of one of the methods.
+   *
+   * @param pCriterion The slicing criterion, a node of a control-flow graph of {@link
+   *     #getCFG(MethodNode)}
+   * @return The nodes of all methods in the slice, without entry, formal and actual vertices, in
+   *     the order of the methods
+   */
+  @Override
+  public Set<Node> backwardSlice(Node pCriterion) {
+    Set<Node> slice = new LinkedHashSet<>();
+    for (Set<Node> methodSlice : backwardSliceByMethod(pCriterion).values()) {
+      slice.addAll(methodSlice);
+    }
+    if (pCriterion != null && slice.isEmpty()) {
+      slice.add(pCriterion);
+    }
+    return slice;
+  }
+
+  /**
+   * Computes the interprocedural backward slice of a node and groups it by method.
+   *
+   * @param pCriterion The slicing criterion, a node of a control-flow graph of {@link
+   *     #getCFG(MethodNode)}
+   * @return The nodes in the slice per method, in the order of the classes and their methods
+   */
+  public Map<MethodNode, Set<Node>> backwardSliceByMethod(Node pCriterion) {
+    return sliceByMethod(pCriterion, false);
+  }
+
+  /**
+   * Computes the interprocedural forward slice of a node of one of the methods, i.e., all nodes
+   * that depend on it.
+   *
+   * @param pCriterion The slicing criterion, a node of a control-flow graph of {@link
+   *     #getCFG(MethodNode)}
+   * @return The nodes of all methods in the slice, without entry, formal and actual vertices, in
+   *     the order of the methods
+   */
+  @Override
+  public Set<Node> forwardSlice(Node pCriterion) {
+    Set<Node> slice = new LinkedHashSet<>();
+    for (Set<Node> methodSlice : forwardSliceByMethod(pCriterion).values()) {
+      slice.addAll(methodSlice);
+    }
+    if (pCriterion != null && slice.isEmpty()) {
+      slice.add(pCriterion);
+    }
+    return slice;
+  }
+
+  /**
+   * Computes the interprocedural forward slice of a node and groups it by method.
+   *
+   * @param pCriterion The slicing criterion, a node of a control-flow graph of {@link
+   *     #getCFG(MethodNode)}
+   * @return The nodes in the slice per method, in the order of the classes and their methods
+   */
+  public Map<MethodNode, Set<Node>> forwardSliceByMethod(Node pCriterion) {
+    return sliceByMethod(pCriterion, true);
+  }
+
+  private Map<MethodNode, Set<Node>> sliceByMethod(Node pCriterion, boolean pForward) {
+    Map<MethodNode, Set<Node>> slices = new LinkedHashMap<>();
+    int criterion = find(pCriterion);
+    if (criterion < 0) {
+      return slices;
+    }
+    AnalysisContext owner = procedureOf(criterion).context;
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SLICE, owner.getOwningClass(), owner.getMethodNode())) {
+      computeSummaryEdges();
+      if (pForward) {
+        computeSuccessors();
+      }
+
+      // Phase 1: stay in the method and ascend into its callers
+      BitSet visited = new BitSet(size());
+      int[] queue = new int[size()];
+      int tail =
+          traverse(
+              new int[] {criterion},
+              1,
+              visited,
+              queue,
+              pForward ? PARAMETER_IN : PARAMETER_OUT,
+              pForward);
+      // Phase 2: descend into the called methods
+      int[] seeds = Arrays.copyOf(queue, tail);
+      traverse(
+          seeds, seeds.length, visited, queue, pForward ? PARAMETER_OUT : PARAMETER_IN, pForward);
+
+      int sliced = 0;
+      for (Procedure procedure : procedures) {
+        Set<Node> slice = new LinkedHashSet<>();
+        for (int id = visited.nextSetBit(procedure.start);
+            id >= 0 && id < procedure.start + procedure.cfgSize;
+            id = visited.nextSetBit(id + 1)) {
+          slice.add(nodes.get(id));
+        }
+        if (!slice.isEmpty()) {
+          slices.put(procedure.context.getMethodNode(), slice);
+          sliced += slice.size();
+        }
+      }
+      measurement.nodes(sliced);
+      return slices;
+    }
+  }
+
+  /**
+   * Collects all vertices reachable backwards, or forwards, from the seeds without following edges
+   * of the excluded kind; call edges are followed only along with parameter-in edges.
+   */
+  private int traverse(
+      int[] pSeeds, int pCount, BitSet pVisited, int[] pQueue, byte pExcluded, boolean pForward) {
+    int[] offsets = pForward ? successorOffsets : predecessorOffsets;
+    int[] adjacent = pForward ? successors : predecessors;
+    byte[] adjacentKinds = pForward ? successorKinds : edgeKinds;
+    int[] summaryOffsetsOf = pForward ? summaryOffsetsForward : summaryOffsets;
+    int[] summaryAdjacent = pForward ? summarySuccessors : summaryPredecessors;
+    int head = 0;
+    int tail = 0;
+    for (int i = 0; i < pCount; i++) {
+      pVisited.set(pSeeds[i]);
+      pQueue[tail++] = pSeeds[i];
+    }
+    boolean followCalls = pExcluded != PARAMETER_IN;
+    while (head < tail) {
+      int v = pQueue[head++];
+      for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+        byte kind = adjacentKinds[i];
+        int u = adjacent[i];
+        if (kind != pExcluded && (followCalls || kind != CALL) && !pVisited.get(u)) {
+          pVisited.set(u);
+          pQueue[tail++] = u;
+        }
+      }
+      for (int i = summaryOffsetsOf[v]; i < summaryOffsetsOf[v + 1]; i++) {
+        int u = summaryAdjacent[i];
+        if (!pVisited.get(u)) {
+          pVisited.set(u);
+          pQueue[tail++] = u;
+        }
+      }
+    }
+    return tail;
+  }
+
+  private Procedure procedureOf(int pVertex) {
+    for (Procedure procedure : procedures) {
+      if (pVertex >= procedure.start && pVertex < procedure.start + procedure.size) {
+        return procedure;
+      }
+    }
+    throw new IllegalArgumentException("No method contains vertex " + pVertex);
+  }
+
+  private int find(Node pCriterion) {
+    if (pCriterion == null || pCriterion.getInstruction() == null) {
+      return -1;
+    }
+    for (Procedure procedure : procedures) {
+      int id = procedure.context.getCompactCFG().id(pCriterion);
+      if (id >= 0) {
+        return procedure.start + id;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Computes the summary edges with path edges from every vertex to the formal-out vertex of its
+   * method, kept as one bit vector over the vertices of a method.
+   */
+  private synchronized void computeSummaryEdges() {
+    if (summaryOffsets != null) {
+      return;
+    }
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.SUMMARY_EDGES, null, null)) {
+      measurement.iterations(solveSummaryEdges()).nodes(size()).edges(summaryPredecessors.length);
+    }
+  }
+
+  /** Runs the worklist algorithm of the summary edges and returns the number of iterations. */
+  private int solveSummaryEdges() {
+    BitSet[] pathEdges = new BitSet[procedures.size()];
+    Map<Integer, List<Integer>> summaries = new HashMap<>();
+    Set<Long> summaryEdges = new HashSet<>();
+    long[] worklist = new long[procedures.size() + 16];
+    int pending = 0;
+
+    for (Procedure procedure : procedures) {
+      if (procedure.formalOut >= 0) {
+        pathEdges[procedure.index] = new BitSet(procedure.size);
+        pathEdges[procedure.index].set(procedure.formalOut - procedure.start);
+        worklist[pending++] = pair(procedure.formalOut, procedure.formalOut);
+      }
+    }
+
+    int iterations = 0;
+    while (pending > 0) {
+      iterations++;
+      long next = worklist[--pending];
+      int v = (int) (next >>> 32);
+      int w = (int) next;
+      List<int[]> propagated = new ArrayList<>();
+      if (kinds[v] == FORMAL_IN) {
+        Procedure callee = procedures.get(procedureOf[v]);
+        for (CallSite callSite : callee.callers) {
+          int actualIn = callSite.actualIns[parameterOf[v]];
+          if (callSite.actualOut < 0 || !summaryEdges.add(pair(actualIn, callSite.actualOut))) {
+            continue;
+          }
+          summaries.computeIfAbsent(callSite.actualOut, k -> new ArrayList<>()).add(actualIn);
+          Procedure caller = procedures.get(procedureOf[callSite.actualOut]);
+          if (caller.formalOut >= 0
+              && pathEdges[caller.index].get(callSite.actualOut - caller.start)) {
+            propagated.add(new int[] {actualIn, caller.formalOut});
+          }
+        }
+      } else {
+        for (int i = predecessorOffsets[v]; i < predecessorOffsets[v + 1]; i++) {
+          if (edgeKinds[i] == INTRA) {
+            propagated.add(new int[] {predecessors[i], w});
+          }
+        }
+        for (int u : summaries.getOrDefault(v, List.of())) {
+          propagated.add(new int[] {u, w});
+        }
+      }
+
+      for (int[] edge : propagated) {
+        Procedure procedure = procedures.get(procedureOf[edge[1]]);
+        BitSet reached = pathEdges[procedure.index];
+        if (!reached.get(edge[0] - procedure.start)) {
+          reached.set(edge[0] - procedure.start);
+          if (pending == worklist.length) {
+            worklist = Arrays.copyOf(worklist, pending * 2);
+          }
+          worklist[pending++] = pair(edge[0], edge[1]);
+        }
+      }
+    }
+
+    int[] offsets = new int[size() + 1];
+    for (Map.Entry<Integer, List<Integer>> entry : summaries.entrySet()) {
+      offsets[entry.getKey() + 1] = entry.getValue().size();
+    }
+    for (int v = 0; v < size(); v++) {
+      offsets[v + 1] += offsets[v];
+    }
+    int[] sources = new int[offsets[size()]];
+    for (Map.Entry<Integer, List<Integer>> entry : summaries.entrySet()) {
+      int position = offsets[entry.getKey()];
+      for (int u : entry.getValue()) {
+        sources[position++] = u;
+      }
+    }
+    summaryPredecessors = sources;
+    summaryOffsets = offsets;
+    return iterations;
+  }
+
+  /** Inverts the edges and the summary edges for forward slices, unless done before. */
+  private synchronized void computeSuccessors() {
+    if (successorOffsets != null) {
+      return;
+    }
+    int size = size();
+    int[] offsets = invertOffsets(predecessorOffsets, predecessors);
+    int[] targets = new int[predecessors.length];
+    byte[] targetKinds = new byte[predecessors.length];
+    int[] fill = Arrays.copyOf(offsets, size);
+    for (int v = 0; v < size; v++) {
+      for (int i = predecessorOffsets[v]; i < predecessorOffsets[v + 1]; i++) {
+        int position = fill[predecessors[i]]++;
+        targets[position] = v;
+        targetKinds[position] = edgeKinds[i];
+      }
+    }
+
+    int[] summaryOffsetsOf = invertOffsets(summaryOffsets, summaryPredecessors);
+    int[] summaryTargets = new int[summaryPredecessors.length];
+    fill = Arrays.copyOf(summaryOffsetsOf, size);
+    for (int v = 0; v < size; v++) {
+      for (int i = summaryOffsets[v]; i < summaryOffsets[v + 1]; i++) {
+        summaryTargets[fill[summaryPredecessors[i]]++] = v;
+      }
+    }
+
+    successors = targets;
+    successorKinds = targetKinds;
+    summarySuccessors = summaryTargets;
+    summaryOffsetsForward = summaryOffsetsOf;
+    successorOffsets = offsets;
+  }
+
+  /** Computes the offsets of the inverse of adjacency lists in CSR format. */
+  private static int[] invertOffsets(int[] pOffsets, int[] pAdjacent) {
+    int size = pOffsets.length - 1;
+    int[] offsets = new int[size + 1];
+    for (int u : pAdjacent) {
+      offsets[u + 1]++;
+    }
+    for (int v = 0; v < size; v++) {
+      offsets[v + 1] += offsets[v];
+    }
+    return offsets;
+  }
+
+  private static long pair(int pFirst, int pSecond) {
+    return (long) pFirst << 32 | (pSecond & 0xFFFFFFFFL);
+  }
+
+  /** Numbers the vertices of a method and resolves the targets of its calls. */
+  private void allocate(
+      Procedure pProcedure, Map<String, ClassNode> pClasses, Map<String, Procedure> pMethods) {
+    MethodNode methodNode = pProcedure.context.getMethodNode();
+    String name = pProcedure.context.getOwningClass() + "." + methodNode.name + methodNode.desc;
+    CompactGraph cfg = pProcedure.context.getCompactCFG();
+
+    pProcedure.start = nodes.size();
+    pProcedure.cfgSize = cfg.size();
+    nodes.addAll(cfg.getNodes());
+    pProcedure.entry = add(name + " entry");
+    int parameters = parameterCount(methodNode.desc, (methodNode.access & Opcodes.ACC_STATIC) != 0);
+    pProcedure.formalIns = new int[parameters];
+    for (int i = 0; i < parameters; i++) {
+      pProcedure.formalIns[i] = add(name + " formal-in " + i);
+    }
+    pProcedure.formalOut =
+        Type.getReturnType(methodNode.desc) == Type.VOID_TYPE ? -1 : add(name + " formal-out");
+
+    for (int n = 0; n < cfg.size(); n++) {
+      if (!(cfg.node(n).getInstruction() instanceof MethodInsnNode call)) {
+        continue;
+      }
+      Set<Procedure> targets = resolve(call, pClasses, pMethods);
+      if (targets.isEmpty()) {
+        continue;
+      }
+      String site = " at " + cfg.node(n).getInstructionIndex();
+      CallSite callSite = new CallSite(pProcedure.start + n, targets);
+      callSite.actualIns =
+          new int[parameterCount(call.desc, call.getOpcode() == Opcodes.INVOKESTATIC)];
+      for (int i = 0; i < callSite.actualIns.length; i++) {
+        callSite.actualIns[i] = add(name + " actual-in " + i + site);
+      }
+      callSite.actualOut =
+          Type.getReturnType(call.desc) == Type.VOID_TYPE ? -1 : add(name + " actual-out" + site);
+      pProcedure.callSites.put(call, callSite);
+      for (Procedure target : targets) {
+        target.callers.add(callSite);
+      }
+    }
+    pProcedure.size = nodes.size() - pProcedure.start;
+  }
+
+  private int add(String pName) {
+    nodes.add(new Node(pName));
+    return nodes.size() - 1;
+  }
+
+  private static int parameterCount(String pDescriptor, boolean pStatic) {
+    return Type.getArgumentTypes(pDescriptor).length + (pStatic ? 0 : 1);
+  }
+
+  /**
+   * Resolves the methods of the class set a call may invoke: the method it refers to, looked up
+   * along the superclasses, and for virtual calls also every method overriding it.
+   */
+  private static Set<Procedure> resolve(
+      MethodInsnNode pCall, Map<String, ClassNode> pClasses, Map<String, Procedure> pMethods) {
+    Set<Procedure> targets = new LinkedHashSet<>();
+    String signature = "." + pCall.name + pCall.desc;
+    for (String owner = pCall.owner; owner != null; ) {
+      Procedure declared = pMethods.get(owner + signature);
+      if (declared != null) {
+        targets.add(declared);
+        break;
+      }
+      ClassNode classNode = pClasses.get(owner);
+      owner = classNode == null ? null : classNode.superName;
+    }
+    if (pCall.getOpcode() == Opcodes.INVOKEVIRTUAL
+        || pCall.getOpcode() == Opcodes.INVOKEINTERFACE) {
+      for (ClassNode classNode : pClasses.values()) {
+        Procedure overriding = pMethods.get(classNode.name + signature);
+        if (overriding != null && isSubtype(classNode, pCall.owner, pClasses)) {
+          targets.add(overriding);
+        }
+      }
+    }
+    return targets;
+  }
+
+  private static boolean isSubtype(
+      ClassNode pClass, String pSupertype, Map<String, ClassNode> pClasses) {
+    if (pClass.name.equals(pSupertype)) {
+      return true;
+    }
+    List<String> supertypes = new ArrayList<>(pClass.interfaces);
+    if (pClass.superName != null) {
+      supertypes.add(pClass.superName);
+    }
+    for (String supertype : supertypes) {
+      ClassNode superClass = pClasses.get(supertype);
+      if (supertype.equals(pSupertype)
+          || (superClass != null && isSubtype(superClass, pSupertype, pClasses))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Adds the dependences within a method and those of its calls. */
+  private void connect(Procedure pProcedure, EdgeList pEdges) throws AnalyzerException {
+    AnalysisContext context = pProcedure.context;
+    CompactGraph cfg = context.getCompactCFG();
+    DefUseResult defUse = context.getDefUse();
+    int start = pProcedure.start;
+
+    // Control dependences; nodes without a controlling node depend on the entry vertex
+    ProgramGraph cdg = new ControlDependenceGraph(context).computeResult();
+    for (int n = 0; n < cfg.size(); n++) {
+      Node node = cfg.node(n);
+      if (cdg.getPredecessors(node).isEmpty()) {
+        pEdges.add(pProcedure.entry, start + n, INTRA);
+      }
+      for (Node controlled : cdg.getSuccessors(node)) {
+        pEdges.add(start + n, start + cfg.id(controlled), INTRA);
+      }
+    }
+    for (int formalIn : pProcedure.formalIns) {
+      pEdges.add(pProcedure.entry, formalIn, INTRA);
+    }
+    if (pProcedure.formalOut >= 0) {
+      pEdges.add(pProcedure.entry, pProcedure.formalOut, INTRA);
+    }
+
+    // Data dependences; the parameters are defined at the first instruction
+    Map<String, Integer> parameters = new HashMap<>();
+    int parameterDefinition = -1;
+    for (int n = 0; n < cfg.size(); n++) {
+      if (cfg.node(n).getInstructionIndex() == 0) {
+        parameterDefinition = n;
+      }
+    }
+    int[] slots = parameterSlots(context.getMethodNode());
+    for (Variable defined : defUse.definedAt(0)) {
+      if (defined instanceof Local local) {
+        int parameter = Arrays.binarySearch(slots, local.var);
+        if (parameter >= 0) {
+          parameters.put(local.toString(), parameter);
+        }
+      }
+    }
+    ReachingDefinitions reachingDefinitions = new ReachingDefinitions(cfg, defUse).solve();
+    for (int n = 0; n < cfg.size(); n++) {
+      AbstractInsnNode instruction = cfg.node(n).getInstruction();
+      addDataDependences(
+          pProcedure,
+          reachingDefinitions,
+          n,
+          defUse.usedBy(instruction),
+          start + n,
+          parameterDefinition,
+          parameters,
+          pEdges);
+      if (instruction != null
+          && instruction.getOpcode() >= Opcodes.IRETURN
+          && instruction.getOpcode() <= Opcodes.ARETURN
+          && pProcedure.formalOut >= 0) {
+        pEdges.add(start + n, pProcedure.formalOut, INTRA);
+      }
+    }
+
+    // Calls: arguments, results and the edges to the called methods
+    for (CallSite callSite : pProcedure.callSites.values()) {
+      int call = callSite.node - start;
+      List<Collection<Variable>> arguments =
+          defUse.argumentsAt(cfg.node(call).getInstructionIndex());
+      for (int i = 0; i < callSite.actualIns.length; i++) {
+        pEdges.add(callSite.node, callSite.actualIns[i], INTRA);
+        if (i < arguments.size()) {
+          addDataDependences(
+              pProcedure,
+              reachingDefinitions,
+              call,
+              arguments.get(i),
+              callSite.actualIns[i],
+              parameterDefinition,
+              parameters,
+              pEdges);
+        }
+      }
+      if (callSite.actualOut >= 0) {
+        pEdges.add(callSite.node, callSite.actualOut, INTRA);
+      }
+      for (Procedure target : callSite.targets) {
+        pEdges.add(callSite.node, target.entry, CALL);
+        for (int i = 0; i < callSite.actualIns.length && i < target.formalIns.length; i++) {
+          pEdges.add(callSite.actualIns[i], target.formalIns[i], PARAMETER_IN);
+        }
+        if (callSite.actualOut >= 0 && target.formalOut >= 0) {
+          pEdges.add(target.formalOut, callSite.actualOut, PARAMETER_OUT);
+        }
+      }
+    }
+    if (!pProcedure.callSites.isEmpty()) {
+      addResultDependences(pProcedure, pEdges);
+    }
+  }
+
+  /** Connects the definitions of the given variables reaching a node to a dependent vertex. */
+  private static void addDataDependences(
+      Procedure pProcedure,
+      ReachingDefinitions pReachingDefinitions,
+      int pNode,
+      Collection<Variable> pVariables,
+      int pDependent,
+      int pParameterDefinition,
+      Map<String, Integer> pParameters,
+      EdgeList pEdges) {
+    pReachingDefinitions.forEachReachingDefinition(
+        pNode,
+        pVariables,
+        (variable, definition) -> {
+          Integer parameter =
+              definition == pParameterDefinition ? pParameters.get(variable) : null;
+          pEdges.add(
+              parameter == null ? pProcedure.start + definition : pProcedure.formalIns[parameter],
+              pDependent,
+              INTRA);
+        });
+  }
+
+  /**
+   * Connects the actual-out vertex of every call to the instructions consuming the result from
+   * the operand stack, or to the actual-in vertex if the result is passed to another call. Values
+   * that are only duplicated or swapped keep the call as their producer.
+   */
+  private static void addResultDependences(Procedure pProcedure, EdgeList pEdges)
+      throws AnalyzerException {
+    int[][][] producers = pProcedure.context.getStackProducers();
+    InsnList instructions = pProcedure.context.getMethodNode().instructions;
+    CompactGraph cfg = pProcedure.context.getCompactCFG();
+    Map<AbstractInsnNode, Integer> ids = new IdentityHashMap<>();
+    for (int n = 0; n < cfg.size(); n++) {
+      ids.put(cfg.node(n).getInstruction(), n);
+    }
+    Set<Consumption> consumptions = new LinkedHashSet<>();
+    for (int insn = 0; insn < producers.length; insn++) {
+      AbstractInsnNode consumer = instructions.get(insn);
+      if (isStackCopy(consumer)) {
+        continue;
+      }
+      for (int value = 0; value < producers[insn].length; value++) {
+        int argument = consumer instanceof MethodInsnNode ? value : -1;
+        for (int producer : callsProducing(producers, instructions, producers[insn][value])) {
+          consumptions.add(new Consumption(instructions.get(producer), consumer, argument));
+        }
+      }
+    }
+
+    for (Consumption consumption : consumptions) {
+      CallSite producer = pProcedure.callSites.get(consumption.producer());
+      Integer consumer = ids.get(consumption.consumer());
+      if (producer == null || producer.actualOut < 0 || consumer == null) {
+        continue;
+      }
+      CallSite consumingCall = pProcedure.callSites.get(consumption.consumer());
+      if (consumingCall != null && consumption.argument() >= 0) {
+        pEdges.add(producer.actualOut, consumingCall.actualIns[consumption.argument()], INTRA);
+      } else {
+        pEdges.add(producer.actualOut, pProcedure.start + consumer, INTRA);
+      }
+    }
+  }
+
+  /** Resolves the producers of a stack value to the calls, looking through copies of values. */
+  private static int[] callsProducing(
+      int[][][] pProducers, InsnList pInstructions, int[] pValueProducers) {
+    BitSet calls = new BitSet();
+    BitSet visited = new BitSet();
+    Deque<Integer> worklist = new ArrayDeque<>();
+    for (int producer : pValueProducers) {
+      worklist.push(producer);
+    }
+    while (!worklist.isEmpty()) {
+      int producer = worklist.pop();
+      if (visited.get(producer)) {
+        continue;
+      }
+      visited.set(producer);
+      AbstractInsnNode instruction = pInstructions.get(producer);
+      if (instruction instanceof MethodInsnNode) {
+        calls.set(producer);
+      } else if (isStackCopy(instruction)) {
+        for (int[] copied : pProducers[producer]) {
+          for (int source : copied) {
+            worklist.push(source);
+          }
+        }
+      }
+    }
+    return calls.stream().toArray();
+  }
+
+  private static boolean isStackCopy(AbstractInsnNode pInstruction) {
+    return pInstruction.getOpcode() >= Opcodes.DUP && pInstruction.getOpcode() <= Opcodes.SWAP;
+  }
+
+  private static int[] parameterSlots(MethodNode pMethodNode) {
+    boolean isStatic = (pMethodNode.access & Opcodes.ACC_STATIC) != 0;
+    Type[] arguments = Type.getArgumentTypes(pMethodNode.desc);
+    int[] slots = new int[arguments.length + (isStatic ? 0 : 1)];
+    int slot = 0;
+    int i = 0;
+    if (!isStatic) {
+      slots[i++] = slot++;
+    }
+    for (Type argument : arguments) {
+      slots[i++] = slot;
+      slot += argument.getSize();
+    }
+    return slots;
+  }
+
+  private void buildPredecessors(EdgeList pEdges) {
+    int size = nodes.size();
+    kinds = new byte[size];
+    procedureOf = new int[size];
+    parameterOf = new int[size];
+    Arrays.fill(parameterOf, -1);
+    for (Procedure procedure : procedures) {
+      Arrays.fill(procedureOf, procedure.start, procedure.start + procedure.size, procedure.index);
+      kinds[procedure.entry] = ENTRY;
+      for (int i = 0; i < procedure.formalIns.length; i++) {
+        kinds[procedure.formalIns[i]] = FORMAL_IN;
+        parameterOf[procedure.formalIns[i]] = i;
+      }
+      if (procedure.formalOut >= 0) {
+        kinds[procedure.formalOut] = FORMAL_OUT;
+      }
+      for (CallSite callSite : procedure.callSites.values()) {
+        for (int i = 0; i < callSite.actualIns.length; i++) {
+          kinds[callSite.actualIns[i]] = ACTUAL_IN;
+          parameterOf[callSite.actualIns[i]] = i;
+        }
+        if (callSite.actualOut >= 0) {
+          kinds[callSite.actualOut] = ACTUAL_OUT;
+        }
+      }
+    }
+
+    predecessorOffsets = new int[size + 1];
+    for (int e = 0; e < pEdges.count; e++) {
+      predecessorOffsets[pEdges.targets[e] + 1]++;
+    }
+    for (int v = 0; v < size; v++) {
+      predecessorOffsets[v + 1] += predecessorOffsets[v];
+    }
+    predecessors = new int[pEdges.count];
+    edgeKinds = new byte[pEdges.count];
+    int[] fill = Arrays.copyOf(predecessorOffsets, size);
+    for (int e = 0; e < pEdges.count; e++) {
+      int position = fill[pEdges.targets[e]]++;
+      predecessors[position] = pEdges.sources[e];
+      edgeKinds[position] = pEdges.kinds[e];
+    }
+  }
+
+  /** The vertices and calls of a method. */
+  private static final class Procedure {
+
+    private final int index;
+    private final AnalysisContext context;
+    private final Map<AbstractInsnNode, CallSite> callSites = new IdentityHashMap<>();
+    private final List<CallSite> callers = new ArrayList<>();
+    private int start;
+    private int cfgSize;
+    private int size;
+    private int entry;
+    private int[] formalIns;
+    private int formalOut;
+
+    Procedure(int pIndex, AnalysisContext pContext) {
+      index = pIndex;
+      context = pContext;
+    }
+  }
+
+  /** A call of methods of the class set. */
+  private static final class CallSite {
+
+    private final int node;
+    private final Set<Procedure> targets;
+    private int[] actualIns;
+    private int actualOut;
+
+    CallSite(int pNode, Set<Procedure> pTargets) {
+      node = pNode;
+      targets = pTargets;
+    }
+  }
+
+  private static final class EdgeList {
+
+    private int[] sources = new int[64];
+    private int[] targets = new int[64];
+    private byte[] kinds = new byte[64];
+    private int count;
+
+    void add(int pSource, int pTarget, byte pKind) {
+      if (count == sources.length) {
+        sources = Arrays.copyOf(sources, count * 2);
+        targets = Arrays.copyOf(targets, count * 2);
+        kinds = Arrays.copyOf(kinds, count * 2);
+      }
+      sources[count] = pSource;
+      targets[count] = pTarget;
+      kinds[count] = pKind;
+      count++;
+    }
+  }
+
+  /**
+   * A value produced by an instruction being consumed from the operand stack by another one.
+   *
+   * @param producer The instruction that pushed the value
+   * @param consumer The instruction that popped the value
+   * @param argument The position of the value among the arguments of a consuming call, or {@code
+   *     -1}
+   */
+  private record Consumption(AbstractInsnNode producer, AbstractInsnNode consumer, int argument) {}
+}
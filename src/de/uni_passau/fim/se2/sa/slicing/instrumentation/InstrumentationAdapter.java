@@ -1,37 +1,253 @@
 package de.uni_passau.fim.se2.sa.slicing.instrumentation;
 
+import com.google.common.base.Preconditions;
+import de.uni_passau.fim.se2.sa.slicing.coverage.CoverageTracker;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 import org.objectweb.asm.ClassVisitor;
-import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
 
-class InstrumentationAdapter extends ClassVisitor {
+/**
+ * Instruments a class such that every executed line is recorded in a probe array.
+ *
+ * <p>Every instrumented class owns one {@code boolean[]} that has a slot per line of every method.
+ * The layout of the slots is registered with the {@link CoverageTracker} while instrumenting; the
+ * array itself is obtained lazily from {@link CoverageTracker#getProbes(String, int)} and cached in
+ * a synthetic static field, which is bypassed while coverage scopes are open. Every method loads
+ * the array once into a fresh local variable, and every line only stores {@code true} into its
+ * slot, which avoids a method call per executed line.
+ * Interfaces cannot hold a private field, hence their methods query the tracker directly; so do
+ * the methods of classes that are retransformed, which must not change their members.
+ *
+ * <p>The class has to be read with expanded frames; the new local variable is added to every frame
+ * instead of recomputing the frames, which would require loading the superclasses of the types
+ * that meet in a frame.
+ */
+class InstrumentationAdapter extends ClassNode {
 
-  InstrumentationAdapter(int pAPI, ClassWriter pClassWriter) {
-    super(pAPI, pClassWriter);
+  private static final String PROBES_FIELD_NAME = "$sliceProbes";
+  private static final String PROBES_METHOD_NAME = "$sliceInitProbes";
+
+  private static final String TRACKER = "de/uni_passau/fim/se2/sa/slicing/coverage/CoverageTracker";
+  private static final String PROBES_DESCRIPTOR = "[Z";
+  private static final String GET_PROBES_DESCRIPTOR = "(Ljava/lang/String;I)[Z";
+
+  private final ClassVisitor next;
+  private final Predicate<MethodNode> methodFilter;
+  private final boolean addMembers;
+
+  InstrumentationAdapter(int pAPI, ClassVisitor pNext) {
+    this(pAPI, pNext, method -> true, true);
+  }
+
+  /**
+   * Creates an adapter that only instruments some methods of the class.
+   *
+   * @param pAPI The ASM API version
+   * @param pNext The visitor receiving the instrumented class
+   * @param pMethodFilter Whether a method is instrumented
+   * @param pAddMembers Whether the probe array may be cached in a new field of the class
+   */
+  InstrumentationAdapter(
+      int pAPI, ClassVisitor pNext, Predicate<MethodNode> pMethodFilter, boolean pAddMembers) {
+    super(pAPI);
+    next = pNext;
+    methodFilter = pMethodFilter;
+    addMembers = pAddMembers;
   }
 
   @Override
-  public MethodVisitor visitMethod(
-      int pAccess, String pName, String pDescriptor, String pSignature, String[] pExceptions) {
-    MethodVisitor mv = super.visitMethod(pAccess, pName, pDescriptor, pSignature, pExceptions);
-    return new MethodVisitor(api, mv) {
-      @Override
-      public void visitLineNumber(int pLine, Label pStart) {
-        // Call the original visitLineNumber to preserve debug information
-        super.visitLineNumber(pLine, pStart);
-        
-        // Inject call to CoverageTracker.trackLineVisit(pLine)
-        // This generates: CoverageTracker.trackLineVisit(pLine);
-        mv.visitLdcInsn(pLine); // Push the line number onto the stack
-        mv.visitMethodInsn(
-            org.objectweb.asm.Opcodes.INVOKESTATIC,
-            "de/uni_passau/fim/se2/sa/slicing/coverage/CoverageTracker",
-            "trackLineVisit",
-            "(I)V",
-            false
-        );
+  public void visitEnd() {
+    super.visitEnd();
+    instrument();
+    accept(next);
+  }
+
+  private void instrument() {
+    if (fields.stream().anyMatch(field -> PROBES_FIELD_NAME.equals(field.name))) {
+      // The class has already been instrumented
+      return;
+    }
+
+    // Every line of every method gets a probe of its own
+    List<String> methodKeys = new ArrayList<>();
+    List<Integer> probeMethods = new ArrayList<>();
+    List<Integer> probeLines = new ArrayList<>();
+    List<Map<Integer, Integer>> methodProbes = new ArrayList<>();
+    for (MethodNode method : methods) {
+      int methodIndex = methodKeys.size();
+      methodKeys.add(method.name + method.desc);
+      Map<Integer, Integer> probes = new HashMap<>();
+      if (!methodFilter.test(method)) {
+        methodProbes.add(probes);
+        continue;
+      }
+      for (AbstractInsnNode insn : method.instructions) {
+        if (insn instanceof LineNumberNode lineNumberNode) {
+          probes.computeIfAbsent(
+              lineNumberNode.line,
+              line -> {
+                probeMethods.add(methodIndex);
+                probeLines.add(line);
+                return probeLines.size() - 1;
+              });
+        }
+      }
+      methodProbes.add(probes);
+    }
+    int probeCount = probeLines.size();
+    if (probeCount == 0) {
+      return;
+    }
+    CoverageTracker.registerProbes(
+        name,
+        methodKeys,
+        probeMethods.stream().mapToInt(Integer::intValue).toArray(),
+        probeLines.stream().mapToInt(Integer::intValue).toArray());
+
+    boolean useAccessor = addMembers && (access & Opcodes.ACC_INTERFACE) == 0;
+    for (int i = 0; i < methods.size(); i++) {
+      instrumentMethod(methods.get(i), methodProbes.get(i), useAccessor, probeCount);
+    }
+    if (useAccessor) {
+      addProbesAccessor(probeCount);
+    }
+  }
+
+  private void instrumentMethod(
+      MethodNode pMethod, Map<Integer, Integer> pProbes, boolean pUseAccessor, int pProbeCount) {
+    if (pProbes.isEmpty()) {
+      return;
+    }
+    int probesVariable = pMethod.maxLocals;
+    for (AbstractInsnNode insn : pMethod.instructions.toArray()) {
+      if (!(insn instanceof LineNumberNode lineNumberNode)) {
+        continue;
       }
-    };
+      // A frame has to stay in front of the instruction it describes
+      AbstractInsnNode position = insn;
+      while (position.getNext() instanceof FrameNode) {
+        position = position.getNext();
+      }
+      InsnList probe = new InsnList();
+      probe.add(new VarInsnNode(Opcodes.ALOAD, probesVariable));
+      probe.add(pushInt(pProbes.get(lineNumberNode.line)));
+      probe.add(new InsnNode(Opcodes.ICONST_1));
+      probe.add(new InsnNode(Opcodes.BASTORE));
+      pMethod.instructions.insert(position, probe);
+    }
+
+    InsnList init = new InsnList();
+    if (pUseAccessor) {
+      init.add(
+          new MethodInsnNode(
+              Opcodes.INVOKESTATIC, name, PROBES_METHOD_NAME, "()" + PROBES_DESCRIPTOR, false));
+    } else {
+      init.add(new LdcInsnNode(name));
+      init.add(pushInt(pProbeCount));
+      init.add(
+          new MethodInsnNode(
+              Opcodes.INVOKESTATIC, TRACKER, "getProbes", GET_PROBES_DESCRIPTOR, false));
+    }
+    init.add(new VarInsnNode(Opcodes.ASTORE, probesVariable));
+    pMethod.instructions.insert(init);
+    addLocalToFrames(pMethod, probesVariable, PROBES_DESCRIPTOR);
+    pMethod.maxLocals++;
+    // A line may start while operands of a previous line are still on the stack
+    pMethod.maxStack += 3;
+  }
+
+  private void addProbesAccessor(int pProbeCount) {
+    int synthetic = Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC;
+    visitField(
+            synthetic | Opcodes.ACC_TRANSIENT, PROBES_FIELD_NAME, PROBES_DESCRIPTOR, null, null)
+        .visitEnd();
+
+    MethodVisitor mv =
+        visitMethod(synthetic, PROBES_METHOD_NAME, "()" + PROBES_DESCRIPTOR, null, null);
+    mv.visitCode();
+    // While coverage scopes are open, the probe array depends on the calling thread
+    Label cached = new Label();
+    mv.visitMethodInsn(Opcodes.INVOKESTATIC, TRACKER, "hasOpenScopes", "()Z", false);
+    mv.visitJumpInsn(Opcodes.IFEQ, cached);
+    mv.visitLdcInsn(name);
+    mv.visitLdcInsn(pProbeCount);
+    mv.visitMethodInsn(Opcodes.INVOKESTATIC, TRACKER, "getProbes", GET_PROBES_DESCRIPTOR, false);
+    mv.visitInsn(Opcodes.ARETURN);
+    mv.visitLabel(cached);
+    boolean hasFrames = (version & 0xFFFF) >= Opcodes.V1_6;
+    if (hasFrames) {
+      mv.visitFrame(Opcodes.F_NEW, 0, new Object[0], 0, new Object[0]);
+    }
+    Label initialised = new Label();
+    mv.visitFieldInsn(Opcodes.GETSTATIC, name, PROBES_FIELD_NAME, PROBES_DESCRIPTOR);
+    mv.visitInsn(Opcodes.DUP);
+    mv.visitJumpInsn(Opcodes.IFNONNULL, initialised);
+    mv.visitInsn(Opcodes.POP);
+    mv.visitLdcInsn(name);
+    mv.visitLdcInsn(pProbeCount);
+    mv.visitMethodInsn(Opcodes.INVOKESTATIC, TRACKER, "getProbes", GET_PROBES_DESCRIPTOR, false);
+    mv.visitInsn(Opcodes.DUP);
+    mv.visitFieldInsn(Opcodes.PUTSTATIC, name, PROBES_FIELD_NAME, PROBES_DESCRIPTOR);
+    mv.visitLabel(initialised);
+    if (hasFrames) {
+      mv.visitFrame(Opcodes.F_NEW, 0, new Object[0], 1, new Object[] {PROBES_DESCRIPTOR});
+    }
+    mv.visitInsn(Opcodes.ARETURN);
+    mv.visitMaxs(3, 0);
+    mv.visitEnd();
+  }
+
+  /**
+   * Declares a new local variable in every frame of a method, such that the frames remain valid.
+   *
+   * @param pMethod The method, whose frames are expanded
+   * @param pVariable The index of the variable, at least the number of locals in any frame
+   * @param pType The verification type of the variable as used by {@link FrameNode}
+   */
+  static void addLocalToFrames(MethodNode pMethod, int pVariable, Object pType) {
+    for (AbstractInsnNode insn : pMethod.instructions) {
+      if (!(insn instanceof FrameNode frame)) {
+        continue;
+      }
+      Preconditions.checkState(frame.type == Opcodes.F_NEW, "The frames have to be expanded");
+      List<Object> locals = frame.local == null ? new ArrayList<>() : new ArrayList<>(frame.local);
+      int slots = 0;
+      for (Object local : locals) {
+        slots += local == Opcodes.LONG || local == Opcodes.DOUBLE ? 2 : 1;
+      }
+      for (; slots < pVariable; slots++) {
+        locals.add(Opcodes.TOP);
+      }
+      locals.add(pType);
+      frame.local = locals;
+    }
+  }
+
+  static AbstractInsnNode pushInt(int pValue) {
+    if (pValue >= -1 && pValue <= 5) {
+      return new InsnNode(Opcodes.ICONST_0 + pValue);
+    } else if (pValue >= Byte.MIN_VALUE && pValue <= Byte.MAX_VALUE) {
+      return new IntInsnNode(Opcodes.BIPUSH, pValue);
+    } else if (pValue >= Short.MIN_VALUE && pValue <= Short.MAX_VALUE) {
+      return new IntInsnNode(Opcodes.SIPUSH, pValue);
+    }
+    return new LdcInsnNode(pValue);
   }
 }
@@ -1,17 +1,114 @@
 package de.uni_passau.fim.se2.sa.slicing.instrumentation;
 
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
 import java.lang.instrument.ClassFileTransformer;
 import java.security.ProtectionDomain;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import org.objectweb.asm.tree.MethodNode;
 
 public class LineCoverageTransformer implements ClassFileTransformer {
 
   private final String instrumentationTarget;
+  private final boolean recordTrace;
+  private final boolean retransformable;
+  // The selected methods by the internal names of their classes; all methods if not restricted
+  private final ConcurrentMap<String, Set<String>> selectedMethods = new ConcurrentHashMap<>();
+  private volatile boolean restricted;
 
   public LineCoverageTransformer(String pInstrumentationTarget) {
+    this(pInstrumentationTarget, false);
+  }
+
+  /**
+   * Creates a transformer for the classes of a package.
+   *
+   * @param pInstrumentationTarget The name of the package to instrument
+   * @param pRecordTrace Whether the execution of the classes is additionally recorded in the
+   *     {@link de.uni_passau.fim.se2.sa.slicing.trace.ExecutionTrace}
+   */
+  public LineCoverageTransformer(String pInstrumentationTarget, boolean pRecordTrace) {
+    this(pInstrumentationTarget, pRecordTrace, false);
+  }
+
+  private LineCoverageTransformer(
+      String pInstrumentationTarget, boolean pRecordTrace, boolean pRetransformable) {
     instrumentationTarget = pInstrumentationTarget.replace('.', '/');
+    recordTrace = pRecordTrace;
+    retransformable = pRetransformable;
+    restricted = pRetransformable;
+  }
+
+  /**
+   * Creates a transformer that only instruments the methods selected by {@link #select(String,
+   * String, String)}.
+   *
+   * <p>The transformer does not add fields or methods to the classes it instruments, hence it can
+   * be applied and undone by retransforming classes that are already loaded.
+   *
+   * @param pInstrumentationTarget The name of the package to instrument
+   * @param pRecordTrace Whether the execution of the selected methods is additionally recorded
+   * @return The transformer, initially selecting no method
+   */
+  public static LineCoverageTransformer onDemand(
+      String pInstrumentationTarget, boolean pRecordTrace) {
+    return new LineCoverageTransformer(pInstrumentationTarget, pRecordTrace, true);
+  }
+
+  /**
+   * Restricts the instrumentation to a single method, e.g., the method that is sliced.
+   *
+   * <p>Classes transformed afterwards are only instrumented if they declare the method, and only
+   * the method itself records its lines and execution; classes transformed before are unaffected.
+   *
+   * @param pClassName The fully qualified name of the class declaring the method
+   * @param pMethodName The name of the method
+   * @param pDescriptor The descriptor of the method
+   * @return The internal names of the classes whose methods were selected before
+   */
+  public Set<String> restrictTo(String pClassName, String pMethodName, String pDescriptor) {
+    Set<String> previous = new HashSet<>(selectedMethods.keySet());
+    selectedMethods.clear();
+    restricted = true;
+    select(pClassName, pMethodName, pDescriptor);
+    return previous;
+  }
+
+  /**
+   * Adds a method to the instrumented methods of a restricted transformer.
+   *
+   * @param pClassName The fully qualified name of the class declaring the method
+   * @param pMethodName The name of the method
+   * @param pDescriptor The descriptor of the method
+   */
+  public void select(String pClassName, String pMethodName, String pDescriptor) {
+    selectedMethods
+        .computeIfAbsent(pClassName.replace('.', '/'), name -> ConcurrentHashMap.newKeySet())
+        .add(pMethodName + pDescriptor);
+  }
+
+  /**
+   * Removes a method from the instrumented methods of a restricted transformer.
+   *
+   * @param pClassName The fully qualified name of the class declaring the method
+   * @param pMethodName The name of the method
+   * @param pDescriptor The descriptor of the method
+   */
+  public void deselect(String pClassName, String pMethodName, String pDescriptor) {
+    selectedMethods.computeIfPresent(
+        pClassName.replace('.', '/'),
+        (name, methods) -> {
+          methods.remove(pMethodName + pDescriptor);
+          return methods.isEmpty() ? null : methods;
+        });
   }
 
   @Override
+  @SuppressWarnings("try") // The measurement only spans the instrumentation
   public byte[] transform(
       ClassLoader pClassLoader,
       String pClassName,
@@ -21,12 +118,30 @@ public byte[] transform(
     if (isIgnored(pClassName)) {
       return pClassFileBuffer;
     }
+    final Predicate<MethodNode> methodFilter;
+    if (restricted) {
+      final Set<String> methods = selectedMethods.get(pClassName);
+      if (methods == null) {
+        return pClassFileBuffer;
+      }
+      methodFilter = method -> methods.contains(method.name + method.desc);
+    } else {
+      methodFilter = method -> true;
+    }
 
-    try {
+    try (Statistics.Measurement measurement =
+        Statistics.start(Phase.INSTRUMENT, pClassName, null)) {
       org.objectweb.asm.ClassReader cr = new org.objectweb.asm.ClassReader(pClassFileBuffer);
-      org.objectweb.asm.ClassWriter cw = new org.objectweb.asm.ClassWriter(cr, org.objectweb.asm.ClassWriter.COMPUTE_FRAMES);
-      org.objectweb.asm.ClassVisitor cv = new InstrumentationAdapter(org.objectweb.asm.Opcodes.ASM9, cw);
-      cr.accept(cv, 0);
+      // The adapters keep the expanded frames valid, which avoids recomputing them
+      org.objectweb.asm.ClassWriter cw = new org.objectweb.asm.ClassWriter(0);
+      org.objectweb.asm.ClassVisitor cv =
+          new InstrumentationAdapter(
+              org.objectweb.asm.Opcodes.ASM9, cw, methodFilter, !retransformable);
+      if (recordTrace) {
+        // The trace refers to the original instructions, hence it is instrumented first
+        cv = new TraceAdapter(org.objectweb.asm.Opcodes.ASM9, cv, methodFilter);
+      }
+      cr.accept(cv, org.objectweb.asm.ClassReader.EXPAND_FRAMES);
       return cw.toByteArray();
     } catch (Exception e) {
       e.printStackTrace();
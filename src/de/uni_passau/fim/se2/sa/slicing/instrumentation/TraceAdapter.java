@@ -0,0 +1,181 @@
+package de.uni_passau.fim.se2.sa.slicing.instrumentation;
+
+import de.uni_passau.fim.se2.sa.slicing.trace.ExecutionTrace;
+import java.util.function.Predicate;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Instruments a class such that its execution is recorded in the {@link ExecutionTrace}.
+ *
+ * <p>Every method obtains a new frame id on entry and keeps it in a fresh local variable. Every
+ * instruction is preceded by a step record carrying its index in the uninstrumented method, and
+ * every instruction accessing a field or an array element additionally records the address it
+ * reads or writes. The indices refer to the instruction list a {@link
+ * org.objectweb.asm.ClassReader} produces for the original class, i.e., to the indices of the
+ * nodes of the program graphs.
+ *
+ * <p>Like {@link InstrumentationAdapter}, the adapter expects expanded frames and declares the
+ * frame variable in every frame.
+ */
+class TraceAdapter extends ClassNode {
+
+  private static final String TRACE = "de/uni_passau/fim/se2/sa/slicing/trace/ExecutionTrace";
+
+  private final ClassVisitor next;
+  private final Predicate<MethodNode> methodFilter;
+
+  TraceAdapter(int pAPI, ClassVisitor pNext) {
+    this(pAPI, pNext, method -> true);
+  }
+
+  /**
+   * Creates an adapter that only records the execution of some methods of the class.
+   *
+   * @param pAPI The ASM API version
+   * @param pNext The visitor receiving the instrumented class
+   * @param pMethodFilter Whether the execution of a method is recorded
+   */
+  TraceAdapter(int pAPI, ClassVisitor pNext, Predicate<MethodNode> pMethodFilter) {
+    super(pAPI);
+    next = pNext;
+    methodFilter = pMethodFilter;
+  }
+
+  @Override
+  public void visitEnd() {
+    super.visitEnd();
+    for (MethodNode method : methods) {
+      if (method.instructions.size() > 0 && methodFilter.test(method)) {
+        instrumentMethod(method);
+      }
+    }
+    accept(next);
+  }
+
+  private void instrumentMethod(MethodNode pMethod) {
+    int frameVariable = pMethod.maxLocals;
+    // Holds the value of a field or array store while its address is recorded
+    int valueVariable = frameVariable + 1;
+    boolean isConstructor = "<init>".equals(pMethod.name);
+    boolean thisInitialised = !isConstructor;
+
+    AbstractInsnNode[] instructions = pMethod.instructions.toArray();
+    for (int index = 0; index < instructions.length; index++) {
+      AbstractInsnNode insn = instructions[index];
+      if (insn.getOpcode() < 0) {
+        continue;
+      }
+      InsnList record = new InsnList();
+      record.add(new VarInsnNode(Opcodes.ILOAD, frameVariable));
+      record.add(InstrumentationAdapter.pushInt(index));
+      record.add(call("step", "(II)V"));
+      recordAddress(insn, valueVariable, thisInitialised, record);
+      pMethod.instructions.insertBefore(insn, record);
+
+      if (isConstructor
+          && insn instanceof MethodInsnNode methodInsn
+          && "<init>".equals(methodInsn.name)
+          && (methodInsn.owner.equals(superName) || methodInsn.owner.equals(name))) {
+        // Fields of the object under construction may be written before the super constructor is
+        // called, but the uninitialised object must not be passed to the trace
+        thisInitialised = true;
+      }
+    }
+
+    InsnList enter = new InsnList();
+    int method = ExecutionTrace.registerMethod(name, pMethod.name, pMethod.desc);
+    enter.add(InstrumentationAdapter.pushInt(method));
+    enter.add(call("enter", "(I)I"));
+    enter.add(new VarInsnNode(Opcodes.ISTORE, frameVariable));
+    pMethod.instructions.insert(enter);
+    // The value variable is only used between two original instructions, never across a frame
+    InstrumentationAdapter.addLocalToFrames(pMethod, frameVariable, Opcodes.INTEGER);
+    pMethod.maxLocals += 3;
+    pMethod.maxStack += 4;
+  }
+
+  private void recordAddress(
+      AbstractInsnNode pInsn, int pValueVariable, boolean pThisInitialised, InsnList pRecord) {
+    switch (pInsn.getOpcode()) {
+      case Opcodes.GETSTATIC, Opcodes.PUTSTATIC -> {
+        FieldInsnNode fieldInsn = (FieldInsnNode) pInsn;
+        int field = ExecutionTrace.registerField(fieldInsn.owner, fieldInsn.name);
+        pRecord.add(InstrumentationAdapter.pushInt(field));
+        pRecord.add(
+            call(pInsn.getOpcode() == Opcodes.GETSTATIC ? "readStatic" : "writeStatic", "(I)V"));
+      }
+      case Opcodes.GETFIELD -> {
+        FieldInsnNode fieldInsn = (FieldInsnNode) pInsn;
+        int field = ExecutionTrace.registerField(fieldInsn.owner, fieldInsn.name);
+        pRecord.add(new InsnNode(Opcodes.DUP));
+        pRecord.add(InstrumentationAdapter.pushInt(field));
+        pRecord.add(call("readField", "(Ljava/lang/Object;I)V"));
+      }
+      case Opcodes.PUTFIELD -> {
+        FieldInsnNode fieldInsn = (FieldInsnNode) pInsn;
+        int field = ExecutionTrace.registerField(fieldInsn.owner, fieldInsn.name);
+        if (!pThisInitialised) {
+          // The object cannot be identified yet, hence only the field is recorded
+          pRecord.add(InstrumentationAdapter.pushInt(field));
+          pRecord.add(call("writeStatic", "(I)V"));
+          return;
+        }
+        Type type = Type.getType(fieldInsn.desc);
+        pRecord.add(new VarInsnNode(type.getOpcode(Opcodes.ISTORE), pValueVariable));
+        pRecord.add(new InsnNode(Opcodes.DUP));
+        pRecord.add(InstrumentationAdapter.pushInt(field));
+        pRecord.add(call("writeField", "(Ljava/lang/Object;I)V"));
+        pRecord.add(new VarInsnNode(type.getOpcode(Opcodes.ILOAD), pValueVariable));
+      }
+      case Opcodes.IALOAD,
+          Opcodes.LALOAD,
+          Opcodes.FALOAD,
+          Opcodes.DALOAD,
+          Opcodes.AALOAD,
+          Opcodes.BALOAD,
+          Opcodes.CALOAD,
+          Opcodes.SALOAD -> {
+        pRecord.add(new InsnNode(Opcodes.DUP2));
+        pRecord.add(call("readElement", "(Ljava/lang/Object;I)V"));
+      }
+      case Opcodes.IASTORE,
+          Opcodes.LASTORE,
+          Opcodes.FASTORE,
+          Opcodes.DASTORE,
+          Opcodes.AASTORE,
+          Opcodes.BASTORE,
+          Opcodes.CASTORE,
+          Opcodes.SASTORE -> {
+        int store =
+            switch (pInsn.getOpcode()) {
+              case Opcodes.LASTORE -> Opcodes.LSTORE;
+              case Opcodes.FASTORE -> Opcodes.FSTORE;
+              case Opcodes.DASTORE -> Opcodes.DSTORE;
+              case Opcodes.AASTORE -> Opcodes.ASTORE;
+              default -> Opcodes.ISTORE;
+            };
+        pRecord.add(new VarInsnNode(store, pValueVariable));
+        pRecord.add(new InsnNode(Opcodes.DUP2));
+        pRecord.add(call("writeElement", "(Ljava/lang/Object;I)V"));
+        pRecord.add(new VarInsnNode(store - Opcodes.ISTORE + Opcodes.ILOAD, pValueVariable));
+      }
+      default -> {
+        // The instruction does not access memory beyond the frame
+      }
+    }
+  }
+
+  private static MethodInsnNode call(String pName, String pDescriptor) {
+    return new MethodInsnNode(Opcodes.INVOKESTATIC, TRACE, pName, pDescriptor, false);
+  }
+}
@@ -0,0 +1,43 @@
+package de.uni_passau.fim.se2.sa.slicing.output;
+
+import java.util.Locale;
+
+/** Writes strings as JSON string literals, shared by every producer of JSON text. */
+public final class JsonStrings {
+
+  /** Prevent initialisation of utility class. */
+  private JsonStrings() {}
+
+  /**
+   * Appends a string as a quoted and escaped JSON string literal, or {@code null} for a missing
+   * string.
+   *
+   * @param pBuilder The builder to append to
+   * @param pValue The string, may be {@code null}
+   */
+  public static void append(StringBuilder pBuilder, String pValue) {
+    if (pValue == null) {
+      pBuilder.append("null");
+      return;
+    }
+    pBuilder.append('"');
+    for (int i = 0; i < pValue.length(); i++) {
+      char c = pValue.charAt(i);
+      switch (c) {
+        case '"' -> pBuilder.append("\\\"");
+        case '\\' -> pBuilder.append("\\\\");
+        case '\n' -> pBuilder.append("\\n");
+        case '\r' -> pBuilder.append("\\r");
+        case '\t' -> pBuilder.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            pBuilder.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+          } else {
+            pBuilder.append(c);
+          }
+        }
+      }
+    }
+    pBuilder.append('"');
+  }
+}
@@ -5,6 +5,7 @@
 import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 /** Sorts a set of nodes based on the {@link Node#getLineNumber()} value. */
@@ -15,7 +16,8 @@ private NodeSorter() {}
 
   /**
    * Returns a collection of nodes, sorted based on the ascending order of the {@link
-   * Node#getLineNumber()} value.
+   * Node#getLineNumber()} value. Nodes of the same line keep the order of their instructions, such
+   * that the result does not depend on the iteration order of the given collection.
    *
    * @param pNodes A set of {@link Node}s
    * @return The sorted list
@@ -27,7 +29,9 @@ static List<Node> sort(Collection<Node> pNodes) {
       nodes.put(node.getLineNumber(), node);
     }
     for (Integer lineNumber : nodes.keySet()) {
-      result.addAll(nodes.get(lineNumber));
+      List<Node> line = new ArrayList<>(nodes.get(lineNumber));
+      line.sort(Comparator.comparingInt(Node::getInstructionIndex));
+      result.addAll(line);
     }
     return result;
   }
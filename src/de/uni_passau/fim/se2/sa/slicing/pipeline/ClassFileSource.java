@@ -0,0 +1,83 @@
+package de.uni_passau.fim.se2.sa.slicing.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Streams the class files of a jar file or of a directory tree.
+ *
+ * <p>Class files are read one after the other while they are handed to the consumer, such that
+ * only the class files that are currently processed are held in memory.
+ */
+public final class ClassFileSource {
+
+  private static final String CLASS_FILE_SUFFIX = ".class";
+
+  private final Path path;
+
+  /**
+   * Creates a source for the given jar file or directory.
+   *
+   * @param pPath The path to a jar file or to a directory containing class files
+   */
+  public ClassFileSource(Path pPath) {
+    path = pPath;
+  }
+
+  /**
+   * Reads every class file and passes its bytes to the consumer.
+   *
+   * <p>Entries of a jar file are visited in the order of the jar, files of a directory in the
+   * order of the directory traversal. {@code module-info} and {@code package-info} classes are
+   * skipped.
+   *
+   * @param pConsumer The consumer of the class file bytes
+   * @throws IOException In case the jar file or directory cannot be read
+   */
+  public void forEach(Consumer<byte[]> pConsumer) throws IOException {
+    if (Files.isDirectory(path)) {
+      forEachInDirectory(pConsumer);
+    } else {
+      forEachInJar(pConsumer);
+    }
+  }
+
+  private void forEachInDirectory(Consumer<byte[]> pConsumer) throws IOException {
+    try (Stream<Path> files = Files.walk(path)) {
+      Iterator<Path> iterator =
+          files.filter(Files::isRegularFile).filter(f -> isClassFile(f.toString())).iterator();
+      while (iterator.hasNext()) {
+        pConsumer.accept(Files.readAllBytes(iterator.next()));
+      }
+    }
+  }
+
+  private void forEachInJar(Consumer<byte[]> pConsumer) throws IOException {
+    try (ZipFile jar = new ZipFile(path.toFile())) {
+      Enumeration<? extends ZipEntry> entries = jar.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        if (entry.isDirectory() || !isClassFile(entry.getName())) {
+          continue;
+        }
+        try (InputStream in = jar.getInputStream(entry)) {
+          pConsumer.accept(in.readAllBytes());
+        }
+      }
+    }
+  }
+
+  private static boolean isClassFile(String pName) {
+    return pName.endsWith(CLASS_FILE_SUFFIX)
+        && !pName.endsWith("module-info" + CLASS_FILE_SUFFIX)
+        && !pName.endsWith("package-info" + CLASS_FILE_SUFFIX);
+  }
+}
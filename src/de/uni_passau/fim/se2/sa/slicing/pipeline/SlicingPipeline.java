@@ -0,0 +1,250 @@
+package de.uni_passau.fim.se2.sa.slicing.pipeline;
+
+import com.google.common.base.Preconditions;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.graph.ProgramDependenceGraph;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Slices every definition of every method of a jar file or a directory of class files.
+ *
+ * <p>Class files are streamed from a {@link ClassFileSource}. Each class is parsed on a {@link
+ * ForkJoinPool}, and the program-dependence graphs of its methods are built and sliced by one
+ * subtask per method, such that idle workers steal methods of large classes. At most {@code
+ * maxClassesInFlight} classes are read but not yet finished at any time, and the result of a
+ * method is written as soon as it is complete, so the memory needed does not depend on the size
+ * of the input.
+ *
+ * <p>The result of every method is a header line followed by one line per definition, i.e., per
+ * store to a local variable or write to a field, listing the source lines of its backward slice:
+ *
+ * <pre>
+ * ### de/uni_passau/fim/se2/sa/examples/GCD.gcd(II)I (4 criteria, 1.234 ms)
+ * tmp:6 (1 nodes) lines [6]
+ * </pre>
+ *
+ * <p>Since methods are processed concurrently, the order of the method results is not
+ * deterministic; the result of a single method is never interleaved with another one. A pipeline
+ * can only be run once.
+ */
+public final class SlicingPipeline {
+
+  /** Summary of a pipeline run. */
+  public record Summary(int classes, int methods, int criteria, int failures) {}
+
+  private final ForkJoinPool pool;
+  private final Semaphore classesInFlight;
+  private final Writer output;
+
+  private final AtomicInteger classCount = new AtomicInteger();
+  private final AtomicInteger methodCount = new AtomicInteger();
+  private final AtomicInteger criterionCount = new AtomicInteger();
+  private final AtomicInteger failureCount = new AtomicInteger();
+  private final AtomicReference<IOException> writeFailure = new AtomicReference<>();
+
+  /**
+   * Creates a new pipeline.
+   *
+   * @param pParallelism The number of worker threads
+   * @param pMaxClassesInFlight The maximum number of classes that are read but not yet finished
+   * @param pOutput The writer to write the results to; it is not closed by the pipeline
+   */
+  public SlicingPipeline(int pParallelism, int pMaxClassesInFlight, Writer pOutput) {
+    Preconditions.checkArgument(pParallelism > 0, "Parallelism must be positive");
+    Preconditions.checkArgument(pMaxClassesInFlight > 0, "Classes in flight must be positive");
+    pool = new ForkJoinPool(pParallelism);
+    classesInFlight = new Semaphore(pMaxClassesInFlight);
+    output = Preconditions.checkNotNull(pOutput);
+  }
+
+  /**
+   * Slices all classes of a jar file or directory.
+   *
+   * @param pInput The jar file or directory
+   * @return A summary of the run
+   * @throws IOException In case the input cannot be read or the results cannot be written
+   */
+  public Summary run(Path pInput) throws IOException {
+    Preconditions.checkState(!pool.isShutdown(), "The pipeline has already been run");
+    try {
+      new ClassFileSource(pInput)
+          .forEach(
+              classFile -> {
+                classesInFlight.acquireUninterruptibly();
+                pool.execute(
+                    () -> {
+                      try {
+                        sliceClass(classFile);
+                      } finally {
+                        classesInFlight.release();
+                      }
+                    });
+              });
+    } finally {
+      pool.shutdown();
+      try {
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    if (writeFailure.get() != null) {
+      throw writeFailure.get();
+    }
+    return new Summary(
+        classCount.get(), methodCount.get(), criterionCount.get(), failureCount.get());
+  }
+
+  private void sliceClass(byte[] pClassFile) {
+    ClassNode classNode = new ClassNode(Opcodes.ASM9);
+    try {
+      new ClassReader(pClassFile).accept(classNode, 0);
+    } catch (RuntimeException e) {
+      failureCount.incrementAndGet();
+      return; // Not a valid class file
+    }
+    classCount.incrementAndGet();
+
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (MethodNode methodNode : classNode.methods) {
+      if (methodNode.instructions.size() > 0) {
+        tasks.add(ForkJoinTask.adapt(() -> sliceMethod(classNode, methodNode)));
+      }
+    }
+    ForkJoinTask.invokeAll(tasks);
+  }
+
+  private void sliceMethod(ClassNode pClassNode, MethodNode pMethodNode) {
+    long start = System.nanoTime();
+    StringBuilder result = new StringBuilder();
+    String summary;
+    try {
+      ProgramDependenceGraph pdg = new ProgramDependenceGraph(pClassNode, pMethodNode);
+      ProgramGraph cfg = pdg.getCFG();
+      if (cfg == null) {
+        throw new IllegalStateException("the method could not be analysed");
+      }
+
+      List<Node> definitions = new ArrayList<>();
+      for (Node node : cfg.getNodes()) {
+        if (definedName(pMethodNode, node.getInstruction()) != null) {
+          definitions.add(node);
+        }
+      }
+      definitions.sort(
+          (a, b) ->
+              Integer.compare(
+                  pMethodNode.instructions.indexOf(a.getInstruction()),
+                  pMethodNode.instructions.indexOf(b.getInstruction())));
+      if (definitions.size() > 1) {
+        pdg.precomputeSlices();
+      }
+
+      for (Node definition : definitions) {
+        Set<Node> slice = pdg.backwardSlice(definition);
+        Set<Integer> lines = new TreeSet<>();
+        for (Node node : slice) {
+          if (node.getLineNumber() >= 0) {
+            lines.add(node.getLineNumber());
+          }
+        }
+        result
+            .append(definedName(pMethodNode, definition.getInstruction()))
+            .append(':')
+            .append(definition.getLineNumber())
+            .append(" (")
+            .append(slice.size())
+            .append(" nodes) lines ")
+            .append(lines)
+            .append(System.lineSeparator());
+      }
+      summary = definitions.size() + " criteria";
+      criterionCount.addAndGet(definitions.size());
+    } catch (RuntimeException e) {
+      failureCount.incrementAndGet();
+      result.setLength(0);
+      summary = "failed: " + e.getMessage();
+    }
+    methodCount.incrementAndGet();
+
+    double millis = (System.nanoTime() - start) / 1_000_000.0;
+    String header =
+        String.format(
+            Locale.ROOT,
+            "### %s.%s%s (%s, %.3f ms)%n",
+            pClassNode.name,
+            pMethodNode.name,
+            pMethodNode.desc,
+            summary,
+            millis);
+    write(header + result);
+  }
+
+  private void write(String pText) {
+    synchronized (output) {
+      try {
+        output.write(pText);
+        output.flush();
+      } catch (IOException e) {
+        writeFailure.compareAndSet(null, e);
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Provides the name of the variable or field an instruction defines.
+   *
+   * @return The name, or {@code null} if the instruction does not define a variable or field
+   */
+  private static String definedName(MethodNode pMethodNode, AbstractInsnNode pInstruction) {
+    if (pInstruction instanceof VarInsnNode varInsnNode
+        && pInstruction.getOpcode() >= Opcodes.ISTORE
+        && pInstruction.getOpcode() <= Opcodes.ASTORE) {
+      return localVariableName(pMethodNode, varInsnNode.var);
+    } else if (pInstruction instanceof IincInsnNode iincInsnNode) {
+      return localVariableName(pMethodNode, iincInsnNode.var);
+    } else if (pInstruction instanceof FieldInsnNode fieldInsnNode
+        && (pInstruction.getOpcode() == Opcodes.PUTFIELD
+            || pInstruction.getOpcode() == Opcodes.PUTSTATIC)) {
+      return fieldInsnNode.name;
+    }
+    return null;
+  }
+
+  private static String localVariableName(MethodNode pMethodNode, int pIndex) {
+    if (pMethodNode.localVariables != null) {
+      for (LocalVariableNode localVariable : pMethodNode.localVariables) {
+        if (localVariable.index == pIndex) {
+          return localVariable.name;
+        }
+      }
+    }
+    return "local" + pIndex;
+  }
+}
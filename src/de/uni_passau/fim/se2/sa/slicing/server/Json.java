@@ -0,0 +1,188 @@
+package de.uni_passau.fim.se2.sa.slicing.server;
+
+import de.uni_passau.fim.se2.sa.slicing.output.JsonStrings;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the flat JSON objects of the slicing protocol.
+ *
+ * <p>Only objects whose values are strings, numbers, booleans or {@code null} are supported, which
+ * is all the protocol needs. Integral numbers are read as {@link Long}, all other numbers as {@link
+ * Double}.
+ */
+final class Json {
+
+  private final String text;
+  private int position;
+
+  private Json(String pText) {
+    text = pText;
+  }
+
+  /**
+   * Parses a flat JSON object.
+   *
+   * @param pText The JSON text
+   * @return The members of the object, in the order of the text
+   * @throws IllegalArgumentException If the text is not a flat JSON object
+   */
+  static Map<String, Object> parseObject(String pText) {
+    Json parser = new Json(pText);
+    parser.skipWhitespace();
+    Map<String, Object> members = parser.readObject();
+    parser.skipWhitespace();
+    if (parser.position != pText.length()) {
+      throw parser.error("Unexpected content after the object");
+    }
+    return members;
+  }
+
+  /**
+   * Writes a flat JSON object on a single line.
+   *
+   * @param pMembers The members of the object
+   * @return The JSON text
+   */
+  static String writeObject(Map<String, ?> pMembers) {
+    StringBuilder builder = new StringBuilder("{");
+    for (Map.Entry<String, ?> member : pMembers.entrySet()) {
+      if (builder.length() > 1) {
+        builder.append(',');
+      }
+      JsonStrings.append(builder, member.getKey());
+      builder.append(':');
+      Object value = member.getValue();
+      if (value == null || value instanceof Number || value instanceof Boolean) {
+        builder.append(value);
+      } else {
+        JsonStrings.append(builder, value.toString());
+      }
+    }
+    return builder.append('}').toString();
+  }
+
+  private Map<String, Object> readObject() {
+    Map<String, Object> members = new LinkedHashMap<>();
+    expect('{');
+    skipWhitespace();
+    if (peek() == '}') {
+      position++;
+      return members;
+    }
+    while (true) {
+      skipWhitespace();
+      String key = readString();
+      skipWhitespace();
+      expect(':');
+      skipWhitespace();
+      members.put(key, readValue());
+      skipWhitespace();
+      char next = next();
+      if (next == '}') {
+        return members;
+      } else if (next != ',') {
+        throw error("Expected ',' or '}'");
+      }
+    }
+  }
+
+  private Object readValue() {
+    char c = peek();
+    if (c == '"') {
+      return readString();
+    } else if (text.startsWith("true", position)) {
+      position += 4;
+      return Boolean.TRUE;
+    } else if (text.startsWith("false", position)) {
+      position += 5;
+      return Boolean.FALSE;
+    } else if (text.startsWith("null", position)) {
+      position += 4;
+      return null;
+    } else if (c == '-' || (c >= '0' && c <= '9')) {
+      return readNumber();
+    }
+    throw error("Unsupported value");
+  }
+
+  private Object readNumber() {
+    int start = position;
+    boolean integral = true;
+    while (position < text.length()) {
+      char c = text.charAt(position);
+      if (c == '.' || c == 'e' || c == 'E') {
+        integral = false;
+      } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+        break;
+      }
+      position++;
+    }
+    String number = text.substring(start, position);
+    try {
+      return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+    } catch (NumberFormatException e) {
+      throw error("Invalid number " + number);
+    }
+  }
+
+  private String readString() {
+    expect('"');
+    StringBuilder builder = new StringBuilder();
+    while (true) {
+      char c = next();
+      if (c == '"') {
+        return builder.toString();
+      } else if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      char escaped = next();
+      switch (escaped) {
+        case '"', '\\', '/' -> builder.append(escaped);
+        case 'b' -> builder.append('\b');
+        case 'f' -> builder.append('\f');
+        case 'n' -> builder.append('\n');
+        case 'r' -> builder.append('\r');
+        case 't' -> builder.append('\t');
+        case 'u' -> {
+          if (position + 4 > text.length()) {
+            throw error("Incomplete unicode escape");
+          }
+          builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+          position += 4;
+        }
+        default -> throw error("Invalid escape \\" + escaped);
+      }
+    }
+  }
+
+  private void skipWhitespace() {
+    while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+      position++;
+    }
+  }
+
+  private char peek() {
+    if (position >= text.length()) {
+      throw error("Unexpected end of input");
+    }
+    return text.charAt(position);
+  }
+
+  private char next() {
+    char c = peek();
+    position++;
+    return c;
+  }
+
+  private void expect(char pExpected) {
+    if (next() != pExpected) {
+      throw error("Expected '" + pExpected + "'");
+    }
+  }
+
+  private IllegalArgumentException error(String pMessage) {
+    return new IllegalArgumentException(pMessage + " at position " + position);
+  }
+}
@@ -0,0 +1,131 @@
+package de.uni_passau.fim.se2.sa.slicing.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a JVM resident and answers slice requests given as JSON lines.
+ *
+ * <p>Every line read is a request, and for every request exactly one response line is written;
+ * see {@link SliceService} for the protocol. Requests are read either from an arbitrary reader,
+ * e.g., standard input, or from the connections to a socket on the loopback interface. Every
+ * connection is served by its own virtual thread, while all connections share the caches of one
+ * {@link SliceService}.
+ */
+public final class SliceServer {
+
+  private final SliceService service;
+
+  /**
+   * Creates a server that answers requests with the given service.
+   *
+   * @param pService The service answering the requests
+   */
+  public SliceServer(SliceService pService) {
+    service = pService;
+  }
+
+  /**
+   * Answers the requests of a reader until its end is reached.
+   *
+   * @param pRequests The reader of the request lines
+   * @param pResponses The writer of the response lines; it is flushed after every response
+   * @throws IOException In case reading or writing fails
+   */
+  public void serve(Reader pRequests, Writer pResponses) throws IOException {
+    BufferedReader reader = new BufferedReader(pRequests);
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isBlank()) {
+        continue;
+      }
+      pResponses.write(service.handle(line));
+      pResponses.write('\n');
+      pResponses.flush();
+    }
+  }
+
+  /**
+   * Accepts connections on a local port and answers the requests of every connection until the
+   * server socket is closed.
+   *
+   * <p>Once the server socket is closed, the connections that are still open are closed as well,
+   * such that idle clients do not keep the server from shutting down. A request that is being
+   * answered at that moment gets no response.
+   *
+   * @param pServerSocket The server socket to accept connections from
+   * @throws IOException In case accepting a connection fails
+   */
+  public void listen(ServerSocket pServerSocket) throws IOException {
+    Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    try (ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor()) {
+      try {
+        while (!pServerSocket.isClosed()) {
+          Socket socket;
+          try {
+            socket = pServerSocket.accept();
+          } catch (IOException e) {
+            if (pServerSocket.isClosed()) {
+              return;
+            }
+            throw e;
+          }
+          clients.add(socket);
+          connections.execute(
+              () -> {
+                try {
+                  serveConnection(socket);
+                } finally {
+                  clients.remove(socket);
+                }
+              });
+        }
+      } finally {
+        // Unblocks the connections waiting for a request, such that the executor can be closed
+        for (Socket client : clients) {
+          try {
+            client.close();
+          } catch (IOException e) {
+            // The connection is closed anyway
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Opens a server socket on the loopback interface.
+   *
+   * @param pPort The port to listen on, or {@code 0} for an arbitrary free port
+   * @return The server socket
+   * @throws IOException In case the socket cannot be opened
+   */
+  public static ServerSocket openLocalSocket(int pPort) throws IOException {
+    return new ServerSocket(pPort, 50, InetAddress.getLoopbackAddress());
+  }
+
+  private void serveConnection(Socket pSocket) {
+    try (Socket socket = pSocket;
+        Reader in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+        Writer out =
+            new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+      serve(in, out);
+    } catch (IOException e) {
+      // The client closed the connection
+    }
+  }
+}
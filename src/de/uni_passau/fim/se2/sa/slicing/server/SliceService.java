@@ -0,0 +1,212 @@
+package de.uni_passau.fim.se2.sa.slicing.server;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import de.uni_passau.fim.se2.sa.slicing.ProgramLocations;
+import de.uni_passau.fim.se2.sa.slicing.cfg.CFGLocalVariableTableVisitor;
+import de.uni_passau.fim.se2.sa.slicing.cfg.LocalVariableTable;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.graph.ProgramDependenceGraph;
+import de.uni_passau.fim.se2.sa.slicing.output.ByteCodeExtractor;
+import de.uni_passau.fim.se2.sa.slicing.output.Extractor;
+import de.uni_passau.fim.se2.sa.slicing.output.SourceLineExtractor;
+import de.uni_passau.fim.se2.sa.slicing.output.XMLFileExtractor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Answers slice requests and keeps the analysis results of the requested classes in memory.
+ *
+ * <p>The bytes of the requested class are read on every request and hashed. Parsed {@link
+ * ClassNode}s, local variable tables and the {@link ProgramDependenceGraph}s of already sliced
+ * methods are cached per hash, such that a warm request only needs to hash the class file,
+ * locate the criterion and compute the slice, while a recompiled class is analysed anew.
+ *
+ * <p>A request is a flat JSON object with the members
+ *
+ * <ul>
+ *   <li>{@code id}: an arbitrary value that is copied into the response,
+ *   <li>{@code class}: the binary name of a class on the class path, or {@code classFile}: the
+ *       path to a class file,
+ *   <li>{@code method}: the method in {@code <methodname>:<descriptor>} syntax,
+ *   <li>{@code variable} and {@code line}: the slicing criterion,
+ *   <li>{@code format}: {@code bytecode} (the default), {@code xml} or {@code source}, the latter
+ *       requiring the path of the source file in {@code sourceFile}.
+ * </ul>
+ *
+ * <p>The response contains the {@code id}, {@code ok}, and either the extracted {@code result},
+ * the number of {@code nodes} in the slice and the time in {@code micros} it took to answer, or
+ * an {@code error} message.
+ */
+public final class SliceService {
+
+  /** The analysis results of one version of a class. */
+  private record ClassEntry(
+      ClassNode classNode,
+      Map<String, LocalVariableTable> localVariableTables,
+      ConcurrentMap<String, Supplier<ProgramDependenceGraph>> pdgs) {}
+
+  private final Cache<HashCode, ClassEntry> classes;
+
+  /**
+   * Creates a new service.
+   *
+   * @param pMaximumClasses The maximum number of class versions to keep in memory
+   */
+  public SliceService(long pMaximumClasses) {
+    classes = CacheBuilder.newBuilder().maximumSize(pMaximumClasses).build();
+  }
+
+  /**
+   * Answers a single request.
+   *
+   * @param pRequest The request as a JSON object on a single line
+   * @return The response as a JSON object on a single line
+   */
+  public String handle(String pRequest) {
+    long start = System.nanoTime();
+    Map<String, Object> response = new LinkedHashMap<>();
+    try {
+      Map<String, Object> request = Json.parseObject(pRequest);
+      response.put("id", request.get("id"));
+      response.put("ok", true);
+      slice(request, response);
+      response.put("micros", (System.nanoTime() - start) / 1_000);
+    } catch (IOException | RuntimeException e) {
+      response.remove("result");
+      response.put("ok", false);
+      response.put("error", e.getClass().getSimpleName() + ": " + e.getMessage());
+    }
+    return Json.writeObject(response);
+  }
+
+  /**
+   * Provides the number of class versions currently kept in memory.
+   *
+   * @return The number of cached classes
+   */
+  public long getCachedClassCount() {
+    return classes.size();
+  }
+
+  private void slice(Map<String, Object> pRequest, Map<String, Object> pResponse)
+      throws IOException {
+    ClassEntry entry = loadClass(pRequest);
+
+    String[] method = required(pRequest, "method").split(":", 2);
+    if (method.length != 2) {
+      throw new IllegalArgumentException("method must be given as <methodname>:<descriptor>");
+    }
+    String methodName = method[0];
+    String methodDescriptor = method[1];
+    MethodNode methodNode =
+        entry.classNode().methods.stream()
+            .filter(m -> methodName.equals(m.name) && methodDescriptor.equals(m.desc))
+            .findAny()
+            .orElseThrow(
+                () -> new IllegalArgumentException("Could not find an appropriate method!"));
+
+    // Only the memoizing supplier is created under the lock of the map; the graph is built outside
+    // of it, once, by the first request that needs it
+    ProgramDependenceGraph pdg =
+        entry
+            .pdgs()
+            .computeIfAbsent(
+                methodNode.name + methodNode.desc,
+                k ->
+                    Suppliers.memoize(
+                        () -> new ProgramDependenceGraph(entry.classNode(), methodNode)))
+            .get();
+    if (pdg.getCFG() == null) {
+      throw new IllegalStateException("The method could not be analysed");
+    }
+
+    Set<Node> slice;
+    // The graphs of a method are shared between concurrent requests
+    synchronized (pdg) {
+      Node criterion =
+          ProgramLocations.find(
+              pdg.getCFG(),
+              methodNode,
+              entry.localVariableTables().get(methodNode.name + ": " + methodNode.desc),
+              Integer.parseInt(required(pRequest, "line")),
+              required(pRequest, "variable"));
+      slice = pdg.backwardSlice(criterion);
+    }
+
+    pResponse.put("result", createExtractor(pRequest, entry, methodNode, slice).extract());
+    pResponse.put("nodes", slice.size());
+  }
+
+  private ClassEntry loadClass(Map<String, Object> pRequest) throws IOException {
+    byte[] bytes;
+    Object classFile = pRequest.get("classFile");
+    if (classFile != null) {
+      bytes = Files.readAllBytes(Path.of(classFile.toString()));
+    } else {
+      String resource = required(pRequest, "class").replace('.', '/') + ".class";
+      try (InputStream in = ClassLoader.getSystemResourceAsStream(resource)) {
+        if (in == null) {
+          throw new IllegalArgumentException("Class not found: " + pRequest.get("class"));
+        }
+        bytes = in.readAllBytes();
+      }
+    }
+
+    try {
+      return classes.get(Hashing.sha256().hashBytes(bytes), () -> parse(bytes));
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static ClassEntry parse(byte[] pBytes) {
+    ClassReader classReader = new ClassReader(pBytes);
+    ClassNode classNode = new ClassNode(Opcodes.ASM9);
+    classReader.accept(classNode, 0);
+    CFGLocalVariableTableVisitor visitor = new CFGLocalVariableTableVisitor(Opcodes.ASM9);
+    classReader.accept(visitor, 0);
+    return new ClassEntry(classNode, visitor.getLocalVariableTables(), new ConcurrentHashMap<>());
+  }
+
+  private static Extractor createExtractor(
+      Map<String, Object> pRequest, ClassEntry pEntry, MethodNode pMethodNode, Set<Node> pSlice) {
+    Object format = pRequest.getOrDefault("format", "bytecode");
+    return switch (format.toString()) {
+      case "bytecode" -> new ByteCodeExtractor(pSlice);
+      case "xml" -> new XMLFileExtractor(pSlice);
+      case "source" ->
+          new SourceLineExtractor(
+              Path.of(required(pRequest, "sourceFile")),
+              pEntry.localVariableTables(),
+              pEntry.classNode().name.replace('/', '.'),
+              pMethodNode,
+              pSlice);
+      default -> throw new IllegalArgumentException("Unknown format: " + format);
+    };
+  }
+
+  private static String required(Map<String, Object> pRequest, String pKey) {
+    Object value = pRequest.get(pKey);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing member: " + pKey);
+    }
+    return value.toString();
+  }
+}
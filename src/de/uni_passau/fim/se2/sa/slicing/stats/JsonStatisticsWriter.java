@@ -0,0 +1,68 @@
+package de.uni_passau.fim.se2.sa.slicing.stats;
+
+import de.uni_passau.fim.se2.sa.slicing.output.JsonStrings;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes the costs of every completed phase as a JSON object on a line of its own.
+ *
+ * <p>A line looks like {@code {"phase":"CFG","class":"pkg/Foo","method":"bar(I)I",
+ * "wallNanos":..,"cpuNanos":..,"allocatedBytes":..,"nodes":..,"edges":..,"iterations":..}}; an
+ * unknown class or method is written as {@code null}.
+ */
+public final class JsonStatisticsWriter implements PhaseListener {
+
+  private final Writer writer;
+
+  /**
+   * Creates a listener writing to the given writer, which is flushed after every line.
+   *
+   * @param pWriter The writer
+   */
+  public JsonStatisticsWriter(Writer pWriter) {
+    writer = pWriter;
+  }
+
+  @Override
+  public synchronized void phaseCompleted(PhaseStatistics pStatistics) {
+    try {
+      writer.write(toJson(pStatistics));
+      writer.write(System.lineSeparator());
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Renders the costs of a phase as a single-line JSON object.
+   *
+   * @param pStatistics The costs of the phase
+   * @return The JSON text
+   */
+  public static String toJson(PhaseStatistics pStatistics) {
+    StringBuilder builder = new StringBuilder("{\"phase\":");
+    JsonStrings.append(builder, pStatistics.phase().name());
+    builder.append(",\"class\":");
+    JsonStrings.append(builder, pStatistics.className());
+    builder.append(",\"method\":");
+    JsonStrings.append(builder, pStatistics.methodName());
+    return builder
+        .append(",\"wallNanos\":")
+        .append(pStatistics.wallNanos())
+        .append(",\"cpuNanos\":")
+        .append(pStatistics.cpuNanos())
+        .append(",\"allocatedBytes\":")
+        .append(pStatistics.allocatedBytes())
+        .append(",\"nodes\":")
+        .append(pStatistics.nodes())
+        .append(",\"edges\":")
+        .append(pStatistics.edges())
+        .append(",\"iterations\":")
+        .append(pStatistics.iterations())
+        .append('}')
+        .toString();
+  }
+}
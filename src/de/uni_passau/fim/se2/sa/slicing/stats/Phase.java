@@ -0,0 +1,50 @@
+package de.uni_passau.fim.se2.sa.slicing.stats;
+
+/**
+ * The phases of slicing a method whose costs are reported to {@link PhaseListener}s and recorded as
+ * flight-recorder events.
+ */
+public enum Phase {
+
+  /** Reading the class file and its local-variable tables. */
+  PARSE,
+
+  /**
+   * Analysing the bytecode, which yields the control-flow graph and, for the analyses shared by
+   * the dependence graphs, the def/use information.
+   */
+  CFG,
+
+  /** Computing the immediate post-dominators of the control-flow graph. */
+  POST_DOMINATORS,
+
+  /** Building the post-dominator tree as a graph; includes the post-dominators if needed. */
+  POST_DOMINATOR_TREE,
+
+  /** Building the control-dependence graph; includes the post-dominators if not yet computed. */
+  CONTROL_DEPENDENCE,
+
+  /** Solving reaching definitions and building the data-dependence graph. */
+  DATA_DEPENDENCE,
+
+  /** Merging the control and data dependences into the program-dependence graph. */
+  PROGRAM_DEPENDENCE,
+
+  /** Reducing the program-dependence graph to the lines covered by an execution. */
+  SIMPLIFY,
+
+  /**
+   * Computing the summary edges of a system-dependence graph, whose iterations are the path edges
+   * taken from the worklist.
+   */
+  SUMMARY_EDGES,
+
+  /** Computing the slice of a criterion. */
+  SLICE,
+
+  /** Rendering the slice as bytecode, source lines or XML. */
+  EXTRACT,
+
+  /** Instrumenting a loaded class for coverage or trace recording. */
+  INSTRUMENT
+}
@@ -0,0 +1,50 @@
+package de.uni_passau.fim.se2.sa.slicing.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a completed phase, committed by {@link
+ * Statistics.Measurement#close()} while a recording has the event enabled.
+ *
+ * <p>The duration of the event is the wall-clock time of the phase; CPU time and allocations are
+ * left to the JDK's own events of the same recording. Stack traces are off by default, as the
+ * phase and method already tell where the time was spent.
+ */
+@Name(PhaseEvent.NAME)
+@Label("Slicing Phase")
+@Category("Slicing")
+@Description("A phase of analysing or slicing a method")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+
+  /** The name of the event type, to enable it in a recording. */
+  static final String NAME = "de.uni_passau.fim.se2.sa.slicing.Phase";
+
+  @Label("Phase")
+  String phase;
+
+  @Label("Class")
+  @Description("The internal name of the class declaring the method")
+  String className;
+
+  @Label("Method")
+  @Description("The name and descriptor of the method")
+  String methodName;
+
+  @Label("Nodes")
+  @Description("The number of nodes of the resulting graph or slice, -1 if none")
+  int nodes;
+
+  @Label("Edges")
+  @Description("The number of edges of the resulting graph, -1 if none")
+  int edges;
+
+  @Label("Iterations")
+  @Description("The number of fixpoint iterations, -1 if the phase has none")
+  int iterations;
+}
@@ -0,0 +1,19 @@
+package de.uni_passau.fim.se2.sa.slicing.stats;
+
+/**
+ * Receives the costs of every completed phase while registered with {@link
+ * Statistics#addListener(PhaseListener)}.
+ *
+ * <p>Phases run on the threads of the analysis, possibly concurrently, hence implementations have
+ * to be thread-safe.
+ */
+@FunctionalInterface
+public interface PhaseListener {
+
+  /**
+   * Called after a phase has completed.
+   *
+   * @param pStatistics The costs of the phase
+   */
+  void phaseCompleted(PhaseStatistics pStatistics);
+}
@@ -0,0 +1,29 @@
+package de.uni_passau.fim.se2.sa.slicing.stats;
+
+/**
+ * The costs of one phase for one method.
+ *
+ * <p>Times and allocations are measured on the thread that ran the phase. Phases may trigger
+ * others, e.g., building the control dependences computes the post-dominators on first use; the
+ * costs of a phase then include those of the phases it triggered.
+ *
+ * @param phase The phase
+ * @param className The internal name of the class declaring the method, or {@code null} if unknown
+ * @param methodName The name and descriptor of the method, or {@code null} if unknown
+ * @param wallNanos The elapsed wall-clock time in nanoseconds
+ * @param cpuNanos The CPU time of the thread in nanoseconds, or {@code -1} if not supported
+ * @param allocatedBytes The bytes allocated by the thread, or {@code -1} if not supported
+ * @param nodes The number of nodes of the resulting graph or slice, or {@code -1} if none
+ * @param edges The number of edges of the resulting graph, or {@code -1} if none
+ * @param iterations The number of fixpoint iterations, or {@code -1} if the phase has none
+ */
+public record PhaseStatistics(
+    Phase phase,
+    String className,
+    String methodName,
+    long wallNanos,
+    long cpuNanos,
+    long allocatedBytes,
+    int nodes,
+    int edges,
+    int iterations) {}
@@ -0,0 +1,229 @@
+package de.uni_passau.fim.se2.sa.slicing.stats;
+
+import com.google.common.base.Preconditions;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import jdk.jfr.EventType;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Measures the phases of the analysis and reports them to the registered {@link PhaseListener}s
+ * and to Java Flight Recorder.
+ *
+ * <p>A phase is measured by a {@link Measurement} that is opened before and closed after the
+ * phase. Every phase is committed as a {@code de.uni_passau.fim.se2.sa.slicing.Phase} event if a
+ * recording enables it, such that slicing latencies can be correlated with garbage collection and
+ * class loading. While no listener is registered and no recording enables the event, {@link
+ * #start(Phase, String, MethodNode)} returns a shared measurement that ignores everything, such
+ * that the instrumented code costs a volatile read and a disabled event check per phase; the event
+ * itself is only allocated while a recording enables it.
+ */
+public final class Statistics {
+
+  private static final Measurement DISABLED = new Measurement(null, null, null, false, null);
+  private static final EventType PHASE_EVENT = EventType.getEventType(PhaseEvent.class);
+
+  private static final List<PhaseListener> listeners = new CopyOnWriteArrayList<>();
+  private static volatile boolean enabled;
+
+  private Statistics() {}
+
+  /**
+   * Registers a listener for the phases completed from now on.
+   *
+   * @param pListener The listener
+   */
+  public static void addListener(PhaseListener pListener) {
+    Preconditions.checkNotNull(pListener);
+    listeners.add(pListener);
+    enabled = true;
+  }
+
+  /**
+   * Unregisters a listener.
+   *
+   * @param pListener The listener
+   */
+  public static void removeListener(PhaseListener pListener) {
+    listeners.remove(pListener);
+    enabled = !listeners.isEmpty();
+  }
+
+  /**
+   * Tells whether any listener is registered.
+   *
+   * @return {@code true} if phases are reported to listeners
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts measuring a phase on the current thread.
+   *
+   * @param pPhase The phase
+   * @param pClassName The internal name of the class declaring the method, may be {@code null}
+   * @param pMethodNode The method, may be {@code null}
+   * @return The measurement to close when the phase has completed
+   */
+  public static Measurement start(Phase pPhase, String pClassName, MethodNode pMethodNode) {
+    boolean reporting = enabled;
+    boolean recording = PHASE_EVENT.isEnabled();
+    if (!reporting && !recording) {
+      return DISABLED;
+    }
+    String methodName = pMethodNode == null ? null : pMethodNode.name + pMethodNode.desc;
+    return new Measurement(
+        pPhase, pClassName, methodName, reporting, recording ? new PhaseEvent() : null);
+  }
+
+  private static void report(PhaseStatistics pStatistics) {
+    for (PhaseListener listener : listeners) {
+      listener.phaseCompleted(pStatistics);
+    }
+  }
+
+  /**
+   * The measurement of a single phase.
+   *
+   * <p>The sizes of the result are recorded while the measurement is open; computing them is
+   * skipped if phases are not measured. Closing the measurement reports the phase to the
+   * listeners and commits its event. CPU time and allocations are only measured for listeners.
+   */
+  public static final class Measurement implements AutoCloseable {
+
+    private final Phase phase;
+    private final String className;
+    private final String methodName;
+    private final boolean reporting;
+    private final PhaseEvent event;
+    private final long startWall;
+    private final long startCpu;
+    private final long startAllocated;
+    private int nodes = -1;
+    private int edges = -1;
+    private int iterations = -1;
+
+    private Measurement(
+        Phase pPhase,
+        String pClassName,
+        String pMethodName,
+        boolean pReporting,
+        PhaseEvent pEvent) {
+      phase = pPhase;
+      className = pClassName;
+      methodName = pMethodName;
+      reporting = pReporting;
+      event = pEvent;
+      startAllocated = pReporting ? allocatedBytes() : -1;
+      startCpu = pReporting ? cpuTime() : -1;
+      startWall = System.nanoTime();
+      if (event != null) {
+        event.begin();
+      }
+    }
+
+    /**
+     * Tells whether this measurement reports its phase to listeners or to a recording.
+     *
+     * @return {@code false} if phases are not measured
+     */
+    public boolean isActive() {
+      return reporting || event != null;
+    }
+
+    /**
+     * Records the number of nodes and edges of the resulting graph.
+     *
+     * @param pGraph The graph, may be {@code null}
+     * @return This measurement
+     */
+    public Measurement graph(ProgramGraph pGraph) {
+      if (isActive() && pGraph != null) {
+        nodes = pGraph.getNodes().size();
+        edges = 0;
+        for (Node node : pGraph.getNodes()) {
+          edges += pGraph.getSuccessors(node).size();
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Records the number of nodes of the result, e.g., of a slice.
+     *
+     * @param pNodes The number of nodes
+     * @return This measurement
+     */
+    public Measurement nodes(int pNodes) {
+      nodes = pNodes;
+      return this;
+    }
+
+    /**
+     * Records the number of edges of the resulting graph.
+     *
+     * @param pEdges The number of edges
+     * @return This measurement
+     */
+    public Measurement edges(int pEdges) {
+      edges = pEdges;
+      return this;
+    }
+
+    /**
+     * Records the number of iterations until the fixpoint of the phase was reached.
+     *
+     * @param pIterations The number of iterations
+     * @return This measurement
+     */
+    public Measurement iterations(int pIterations) {
+      iterations = pIterations;
+      return this;
+    }
+
+    /** Completes the measurement, reports the phase and commits its event. */
+    @Override
+    public void close() {
+      if (event != null) {
+        event.end();
+        if (event.shouldCommit()) {
+          event.phase = phase.name();
+          event.className = className;
+          event.methodName = methodName;
+          event.nodes = nodes;
+          event.edges = edges;
+          event.iterations = iterations;
+          event.commit();
+        }
+      }
+      if (!reporting) {
+        return;
+      }
+      long wall = System.nanoTime() - startWall;
+      long cpu = startCpu < 0 ? -1 : cpuTime() - startCpu;
+      long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+      report(
+          new PhaseStatistics(
+              phase, className, methodName, wall, cpu, allocated, nodes, edges, iterations));
+    }
+
+    private static long cpuTime() {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean allocations
+          && allocations.isThreadAllocatedMemorySupported()
+          && allocations.isThreadAllocatedMemoryEnabled()) {
+        return allocations.getCurrentThreadAllocatedBytes();
+      }
+      return -1;
+    }
+  }
+}
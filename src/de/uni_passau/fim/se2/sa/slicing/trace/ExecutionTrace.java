@@ -0,0 +1,342 @@
+package de.uni_passau.fim.se2.sa.slicing.trace;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.MapMaker;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the execution trace of instrumented methods for dynamic slicing.
+ *
+ * <p>Every record is a single {@code long}, whose two highest bits give its kind:
+ *
+ * <ul>
+ *   <li>{@link #ENTER}: a method was invoked; the record holds the id of the new frame and the id
+ *       of the method,
+ *   <li>{@link #STEP}: an instruction is about to be executed; the record holds the frame and the
+ *       index of the instruction in the instruction list of the uninstrumented method,
+ *   <li>{@link #READ} and {@link #WRITE}: the instruction of the preceding step reads or writes a
+ *       memory location, i.e., a field of an object, an element of an array or a static field.
+ * </ul>
+ *
+ * <p>Objects are identified by an id that is assigned on their first access and kept as long as
+ * the object is reachable. Object ids wrap around after 2<sup>31</sup> accessed objects and frame
+ * ids after 2<sup>30</sup> invocations; only then can two objects or frames share their records,
+ * which can only make slices larger.
+ *
+ * <p>The recording methods are called by instrumented code and do not lock. Every thread collects
+ * its records in a block of its own, which is appended to the trace as a whole once it is full.
+ * A block only ends before an {@link #ENTER} or {@link #STEP} record, such that the accesses of an
+ * instruction always directly follow its step, whatever the other threads do. The records of one
+ * thread keep their order; the blocks of different threads are interleaved in the order in which
+ * they are appended, hence a dependence through memory shared between threads is only found if
+ * the block of the write precedes the block of the read.
+ */
+public final class ExecutionTrace {
+
+  /** The kind of a record that starts a new frame. */
+  public static final int ENTER = 0;
+
+  /** The kind of a record that denotes the execution of an instruction. */
+  public static final int STEP = 1;
+
+  /** The kind of a record that denotes a read of a memory location. */
+  public static final int READ = 2;
+
+  /** The kind of a record that denotes a write of a memory location. */
+  public static final int WRITE = 3;
+
+  private static final int FRAME_BITS = 30;
+  private static final long FRAME_MASK = (1L << FRAME_BITS) - 1;
+  private static final long ADDRESS_MASK = (1L << 62) - 1;
+  private static final int SLOT_MASK = Integer.MAX_VALUE;
+
+  private static final List<String> methods = new ArrayList<>();
+  private static final Map<String, Integer> methodIds = new HashMap<>();
+  private static final Map<String, Integer> fieldIds = new HashMap<>();
+
+  /** The number of records after which a thread appends its block to the trace. */
+  private static final int BLOCK_SIZE = 1 << 10;
+
+  private static final ConcurrentMap<Object, Integer> objectIds =
+      new MapMaker().weakKeys().makeMap();
+  private static final AtomicInteger nextObject = new AtomicInteger(1);
+  private static final AtomicInteger nextFrame = new AtomicInteger();
+
+  /** The blocks of all live threads that have recorded; guarded by the class. */
+  private static final List<Block> blocks = new ArrayList<>();
+
+  private static final ThreadLocal<Block> block = ThreadLocal.withInitial(ExecutionTrace::newBlock);
+
+  private static TraceBuffer buffer = new TraceBuffer();
+
+  private ExecutionTrace() {}
+
+  /**
+   * Registers a method that is being instrumented.
+   *
+   * @param pOwner The internal name of the declaring class
+   * @param pName The name of the method
+   * @param pDescriptor The descriptor of the method
+   * @return The id of the method
+   */
+  public static synchronized int registerMethod(String pOwner, String pName, String pDescriptor) {
+    return methodIds.computeIfAbsent(
+        methodKey(pOwner, pName, pDescriptor),
+        key -> {
+          methods.add(key);
+          return methods.size() - 1;
+        });
+  }
+
+  /**
+   * Provides the id of an instrumented method.
+   *
+   * @param pOwner The internal name of the declaring class
+   * @param pName The name of the method
+   * @param pDescriptor The descriptor of the method
+   * @return The id of the method, or {@code -1} if the method was not instrumented
+   */
+  public static synchronized int getMethodId(String pOwner, String pName, String pDescriptor) {
+    return methodIds.getOrDefault(methodKey(pOwner, pName, pDescriptor), -1);
+  }
+
+  /**
+   * Registers a field that is accessed by instrumented code.
+   *
+   * @param pOwner The internal name of the declaring class
+   * @param pName The name of the field
+   * @return The id of the field
+   */
+  public static synchronized int registerField(String pOwner, String pName) {
+    return fieldIds.computeIfAbsent(pOwner + '.' + pName, key -> fieldIds.size());
+  }
+
+  /**
+   * Provides the trace recorded so far, including the blocks that the threads have not appended
+   * yet.
+   *
+   * <p>The trace must not be read while instrumented code is running.
+   *
+   * @return The trace
+   */
+  public static synchronized TraceBuffer getTrace() {
+    for (Block threadBlock : blocks) {
+      threadBlock.appendTo(buffer);
+    }
+    blocks.removeIf(threadBlock -> !threadBlock.owner.isAlive());
+    return buffer;
+  }
+
+  /**
+   * Discards the recorded trace; the ids of methods and fields are kept.
+   *
+   * @param pBuffer The buffer to record into from now on
+   */
+  @VisibleForTesting
+  public static synchronized void reset(TraceBuffer pBuffer) {
+    if (buffer != pBuffer) {
+      buffer.close();
+    }
+    buffer = pBuffer;
+    buffer.clear();
+    for (Block threadBlock : blocks) {
+      threadBlock.size = 0;
+    }
+    blocks.removeIf(threadBlock -> !threadBlock.owner.isAlive());
+    nextFrame.set(0);
+  }
+
+  /**
+   * Records the invocation of a method.
+   *
+   * @param pMethod The id of the method
+   * @return The id of the new frame
+   */
+  // The recording methods need to be public to be callable during test execution
+  public static int enter(int pMethod) {
+    int frame = (int) (nextFrame.getAndIncrement() & FRAME_MASK);
+    block.get().start(frameRecord(ENTER, frame, pMethod));
+    return frame;
+  }
+
+  /**
+   * Records that an instruction is about to be executed.
+   *
+   * @param pFrame The id of the frame
+   * @param pInstruction The index of the instruction in the uninstrumented method
+   */
+  public static void step(int pFrame, int pInstruction) {
+    block.get().start(frameRecord(STEP, pFrame, pInstruction));
+  }
+
+  /**
+   * Records that the instruction of the preceding step reads a field of an object.
+   *
+   * @param pObject The object
+   * @param pField The id of the field
+   */
+  public static void readField(Object pObject, int pField) {
+    block.get().append(addressRecord(READ, objectId(pObject), pField));
+  }
+
+  /**
+   * Records that the instruction of the preceding step writes a field of an object.
+   *
+   * @param pObject The object
+   * @param pField The id of the field
+   */
+  public static void writeField(Object pObject, int pField) {
+    block.get().append(addressRecord(WRITE, objectId(pObject), pField));
+  }
+
+  /**
+   * Records that the instruction of the preceding step reads an element of an array.
+   *
+   * @param pArray The array
+   * @param pIndex The index of the element
+   */
+  public static void readElement(Object pArray, int pIndex) {
+    block.get().append(addressRecord(READ, objectId(pArray), pIndex));
+  }
+
+  /**
+   * Records that the instruction of the preceding step writes an element of an array.
+   *
+   * @param pArray The array
+   * @param pIndex The index of the element
+   */
+  public static void writeElement(Object pArray, int pIndex) {
+    block.get().append(addressRecord(WRITE, objectId(pArray), pIndex));
+  }
+
+  /**
+   * Records that the instruction of the preceding step reads a static field.
+   *
+   * @param pField The id of the field
+   */
+  public static void readStatic(int pField) {
+    block.get().append(addressRecord(READ, 0, pField));
+  }
+
+  /**
+   * Records that the instruction of the preceding step writes a static field.
+   *
+   * @param pField The id of the field
+   */
+  public static void writeStatic(int pField) {
+    block.get().append(addressRecord(WRITE, 0, pField));
+  }
+
+  /**
+   * Provides the kind of a record.
+   *
+   * @param pRecord The record
+   * @return One of {@link #ENTER}, {@link #STEP}, {@link #READ} and {@link #WRITE}
+   */
+  public static int kind(long pRecord) {
+    return (int) (pRecord >>> 62);
+  }
+
+  /**
+   * Provides the frame of an {@link #ENTER} or {@link #STEP} record.
+   *
+   * @param pRecord The record
+   * @return The id of the frame
+   */
+  public static int frame(long pRecord) {
+    return (int) ((pRecord >>> 32) & FRAME_MASK);
+  }
+
+  /**
+   * Provides the method id of an {@link #ENTER} record or the instruction index of a {@link
+   * #STEP} record.
+   *
+   * @param pRecord The record
+   * @return The payload of the record
+   */
+  public static int payload(long pRecord) {
+    return (int) pRecord;
+  }
+
+  /**
+   * Provides the memory location of a {@link #READ} or {@link #WRITE} record.
+   *
+   * @param pRecord The record
+   * @return The address of the location
+   */
+  public static long address(long pRecord) {
+    return pRecord & ADDRESS_MASK;
+  }
+
+  private static int objectId(Object pObject) {
+    Integer id = objectIds.get(pObject);
+    if (id == null) {
+      // Ids start at 1, as 0 denotes the static fields
+      id =
+          objectIds.computeIfAbsent(
+              pObject, o -> Math.max(1, nextObject.getAndIncrement() & SLOT_MASK));
+    }
+    return id;
+  }
+
+  private static synchronized Block newBlock() {
+    Block threadBlock = new Block(Thread.currentThread());
+    blocks.add(threadBlock);
+    return threadBlock;
+  }
+
+  private static long frameRecord(int pKind, int pFrame, int pPayload) {
+    return ((long) pKind << 62) | ((long) pFrame << 32) | (pPayload & 0xFFFFFFFFL);
+  }
+
+  private static long addressRecord(int pKind, int pIdentity, int pSlot) {
+    return ((long) pKind << 62) | ((long) (pIdentity & SLOT_MASK) << 31) | (pSlot & SLOT_MASK);
+  }
+
+  private static String methodKey(String pOwner, String pName, String pDescriptor) {
+    return pOwner + '.' + pName + pDescriptor;
+  }
+
+  /** The records of one thread that have not been appended to the trace yet. */
+  private static final class Block {
+
+    private final Thread owner;
+    private long[] records = new long[BLOCK_SIZE];
+    private int size;
+
+    private Block(Thread pOwner) {
+      owner = pOwner;
+    }
+
+    /** Appends the block if it is full and then starts the records of a new instruction. */
+    private void start(long pRecord) {
+      if (size >= BLOCK_SIZE) {
+        synchronized (ExecutionTrace.class) {
+          appendTo(buffer);
+        }
+      }
+      append(pRecord);
+    }
+
+    private void append(long pRecord) {
+      if (size == records.length) {
+        // Only the accesses of a single instruction can exceed the block
+        records = Arrays.copyOf(records, 2 * records.length);
+      }
+      records[size++] = pRecord;
+    }
+
+    private void appendTo(TraceBuffer pBuffer) {
+      for (int i = 0; i < size; i++) {
+        pBuffer.append(records[i]);
+      }
+      size = 0;
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package de.uni_passau.fim.se2.sa.slicing.trace;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An append-only sequence of {@code long} records that is not limited by the heap.
+ *
+ * <p>Records are appended to a fixed in-memory ring. Whenever the ring is full, it is spilled as a
+ * whole to a temporary file that is mapped into memory in large segments, and the ring starts
+ * over. Records can be read back by their position in the sequence, which allows walking even
+ * very long executions backward without materialising them on the heap.
+ *
+ * <p>The buffer is not thread-safe; {@link ExecutionTrace} serialises all appends.
+ */
+public final class TraceBuffer implements AutoCloseable {
+
+  /** The default number of records held in memory before they are spilled. */
+  public static final int DEFAULT_RING_CAPACITY = 1 << 16;
+
+  /** The default number of records per mapped segment of the spill file. */
+  public static final int DEFAULT_SEGMENT_CAPACITY = 1 << 23;
+
+  private final long[] ring;
+  private final int segmentCapacity;
+  private final List<LongBuffer> segments = new ArrayList<>();
+
+  private int ringSize;
+  private long spilled;
+  private FileChannel channel;
+
+  /** Creates a buffer with the default capacities. */
+  public TraceBuffer() {
+    this(DEFAULT_RING_CAPACITY, DEFAULT_SEGMENT_CAPACITY);
+  }
+
+  /**
+   * Creates a buffer.
+   *
+   * @param pRingCapacity The number of records held in memory before they are spilled
+   * @param pSegmentCapacity The number of records per mapped segment of the spill file; a multiple
+   *     of the ring capacity
+   */
+  public TraceBuffer(int pRingCapacity, int pSegmentCapacity) {
+    Preconditions.checkArgument(pRingCapacity > 0, "The ring capacity must be positive");
+    Preconditions.checkArgument(
+        pSegmentCapacity >= pRingCapacity && pSegmentCapacity % pRingCapacity == 0,
+        "The segment capacity must be a multiple of the ring capacity");
+    ring = new long[pRingCapacity];
+    segmentCapacity = pSegmentCapacity;
+  }
+
+  /**
+   * Appends a record.
+   *
+   * @param pRecord The record
+   */
+  public void append(long pRecord) {
+    if (ringSize == ring.length) {
+      spill();
+    }
+    ring[ringSize++] = pRecord;
+  }
+
+  /**
+   * Provides the number of records appended so far.
+   *
+   * @return The number of records
+   */
+  public long size() {
+    return spilled + ringSize;
+  }
+
+  /**
+   * Provides the number of records that were spilled to the file.
+   *
+   * @return The number of spilled records
+   */
+  public long getSpilledCount() {
+    return spilled;
+  }
+
+  /**
+   * Provides a record by its position.
+   *
+   * @param pPosition The position of the record, starting at {@code 0}
+   * @return The record
+   */
+  public long get(long pPosition) {
+    Objects.checkIndex(pPosition, size());
+    if (pPosition >= spilled) {
+      return ring[(int) (pPosition - spilled)];
+    }
+    return segments
+        .get(Math.toIntExact(pPosition / segmentCapacity))
+        .get((int) (pPosition % segmentCapacity));
+  }
+
+  /** Discards all records, keeping the spill file for reuse. */
+  public void clear() {
+    ringSize = 0;
+    spilled = 0;
+  }
+
+  /**
+   * Releases the spill file.
+   *
+   * <p>The mapped segments are released once they are no longer reachable.
+   */
+  @Override
+  public void close() {
+    clear();
+    segments.clear();
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      channel = null;
+    }
+  }
+
+  private void spill() {
+    int segment = Math.toIntExact(spilled / segmentCapacity);
+    try {
+      if (segment == segments.size()) {
+        if (channel == null) {
+          Path file = Files.createTempFile("slicer-trace", ".bin");
+          channel =
+              FileChannel.open(
+                  file,
+                  StandardOpenOption.READ,
+                  StandardOpenOption.WRITE,
+                  StandardOpenOption.DELETE_ON_CLOSE);
+          file.toFile().deleteOnExit();
+        }
+        long bytes = (long) segmentCapacity * Long.BYTES;
+        segments.add(
+            channel
+                .map(FileChannel.MapMode.READ_WRITE, segment * bytes, bytes)
+                .order(ByteOrder.nativeOrder())
+                .asLongBuffer());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot spill the execution trace", e);
+    }
+    segments.get(segment).put((int) (spilled % segmentCapacity), ring, 0, ringSize);
+    spilled += ringSize;
+    ringSize = 0;
+  }
+}
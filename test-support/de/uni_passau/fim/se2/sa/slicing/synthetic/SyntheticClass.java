@@ -0,0 +1,213 @@
+package de.uni_passau.fim.se2.sa.slicing.synthetic;
+
+import com.google.common.base.Preconditions;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * A class created by {@link SyntheticClassGenerator}, together with the statement structure of
+ * its method.
+ *
+ * <p>Every line of the method holds one statement. For each line, the structure records the
+ * variables it defines and uses, the line of the loop or switch it is nested in, and the lines
+ * control may come from. Apart from the initialisations of the locals and loop counters, every
+ * statement that defines a variable also uses it. A use thus depends on every definition of the
+ * variable it is reachable from without passing an initialisation. The expected slices are
+ * computed from this property alone, independently of the analyses that build dependence graphs
+ * from the bytecode.
+ */
+public final class SyntheticClass {
+
+  /** The variable number of the first static field; lower numbers are local-variable slots. */
+  static final int FIRST_FIELD = 1 << 16;
+
+  private final ClassNode classNode;
+  private final MethodNode methodNode;
+  private final AbstractInsnNode[] criteria;
+  private final int[][] definitions;
+  private final int[][] uses;
+  private final int[] parents;
+  private final int[][] predecessors;
+  private final int returnLine;
+
+  SyntheticClass(
+      ClassNode pClassNode,
+      MethodNode pMethodNode,
+      AbstractInsnNode[] pCriteria,
+      int[][] pDefinitions,
+      int[][] pUses,
+      int[] pParents,
+      int[][] pPredecessors,
+      int pReturnLine) {
+    classNode = pClassNode;
+    methodNode = pMethodNode;
+    criteria = pCriteria;
+    definitions = pDefinitions;
+    uses = pUses;
+    parents = pParents;
+    predecessors = pPredecessors;
+    returnLine = pReturnLine;
+  }
+
+  /**
+   * Provides the generated class.
+   *
+   * @return The class node
+   */
+  public ClassNode getClassNode() {
+    return classNode;
+  }
+
+  /**
+   * Provides the generated method.
+   *
+   * @return The method node
+   */
+  public MethodNode getMethodNode() {
+    return methodNode;
+  }
+
+  /**
+   * Provides the number of lines of the method; lines are numbered from 1.
+   *
+   * @return The number of lines
+   */
+  public int getLineCount() {
+    return definitions.length - 1;
+  }
+
+  /**
+   * Provides the line of the return statement.
+   *
+   * @return The last line of the method
+   */
+  public int getReturnLine() {
+    return returnLine;
+  }
+
+  /**
+   * Provides the instruction of a line that defines or uses its variables, or that branches.
+   *
+   * @param pLine The line
+   * @return The instruction to slice from for that line
+   */
+  public AbstractInsnNode getCriterion(int pLine) {
+    Preconditions.checkElementIndex(pLine - 1, getLineCount());
+    return criteria[pLine];
+  }
+
+  /**
+   * Computes the lines of the expected backward slice of a line.
+   *
+   * <p>The slice contains the line itself, the lines of the loops and switches it is nested in,
+   * and for every variable used the definitions the line is reachable from, transitively. Most
+   * definitions also use their variable, so the search continues past them, but not past an
+   * initialisation.
+   *
+   * @param pLine The line of the slicing criterion
+   * @return The lines of the slice in ascending order
+   */
+  public Set<Integer> expectedSlice(int pLine) {
+    Preconditions.checkElementIndex(pLine - 1, getLineCount());
+    BitSet slice = new BitSet(definitions.length);
+    int[] worklist = new int[definitions.length];
+    int size = 0;
+    slice.set(pLine);
+    worklist[size++] = pLine;
+
+    // The lines reaching any use of a variable handled so far, up to its initialisations; a
+    // search for a later use stops where an earlier one has been
+    Map<Integer, BitSet> reaching = new HashMap<>();
+    int[] stack = new int[definitions.length];
+    while (size > 0) {
+      int line = worklist[--size];
+      int parent = parents[line];
+      if (parent > 0 && !slice.get(parent)) {
+        slice.set(parent);
+        worklist[size++] = parent;
+      }
+      for (int variable : uses[line]) {
+        BitSet visited = reaching.computeIfAbsent(variable, v -> new BitSet(definitions.length));
+        int top = 0;
+        for (int predecessor : predecessors[line]) {
+          if (!visited.get(predecessor)) {
+            visited.set(predecessor);
+            stack[top++] = predecessor;
+          }
+        }
+        while (top > 0) {
+          int current = stack[--top];
+          if (!slice.get(current) && defines(current, variable)) {
+            slice.set(current);
+            worklist[size++] = current;
+          }
+          if (initialises(current, variable)) {
+            continue;
+          }
+          for (int predecessor : predecessors[current]) {
+            if (!visited.get(predecessor)) {
+              visited.set(predecessor);
+              stack[top++] = predecessor;
+            }
+          }
+        }
+      }
+    }
+
+    Set<Integer> lines = new TreeSet<>();
+    for (int line = slice.nextSetBit(1); line >= 0; line = slice.nextSetBit(line + 1)) {
+      lines.add(line);
+    }
+    return lines;
+  }
+
+  /**
+   * Computes the number of lines of the expected backward slice of a line.
+   *
+   * @param pLine The line of the slicing criterion
+   * @return The number of lines in the slice
+   * @see #expectedSlice(int)
+   */
+  public int expectedSliceSize(int pLine) {
+    return expectedSlice(pLine).size();
+  }
+
+  /**
+   * Writes the class into class-file format, computing its stack map frames.
+   *
+   * <p>Only methods within the JVM's limit of 64 KB of bytecode can be written; see {@link
+   * SyntheticClassGenerator.Builder#instructions(int)}.
+   *
+   * @return The bytes of the class file
+   * @throws org.objectweb.asm.MethodTooLargeException If the method exceeds 64 KB of bytecode
+   */
+  public byte[] toByteArray() {
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+    classNode.accept(writer);
+    return writer.toByteArray();
+  }
+
+  private boolean defines(int pLine, int pVariable) {
+    return contains(definitions[pLine], pVariable);
+  }
+
+  private boolean initialises(int pLine, int pVariable) {
+    return defines(pLine, pVariable) && !contains(uses[pLine], pVariable);
+  }
+
+  private static boolean contains(int[] pVariables, int pVariable) {
+    for (int variable : pVariables) {
+      if (variable == pVariable) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,486 @@
+package de.uni_passau.fim.se2.sa.slicing.synthetic;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Generates classes with one large, randomly structured method for scalability testing.
+ *
+ * <p>The method {@code static int run(int)} consists of statements on lines of their own, nested
+ * into counting loops, table switches, and try/catch regions. Every statement updates a local
+ * variable or a static field from its own value and possibly from one other variable, and the
+ * method returns the first local variable. The loops and switches branch on the parameter.
+ *
+ * <p>Generation is deterministic for a given configuration and seed. Besides the class, the
+ * result knows the statement structure of the method and computes expected slices from it; see
+ * {@link SyntheticClass#expectedSlice(int)}.
+ */
+public final class SyntheticClassGenerator {
+
+  /** The name of the generated method. */
+  public static final String METHOD_NAME = "run";
+
+  /** The descriptor of the generated method. */
+  public static final String METHOD_DESCRIPTOR = "(I)I";
+
+  /** Bounds the nesting of all constructs, in addition to the configured loop depth. */
+  private static final int MAXIMUM_NESTING = 8;
+
+  private final String className;
+  private final int instructions;
+  private final int loopDepth;
+  private final int switchFanOut;
+  private final int tryCatchRegions;
+  private final int locals;
+  private final int fields;
+  private final long seed;
+
+  private SyntheticClassGenerator(Builder pBuilder) {
+    className = pBuilder.className;
+    instructions = pBuilder.instructions;
+    loopDepth = pBuilder.loopDepth;
+    switchFanOut = pBuilder.switchFanOut;
+    tryCatchRegions = pBuilder.tryCatchRegions;
+    locals = pBuilder.locals;
+    fields = pBuilder.fields;
+    seed = pBuilder.seed;
+  }
+
+  /**
+   * Creates a builder with the default configuration: 1000 instructions, loops nested up to
+   * depth 2, switches with 3 cases, 2 try/catch regions, 4 local variables, 2 static fields,
+   * and seed 0.
+   *
+   * @return A new builder
+   */
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Generates the class.
+   *
+   * @return The generated class together with its statement structure
+   */
+  public SyntheticClass generate() {
+    ClassNode classNode = new ClassNode(Opcodes.ASM9);
+    classNode.version = Opcodes.V17;
+    classNode.access = Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER;
+    classNode.name = className;
+    classNode.superName = "java/lang/Object";
+    for (int f = 0; f < fields; f++) {
+      classNode.fields.add(
+          new FieldNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, fieldName(f), "I", null, null));
+    }
+
+    MethodNode methodNode =
+        new MethodNode(
+            Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, METHOD_NAME, METHOD_DESCRIPTOR, null, null);
+    Generation generation = new Generation(methodNode);
+    generation.run();
+    classNode.methods.add(methodNode);
+    return generation.result(classNode);
+  }
+
+  private static String fieldName(int pField) {
+    return "f" + pField;
+  }
+
+  /** The state of a single run of {@link #generate()}. */
+  private final class Generation {
+
+    private final Random random = new Random(seed);
+    private final MethodNode method;
+    private final InsnList code;
+
+    /** The statement structure, indexed by line; line 0 stands for the method entry. */
+    private final List<int[]> definitions = new ArrayList<>();
+
+    private final List<int[]> uses = new ArrayList<>();
+    private final List<Integer> parents = new ArrayList<>();
+    private final List<List<Integer>> predecessors = new ArrayList<>();
+    private final List<AbstractInsnNode> criteria = new ArrayList<>();
+
+    private int nextTryAt = instructions / (tryCatchRegions + 1);
+    private int returnLine;
+
+    private Generation(MethodNode pMethod) {
+      method = pMethod;
+      code = pMethod.instructions;
+      definitions.add(new int[0]);
+      uses.add(new int[0]);
+      parents.add(0);
+      predecessors.add(new ArrayList<>());
+      criteria.add(null);
+    }
+
+    private void run() {
+      List<Integer> frontier = List.of(0);
+      for (int v = 1; v <= locals; v++) {
+        int line = newLine(new LabelNode(), 0, new int[] {v}, new int[0]);
+        code.add(new InsnNode(Opcodes.ICONST_0));
+        frontier = connect(frontier, line, store(v));
+      }
+      while (code.size() + 4 < instructions) {
+        frontier = item(frontier, 0, 0, 0);
+      }
+      returnLine = newLine(new LabelNode(), 0, new int[0], new int[] {1});
+      code.add(new VarInsnNode(Opcodes.ILOAD, 1));
+      connect(frontier, returnLine, add(new InsnNode(Opcodes.IRETURN)));
+      method.maxLocals = locals + 1 + loopDepth;
+      method.maxStack = 2;
+    }
+
+    private SyntheticClass result(ClassNode pClassNode) {
+      int size = definitions.size();
+      int[][] predecessorArrays = new int[size][];
+      for (int line = 0; line < size; line++) {
+        predecessorArrays[line] =
+            predecessors.get(line).stream().mapToInt(Integer::intValue).toArray();
+      }
+      return new SyntheticClass(
+          pClassNode,
+          method,
+          criteria.toArray(new AbstractInsnNode[0]),
+          definitions.toArray(new int[0][]),
+          uses.toArray(new int[0][]),
+          parents.stream().mapToInt(Integer::intValue).toArray(),
+          predecessorArrays,
+          returnLine);
+    }
+
+    /** Emits a statement or a construct after the given statements; returns the new frontier. */
+    private List<Integer> item(List<Integer> pFrontier, int pParent, int pLoops, int pNesting) {
+      // Constructs are only opened within the budget, such that wide switches cannot explode
+      boolean nestable = pNesting < MAXIMUM_NESTING && code.size() < instructions;
+      if (nestable && tryCatchRegions > 0 && code.size() >= nextTryAt) {
+        nextTryAt += instructions / (tryCatchRegions + 1);
+        return tryCatch(pFrontier, pParent, pLoops, pNesting);
+      }
+      int choice = random.nextInt(10);
+      if (choice == 0 && nestable && pLoops < loopDepth) {
+        return loop(pFrontier, pParent, pLoops, pNesting);
+      }
+      if (choice == 1 && nestable && switchFanOut > 0) {
+        return tableSwitch(pFrontier, pParent, pLoops, pNesting);
+      }
+      return statement(pFrontier, pParent);
+    }
+
+    /** Emits the body of a construct, which consists of at least one item. */
+    private List<Integer> body(List<Integer> pFrontier, int pParent, int pLoops, int pNesting) {
+      List<Integer> frontier = item(pFrontier, pParent, pLoops, pNesting);
+      int items = random.nextInt(3);
+      for (int i = 0; i < items && code.size() < instructions; i++) {
+        frontier = item(frontier, pParent, pLoops, pNesting);
+      }
+      return frontier;
+    }
+
+    private List<Integer> statement(List<Integer> pFrontier, int pParent) {
+      int target = 1 + random.nextInt(locals);
+      int kind = random.nextInt(fields > 0 ? 4 : 2);
+      if (kind == 1 && locals > 1) {
+        // v_target = v_target + v_other
+        int other = 1 + (target + random.nextInt(locals - 1)) % locals;
+        int line = newLine(new LabelNode(), pParent, new int[] {target}, new int[] {target, other});
+        code.add(new VarInsnNode(Opcodes.ILOAD, target));
+        code.add(new VarInsnNode(Opcodes.ILOAD, other));
+        code.add(new InsnNode(Opcodes.IADD));
+        return connect(pFrontier, line, store(target));
+      }
+      if (kind == 2) {
+        // v_target = v_target + f
+        int field = random.nextInt(fields);
+        int line =
+            newLine(new LabelNode(), pParent, new int[] {target}, new int[] {target, slot(field)});
+        code.add(new VarInsnNode(Opcodes.ILOAD, target));
+        code.add(getStatic(field));
+        code.add(new InsnNode(Opcodes.IADD));
+        return connect(pFrontier, line, store(target));
+      }
+      if (kind == 3) {
+        // f = f + v_target
+        int field = random.nextInt(fields);
+        int line =
+            newLine(
+                new LabelNode(),
+                pParent,
+                new int[] {slot(field)},
+                new int[] {slot(field), target});
+        code.add(getStatic(field));
+        code.add(new VarInsnNode(Opcodes.ILOAD, target));
+        code.add(new InsnNode(Opcodes.IADD));
+        return connect(
+            pFrontier,
+            line,
+            add(new FieldInsnNode(Opcodes.PUTSTATIC, className, fieldName(field), "I")));
+      }
+      // v_target = v_target + constant
+      int line = newLine(new LabelNode(), pParent, new int[] {target}, new int[] {target});
+      code.add(new VarInsnNode(Opcodes.ILOAD, target));
+      code.add(new IntInsnNode(Opcodes.BIPUSH, 1 + random.nextInt(100)));
+      code.add(new InsnNode(Opcodes.IADD));
+      return connect(pFrontier, line, store(target));
+    }
+
+    /** Emits {@code for (c = 0; c < p; c++) { ... }}; all loops of a depth share a counter. */
+    private List<Integer> loop(List<Integer> pFrontier, int pParent, int pLoops, int pNesting) {
+      int counter = locals + 1 + pLoops;
+      int init = newLine(new LabelNode(), pParent, new int[] {counter}, new int[0]);
+      code.add(new InsnNode(Opcodes.ICONST_0));
+      List<Integer> frontier = connect(pFrontier, init, store(counter));
+
+      LabelNode head = new LabelNode();
+      LabelNode exit = new LabelNode();
+      // The parameter is defined before the first line and thus not recorded as a use
+      int header = newLine(head, pParent, new int[0], new int[] {counter});
+      code.add(new VarInsnNode(Opcodes.ILOAD, counter));
+      code.add(new VarInsnNode(Opcodes.ILOAD, 0));
+      connect(frontier, header, add(new JumpInsnNode(Opcodes.IF_ICMPGE, exit)));
+
+      List<Integer> bodyEnd = body(List.of(header), header, pLoops + 1, pNesting + 1);
+      int increment = newLine(new LabelNode(), header, new int[] {counter}, new int[] {counter});
+      connect(bodyEnd, increment, add(new IincInsnNode(counter, 1)));
+      code.add(new JumpInsnNode(Opcodes.GOTO, head));
+      predecessors.get(header).add(increment);
+      code.add(exit);
+      return List.of(header);
+    }
+
+    /** Emits {@code switch (p) { case 0: ... break; ... }} without a default case. */
+    private List<Integer> tableSwitch(
+        List<Integer> pFrontier, int pParent, int pLoops, int pNesting) {
+      LabelNode after = new LabelNode();
+      LabelNode[] cases = new LabelNode[switchFanOut];
+      for (int c = 0; c < switchFanOut; c++) {
+        cases[c] = new LabelNode();
+      }
+      int header = newLine(new LabelNode(), pParent, new int[0], new int[0]);
+      code.add(new VarInsnNode(Opcodes.ILOAD, 0));
+      connect(pFrontier, header, add(new TableSwitchInsnNode(0, switchFanOut - 1, after, cases)));
+
+      List<Integer> frontier = new ArrayList<>();
+      frontier.add(header);
+      for (LabelNode label : cases) {
+        code.add(label);
+        frontier.addAll(body(List.of(header), header, pLoops, pNesting + 1));
+        code.add(new JumpInsnNode(Opcodes.GOTO, after));
+      }
+      code.add(after);
+      return frontier;
+    }
+
+    /**
+     * Emits {@code try { ... } catch (Throwable t) { ... }}.
+     *
+     * <p>The control-flow graph has no exceptional edges, such that the handler is only entered
+     * from the method entry; the structure records it that way.
+     */
+    private List<Integer> tryCatch(List<Integer> pFrontier, int pParent, int pLoops, int pNesting) {
+      LabelNode start = new LabelNode();
+      LabelNode end = new LabelNode();
+      LabelNode handler = new LabelNode();
+      LabelNode after = new LabelNode();
+      code.add(start);
+      List<Integer> frontier = new ArrayList<>(body(pFrontier, pParent, pLoops, pNesting + 1));
+      code.add(end);
+      code.add(new JumpInsnNode(Opcodes.GOTO, after));
+
+      int catchLine = newLine(handler, 0, new int[0], new int[0]);
+      List<Integer> handlerEnd = connect(List.of(0), catchLine, add(new InsnNode(Opcodes.POP)));
+      int statements = 1 + random.nextInt(2);
+      for (int s = 0; s < statements; s++) {
+        handlerEnd = statement(handlerEnd, 0);
+      }
+      code.add(after);
+      method.tryCatchBlocks.add(new TryCatchBlockNode(start, end, handler, null));
+      frontier.addAll(handlerEnd);
+      return frontier;
+    }
+
+    private int newLine(LabelNode pLabel, int pParent, int[] pDefinitions, int[] pUses) {
+      int line = definitions.size();
+      code.add(pLabel);
+      code.add(new LineNumberNode(line, pLabel));
+      definitions.add(pDefinitions);
+      uses.add(pUses);
+      parents.add(pParent);
+      predecessors.add(new ArrayList<>());
+      criteria.add(null);
+      return line;
+    }
+
+    /** Records the criterion of a line and its control-flow predecessors. */
+    private List<Integer> connect(
+        List<Integer> pFrontier, int pLine, AbstractInsnNode pCriterion) {
+      predecessors.get(pLine).addAll(pFrontier);
+      criteria.set(pLine, pCriterion);
+      return List.of(pLine);
+    }
+
+    private AbstractInsnNode add(AbstractInsnNode pInstruction) {
+      code.add(pInstruction);
+      return pInstruction;
+    }
+
+    private AbstractInsnNode store(int pSlot) {
+      return add(new VarInsnNode(Opcodes.ISTORE, pSlot));
+    }
+
+    private AbstractInsnNode getStatic(int pField) {
+      return new FieldInsnNode(Opcodes.GETSTATIC, className, fieldName(pField), "I");
+    }
+
+    /** Fields are numbered after all possible local-variable slots. */
+    private int slot(int pField) {
+      return SyntheticClass.FIRST_FIELD + pField;
+    }
+  }
+
+  /** Builds a configured {@link SyntheticClassGenerator}. */
+  public static final class Builder {
+
+    private String className = "Synthetic";
+    private int instructions = 1000;
+    private int loopDepth = 2;
+    private int switchFanOut = 3;
+    private int tryCatchRegions = 2;
+    private int locals = 4;
+    private int fields = 2;
+    private long seed = 0;
+
+    private Builder() {}
+
+    /**
+     * Sets the internal name of the generated class.
+     *
+     * @param pClassName The internal name
+     * @return This builder
+     */
+    public Builder className(String pClassName) {
+      className = Preconditions.checkNotNull(pClassName);
+      return this;
+    }
+
+    /**
+     * Sets the approximate number of instructions of the method, including labels and line
+     * numbers; the generated method is at most a few statements longer.
+     *
+     * <p>The method is only limited by memory as long as it is analysed as a tree. Written to a
+     * class file, its code must fit into the JVM's limit of 64 KB, which is exceeded from about
+     * 43,000 to 47,000 instructions on, depending on the structure; {@link
+     * SyntheticClass#toByteArray()} then throws a {@link
+     * org.objectweb.asm.MethodTooLargeException}. Classes that are loaded should hence stay below
+     * 40,000 instructions.
+     *
+     * @param pInstructions The number of instructions
+     * @return This builder
+     */
+    public Builder instructions(int pInstructions) {
+      Preconditions.checkArgument(pInstructions > 0, "Instructions must be positive");
+      instructions = pInstructions;
+      return this;
+    }
+
+    /**
+     * Sets the maximum nesting depth of loops; {@code 0} generates no loops.
+     *
+     * @param pLoopDepth The maximum loop nesting depth
+     * @return This builder
+     */
+    public Builder loopDepth(int pLoopDepth) {
+      Preconditions.checkArgument(pLoopDepth >= 0, "Loop depth must not be negative");
+      loopDepth = pLoopDepth;
+      return this;
+    }
+
+    /**
+     * Sets the number of cases of every switch; {@code 0} generates no switches.
+     *
+     * @param pSwitchFanOut The number of cases
+     * @return This builder
+     */
+    public Builder switchFanOut(int pSwitchFanOut) {
+      Preconditions.checkArgument(pSwitchFanOut >= 0, "Switch fan-out must not be negative");
+      switchFanOut = pSwitchFanOut;
+      return this;
+    }
+
+    /**
+     * Sets the number of try/catch regions, which are spread evenly over the method.
+     *
+     * @param pTryCatchRegions The number of try/catch regions
+     * @return This builder
+     */
+    public Builder tryCatchRegions(int pTryCatchRegions) {
+      Preconditions.checkArgument(pTryCatchRegions >= 0, "Regions must not be negative");
+      tryCatchRegions = pTryCatchRegions;
+      return this;
+    }
+
+    /**
+     * Sets the number of local variables the statements work on, besides the parameter and the
+     * loop counters.
+     *
+     * @param pLocals The number of local variables
+     * @return This builder
+     */
+    public Builder locals(int pLocals) {
+      Preconditions.checkArgument(pLocals > 0, "At least one local variable is required");
+      locals = pLocals;
+      return this;
+    }
+
+    /**
+     * Sets the number of static fields the statements read and write; {@code 0} generates no
+     * field accesses.
+     *
+     * @param pFields The number of fields
+     * @return This builder
+     */
+    public Builder fields(int pFields) {
+      Preconditions.checkArgument(pFields >= 0, "Fields must not be negative");
+      fields = pFields;
+      return this;
+    }
+
+    /**
+     * Sets the seed of the random choices.
+     *
+     * @param pSeed The seed
+     * @return This builder
+     */
+    public Builder seed(long pSeed) {
+      seed = pSeed;
+      return this;
+    }
+
+    /**
+     * Creates the generator.
+     *
+     * @return The configured generator
+     */
+    public SyntheticClassGenerator build() {
+      return new SyntheticClassGenerator(this);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package de.uni_passau.fim.se2.sa.slicing;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.CFGAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class SlicerMainTest {
+
+    private static final String GCD = "de.uni_passau.fim.se2.sa.examples.GCD";
+
+    @Test
+    void testBatchSlicesAllDefinitions() {
+        String output = runMain("-c", GCD, "-m", "gcd:(II)I", "-A");
+
+        // One result per definition of tmp, x and y
+        List<String> headers = output.lines().filter(line -> line.startsWith("### ")).toList();
+        org.junit.jupiter.api.Assertions.assertEquals(4, headers.size(), output);
+        org.junit.jupiter.api.Assertions.assertTrue(headers.get(0).startsWith("### tmp:6 (1 nodes, "));
+        org.junit.jupiter.api.Assertions.assertTrue(headers.get(1).startsWith("### tmp:8 ("));
+        org.junit.jupiter.api.Assertions.assertTrue(headers.get(2).startsWith("### x:9 ("));
+        org.junit.jupiter.api.Assertions.assertTrue(headers.get(3).startsWith("### y:10 ("));
+        org.junit.jupiter.api.Assertions.assertTrue(headers.get(0).endsWith(" ms)"));
+    }
+
+    @Test
+    void testBatchMatchesSingleCriterion() {
+        String single = runMain("-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9");
+        String batch = runMain("-c", GCD, "-m", "gcd:(II)I", "-a", "x:9");
+
+        String batchResult = batch.substring(batch.indexOf(System.lineSeparator()) + 1);
+        org.junit.jupiter.api.Assertions.assertEquals(single.strip(), batchResult.strip());
+    }
+
+    @Test
+    void testBasicBlocksYieldTheSameSlices() {
+        String single = runMain("-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9");
+        String blocks = runMain("-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9", "-B");
+        org.junit.jupiter.api.Assertions.assertEquals(single, blocks);
+
+        String batch = runMain("-c", GCD, "-m", "gcd:(II)I", "-A");
+        String blockBatch = runMain("-c", GCD, "-m", "gcd:(II)I", "-A", "--basic-blocks");
+        org.junit.jupiter.api.Assertions.assertEquals(
+            batch.replaceAll(", [0-9.]+ ms\\)", ")"),
+            blockBatch.replaceAll(", [0-9.]+ ms\\)", ")"));
+    }
+
+    @Test
+    void testInterproceduralSliceSpansCalledMethods() {
+        String rational = "de.uni_passau.fim.se2.sa.examples.Rational";
+        String type = "L" + rational.replace('.', '/') + ";";
+        String output =
+            runMain(
+                "-c", rational, "-m", "times:(" + type + ")" + type, "-v", "c", "-l", "168", "-I");
+
+        List<String> headers = output.lines().filter(line -> line.startsWith("### ")).toList();
+        org.junit.jupiter.api.Assertions.assertTrue(
+            headers.stream().anyMatch(header -> header.startsWith("### " + rational + ".times(")),
+            output);
+        // The result of the call depends on the called method and its callees
+        org.junit.jupiter.api.Assertions.assertTrue(
+            headers.stream().anyMatch(header -> header.startsWith("### " + rational + ".of(")),
+            output);
+        org.junit.jupiter.api.Assertions.assertTrue(
+            headers.stream()
+                .anyMatch(header -> header.startsWith("### " + rational + ".ofNormalForm(")),
+            output);
+    }
+
+    @Test
+    void testStatisticsReportEveryPhase(@TempDir Path pDirectory) throws Exception {
+        Path statistics = pDirectory.resolve("stats.jsonl");
+        String single = runMain("-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9");
+        String measured =
+            runMain(
+                "-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9",
+                "--stats", statistics.toString());
+        org.junit.jupiter.api.Assertions.assertEquals(single, measured);
+
+        List<String> lines = Files.readAllLines(statistics);
+        for (String phase :
+            List.of("PARSE", "CFG", "CONTROL_DEPENDENCE", "DATA_DEPENDENCE", "SLICE", "EXTRACT")) {
+            org.junit.jupiter.api.Assertions.assertTrue(
+                lines.stream().anyMatch(line -> line.startsWith("{\"phase\":\"" + phase + "\"")),
+                phase + " in " + lines);
+        }
+        org.junit.jupiter.api.Assertions.assertTrue(
+            lines.stream()
+                .filter(line -> line.contains("\"phase\":\"DATA_DEPENDENCE\""))
+                .allMatch(line -> line.contains("\"method\":\"gcd(II)I\"")),
+            lines::toString);
+    }
+
+    @Test
+    void testCachedGraphsYieldTheSameSlices(@TempDir Path pDirectory) {
+        String cache = pDirectory.resolve("cache").toString();
+        String single = runMain("-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9");
+        String cold =
+            runMain("-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9", "--cache", cache);
+        org.junit.jupiter.api.Assertions.assertEquals(single, cold);
+
+        long analyses = CFGAnalyzer.getAnalysisCount();
+        String warm =
+            runMain("-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9", "--cache", cache);
+        org.junit.jupiter.api.Assertions.assertEquals(single, warm);
+        org.junit.jupiter.api.Assertions.assertEquals(analyses, CFGAnalyzer.getAnalysisCount());
+
+        String batch = runMain("-c", GCD, "-m", "gcd:(II)I", "-A");
+        String cachedBatch = runMain("-c", GCD, "-m", "gcd:(II)I", "-A", "--cache", cache);
+        org.junit.jupiter.api.Assertions.assertEquals(
+            batch.replaceAll(", [0-9.]+ ms\\)", ")"),
+            cachedBatch.replaceAll(", [0-9.]+ ms\\)", ")"));
+    }
+
+    @Test
+    void testCacheLimitBeyondTheByteRangeIsRejected(@TempDir Path pDirectory) {
+        Path cache = pDirectory.resolve("cache");
+        // In bytes, the limit would wrap around to one megabyte
+        String output = runMain(
+            "-c", GCD, "-m", "gcd:(II)I", "-v", "x", "-l", "9",
+            "--cache", cache.toString(), "--cache-limit", String.valueOf((1L << 44) + 1));
+
+        org.junit.jupiter.api.Assertions.assertEquals("", output);
+        org.junit.jupiter.api.Assertions.assertFalse(Files.exists(cache));
+    }
+
+    @Test
+    void testBatchFileReportsUnknownCriteria(@TempDir Path pDirectory) throws Exception {
+        Path criteria = pDirectory.resolve("criteria.txt");
+        Path target = pDirectory.resolve("slices.txt");
+        Files.writeString(criteria, "# GCD criteria\ny:10\n\nunknown:10\n");
+
+        runMain("-c", GCD, "-m", "gcd:(II)I", "-b", criteria.toString(), "-t", target.toString());
+
+        List<String> headers =
+            Files.readAllLines(target).stream().filter(line -> line.startsWith("### ")).toList();
+        org.junit.jupiter.api.Assertions.assertEquals(2, headers.size());
+        org.junit.jupiter.api.Assertions.assertTrue(headers.get(0).startsWith("### y:10 (5 nodes, "));
+        org.junit.jupiter.api.Assertions.assertTrue(headers.get(1).contains("not able to determine"));
+    }
+
+    private static String runMain(String... pArgs) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        try {
+            SlicerMain.main(pArgs);
+        } finally {
+            System.setOut(original);
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
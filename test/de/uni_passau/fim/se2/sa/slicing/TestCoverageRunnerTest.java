@@ -0,0 +1,95 @@
+package de.uni_passau.fim.se2.sa.slicing;
+
+import de.uni_passau.fim.se2.sa.slicing.coverage.CoverageTracker;
+import de.uni_passau.fim.se2.sa.slicing.instrumentation.LineCoverageTransformer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+
+public class TestCoverageRunnerTest {
+
+    private static final String PACKAGE = "de.uni_passau.fim.se2.sa.examples";
+
+    @AfterEach
+    void tearDown() {
+        CoverageTracker.reset();
+    }
+
+    @Test
+    void testCoverageIsRecordedPerTest() throws Exception {
+        Class<?> testClass = loadInstrumented(PACKAGE + ".GCD", PACKAGE + ".GCDTest");
+
+        SortedMap<String, TestCoverageRunner.Result> results =
+                new TestCoverageRunner(2).run(List.of(DiscoverySelectors.selectClass(testClass)));
+
+        org.junit.jupiter.api.Assertions.assertEquals(
+                Set.of(PACKAGE + ".GCDTest#testGcd1", PACKAGE + ".GCDTest#testGcd2"),
+                results.keySet());
+        for (TestCoverageRunner.Result result : results.values()) {
+            org.junit.jupiter.api.Assertions.assertEquals(
+                    TestExecutionResult.Status.SUCCESSFUL, result.status());
+        }
+        String owner = "de/uni_passau/fim/se2/sa/examples/GCD";
+        org.junit.jupiter.api.Assertions.assertEquals(
+                Set.of(6, 7, 12),
+                results.get(PACKAGE + ".GCDTest#testGcd1")
+                        .coverage().getVisitedLines(owner, "gcd", "(II)I"));
+        org.junit.jupiter.api.Assertions.assertEquals(
+                Set.of(6, 7, 8, 9, 10, 12),
+                results.get(PACKAGE + ".GCDTest#testGcd2")
+                        .coverage().getVisitedLines(owner, "gcd", "(II)I"));
+        // The tests did not record into the global coverage
+        org.junit.jupiter.api.Assertions.assertTrue(
+                CoverageTracker.getVisitedLines(owner).isEmpty());
+    }
+
+    @Test
+    void testTestsAreSelectedByClassOrMethod() {
+        org.junit.jupiter.api.Assertions.assertEquals(
+                DiscoverySelectors.selectClass(PACKAGE + ".GCDTest"),
+                TestCoverageRunner.select(PACKAGE + ".GCDTest"));
+        org.junit.jupiter.api.Assertions.assertEquals(
+                DiscoverySelectors.selectMethod(PACKAGE + ".GCDTest#testGcd1"),
+                TestCoverageRunner.select(PACKAGE + ".GCDTest#testGcd1"));
+    }
+
+    /** Loads the instrumented class under test and its test class, returning the latter. */
+    private Class<?> loadInstrumented(String pClassName, String pTestClassName) throws Exception {
+        LineCoverageTransformer transformer = new LineCoverageTransformer(PACKAGE);
+        byte[] instrumented = transformer.transform(
+                getClass().getClassLoader(),
+                pClassName.replace('.', '/'),
+                null,
+                null,
+                readClass(pClassName));
+        byte[] test = readClass(pTestClassName);
+        return new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String pName, boolean pResolve)
+                    throws ClassNotFoundException {
+                synchronized (getClassLoadingLock(pName)) {
+                    Class<?> loaded = findLoadedClass(pName);
+                    if (loaded == null && pName.equals(pClassName)) {
+                        loaded = defineClass(pName, instrumented, 0, instrumented.length);
+                    } else if (loaded == null && pName.equals(pTestClassName)) {
+                        loaded = defineClass(pName, test, 0, test.length);
+                    }
+                    return loaded != null ? loaded : super.loadClass(pName, pResolve);
+                }
+            }
+        }.loadClass(pTestClassName);
+    }
+
+    private byte[] readClass(String pClassName) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(
+                "/" + pClassName.replace('.', '/') + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package de.uni_passau.fim.se2.sa.slicing.agent;
+
+import de.uni_passau.fim.se2.sa.examples.SimpleInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SlicerAgentTest {
+
+    private static final String EXAMPLE = SimpleInteger.class.getName();
+    private static final String TRACKER =
+        "de/uni_passau/fim/se2/sa/slicing/coverage/CoverageTracker";
+
+    @AfterEach
+    void tearDown() {
+        SlicerAgent.reset();
+    }
+
+    @Test
+    void testAttachedAgentRetransformsOnDemand() throws Exception {
+        FakeInstrumentation fake = new FakeInstrumentation(SimpleInteger.class);
+        SlicerAgent.agentmain(null, fake.instrumentation);
+        org.junit.jupiter.api.Assertions.assertTrue(SlicerAgent.wasInvoked());
+        org.junit.jupiter.api.Assertions.assertFalse(SlicerAgent.isRecordingTrace());
+        org.junit.jupiter.api.Assertions.assertTrue(fake.canRetransform);
+
+        SlicerAgent.instrument(EXAMPLE, "foo", "()I");
+        org.junit.jupiter.api.Assertions.assertEquals(1, fake.retransformed.size());
+        org.junit.jupiter.api.Assertions.assertTrue(callsTracker(fake.retransformed.get(0), "foo"));
+        org.junit.jupiter.api.Assertions.assertFalse(
+            callsTracker(fake.retransformed.get(0), "<init>"));
+
+        SlicerAgent.uninstrument(EXAMPLE, "foo", "()I");
+        org.junit.jupiter.api.Assertions.assertEquals(2, fake.retransformed.size());
+        org.junit.jupiter.api.Assertions.assertArrayEquals(
+            readClass(SimpleInteger.class), fake.retransformed.get(1));
+
+        // Classes that are not loaded are left to the transformer
+        SlicerAgent.instrument("de.uni_passau.fim.se2.sa.examples.NotLoaded", "foo", "()V");
+        org.junit.jupiter.api.Assertions.assertEquals(2, fake.retransformed.size());
+
+        SlicerAgent.reset();
+        org.junit.jupiter.api.Assertions.assertFalse(SlicerAgent.wasInvoked());
+        org.junit.jupiter.api.Assertions.assertNull(fake.transformer);
+    }
+
+    @Test
+    void testAgentStartedWithTheJvmCannotRetransform() {
+        FakeInstrumentation fake = new FakeInstrumentation(SimpleInteger.class);
+        SlicerAgent.premain("de.uni_passau.fim.se2.sa.examples,trace", fake.instrumentation);
+        org.junit.jupiter.api.Assertions.assertTrue(SlicerAgent.isRecordingTrace());
+        org.junit.jupiter.api.Assertions.assertFalse(fake.canRetransform);
+
+        org.junit.jupiter.api.Assertions.assertThrows(
+            IllegalStateException.class, () -> SlicerAgent.instrument(EXAMPLE, "foo", "()I"));
+        SlicerAgent.restrictTo(EXAMPLE, "foo", "()I");
+        org.junit.jupiter.api.Assertions.assertTrue(fake.retransformed.isEmpty());
+    }
+
+    private static boolean callsTracker(byte[] pClassFile, String pMethodName) {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader(pClassFile).accept(classNode, 0);
+        for (MethodNode methodNode : classNode.methods) {
+            if (!pMethodName.equals(methodNode.name)) {
+                continue;
+            }
+            for (AbstractInsnNode instruction : methodNode.instructions) {
+                if (instruction instanceof MethodInsnNode call && TRACKER.equals(call.owner)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] readClass(Class<?> pClass) throws IOException {
+        try (InputStream in = pClass.getResourceAsStream(pClass.getSimpleName() + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Stands in for the instrumentation of the JVM: retransforming a loaded class passes its
+     * original class file through the registered transformer and keeps the result.
+     */
+    private static final class FakeInstrumentation {
+
+        private final Class<?> loaded;
+        private final List<byte[]> retransformed = new ArrayList<>();
+        private final Instrumentation instrumentation;
+        private ClassFileTransformer transformer;
+        private boolean canRetransform;
+
+        FakeInstrumentation(Class<?> pLoaded) {
+            loaded = pLoaded;
+            instrumentation = (Instrumentation) Proxy.newProxyInstance(
+                Instrumentation.class.getClassLoader(),
+                new Class<?>[] {Instrumentation.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "addTransformer" -> {
+                        transformer = (ClassFileTransformer) args[0];
+                        canRetransform = args.length > 1 && (Boolean) args[1];
+                        yield null;
+                    }
+                    case "removeTransformer" -> {
+                        boolean removed = transformer == args[0];
+                        transformer = null;
+                        yield removed;
+                    }
+                    case "isRetransformClassesSupported", "isModifiableClass" -> true;
+                    case "getAllLoadedClasses" -> new Class<?>[] {loaded};
+                    case "retransformClasses" -> {
+                        for (Class<?> target : (Class<?>[]) args[0]) {
+                            String name = target.getName().replace('.', '/');
+                            byte[] original = readClass(target);
+                            byte[] result = transformer.transform(
+                                target.getClassLoader(), name, target, null, original);
+                            retransformed.add(result == null ? original : result);
+                        }
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        }
+    }
+}
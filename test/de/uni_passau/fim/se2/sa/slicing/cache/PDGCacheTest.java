@@ -0,0 +1,167 @@
+package de.uni_passau.fim.se2.sa.slicing.cache;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.CFGAnalyzer;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.graph.ProgramDependenceGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PDGCacheTest {
+
+    private static final String GCD = "de/uni_passau/fim/se2/sa/examples/GCD";
+    private static final String RATIONAL = "de/uni_passau/fim/se2/sa/examples/Rational";
+
+    @Test
+    void testLoadedGraphsEqualTheStoredOnes(@TempDir Path pDirectory) throws Exception {
+        byte[] bytes = readClass(RATIONAL);
+        ClassNode classNode = parse(bytes);
+        PDGCache cache = new PDGCache(pDirectory, 1 << 20);
+
+        for (MethodNode methodNode : classNode.methods) {
+            ProgramDependenceGraph built = new ProgramDependenceGraph(classNode, methodNode);
+            if (built.computeResult() == null) {
+                continue;
+            }
+            org.junit.jupiter.api.Assertions.assertTrue(
+                cache.load(bytes, classNode, methodNode).isEmpty());
+            cache.store(bytes, built);
+
+            long analyses = CFGAnalyzer.getAnalysisCount();
+            ProgramDependenceGraph loaded =
+                cache.load(bytes, classNode, methodNode).orElseThrow();
+            org.junit.jupiter.api.Assertions.assertEquals(
+                analyses, CFGAnalyzer.getAnalysisCount(), "A hit must not analyse the method");
+
+            assertSameGraph(built.getCFG(), loaded.getCFG());
+            assertSameGraph(built.computeResult(), loaded.computeResult());
+            for (Node node : built.computeResult().getNodes()) {
+                org.junit.jupiter.api.Assertions.assertEquals(
+                    built.backwardSlice(node), loaded.backwardSlice(node), methodNode.name);
+            }
+        }
+    }
+
+    @Test
+    void testChangedClassMissesTheCache(@TempDir Path pDirectory) throws Exception {
+        byte[] bytes = readClass(GCD);
+        ClassNode classNode = parse(bytes);
+        MethodNode methodNode = gcd(classNode);
+        PDGCache cache = new PDGCache(pDirectory, 1 << 20);
+        cache.store(bytes, new ProgramDependenceGraph(classNode, methodNode));
+
+        byte[] changed = bytes.clone();
+        changed[changed.length - 1] ^= 1;
+        org.junit.jupiter.api.Assertions.assertNotEquals(
+            cache.entryOf(bytes, methodNode), cache.entryOf(changed, methodNode));
+        org.junit.jupiter.api.Assertions.assertTrue(
+            cache.load(changed, classNode, methodNode).isEmpty());
+        org.junit.jupiter.api.Assertions.assertTrue(
+            cache.load(bytes, classNode, methodNode).isPresent());
+    }
+
+    @Test
+    void testCorruptEntryIsDeleted(@TempDir Path pDirectory) throws Exception {
+        byte[] bytes = readClass(GCD);
+        ClassNode classNode = parse(bytes);
+        MethodNode methodNode = gcd(classNode);
+        PDGCache cache = new PDGCache(pDirectory, 1 << 20);
+        cache.store(bytes, new ProgramDependenceGraph(classNode, methodNode));
+
+        Path entry = cache.entryOf(bytes, methodNode);
+        byte[] stored = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(stored, stored.length / 2));
+        org.junit.jupiter.api.Assertions.assertTrue(
+            cache.load(bytes, classNode, methodNode).isEmpty());
+        org.junit.jupiter.api.Assertions.assertFalse(Files.exists(entry));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted(@TempDir Path pDirectory) throws Exception {
+        byte[] bytes = readClass(RATIONAL);
+        ClassNode classNode = parse(bytes);
+        List<MethodNode> methods = new ArrayList<>();
+        List<ProgramDependenceGraph> graphs = new ArrayList<>();
+        for (MethodNode methodNode : classNode.methods) {
+            ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+            if (pdg.computeResult() != null && methods.size() < 3) {
+                methods.add(methodNode);
+                graphs.add(pdg);
+            }
+        }
+        org.junit.jupiter.api.Assertions.assertEquals(3, methods.size());
+
+        // Measure the entries with a cache that keeps everything
+        PDGCache unbounded = new PDGCache(pDirectory.resolve("unbounded"), 1 << 20);
+        long[] sizes = new long[3];
+        for (int i = 0; i < 3; i++) {
+            unbounded.store(bytes, graphs.get(i));
+            sizes[i] = Files.size(unbounded.entryOf(bytes, methods.get(i)));
+        }
+
+        // Any two entries fit, but not all three
+        long limit = sizes[0] + sizes[1] + sizes[2] - 1;
+        PDGCache cache = new PDGCache(pDirectory.resolve("bounded"), limit);
+        cache.store(bytes, graphs.get(0));
+        cache.store(bytes, graphs.get(1));
+        Path first = cache.entryOf(bytes, methods.get(0));
+        Path second = cache.entryOf(bytes, methods.get(1));
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(first, FileTime.fromMillis(now - 20_000));
+        Files.setLastModifiedTime(second, FileTime.fromMillis(now - 10_000));
+        // Using the first entry makes the second one the least recently used
+        org.junit.jupiter.api.Assertions.assertTrue(
+            cache.load(bytes, classNode, methods.get(0)).isPresent());
+
+        cache.store(bytes, graphs.get(2));
+        org.junit.jupiter.api.Assertions.assertTrue(Files.exists(first));
+        org.junit.jupiter.api.Assertions.assertFalse(Files.exists(second));
+        org.junit.jupiter.api.Assertions.assertTrue(
+            Files.exists(cache.entryOf(bytes, methods.get(2))));
+    }
+
+    private static void assertSameGraph(ProgramGraph pExpected, ProgramGraph pActual) {
+        List<Node> expected = List.copyOf(pExpected.getNodes());
+        List<Node> actual = List.copyOf(pActual.getNodes());
+        org.junit.jupiter.api.Assertions.assertEquals(expected, actual);
+        for (int i = 0; i < expected.size(); i++) {
+            org.junit.jupiter.api.Assertions.assertEquals(
+                expected.get(i).toString(), actual.get(i).toString());
+            org.junit.jupiter.api.Assertions.assertEquals(
+                List.copyOf(pExpected.getSuccessors(expected.get(i))),
+                List.copyOf(pActual.getSuccessors(actual.get(i))));
+        }
+        org.junit.jupiter.api.Assertions.assertEquals(pExpected.getEntry(), pActual.getEntry());
+    }
+
+    private static MethodNode gcd(ClassNode pClassNode) {
+        return pClassNode.methods.stream()
+            .filter(m -> "gcd".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static ClassNode parse(byte[] pBytes) {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader(pBytes).accept(classNode, 0);
+        return classNode;
+    }
+
+    private static byte[] readClass(String pInternalName) throws IOException {
+        try (InputStream in = ClassLoader.getSystemResourceAsStream(pInternalName + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.uni_passau.fim.se2.sa.slicing.cfg;
+
+import de.uni_passau.fim.se2.sa.slicing.synthetic.SyntheticClass;
+import de.uni_passau.fim.se2.sa.slicing.synthetic.SyntheticClassGenerator;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
+
+public class CFGAnalyzerTest {
+
+    @Test
+    void testEveryNodeOfALargeMethodHasTheLineOfItsBlock() throws Exception {
+        // Beyond the size of a loadable method, as only the tree is analysed
+        SyntheticClass synthetic = SyntheticClassGenerator.newBuilder()
+            .instructions(100_000)
+            .build()
+            .generate();
+        MethodNode method = synthetic.getMethodNode();
+
+        ProgramGraph cfg = CFGExtractor.buildCFG(synthetic.getClassNode().name, method);
+
+        int[] expected = new int[method.instructions.size()];
+        int line = -1;
+        for (int i = 0; i < expected.length; i++) {
+            if (method.instructions.get(i) instanceof LineNumberNode lineNumberNode) {
+                line = lineNumberNode.line;
+            }
+            expected[i] = line;
+        }
+        int instructions = 0;
+        for (Node node : cfg.getNodes()) {
+            if (node.getInstructionIndex() >= 0) {
+                org.junit.jupiter.api.Assertions.assertEquals(
+                        expected[node.getInstructionIndex()], node.getLineNumber());
+                instructions++;
+            }
+        }
+        org.junit.jupiter.api.Assertions.assertEquals(method.instructions.size(), instructions);
+    }
+
+    @Test
+    void testInstructionsBeforeTheFirstLineNumberHaveNoLine() {
+        InsnList instructions = new InsnList();
+        LabelNode label = new LabelNode();
+        instructions.add(new InsnNode(Opcodes.NOP));
+        instructions.add(label);
+        instructions.add(new LineNumberNode(7, label));
+        instructions.add(new InsnNode(Opcodes.RETURN));
+
+        org.junit.jupiter.api.Assertions.assertArrayEquals(
+                new int[] {-1, -1, 7, 7}, CFGAnalyzer.computeLineNumbers(instructions));
+    }
+}
@@ -0,0 +1,71 @@
+package de.uni_passau.fim.se2.sa.slicing.cfg;
+
+import org.junit.jupiter.api.Test;
+
+public class CompactGraphTest {
+    @Test
+    void testRoundTripPreservesNodesAndEdges() {
+        // A -> B, A -> C, B -> D, C -> D
+        ProgramGraph cfg = new ProgramGraph();
+        Node a = new Node("A");
+        Node b = new Node("B");
+        Node c = new Node("C");
+        Node d = new Node("D");
+        cfg.addNode(a);
+        cfg.addNode(b);
+        cfg.addNode(c);
+        cfg.addNode(d);
+        cfg.addEdge(a, b);
+        cfg.addEdge(a, c);
+        cfg.addEdge(b, d);
+        cfg.addEdge(c, d);
+
+        CompactGraph graph = CompactGraph.of(cfg);
+
+        org.junit.jupiter.api.Assertions.assertEquals(4, graph.size());
+        org.junit.jupiter.api.Assertions.assertEquals(4, graph.edgeCount());
+        org.junit.jupiter.api.Assertions.assertEquals(graph.id(a), graph.entry());
+        org.junit.jupiter.api.Assertions.assertEquals(graph.id(d), graph.exit());
+        org.junit.jupiter.api.Assertions.assertEquals(2, graph.outDegree(graph.id(a)));
+        org.junit.jupiter.api.Assertions.assertEquals(2, graph.inDegree(graph.id(d)));
+
+        ProgramGraph copy = graph.toProgramGraph();
+        org.junit.jupiter.api.Assertions.assertEquals(cfg.getNodes().size(), copy.getNodes().size());
+        for (Node node : cfg.getNodes()) {
+            org.junit.jupiter.api.Assertions.assertEquals(
+                new java.util.ArrayList<>(cfg.getSuccessors(node)),
+                new java.util.ArrayList<>(copy.getSuccessors(node)));
+        }
+    }
+
+    @Test
+    void testBuilderMergesParallelEdges() {
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        Node a = new Node("A");
+        Node b = new Node("B");
+        Node c = new Node("C");
+        builder.addEdge(a, c);
+        builder.addEdge(a, b);
+        builder.addEdge(a, c);
+        builder.addEdge(b, c);
+
+        CompactGraph graph = builder.build();
+
+        org.junit.jupiter.api.Assertions.assertEquals(3, graph.size());
+        org.junit.jupiter.api.Assertions.assertEquals(3, graph.edgeCount());
+        int id = graph.id(a);
+        org.junit.jupiter.api.Assertions.assertEquals(2, graph.outDegree(id));
+        // Successors keep the order in which the edges were first added
+        org.junit.jupiter.api.Assertions.assertEquals(c, graph.node(graph.successor(id, 0)));
+        org.junit.jupiter.api.Assertions.assertEquals(b, graph.node(graph.successor(id, 1)));
+        org.junit.jupiter.api.Assertions.assertEquals(-1, graph.id(new Node("X")));
+    }
+
+    @Test
+    void testAddEdgeRejectsUnknownIds() {
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        builder.addNode(new Node("A"));
+        org.junit.jupiter.api.Assertions.assertThrows(
+            IndexOutOfBoundsException.class, () -> builder.addEdge(0, 1));
+    }
+}
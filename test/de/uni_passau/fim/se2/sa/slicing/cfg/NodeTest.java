@@ -0,0 +1,76 @@
+package de.uni_passau.fim.se2.sa.slicing.cfg;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class NodeTest {
+
+    @Test
+    void testNodesOfTheSameMethodAreEqualAcrossAnalyses() throws Exception {
+        MethodNode gcd = method("de.uni_passau.fim.se2.sa.examples.GCD", "gcd");
+
+        List<Node> first = List.copyOf(CFGExtractor.buildCFG("GCD", gcd).getNodes());
+        List<Node> second = List.copyOf(CFGExtractor.buildCFG("GCD", gcd).getNodes());
+
+        org.junit.jupiter.api.Assertions.assertEquals(first, second);
+        for (int i = 0; i < first.size(); i++) {
+            org.junit.jupiter.api.Assertions.assertEquals(first.get(i).getID(), second.get(i).getID());
+            org.junit.jupiter.api.Assertions.assertEquals(first.get(i).hashCode(), second.get(i).hashCode());
+        }
+    }
+
+    @Test
+    void testNodesOfDifferentMethodsWithTheSameIdAreNotEqual() throws Exception {
+        Node gcd = firstNode(method("de.uni_passau.fim.se2.sa.examples.GCD", "gcd"));
+        Node loop = firstNode(method("de.uni_passau.fim.se2.sa.examples.NestedLoop", "loop"));
+
+        org.junit.jupiter.api.Assertions.assertEquals("1", gcd.getID());
+        org.junit.jupiter.api.Assertions.assertEquals("1", loop.getID());
+        org.junit.jupiter.api.Assertions.assertNotEquals(gcd, loop);
+        org.junit.jupiter.api.Assertions.assertNotEquals(gcd.hashCode(), loop.hashCode());
+        org.junit.jupiter.api.Assertions.assertNotEquals(new Node("1"), gcd);
+        org.junit.jupiter.api.Assertions.assertEquals(new Node("Exit"), new Node("Exit"));
+    }
+
+    @Test
+    void testIdsAreDeterministicWhenBuiltConcurrently() throws Exception {
+        MethodNode evaluate = method("de.uni_passau.fim.se2.sa.examples.Calculator", "evaluate");
+        String expected = CFGExtractor.buildCFG("Calculator", evaluate).toString();
+
+        List<CompletableFuture<String>> futures = new java.util.ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            MethodNode copy = method("de.uni_passau.fim.se2.sa.examples.Calculator", "evaluate");
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return CFGExtractor.buildCFG("Calculator", copy).toString();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        for (CompletableFuture<String> future : futures) {
+            org.junit.jupiter.api.Assertions.assertEquals(expected, future.get());
+        }
+    }
+
+    private static Node firstNode(MethodNode pMethodNode) throws Exception {
+        return CFGExtractor.buildCFG("Owner", pMethodNode).getNodes().stream()
+            .filter(node -> "1".equals(node.getID()))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static MethodNode method(String pClassName, String pMethodName) throws Exception {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader(pClassName).accept(classNode, 0);
+        return classNode.methods.stream()
+            .filter(m -> pMethodName.equals(m.name))
+            .findFirst()
+            .orElseThrow();
+    }
+}
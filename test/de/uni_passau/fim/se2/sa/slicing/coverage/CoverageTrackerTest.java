@@ -0,0 +1,125 @@
+package de.uni_passau.fim.se2.sa.slicing.coverage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class CoverageTrackerTest {
+
+    @BeforeEach
+    void setUp() {
+        CoverageTracker.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        CoverageTracker.reset();
+    }
+
+    @Test
+    void testConcurrentLineVisitsAreNotLost() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int round = 0; round < 100; round++) {
+                    for (int line = offset; line < 4096; line += 8) {
+                        CoverageTracker.trackLineVisit(line);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<Integer> expected = IntStream.range(0, 4096).boxed().collect(Collectors.toSet());
+        org.junit.jupiter.api.Assertions.assertEquals(expected, CoverageTracker.getVisitedLines());
+        org.junit.jupiter.api.Assertions.assertThrows(
+            IllegalArgumentException.class, () -> CoverageTracker.trackLineVisit(1 << 16));
+    }
+
+    @Test
+    void testCoverageIsKeptPerClassAndMethod() {
+        CoverageTracker.registerProbes(
+            "a/First", List.of("foo()V", "bar()V"), new int[] {0, 0, 1}, new int[] {5, 6, 6});
+        CoverageTracker.registerProbes("a/Second", List.of("foo()V"), new int[] {0}, new int[] {9});
+        boolean[] first = CoverageTracker.getProbes("a/First", 3);
+        boolean[] second = CoverageTracker.getProbes("a/Second", 1);
+        first[0] = true;
+        first[2] = true;
+        second[0] = true;
+
+        org.junit.jupiter.api.Assertions.assertSame(first, CoverageTracker.getProbes("a/First", 3));
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(5, 6, 9), CoverageTracker.getVisitedLines());
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(5, 6), CoverageTracker.getVisitedLines("a/First"));
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(5), CoverageTracker.getVisitedLines("a/First", "foo", "()V"));
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(6), CoverageTracker.getVisitedLines("a/First", "bar", "()V"));
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(9), CoverageTracker.getVisitedLines("a/Second", "foo", "()V"));
+        org.junit.jupiter.api.Assertions.assertTrue(CoverageTracker.getVisitedLines("a/Third").isEmpty());
+
+        // Lines that are not attributed to a class belong to every class
+        CoverageTracker.trackLineVisit(42);
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(6, 42), CoverageTracker.getVisitedLines("a/First", "bar", "()V"));
+
+        CoverageTracker.reset();
+        org.junit.jupiter.api.Assertions.assertTrue(CoverageTracker.getVisitedLines().isEmpty());
+        org.junit.jupiter.api.Assertions.assertSame(first, CoverageTracker.getProbes("a/First", 3));
+        org.junit.jupiter.api.Assertions.assertFalse(first[0]);
+    }
+
+    @Test
+    void testProbesWithoutLayoutAreIndexedByLine() {
+        boolean[] probes = CoverageTracker.getProbes("a/Unregistered", 8);
+        probes[7] = true;
+
+        org.junit.jupiter.api.Assertions.assertEquals(8, probes.length);
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(7), CoverageTracker.getVisitedLines("a/Unregistered", "any", "()V"));
+    }
+
+    @Test
+    void testProbesBeyondTheRegisteredLayoutAreRejected() {
+        CoverageTracker.registerProbes("a/Mismatched", List.of("foo()V"), new int[] {0}, new int[] {3});
+
+        org.junit.jupiter.api.Assertions.assertThrows(
+            IllegalStateException.class, () -> CoverageTracker.getProbes("a/Mismatched", 2));
+        try (CoverageScope scope = CoverageTracker.openScope()) {
+            org.junit.jupiter.api.Assertions.assertThrows(
+                IllegalStateException.class, () -> CoverageTracker.getProbes("a/Mismatched", 2));
+        }
+        org.junit.jupiter.api.Assertions.assertEquals(1, CoverageTracker.getProbes("a/Mismatched", 1).length);
+    }
+
+    @Test
+    void testScopesRecordTheCoverageOfTheirThread() throws Exception {
+        CoverageTracker.registerProbes("a/Scoped", List.of("foo()V"), new int[] {0, 0}, new int[] {3, 4});
+        boolean[] global = CoverageTracker.getProbes("a/Scoped", 2);
+        org.junit.jupiter.api.Assertions.assertFalse(CoverageTracker.hasOpenScopes());
+
+        CoverageScope other;
+        try (CoverageScope scope = CoverageTracker.openScope()) {
+            org.junit.jupiter.api.Assertions.assertTrue(CoverageTracker.hasOpenScopes());
+            CoverageTracker.getProbes("a/Scoped", 2)[0] = true;
+            // Another thread keeps recording into its own coverage
+            CoverageScope[] opened = new CoverageScope[1];
+            Thread.ofPlatform().start(() -> {
+                try (CoverageScope inner = CoverageTracker.openScope()) {
+                    CoverageTracker.getProbes("a/Scoped", 2)[1] = true;
+                    opened[0] = inner;
+                }
+            }).join();
+            other = opened[0];
+
+            org.junit.jupiter.api.Assertions.assertEquals(Set.of(3), scope.getVisitedLines("a/Scoped", "foo", "()V"));
+        }
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(4), other.getVisitedLines("a/Scoped"));
+        org.junit.jupiter.api.Assertions.assertFalse(CoverageTracker.hasOpenScopes());
+        org.junit.jupiter.api.Assertions.assertSame(global, CoverageTracker.getProbes("a/Scoped", 2));
+        org.junit.jupiter.api.Assertions.assertTrue(CoverageTracker.getVisitedLines("a/Scoped").isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.BasicBlocks;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+public class BlockDependenceGraphTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "Calculator", "Complex", "GCD", "NestedLoop", "Rational", "SimpleInteger", "TestClass"
+    })
+    void testDependencesAndSlicesMatchInstructionLevel(String pExample) throws Exception {
+        final ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples." + pExample).accept(classNode, 0);
+
+        for (MethodNode methodNode : classNode.methods) {
+            AnalysisContext context = AnalysisContext.of(classNode, methodNode);
+            ProgramDependenceGraph pdg = new ProgramDependenceGraph(context);
+            BlockDependenceGraph blockGraph = new BlockDependenceGraph(context);
+
+            ProgramGraph expected = pdg.computeResult();
+            ProgramGraph actual = blockGraph.computeResult();
+            org.junit.jupiter.api.Assertions.assertEquals(
+                    edges(expected), edges(actual), methodNode.name);
+            for (Node criterion : expected.getNodes()) {
+                org.junit.jupiter.api.Assertions.assertEquals(
+                        pdg.backwardSlice(criterion), blockGraph.backwardSlice(criterion));
+                org.junit.jupiter.api.Assertions.assertEquals(
+                        pdg.forwardSlice(criterion), blockGraph.forwardSlice(criterion));
+            }
+        }
+    }
+
+    @Test
+    void testBlocksAreMaximalStraightLineSequences() throws Exception {
+        final ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples.NestedLoop").accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> "nestedWhileForLoops".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+        AnalysisContext context = AnalysisContext.of(classNode, methodNode);
+        BasicBlocks blocks = new BlockDependenceGraph(context).getBasicBlocks();
+
+        org.junit.jupiter.api.Assertions.assertTrue(
+                blocks.size() < context.getCompactCFG().size() / 2);
+        for (int b = 0; b < blocks.size(); b++) {
+            for (int p = 0; p < blocks.length(b); p++) {
+                int node = blocks.member(b, p);
+                org.junit.jupiter.api.Assertions.assertEquals(b, blocks.blockOf(node));
+                org.junit.jupiter.api.Assertions.assertEquals(p, blocks.positionOf(node));
+            }
+            for (int p = 0; p < blocks.length(b) - 1; p++) {
+                org.junit.jupiter.api.Assertions.assertEquals(
+                        1, context.getCompactCFG().outDegree(blocks.member(b, p)));
+            }
+        }
+    }
+
+    @Test
+    void testUnknownCriterion() throws Exception {
+        final ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples.GCD").accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> "gcd".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+        BlockDependenceGraph blockGraph =
+                new BlockDependenceGraph(AnalysisContext.of(classNode, methodNode));
+
+        Node unknown = new Node("unknown");
+        org.junit.jupiter.api.Assertions.assertEquals(
+                Set.of(unknown), blockGraph.backwardSlice(unknown));
+        org.junit.jupiter.api.Assertions.assertTrue(blockGraph.backwardSlice(null).isEmpty());
+    }
+
+    private static Set<List<Node>> edges(ProgramGraph pGraph) {
+        Set<List<Node>> edges = new HashSet<>();
+        for (Node source : pGraph.getNodes()) {
+            for (Node target : pGraph.getSuccessors(source)) {
+                edges.add(List.of(source, target));
+            }
+        }
+        return edges;
+    }
+}
@@ -72,4 +72,36 @@ void testWithSimpleInteger() throws Exception {
                              result.getNodes().size() + " nodes in PDG");
         }
     }
+
+    @Test
+    void testDefinitionReachesUseAcrossLoopBackEdge() throws Exception {
+        // In GCD.gcd, 'x = y' (line 9) reaches 'tmp = x % y' (line 8) via the loop; the use is
+        // attributed to the instruction storing the result
+        final ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples.GCD").accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> "gcd".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+
+        ProgramGraph ddg = new DataDependenceGraph(classNode, methodNode).computeResult();
+
+        Node storeX = null;
+        Node storeTmp = null;
+        for (Node node : ddg.getNodes()) {
+            if (node.getInstruction() instanceof org.objectweb.asm.tree.VarInsnNode varInsn
+                    && varInsn.getOpcode() == Opcodes.ISTORE) {
+                if (varInsn.var == 1 && node.getLineNumber() == 9) {
+                    storeX = node;
+                } else if (varInsn.var == 3 && node.getLineNumber() == 8) {
+                    storeTmp = node;
+                }
+            }
+        }
+
+        assertNotNull(storeX, "Store of x should be found");
+        assertNotNull(storeTmp, "Store of tmp should be found");
+        assertTrue(ddg.getSuccessors(storeX).contains(storeTmp), "Definition should reach the use");
+        assertFalse(ddg.getSuccessors(storeTmp).contains(storeX), "tmp is not used by 'x = y'");
+    }
 }
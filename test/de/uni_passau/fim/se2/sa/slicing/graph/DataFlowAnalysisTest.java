@@ -82,4 +82,37 @@ void testUsedBy2() throws Exception {
         java.util.List<String> expected = java.util.Collections.singletonList("L@4");
         org.junit.jupiter.api.Assertions.assertEquals(expected, actual);
     }
+
+    @Test
+    void testAnalyzeIsCachedPerMethod() throws Exception {
+        // Repeated queries on the same method reuse a single analysis result
+        org.objectweb.asm.tree.MethodNode mn = new org.objectweb.asm.tree.MethodNode();
+        mn.tryCatchBlocks = new java.util.ArrayList<>();
+        mn.maxLocals = 5;
+        mn.maxStack = 5;
+        mn.name = "cached";
+        mn.desc = "()V";
+        mn.instructions.add(new org.objectweb.asm.tree.InsnNode(org.objectweb.asm.Opcodes.ICONST_1));
+        org.objectweb.asm.tree.VarInsnNode store = new org.objectweb.asm.tree.VarInsnNode(org.objectweb.asm.Opcodes.ISTORE, 1);
+        mn.instructions.add(store);
+        mn.instructions.add(new org.objectweb.asm.tree.InsnNode(org.objectweb.asm.Opcodes.RETURN));
+        DefUseResult first = DataFlowAnalysis.analyze("TestClass", mn);
+        DefUseResult second = DataFlowAnalysis.analyze("TestClass", mn);
+        org.junit.jupiter.api.Assertions.assertSame(first, second);
+        org.junit.jupiter.api.Assertions.assertEquals(1, first.indexOf(store));
+        org.junit.jupiter.api.Assertions.assertEquals(1, first.definedAt(1).size());
+
+        // A different method node with the same key must not see the stale result
+        org.objectweb.asm.tree.MethodNode other = new org.objectweb.asm.tree.MethodNode();
+        other.tryCatchBlocks = new java.util.ArrayList<>();
+        other.maxLocals = 5;
+        other.maxStack = 5;
+        other.name = "cached";
+        other.desc = "()V";
+        other.instructions.add(new org.objectweb.asm.tree.InsnNode(org.objectweb.asm.Opcodes.RETURN));
+        DefUseResult third = DataFlowAnalysis.analyze("TestClass", other);
+        org.junit.jupiter.api.Assertions.assertNotSame(first, third);
+        org.junit.jupiter.api.Assertions.assertEquals(-1, third.indexOf(store));
+        org.junit.jupiter.api.Assertions.assertTrue(DataFlowAnalysis.definedBy("TestClass", other, store).isEmpty());
+    }
 }
@@ -0,0 +1,185 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class DependenceSlicerTest {
+
+    @Test
+    void testSlicesMatchGraphTraversalForAllNodes() throws Exception {
+        // NestedLoop has nested cycles, i.e., non-trivial strongly connected components
+        final ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples.NestedLoop").accept(classNode, 0);
+
+        for (MethodNode methodNode : classNode.methods) {
+            ProgramGraph pdg = new ProgramDependenceGraph(classNode, methodNode).computeResult();
+            DependenceSlicer traversing = new DependenceSlicer(pdg);
+            DependenceSlicer precomputed = new DependenceSlicer(pdg).precomputeClosure();
+
+            org.junit.jupiter.api.Assertions.assertFalse(traversing.isPrecomputed());
+            org.junit.jupiter.api.Assertions.assertTrue(precomputed.isPrecomputed());
+            for (Node criterion : pdg.getNodes()) {
+                Set<Node> expected = reachingNodes(pdg, criterion);
+                org.junit.jupiter.api.Assertions.assertEquals(expected, traversing.backwardSlice(criterion));
+                org.junit.jupiter.api.Assertions.assertEquals(expected, precomputed.backwardSlice(criterion));
+            }
+        }
+    }
+
+    @Test
+    void testPrecomputedSliceWithCycle() {
+        // A -> B -> C -> B, C -> D; E -> D
+        ProgramGraph graph = new ProgramGraph();
+        Node a = new Node("A");
+        Node b = new Node("B");
+        Node c = new Node("C");
+        Node d = new Node("D");
+        Node e = new Node("E");
+        graph.addNode(a);
+        graph.addNode(b);
+        graph.addNode(c);
+        graph.addNode(d);
+        graph.addNode(e);
+        graph.addEdge(a, b);
+        graph.addEdge(b, c);
+        graph.addEdge(c, b);
+        graph.addEdge(c, d);
+        graph.addEdge(e, d);
+
+        DependenceSlicer slicer = new DependenceSlicer(graph).precomputeClosure();
+
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(a, b, c), slicer.backwardSlice(b));
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(a, b, c), slicer.backwardSlice(c));
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(a, b, c, d, e), slicer.backwardSlice(d));
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(e), slicer.backwardSlice(e));
+        // Modifying a returned slice does not affect the precomputed closure
+        slicer.sliceIds(slicer.getGraph().id(b)).clear();
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(a, b, c), slicer.backwardSlice(b));
+    }
+
+    @Test
+    void testProgramDependenceGraphUsesPrecomputedSlices() throws Exception {
+        final ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples.GCD").accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> "gcd".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+
+        ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+        ProgramGraph result = pdg.computeResult();
+        Node criterion = result.getNodes().stream()
+            .filter(node -> node.toString().contains("IRETURN"))
+            .findFirst()
+            .orElseThrow();
+        Set<Node> expected = pdg.backwardSlice(criterion);
+
+        pdg.precomputeSlices();
+
+        org.junit.jupiter.api.Assertions.assertTrue(pdg.getSlicer().isPrecomputed());
+        org.junit.jupiter.api.Assertions.assertEquals(expected, pdg.backwardSlice(criterion));
+    }
+
+    @Test
+    void testForwardSlicesAndChopsWithCycle() {
+        // A -> B -> C -> B, C -> D; E -> D
+        ProgramGraph graph = new ProgramGraph();
+        Node a = new Node("A");
+        Node b = new Node("B");
+        Node c = new Node("C");
+        Node d = new Node("D");
+        Node e = new Node("E");
+        graph.addNode(a);
+        graph.addNode(b);
+        graph.addNode(c);
+        graph.addNode(d);
+        graph.addNode(e);
+        graph.addEdge(a, b);
+        graph.addEdge(b, c);
+        graph.addEdge(c, b);
+        graph.addEdge(c, d);
+        graph.addEdge(e, d);
+        Node unknown = new Node("unknown");
+
+        for (DependenceSlicer slicer :
+                List.of(new DependenceSlicer(graph), new DependenceSlicer(graph).precomputeClosure())) {
+            org.junit.jupiter.api.Assertions.assertEquals(Set.of(a, b, c, d), slicer.forwardSlice(a));
+            org.junit.jupiter.api.Assertions.assertEquals(Set.of(b, c, d), slicer.forwardSlice(c));
+            org.junit.jupiter.api.Assertions.assertEquals(
+                    Set.of(b, c, d, e), slicer.forwardSliceAll(List.of(c, e)));
+            org.junit.jupiter.api.Assertions.assertEquals(
+                    Set.of(a, b, c, e), slicer.backwardSliceAll(List.of(c, e)));
+
+            org.junit.jupiter.api.Assertions.assertEquals(Set.of(a, b, c, d), slicer.chop(a, d));
+            org.junit.jupiter.api.Assertions.assertEquals(Set.of(b, c), slicer.chop(c, b));
+            org.junit.jupiter.api.Assertions.assertTrue(slicer.chop(d, a).isEmpty());
+            org.junit.jupiter.api.Assertions.assertEquals(
+                    Set.of(a, b, c, d, e), slicer.chopAll(List.of(a, e), List.of(d)));
+
+            org.junit.jupiter.api.Assertions.assertEquals(Set.of(unknown), slicer.forwardSlice(unknown));
+            org.junit.jupiter.api.Assertions.assertEquals(Set.of(unknown), slicer.chop(unknown, unknown));
+            org.junit.jupiter.api.Assertions.assertTrue(slicer.chop(unknown, d).isEmpty());
+            org.junit.jupiter.api.Assertions.assertTrue(slicer.forwardSlice(null).isEmpty());
+        }
+    }
+
+    @Test
+    void testChopsMatchIntersectionOfSlices() throws Exception {
+        final ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples.NestedLoop").accept(classNode, 0);
+
+        for (MethodNode methodNode : classNode.methods) {
+            ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+            ProgramGraph graph = pdg.computeResult();
+            for (Node source : graph.getNodes()) {
+                Set<Node> forward = pdg.forwardSlice(source);
+                org.junit.jupiter.api.Assertions.assertEquals(reachableNodes(graph, source), forward);
+                for (Node sink : graph.getNodes()) {
+                    Set<Node> expected = new HashSet<>(forward);
+                    expected.retainAll(pdg.backwardSlice(sink));
+                    org.junit.jupiter.api.Assertions.assertEquals(expected, pdg.chop(source, sink));
+                }
+            }
+        }
+    }
+
+    private static Set<Node> reachableNodes(ProgramGraph pGraph, Node pCriterion) {
+        Set<Node> slice = new HashSet<>();
+        Deque<Node> worklist = new ArrayDeque<>();
+        slice.add(pCriterion);
+        worklist.add(pCriterion);
+        while (!worklist.isEmpty()) {
+            for (Node succ : pGraph.getSuccessors(worklist.remove())) {
+                if (slice.add(succ)) {
+                    worklist.add(succ);
+                }
+            }
+        }
+        return slice;
+    }
+
+    private static Set<Node> reachingNodes(ProgramGraph pGraph, Node pCriterion) {
+        Set<Node> slice = new HashSet<>();
+        Deque<Node> worklist = new ArrayDeque<>();
+        slice.add(pCriterion);
+        worklist.add(pCriterion);
+        while (!worklist.isEmpty()) {
+            for (Node pred : pGraph.getPredecessors(worklist.remove())) {
+                if (slice.add(pred)) {
+                    worklist.add(pred);
+                }
+            }
+        }
+        return slice;
+    }
+}
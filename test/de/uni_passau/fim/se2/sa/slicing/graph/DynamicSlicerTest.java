@@ -0,0 +1,147 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.instrumentation.LineCoverageTransformer;
+import de.uni_passau.fim.se2.sa.slicing.trace.ExecutionTrace;
+import de.uni_passau.fim.se2.sa.slicing.trace.TraceBuffer;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class DynamicSlicerTest {
+
+    private static final String GCD = "de.uni_passau.fim.se2.sa.examples.GCD";
+    private static final String TEST_CLASS = "de.uni_passau.fim.se2.sa.examples.TestClass";
+
+    @BeforeEach
+    void setUp() {
+        ExecutionTrace.reset(new TraceBuffer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ExecutionTrace.reset(new TraceBuffer());
+    }
+
+    @Test
+    void testSliceFollowsOnlyExecutedDependences() throws Exception {
+        Object gcd = instantiate(GCD);
+        gcd.getClass().getMethod("gcd", int.class, int.class).invoke(gcd, 12, 0);
+
+        AnalysisContext context = analyze(GCD, "gcd");
+        Node criterion = instruction(context, 12, Opcodes.IRETURN);
+        DynamicSlicer slicer = new DynamicSlicer(context);
+        Set<Node> dynamicSlice = slicer.backwardSlice(ExecutionTrace.getTrace(), criterion);
+        Set<Node> staticSlice = new ProgramDependenceGraph(context).backwardSlice(criterion);
+
+        // The loop never ran, hence the returned value is the parameter
+        org.junit.jupiter.api.Assertions.assertTrue(slicer.isTraced());
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(12), lines(dynamicSlice));
+        org.junit.jupiter.api.Assertions.assertTrue(lines(staticSlice).containsAll(Set.of(7, 8, 9, 10, 12)));
+    }
+
+    @Test
+    void testSliceFollowsLoopIterations() throws Exception {
+        Object gcd = instantiate(GCD);
+        gcd.getClass().getMethod("gcd", int.class, int.class).invoke(gcd, 12, 8);
+
+        AnalysisContext context = analyze(GCD, "gcd");
+        Node criterion = instruction(context, 9, Opcodes.ISTORE);
+        Set<Node> slice = new DynamicSlicer(context).backwardSlice(ExecutionTrace.getTrace(), criterion);
+
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(7, 8, 9, 10), lines(slice));
+        org.junit.jupiter.api.Assertions.assertTrue(slice.contains(criterion));
+    }
+
+    @Test
+    void testSliceFollowsFieldWrites() throws Exception {
+        Object testClass = instantiate(TEST_CLASS);
+        testClass.getClass().getMethod("countCharacters").invoke(testClass);
+
+        AnalysisContext context = analyze(TEST_CLASS, "countCharacters");
+        Node criterion = instruction(context, 35, Opcodes.ASTORE);
+        Set<Node> slice = new DynamicSlicer(context).backwardSlice(ExecutionTrace.getTrace(), criterion);
+
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(34, 35), lines(slice));
+    }
+
+    @Test
+    void testSliceOfSpilledTrace() throws Exception {
+        ExecutionTrace.reset(new TraceBuffer(16, 64));
+        Object gcd = instantiate(GCD);
+        gcd.getClass().getMethod("gcd", int.class, int.class).invoke(gcd, 832040, 514229);
+
+        org.junit.jupiter.api.Assertions.assertTrue(ExecutionTrace.getTrace().getSpilledCount() > 64);
+        AnalysisContext context = analyze(GCD, "gcd");
+        Node criterion = instruction(context, 12, Opcodes.IRETURN);
+        Set<Node> slice = new DynamicSlicer(context).backwardSlice(ExecutionTrace.getTrace(), criterion);
+
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(7, 8, 9, 10, 12), lines(slice));
+    }
+
+    @Test
+    void testUnexecutedCriterion() throws Exception {
+        AnalysisContext context = analyze(GCD, "gcd");
+        Node criterion = instruction(context, 9, Opcodes.ISTORE);
+
+        org.junit.jupiter.api.Assertions.assertTrue(
+            new DynamicSlicer(context).backwardSlice(ExecutionTrace.getTrace(), criterion).isEmpty());
+    }
+
+    @Test
+    void testOperandStackIsAnalysedOncePerContext() throws Exception {
+        AnalysisContext context = analyze(GCD, "gcd");
+        int[][][] producers = context.getStackProducers();
+        new DynamicSlicer(context);
+
+        org.junit.jupiter.api.Assertions.assertSame(producers, context.getStackProducers());
+    }
+
+    private static Set<Integer> lines(Set<Node> pSlice) {
+        Set<Integer> lines = new TreeSet<>();
+        pSlice.forEach(node -> lines.add(node.getLineNumber()));
+        return lines;
+    }
+
+    private static Node instruction(AnalysisContext pContext, int pLine, int pOpcode) {
+        return pContext.getCFG().getNodes().stream()
+            .filter(node -> node.getLineNumber() == pLine && node.getInstruction() != null
+                && node.getInstruction().getOpcode() == pOpcode)
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static AnalysisContext analyze(String pClassName, String pMethodName) throws Exception {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader(pClassName).accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> pMethodName.equals(m.name))
+            .findFirst()
+            .orElseThrow();
+        return AnalysisContext.of(classNode, methodNode);
+    }
+
+    private Object instantiate(String pClassName) throws Exception {
+        LineCoverageTransformer transformer = new LineCoverageTransformer("de.uni_passau.fim.se2.sa.examples", true);
+        byte[] original;
+        try (InputStream in = getClass().getResourceAsStream(
+                "/" + pClassName.replace('.', '/') + ".class")) {
+            original = in.readAllBytes();
+        }
+        byte[] transformed = transformer.transform(
+            getClass().getClassLoader(), pClassName.replace('.', '/'), null, null, original);
+        Class<?> clazz = new ClassLoader(getClass().getClassLoader()) {
+            Class<?> define() {
+                return defineClass(pClassName, transformed, 0, transformed.length);
+            }
+        }.define();
+        return clazz.getDeclaredConstructor().newInstance();
+    }
+}
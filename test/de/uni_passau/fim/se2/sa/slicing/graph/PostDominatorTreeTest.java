@@ -68,6 +68,31 @@ void testComputeResultWithLoop() {
         org.junit.jupiter.api.Assertions.assertEquals(4, result.getNodes().size());
     }
 
+    @Test
+    void testIpdomWithBranching() {
+        // D post-dominates both branches and the branching node itself
+        PostDominatorTree pdt = new PostDominatorTree(createBranchingCFG());
+
+        org.junit.jupiter.api.Assertions.assertEquals(new Node("D"), pdt.ipdom(new Node("A")));
+        org.junit.jupiter.api.Assertions.assertEquals(new Node("D"), pdt.ipdom(new Node("B")));
+        org.junit.jupiter.api.Assertions.assertEquals(new Node("D"), pdt.ipdom(new Node("C")));
+        org.junit.jupiter.api.Assertions.assertNull(pdt.ipdom(new Node("D")));
+
+        ProgramGraph result = pdt.computeResult();
+        org.junit.jupiter.api.Assertions.assertEquals(3, result.getSuccessors(new Node("D")).size());
+    }
+
+    @Test
+    void testIpdomWithLoop() {
+        // A -> B -> C, C -> B, C -> D: every node is immediately post-dominated by its successor
+        PostDominatorTree pdt = new PostDominatorTree(createLoopCFG());
+
+        org.junit.jupiter.api.Assertions.assertEquals(new Node("B"), pdt.ipdom(new Node("A")));
+        org.junit.jupiter.api.Assertions.assertEquals(new Node("C"), pdt.ipdom(new Node("B")));
+        org.junit.jupiter.api.Assertions.assertEquals(new Node("D"), pdt.ipdom(new Node("C")));
+        org.junit.jupiter.api.Assertions.assertNull(pdt.ipdom(new Node("D")));
+    }
+
     // Helper methods to create test CFGs
     private ProgramGraph createLinearCFG() {
         ProgramGraph cfg = new ProgramGraph();
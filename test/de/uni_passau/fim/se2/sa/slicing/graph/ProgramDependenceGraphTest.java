@@ -147,4 +147,30 @@ void testComputeResultPrecomputed() {
         org.junit.jupiter.api.Assertions.assertEquals(2, result.getNodes().size(), "PDG should have 2 nodes");
         org.junit.jupiter.api.Assertions.assertEquals(precomputedGraph, result, "Should return the precomputed graph");
     }
+
+    @Test
+    void testBytecodeIsAnalysedOncePerMethod() throws Exception {
+        // CFG, post-dominators, CDG and DDG all share a single bytecode analysis
+        final ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples.Calculator").accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> "evaluate".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+
+        long before = de.uni_passau.fim.se2.sa.slicing.cfg.CFGAnalyzer.getAnalysisCount();
+        ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+        ProgramGraph result = pdg.computeResult();
+        long analyses = de.uni_passau.fim.se2.sa.slicing.cfg.CFGAnalyzer.getAnalysisCount() - before;
+
+        org.junit.jupiter.api.Assertions.assertFalse(result.getNodes().isEmpty());
+        org.junit.jupiter.api.Assertions.assertEquals(1, analyses, "PDG construction should analyse the method once");
+
+        // Further graphs built from the shared context do not analyse the method again
+        AnalysisContext context = AnalysisContext.of(classNode, methodNode);
+        long afterContext = de.uni_passau.fim.se2.sa.slicing.cfg.CFGAnalyzer.getAnalysisCount();
+        new ProgramDependenceGraph(context).computeResult();
+        new DataDependenceGraph(context).computeResult();
+        org.junit.jupiter.api.Assertions.assertEquals(afterContext, de.uni_passau.fim.se2.sa.slicing.cfg.CFGAnalyzer.getAnalysisCount());
+    }
 }
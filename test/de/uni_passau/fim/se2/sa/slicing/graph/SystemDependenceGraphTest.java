@@ -0,0 +1,239 @@
+package de.uni_passau.fim.se2.sa.slicing.graph;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.sa.slicing.stats.Phase;
+import de.uni_passau.fim.se2.sa.slicing.stats.PhaseListener;
+import de.uni_passau.fim.se2.sa.slicing.stats.PhaseStatistics;
+import de.uni_passau.fim.se2.sa.slicing.stats.Statistics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+public class SystemDependenceGraphTest {
+
+    /** The methods to slice; the bodies are kept simple to locate their instructions. */
+    @SuppressWarnings("unused")
+    static final class Fixture {
+
+        static int identity(int pValue) {
+            return pValue;
+        }
+
+        static int first(int pFirst, int pSecond) {
+            return pFirst;
+        }
+
+        static int unrelated(int pValue) {
+            return pValue + 1;
+        }
+
+        static int twoCalls(int pA, int pB) {
+            int p = identity(pA);
+            int q = identity(pB);
+            return p;
+        }
+
+        static int nested(int pA, int pB) {
+            int r = identity(first(pA, pB));
+            int s = unrelated(pB);
+            return r;
+        }
+    }
+
+    @Test
+    void testSliceDescendsIntoTheCalledMethod() throws Exception {
+        ClassNode classNode = read();
+        SystemDependenceGraph sdg = new SystemDependenceGraph(List.of(classNode));
+
+        MethodNode nested = method(classNode, "nested");
+        Node store = store(sdg, nested, 2);
+        Map<MethodNode, Set<Node>> slices = sdg.backwardSliceByMethod(store);
+
+        org.junit.jupiter.api.Assertions.assertTrue(
+                slices.containsKey(method(classNode, "identity")));
+        org.junit.jupiter.api.Assertions.assertTrue(slices.containsKey(method(classNode, "first")));
+        org.junit.jupiter.api.Assertions.assertFalse(
+                slices.containsKey(method(classNode, "unrelated")));
+        org.junit.jupiter.api.Assertions.assertFalse(
+                slices.get(nested).contains(store(sdg, nested, 3)));
+        org.junit.jupiter.api.Assertions.assertTrue(sdg.backwardSlice(store).contains(store));
+    }
+
+    @Test
+    void testSliceRespectsTheCallingContext() throws Exception {
+        ClassNode classNode = read();
+        SystemDependenceGraph sdg = new SystemDependenceGraph(List.of(classNode));
+        MethodNode twoCalls = method(classNode, "twoCalls");
+
+        Set<Node> slice = sdg.backwardSliceByMethod(store(sdg, twoCalls, 2)).get(twoCalls);
+        List<Node> calls = calls(sdg.getCFG(twoCalls));
+
+        org.junit.jupiter.api.Assertions.assertEquals(2, calls.size());
+        org.junit.jupiter.api.Assertions.assertTrue(slice.contains(calls.get(0)));
+        // The second call reaches the same callee, but not in the context of the criterion
+        org.junit.jupiter.api.Assertions.assertFalse(slice.contains(calls.get(1)));
+        org.junit.jupiter.api.Assertions.assertFalse(slice.contains(store(sdg, twoCalls, 3)));
+    }
+
+    @Test
+    void testForwardSliceAscendsIntoTheCallers() throws Exception {
+        ClassNode classNode = read();
+        SystemDependenceGraph sdg = new SystemDependenceGraph(List.of(classNode));
+        MethodNode twoCalls = method(classNode, "twoCalls");
+        MethodNode nested = method(classNode, "nested");
+
+        Node result = instruction(sdg, method(classNode, "identity"), Opcodes.IRETURN);
+        Map<MethodNode, Set<Node>> slices = sdg.forwardSliceByMethod(result);
+
+        // Every call returns the result of identity
+        org.junit.jupiter.api.Assertions.assertTrue(
+                slices.get(twoCalls).contains(store(sdg, twoCalls, 2)));
+        org.junit.jupiter.api.Assertions.assertTrue(
+                slices.get(twoCalls).contains(store(sdg, twoCalls, 3)));
+        org.junit.jupiter.api.Assertions.assertTrue(
+                slices.get(nested).contains(store(sdg, nested, 2)));
+        org.junit.jupiter.api.Assertions.assertFalse(
+                slices.containsKey(method(classNode, "unrelated")));
+    }
+
+    @Test
+    void testForwardSliceRespectsTheCallingContext() throws Exception {
+        ClassNode classNode = read();
+        SystemDependenceGraph sdg = new SystemDependenceGraph(List.of(classNode));
+        MethodNode twoCalls = method(classNode, "twoCalls");
+        Node firstCall = calls(sdg.getCFG(twoCalls)).get(0);
+
+        Set<Node> slice = sdg.forwardSlice(firstCall);
+        org.junit.jupiter.api.Assertions.assertTrue(slice.contains(store(sdg, twoCalls, 2)));
+        // The result of the first call does not flow out of the second one
+        org.junit.jupiter.api.Assertions.assertFalse(slice.contains(store(sdg, twoCalls, 3)));
+        org.junit.jupiter.api.Assertions.assertTrue(
+                sdg.forwardSliceByMethod(firstCall).containsKey(method(classNode, "identity")));
+
+        Set<Node> chop = sdg.chop(firstCall, store(sdg, twoCalls, 2));
+        org.junit.jupiter.api.Assertions.assertTrue(chop.contains(firstCall));
+        org.junit.jupiter.api.Assertions.assertTrue(chop.contains(store(sdg, twoCalls, 2)));
+        org.junit.jupiter.api.Assertions.assertFalse(
+                sdg.chop(firstCall, store(sdg, twoCalls, 3)).contains(store(sdg, twoCalls, 3)));
+    }
+
+    @Test
+    void testSummaryEdgesOnlyConnectArgumentsTheResultDependsOn() throws Exception {
+        ClassNode classNode = read();
+        SystemDependenceGraph sdg = new SystemDependenceGraph(List.of(classNode));
+
+        // One per call of identity and unrelated, but first only returns its first argument
+        org.junit.jupiter.api.Assertions.assertEquals(5, sdg.getSummaryEdgeCount());
+    }
+
+    @Test
+    void testSummaryEdgePhaseIsReported() throws Exception {
+        SystemDependenceGraph sdg = new SystemDependenceGraph(List.of(read()));
+
+        List<PhaseStatistics> reported = new CopyOnWriteArrayList<>();
+        PhaseListener listener = statistics -> {
+            if (statistics.phase() == Phase.SUMMARY_EDGES) {
+                reported.add(statistics);
+            }
+        };
+        Statistics.addListener(listener);
+        try {
+            sdg.getSummaryEdgeCount();
+            sdg.getSummaryEdgeCount();
+        } finally {
+            Statistics.removeListener(listener);
+        }
+
+        // The fixpoint is only solved once
+        org.junit.jupiter.api.Assertions.assertEquals(1, reported.size());
+        PhaseStatistics statistics = reported.get(0);
+        org.junit.jupiter.api.Assertions.assertEquals(5, statistics.edges());
+        org.junit.jupiter.api.Assertions.assertEquals(sdg.size(), statistics.nodes());
+        org.junit.jupiter.api.Assertions.assertTrue(statistics.iterations() >= 5);
+    }
+
+    @Test
+    void testCriterionOutsideTheGraph() throws Exception {
+        SystemDependenceGraph sdg = new SystemDependenceGraph(List.of(read()));
+        Node unknown = new Node("unknown");
+
+        org.junit.jupiter.api.Assertions.assertEquals(Set.of(unknown), sdg.backwardSlice(unknown));
+        org.junit.jupiter.api.Assertions.assertTrue(sdg.backwardSliceByMethod(unknown).isEmpty());
+        org.junit.jupiter.api.Assertions.assertTrue(sdg.backwardSlice(null).isEmpty());
+    }
+
+    @Test
+    void testMethodsOfExamplesAreSliced() throws Exception {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader("de.uni_passau.fim.se2.sa.examples.Rational").accept(classNode, 0);
+        SystemDependenceGraph sdg = new SystemDependenceGraph(List.of(classNode));
+
+        org.junit.jupiter.api.Assertions.assertTrue(sdg.getSummaryEdgeCount() > 0);
+        for (MethodNode methodNode : classNode.methods) {
+            ProgramGraph cfg = sdg.getCFG(methodNode);
+            for (Node criterion : cfg.getNodes()) {
+                if (criterion.getInstruction() != null) {
+                    Set<Node> slice = sdg.backwardSliceByMethod(criterion).get(methodNode);
+                    org.junit.jupiter.api.Assertions.assertTrue(slice.contains(criterion));
+                }
+            }
+        }
+    }
+
+    private static ClassNode read() throws Exception {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader(Fixture.class.getName()).accept(classNode, 0);
+        return classNode;
+    }
+
+    private static MethodNode method(ClassNode pClassNode, String pName) {
+        return pClassNode.methods.stream()
+            .filter(m -> pName.equals(m.name))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static Node store(SystemDependenceGraph pSDG, MethodNode pMethod, int pSlot) {
+        for (Node node : pSDG.getCFG(pMethod).getNodes()) {
+            AbstractInsnNode instruction = node.getInstruction();
+            if (instruction != null
+                    && instruction.getOpcode() == Opcodes.ISTORE
+                    && ((VarInsnNode) instruction).var == pSlot) {
+                return node;
+            }
+        }
+        throw new AssertionError("No store to " + pSlot);
+    }
+
+    private static Node instruction(
+            SystemDependenceGraph pSDG, MethodNode pMethod, int pOpcode) {
+        for (Node node : pSDG.getCFG(pMethod).getNodes()) {
+            if (node.getInstruction() != null && node.getInstruction().getOpcode() == pOpcode) {
+                return node;
+            }
+        }
+        throw new AssertionError("No instruction " + pOpcode);
+    }
+
+    private static List<Node> calls(ProgramGraph pCFG) {
+        List<Node> calls = new ArrayList<>();
+        for (Node node : pCFG.getNodes()) {
+            if (node.getInstruction() != null
+                    && node.getInstruction().getOpcode() == Opcodes.INVOKESTATIC) {
+                calls.add(node);
+            }
+        }
+        calls.sort((a, b) -> Integer.compare(a.getInstructionIndex(), b.getInstructionIndex()));
+        return calls;
+    }
+}
@@ -230,4 +230,99 @@ void testTransformWithDifferentClassLoaders() throws Exception {
             "Result with valid classloader should be transformed"
         );
     }
+
+    @Test
+    void testInstrumentedClassRecordsExecutedLines() throws Exception {
+        Class<?> calculator = loadTransformed("de.uni_passau.fim.se2.sa.examples.Calculator");
+        Object instance = calculator.getDeclaredConstructor().newInstance();
+        java.lang.reflect.Method evaluate = calculator.getMethod("evaluate", String.class);
+
+        org.junit.jupiter.api.Assertions.assertEquals(6, evaluate.invoke(instance, "1+2+3"));
+        org.junit.jupiter.api.Assertions.assertEquals(
+            java.util.Set.of(3, 6, 7, 8, 10), CoverageTracker.getVisitedLines());
+        org.junit.jupiter.api.Assertions.assertEquals(
+            java.util.Set.of(6, 7, 8, 10),
+            CoverageTracker.getVisitedLines(
+                "de/uni_passau/fim/se2/sa/examples/Calculator", "evaluate", "(Ljava/lang/String;)I"));
+
+        // The class keeps its probe array, which is cleared in place
+        CoverageTracker.reset();
+        org.junit.jupiter.api.Assertions.assertTrue(CoverageTracker.getVisitedLines().isEmpty());
+        org.junit.jupiter.api.Assertions.assertEquals(0, evaluate.invoke(instance, "0"));
+        org.junit.jupiter.api.Assertions.assertEquals(
+            java.util.Set.of(6, 7, 8, 10), CoverageTracker.getVisitedLines());
+    }
+
+    @Test
+    void testRestrictedTransformerOnlyInstrumentsTheSlicedMethod() throws Exception {
+        transformer.restrictTo(
+            "de.uni_passau.fim.se2.sa.examples.Calculator", "evaluate", "(Ljava/lang/String;)I");
+        byte[] gcd = readClass("de.uni_passau.fim.se2.sa.examples.GCD");
+        org.junit.jupiter.api.Assertions.assertArrayEquals(gcd, transformer.transform(
+            getClass().getClassLoader(), "de/uni_passau/fim/se2/sa/examples/GCD", null, null, gcd));
+
+        Class<?> calculator = loadTransformed("de.uni_passau.fim.se2.sa.examples.Calculator");
+        Object instance = calculator.getDeclaredConstructor().newInstance();
+        java.lang.reflect.Method evaluate = calculator.getMethod("evaluate", String.class);
+
+        // The constructor at line 3 is executed, but not instrumented
+        org.junit.jupiter.api.Assertions.assertEquals(6, evaluate.invoke(instance, "1+2+3"));
+        org.junit.jupiter.api.Assertions.assertEquals(
+            java.util.Set.of(6, 7, 8, 10), CoverageTracker.getVisitedLines());
+    }
+
+    @Test
+    void testOnDemandTransformerInstrumentsSelectedMethodsWithoutNewMembers() throws Exception {
+        transformer = LineCoverageTransformer.onDemand("de.uni_passau.fim.se2.sa.examples", false);
+        String className = "de.uni_passau.fim.se2.sa.examples.Calculator";
+        byte[] original = readClass(className);
+        org.junit.jupiter.api.Assertions.assertArrayEquals(original, transformer.transform(
+            getClass().getClassLoader(), className.replace('.', '/'), null, null, original));
+
+        transformer.select(className, "evaluate", "(Ljava/lang/String;)I");
+        byte[] transformed = transformer.transform(
+            getClass().getClassLoader(), className.replace('.', '/'), null, null, original);
+        // Retransformation must not change the members of a class
+        org.objectweb.asm.tree.ClassNode originalClass = new org.objectweb.asm.tree.ClassNode();
+        new ClassReader(original).accept(originalClass, 0);
+        org.objectweb.asm.tree.ClassNode transformedClass = new org.objectweb.asm.tree.ClassNode();
+        new ClassReader(transformed).accept(transformedClass, 0);
+        org.junit.jupiter.api.Assertions.assertEquals(
+            originalClass.fields.size(), transformedClass.fields.size());
+        org.junit.jupiter.api.Assertions.assertEquals(
+            originalClass.methods.size(), transformedClass.methods.size());
+
+        Class<?> calculator = loadTransformed(className);
+        Object instance = calculator.getDeclaredConstructor().newInstance();
+        org.junit.jupiter.api.Assertions.assertEquals(
+            6, calculator.getMethod("evaluate", String.class).invoke(instance, "1+2+3"));
+        org.junit.jupiter.api.Assertions.assertEquals(
+            java.util.Set.of(6, 7, 8, 10), CoverageTracker.getVisitedLines());
+
+        transformer.deselect(className, "evaluate", "(Ljava/lang/String;)I");
+        org.junit.jupiter.api.Assertions.assertArrayEquals(original, transformer.transform(
+            getClass().getClassLoader(), className.replace('.', '/'), calculator, null, original));
+    }
+
+    private Class<?> loadTransformed(String pClassName) throws Exception {
+        byte[] transformed = transformer.transform(
+            getClass().getClassLoader(),
+            pClassName.replace('.', '/'),
+            null,
+            null,
+            readClass(pClassName)
+        );
+        return new ClassLoader(getClass().getClassLoader()) {
+            Class<?> define() {
+                return defineClass(pClassName, transformed, 0, transformed.length);
+            }
+        }.define();
+    }
+
+    private byte[] readClass(String pClassName) throws java.io.IOException {
+        try (java.io.InputStream in = getClass().getResourceAsStream(
+                "/" + pClassName.replace('.', '/') + ".class")) {
+            return in.readAllBytes();
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package de.uni_passau.fim.se2.sa.slicing.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+public class SlicingPipelineTest {
+
+    private static final List<String> CLASSES = List.of(
+        "de/uni_passau/fim/se2/sa/examples/GCD.class",
+        "de/uni_passau/fim/se2/sa/examples/NestedLoop.class",
+        "de/uni_passau/fim/se2/sa/examples/Calculator.class");
+
+    @Test
+    void testSlicesAllMethodsOfDirectory(@TempDir Path pDirectory) throws Exception {
+        for (String name : CLASSES) {
+            Path target = pDirectory.resolve(name);
+            Files.createDirectories(target.getParent());
+            Files.write(target, readClassFile(name));
+        }
+        Files.writeString(pDirectory.resolve("README.txt"), "not a class file");
+
+        StringWriter output = new StringWriter();
+        SlicingPipeline.Summary summary = new SlicingPipeline(4, 2, output).run(pDirectory);
+
+        org.junit.jupiter.api.Assertions.assertEquals(3, summary.classes());
+        org.junit.jupiter.api.Assertions.assertEquals(0, summary.failures());
+        long headers = output.toString().lines().filter(line -> line.startsWith("### ")).count();
+        org.junit.jupiter.api.Assertions.assertEquals(summary.methods(), headers);
+
+        String gcd = methodResult(output.toString(), "GCD.gcd(II)I");
+        org.junit.jupiter.api.Assertions.assertTrue(gcd.contains("(4 criteria, "), gcd);
+        org.junit.jupiter.api.Assertions.assertTrue(gcd.contains("tmp:6 (1 nodes) lines [6]"), gcd);
+        org.junit.jupiter.api.Assertions.assertTrue(gcd.contains("y:10 (5 nodes) lines [7, 8, 9, 10]"), gcd);
+    }
+
+    @Test
+    void testJarAndSequentialRunsAgree(@TempDir Path pDirectory) throws Exception {
+        Path jar = pDirectory.resolve("examples.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String name : CLASSES) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(readClassFile(name));
+                out.closeEntry();
+            }
+        }
+
+        StringWriter parallel = new StringWriter();
+        StringWriter sequential = new StringWriter();
+        new SlicingPipeline(4, 1, parallel).run(jar);
+        new SlicingPipeline(1, 1, sequential).run(jar);
+
+        org.junit.jupiter.api.Assertions.assertEquals(normalize(sequential.toString()), normalize(parallel.toString()));
+    }
+
+    @Test
+    void testPipelineCanOnlyRunOnce(@TempDir Path pDirectory) throws Exception {
+        SlicingPipeline pipeline = new SlicingPipeline(1, 1, new StringWriter());
+        pipeline.run(pDirectory);
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalStateException.class, () -> pipeline.run(pDirectory));
+    }
+
+    private static byte[] readClassFile(String pName) throws Exception {
+        try (InputStream in = ClassLoader.getSystemResourceAsStream(pName)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String methodResult(String pOutput, String pMethod) {
+        int start = pOutput.indexOf(pMethod);
+        int end = pOutput.indexOf("### ", start);
+        return pOutput.substring(start, end < 0 ? pOutput.length() : end);
+    }
+
+    /** Removes timings and sorts the method results, whose order is not deterministic. */
+    private static List<String> normalize(String pOutput) {
+        return pOutput.replaceAll(", [0-9.]+ ms\\)", ")").lines().sorted().toList();
+    }
+}
@@ -0,0 +1,43 @@
+package de.uni_passau.fim.se2.sa.slicing.server;
+
+import org.junit.jupiter.api.Test;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class JsonTest {
+
+    @Test
+    void testParseFlatObject() {
+        Map<String, Object> members = Json.parseObject(
+            " {\"id\": \"a\\\"b\\u0041\", \"line\": 8, \"ratio\": -1.5e2, \"xml\": true, \"x\": null} ");
+
+        org.junit.jupiter.api.Assertions.assertEquals("a\"bA", members.get("id"));
+        org.junit.jupiter.api.Assertions.assertEquals(8L, members.get("line"));
+        org.junit.jupiter.api.Assertions.assertEquals(-150.0, members.get("ratio"));
+        org.junit.jupiter.api.Assertions.assertEquals(Boolean.TRUE, members.get("xml"));
+        org.junit.jupiter.api.Assertions.assertTrue(members.containsKey("x"));
+        org.junit.jupiter.api.Assertions.assertNull(members.get("x"));
+        org.junit.jupiter.api.Assertions.assertTrue(Json.parseObject("{}").isEmpty());
+    }
+
+    @Test
+    void testRejectsUnsupportedInput() {
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": [1]}"));
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": 1} x"));
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": \"open"));
+    }
+
+    @Test
+    void testWriteObjectRoundTrip() {
+        Map<String, Object> members = new LinkedHashMap<>();
+        members.put("id", 7L);
+        members.put("ok", true);
+        members.put("result", "line 1\n\t\"quoted\" \\ \u0001");
+        members.put("error", null);
+
+        String json = Json.writeObject(members);
+
+        org.junit.jupiter.api.Assertions.assertFalse(json.contains("\n"));
+        org.junit.jupiter.api.Assertions.assertEquals(members, Json.parseObject(json));
+    }
+}
@@ -0,0 +1,109 @@
+package de.uni_passau.fim.se2.sa.slicing.server;
+
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class SliceServiceTest {
+
+    private static final String CALCULATOR_REQUEST =
+        "{\"id\": %d, \"class\": \"de.uni_passau.fim.se2.sa.examples.Calculator\","
+            + " \"method\": \"evaluate:(Ljava/lang/String;)I\", \"variable\": \"sum\", \"line\": 8}";
+
+    @Test
+    void testAnswersWithExtractorOutputAndCachesClass() {
+        SliceService service = new SliceService(16);
+
+        Map<String, Object> first = Json.parseObject(service.handle(String.format(CALCULATOR_REQUEST, 1)));
+        Map<String, Object> second = Json.parseObject(service.handle(String.format(CALCULATOR_REQUEST, 2)));
+
+        org.junit.jupiter.api.Assertions.assertEquals(Boolean.TRUE, first.get("ok"), first.toString());
+        org.junit.jupiter.api.Assertions.assertEquals(1L, first.get("id"));
+        org.junit.jupiter.api.Assertions.assertEquals(9L, first.get("nodes"));
+        org.junit.jupiter.api.Assertions.assertTrue(first.get("result").toString().contains("(line:    8, id:   36)  ISTORE 2"));
+        org.junit.jupiter.api.Assertions.assertEquals(first.get("result"), second.get("result"));
+        org.junit.jupiter.api.Assertions.assertEquals(1, service.getCachedClassCount());
+    }
+
+    @Test
+    void testReportsErrors() {
+        SliceService service = new SliceService(16);
+
+        Map<String, Object> malformed = Json.parseObject(service.handle("not json"));
+        Map<String, Object> missing = Json.parseObject(service.handle(
+            "{\"id\": \"m\", \"class\": \"de.uni_passau.fim.se2.sa.examples.GCD\", \"method\": \"gcd:(II)I\"}"));
+        Map<String, Object> wrongLine = Json.parseObject(service.handle(
+            "{\"class\": \"de.uni_passau.fim.se2.sa.examples.GCD\", \"method\": \"gcd:(II)I\","
+                + " \"variable\": \"x\", \"line\": 1000}"));
+
+        org.junit.jupiter.api.Assertions.assertEquals(Boolean.FALSE, malformed.get("ok"));
+        org.junit.jupiter.api.Assertions.assertEquals(Boolean.FALSE, missing.get("ok"));
+        org.junit.jupiter.api.Assertions.assertEquals("m", missing.get("id"));
+        org.junit.jupiter.api.Assertions.assertTrue(missing.get("error").toString().contains("line"));
+        org.junit.jupiter.api.Assertions.assertEquals(Boolean.FALSE, wrongLine.get("ok"));
+    }
+
+    @Test
+    void testServesReaderAndSocket() throws Exception {
+        SliceServer server = new SliceServer(new SliceService(16));
+
+        StringWriter responses = new StringWriter();
+        server.serve(new StringReader(String.format(CALCULATOR_REQUEST, 1) + "\n\n" + String.format(CALCULATOR_REQUEST, 2) + "\n"), responses);
+        org.junit.jupiter.api.Assertions.assertEquals(2, responses.toString().lines().count());
+
+        try (ServerSocket serverSocket = SliceServer.openLocalSocket(0)) {
+            Thread listener = new Thread(() -> {
+                try {
+                    server.listen(serverSocket);
+                } catch (Exception e) {
+                    // Closed by the test
+                }
+            });
+            listener.start();
+            try (Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+                 Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                out.write(String.format(CALCULATOR_REQUEST, 3) + "\n");
+                out.flush();
+                Map<String, Object> response = Json.parseObject(in.readLine());
+                org.junit.jupiter.api.Assertions.assertEquals(3L, response.get("id"));
+                org.junit.jupiter.api.Assertions.assertEquals(Boolean.TRUE, response.get("ok"));
+            }
+        }
+    }
+
+    @Test
+    void testListenReturnsDespiteIdleClients() throws Exception {
+        SliceServer server = new SliceServer(new SliceService(16));
+        ServerSocket serverSocket = SliceServer.openLocalSocket(0);
+        Thread listener = new Thread(() -> {
+            try {
+                server.listen(serverSocket);
+            } catch (Exception e) {
+                // Closed by the test
+            }
+        });
+        listener.start();
+        try (Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            out.write(String.format(CALCULATOR_REQUEST, 4) + "\n");
+            out.flush();
+            org.junit.jupiter.api.Assertions.assertNotNull(in.readLine());
+
+            // The client stays connected without sending another request
+            serverSocket.close();
+            listener.join(10_000);
+            org.junit.jupiter.api.Assertions.assertFalse(listener.isAlive());
+            org.junit.jupiter.api.Assertions.assertNull(in.readLine());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package de.uni_passau.fim.se2.sa.slicing.stats;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.graph.ProgramDependenceGraph;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class StatisticsTest {
+
+    private static final String GCD = "de/uni_passau/fim/se2/sa/examples/GCD";
+
+    @Test
+    void testPhasesOfDependenceGraphAreReported() throws Exception {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader(GCD.replace('/', '.')).accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> "gcd".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+
+        List<PhaseStatistics> reported = new CopyOnWriteArrayList<>();
+        PhaseListener listener = reported::add;
+        Statistics.addListener(listener);
+        try {
+            new ProgramDependenceGraph(classNode, methodNode).computeResult();
+        } finally {
+            Statistics.removeListener(listener);
+        }
+
+        Map<Phase, PhaseStatistics> phases = new EnumMap<>(Phase.class);
+        for (PhaseStatistics statistics : reported) {
+            if (GCD.equals(statistics.className()) && "gcd(II)I".equals(statistics.methodName())) {
+                phases.put(statistics.phase(), statistics);
+            }
+        }
+        org.junit.jupiter.api.Assertions.assertEquals(
+            List.of(
+                Phase.CFG,
+                Phase.POST_DOMINATORS,
+                Phase.CONTROL_DEPENDENCE,
+                Phase.DATA_DEPENDENCE,
+                Phase.PROGRAM_DEPENDENCE),
+            List.copyOf(phases.keySet()));
+
+        for (PhaseStatistics statistics : phases.values()) {
+            org.junit.jupiter.api.Assertions.assertTrue(
+                statistics.wallNanos() > 0, statistics::toString);
+            org.junit.jupiter.api.Assertions.assertTrue(
+                statistics.nodes() > 0, statistics::toString);
+            org.junit.jupiter.api.Assertions.assertTrue(
+                statistics.edges() > 0, statistics::toString);
+        }
+        org.junit.jupiter.api.Assertions.assertTrue(
+            phases.get(Phase.POST_DOMINATORS).iterations() > 0);
+        org.junit.jupiter.api.Assertions.assertTrue(
+            phases.get(Phase.DATA_DEPENDENCE).iterations() > 0);
+        org.junit.jupiter.api.Assertions.assertEquals(-1, phases.get(Phase.CFG).iterations());
+        // The control-flow graph and its post-dominator tree share their nodes
+        org.junit.jupiter.api.Assertions.assertEquals(
+            phases.get(Phase.CFG).nodes(), phases.get(Phase.POST_DOMINATORS).nodes());
+    }
+
+    @Test
+    void testForwardSlicesAndChopsAreReported() throws Exception {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader(GCD.replace('/', '.')).accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> "gcd".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+        ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+        Node criterion = pdg.computeResult().getNodes().stream()
+            .filter(node -> node.getInstruction() != null
+                && node.getInstruction().getOpcode() == Opcodes.IRETURN)
+            .findFirst()
+            .orElseThrow();
+
+        List<PhaseStatistics> reported = new CopyOnWriteArrayList<>();
+        PhaseListener listener = reported::add;
+        Statistics.addListener(listener);
+        try {
+            pdg.forwardSlice(criterion);
+            pdg.forwardSliceAll(List.of(criterion));
+            pdg.chopAll(List.of(criterion), List.of(criterion));
+        } finally {
+            Statistics.removeListener(listener);
+        }
+
+        org.junit.jupiter.api.Assertions.assertEquals(3, reported.size());
+        for (PhaseStatistics statistics : reported) {
+            org.junit.jupiter.api.Assertions.assertEquals(Phase.SLICE, statistics.phase());
+            org.junit.jupiter.api.Assertions.assertEquals("gcd(II)I", statistics.methodName());
+            org.junit.jupiter.api.Assertions.assertTrue(
+                statistics.nodes() > 0, statistics::toString);
+        }
+    }
+
+    @Test
+    void testPhasesAreRecordedAsFlightRecorderEvents(@TempDir Path pDirectory) throws Exception {
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        new ClassReader(GCD.replace('/', '.')).accept(classNode, 0);
+        MethodNode methodNode = classNode.methods.stream()
+            .filter(m -> "gcd".equals(m.name))
+            .findFirst()
+            .orElseThrow();
+
+        Path file = pDirectory.resolve("slicing.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PhaseEvent.NAME);
+            recording.start();
+            ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+            Node criterion = pdg.computeResult().getNodes().stream()
+                .filter(node -> node.getInstruction() != null
+                    && node.getInstruction().getOpcode() == Opcodes.IRETURN)
+                .findFirst()
+                .orElseThrow();
+            pdg.backwardSlice(criterion);
+            recording.stop();
+            recording.dump(file);
+        }
+        // No listener is needed for recording
+        org.junit.jupiter.api.Assertions.assertFalse(Statistics.isEnabled());
+
+        List<String> phases = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (PhaseEvent.NAME.equals(event.getEventType().getName())
+                && "gcd(II)I".equals(event.getString("methodName"))) {
+                org.junit.jupiter.api.Assertions.assertEquals(GCD, event.getString("className"));
+                phases.add(event.getString("phase"));
+                if ("SLICE".equals(event.getString("phase"))) {
+                    org.junit.jupiter.api.Assertions.assertTrue(event.getInt("nodes") > 1);
+                }
+                if ("DATA_DEPENDENCE".equals(event.getString("phase"))) {
+                    org.junit.jupiter.api.Assertions.assertTrue(event.getInt("iterations") > 0);
+                }
+            }
+        }
+        phases.sort(Comparator.comparing(Phase::valueOf));
+        org.junit.jupiter.api.Assertions.assertEquals(
+            List.of(
+                "CFG",
+                "POST_DOMINATORS",
+                "CONTROL_DEPENDENCE",
+                "DATA_DEPENDENCE",
+                "PROGRAM_DEPENDENCE",
+                "SLICE"),
+            phases);
+    }
+
+    @Test
+    void testNothingIsMeasuredWithoutListeners() {
+        org.junit.jupiter.api.Assertions.assertFalse(Statistics.isEnabled());
+        try (Statistics.Measurement measurement = Statistics.start(Phase.SLICE, GCD, null)) {
+            org.junit.jupiter.api.Assertions.assertFalse(measurement.isActive());
+        }
+
+        PhaseListener listener = statistics -> {};
+        Statistics.addListener(listener);
+        try (Statistics.Measurement measurement = Statistics.start(Phase.SLICE, GCD, null)) {
+            org.junit.jupiter.api.Assertions.assertTrue(measurement.isActive());
+        } finally {
+            Statistics.removeListener(listener);
+        }
+        org.junit.jupiter.api.Assertions.assertFalse(Statistics.isEnabled());
+    }
+
+    @Test
+    void testJsonLines() {
+        StringWriter writer = new StringWriter();
+        new JsonStatisticsWriter(writer)
+            .phaseCompleted(
+                new PhaseStatistics(
+                    Phase.DATA_DEPENDENCE, GCD, "gcd(II)I", 10, 8, 512, 12, 20, 30));
+        org.junit.jupiter.api.Assertions.assertEquals(
+            "{\"phase\":\"DATA_DEPENDENCE\",\"class\":\"" + GCD + "\",\"method\":\"gcd(II)I\","
+                + "\"wallNanos\":10,\"cpuNanos\":8,\"allocatedBytes\":512,\"nodes\":12,"
+                + "\"edges\":20,\"iterations\":30}"
+                + System.lineSeparator(),
+            writer.toString());
+        org.junit.jupiter.api.Assertions.assertEquals(
+            "{\"phase\":\"SUMMARY_EDGES\",\"class\":null,\"method\":\"a\\\"b\\\\c\\u0001\","
+                + "\"wallNanos\":1,\"cpuNanos\":-1,\"allocatedBytes\":-1,\"nodes\":2,"
+                + "\"edges\":3,\"iterations\":4}",
+            JsonStatisticsWriter.toJson(
+                new PhaseStatistics(
+                    Phase.SUMMARY_EDGES, null, "a\"b\\c\u0001", 1, -1, -1, 2, 3, 4)));
+    }
+}
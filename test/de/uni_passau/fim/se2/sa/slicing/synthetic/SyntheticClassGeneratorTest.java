@@ -0,0 +1,150 @@
+package de.uni_passau.fim.se2.sa.slicing.synthetic;
+
+import de.uni_passau.fim.se2.sa.slicing.cfg.Node;
+import de.uni_passau.fim.se2.sa.slicing.graph.ProgramDependenceGraph;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+public class SyntheticClassGeneratorTest {
+
+    static Stream<Arguments> configurations() {
+        return Stream.of(
+            Arguments.of("default", SyntheticClassGenerator.newBuilder()),
+            Arguments.of("straight", SyntheticClassGenerator.newBuilder()
+                .loopDepth(0).switchFanOut(0).tryCatchRegions(0)),
+            Arguments.of("deep loops", SyntheticClassGenerator.newBuilder().loopDepth(5).seed(1)),
+            Arguments.of("wide switches", SyntheticClassGenerator.newBuilder()
+                .switchFanOut(12).loopDepth(1).seed(2)),
+            Arguments.of("many handlers", SyntheticClassGenerator.newBuilder()
+                .tryCatchRegions(20).seed(3)),
+            Arguments.of("locals only", SyntheticClassGenerator.newBuilder()
+                .fields(0).locals(1).seed(4)),
+            Arguments.of("many variables", SyntheticClassGenerator.newBuilder()
+                .locals(30).fields(10).seed(5)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("configurations")
+    void testExpectedSlicesMatchProgramDependenceGraph(
+            String pName, SyntheticClassGenerator.Builder pBuilder) {
+        SyntheticClass synthetic = pBuilder.build().generate();
+        ProgramDependenceGraph pdg =
+            new ProgramDependenceGraph(synthetic.getClassNode(), synthetic.getMethodNode());
+        Map<AbstractInsnNode, Node> nodes = nodesOf(pdg);
+
+        for (int line = 1; line <= synthetic.getLineCount(); line++) {
+            Node criterion = nodes.get(synthetic.getCriterion(line));
+            org.junit.jupiter.api.Assertions.assertEquals(
+                synthetic.expectedSlice(line), lines(pdg.backwardSlice(criterion)), "line " + line);
+        }
+    }
+
+    @Test
+    void testExpectedSlicesAtScale() {
+        SyntheticClass synthetic = SyntheticClassGenerator.newBuilder()
+            .instructions(10_000)
+            .loopDepth(3)
+            .tryCatchRegions(10)
+            .locals(8)
+            .build()
+            .generate();
+        org.junit.jupiter.api.Assertions.assertTrue(
+            synthetic.getMethodNode().instructions.size() >= 10_000);
+
+        ProgramDependenceGraph pdg =
+            new ProgramDependenceGraph(synthetic.getClassNode(), synthetic.getMethodNode());
+        Map<AbstractInsnNode, Node> nodes = nodesOf(pdg);
+        for (int line = synthetic.getReturnLine(); line > 0; line -= 97) {
+            Node criterion = nodes.get(synthetic.getCriterion(line));
+            org.junit.jupiter.api.Assertions.assertEquals(
+                synthetic.expectedSliceSize(line), lines(pdg.backwardSlice(criterion)).size());
+        }
+    }
+
+    @Test
+    void testGenerationIsDeterministic() {
+        SyntheticClass first = SyntheticClassGenerator.newBuilder().seed(42).build().generate();
+        SyntheticClass second = SyntheticClassGenerator.newBuilder().seed(42).build().generate();
+        SyntheticClass other = SyntheticClassGenerator.newBuilder().seed(43).build().generate();
+
+        org.junit.jupiter.api.Assertions.assertArrayEquals(
+            first.toByteArray(), second.toByteArray());
+        org.junit.jupiter.api.Assertions.assertFalse(
+            java.util.Arrays.equals(first.toByteArray(), other.toByteArray()));
+    }
+
+    @Test
+    void testGeneratedClassIsLoadableAndRuns() throws Exception {
+        SyntheticClass synthetic = SyntheticClassGenerator.newBuilder()
+            .className("de/uni_passau/fim/se2/sa/slicing/synthetic/Generated")
+            .switchFanOut(4)
+            .tryCatchRegions(5)
+            .build()
+            .generate();
+        byte[] bytes = synthetic.toByteArray();
+        ClassLoader loader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String pName) throws ClassNotFoundException {
+                if (!pName.endsWith(".Generated")) {
+                    throw new ClassNotFoundException(pName);
+                }
+                return defineClass(pName, bytes, 0, bytes.length);
+            }
+        };
+
+        Method run = loader.loadClass("de.uni_passau.fim.se2.sa.slicing.synthetic.Generated")
+            .getMethod(SyntheticClassGenerator.METHOD_NAME, int.class);
+        // Loading verifies the bytecode; the fields keep their values across invocations
+        org.junit.jupiter.api.Assertions.assertInstanceOf(Integer.class, run.invoke(null, 2));
+    }
+
+    @Test
+    void testMethodBeyondTheClassFileLimitCannotBeWritten() {
+        // Analysing methods of this size is measured by SyntheticAnalysisBenchmark
+        SyntheticClass synthetic =
+            SyntheticClassGenerator.newBuilder().instructions(100_000).build().generate();
+
+        org.junit.jupiter.api.Assertions.assertThrows(
+            MethodTooLargeException.class, synthetic::toByteArray);
+    }
+
+    @Test
+    void testInvalidConfigurationIsRejected() {
+        org.junit.jupiter.api.Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> SyntheticClassGenerator.newBuilder().locals(0));
+        org.junit.jupiter.api.Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> SyntheticClassGenerator.newBuilder().instructions(0));
+    }
+
+    private static Map<AbstractInsnNode, Node> nodesOf(ProgramDependenceGraph pPDG) {
+        Map<AbstractInsnNode, Node> nodes = new HashMap<>();
+        for (Node node : pPDG.computeResult().getNodes()) {
+            if (node.getInstruction() != null) {
+                nodes.put(node.getInstruction(), node);
+            }
+        }
+        return nodes;
+    }
+
+    private static Set<Integer> lines(Set<Node> pSlice) {
+        Set<Integer> lines = new TreeSet<>();
+        for (Node node : pSlice) {
+            if (node.getLineNumber() > 0) {
+                lines.add(node.getLineNumber());
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,119 @@
+package de.uni_passau.fim.se2.sa.slicing.trace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+public class ExecutionTraceTest {
+
+    private static final int METHOD = 1000;
+
+    @BeforeEach
+    void setUp() {
+        ExecutionTrace.reset(new TraceBuffer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ExecutionTrace.reset(new TraceBuffer());
+    }
+
+    @Test
+    void testAccessesStayWithTheirStepAcrossThreads() throws Exception {
+        int threadCount = 4;
+        int steps = 20_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int slot = t;
+            Object object = new Object();
+            int[] array = new int[threadCount];
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int frame = ExecutionTrace.enter(METHOD + slot);
+                for (int i = 0; i < steps; i++) {
+                    ExecutionTrace.step(frame, i);
+                    ExecutionTrace.readField(object, slot);
+                    ExecutionTrace.writeElement(array, slot);
+                    ExecutionTrace.readStatic(slot);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        TraceBuffer trace = ExecutionTrace.getTrace();
+        org.junit.jupiter.api.Assertions.assertEquals(
+            threadCount * (1 + 4L * steps), trace.size());
+        Map<Integer, Integer> threadOfFrame = new HashMap<>();
+        int[] stepsOfThread = new int[threadCount];
+        int currentThread = -1;
+        for (long position = 0; position < trace.size(); position++) {
+            long record = trace.get(position);
+            switch (ExecutionTrace.kind(record)) {
+                case ExecutionTrace.ENTER ->
+                    threadOfFrame.put(
+                        ExecutionTrace.frame(record), ExecutionTrace.payload(record) - METHOD);
+                case ExecutionTrace.STEP -> {
+                    currentThread = threadOfFrame.get(ExecutionTrace.frame(record));
+                    stepsOfThread[currentThread]++;
+                }
+                default ->
+                    // The slot of every access tells the thread that recorded it
+                    org.junit.jupiter.api.Assertions.assertEquals(
+                        currentThread,
+                        (int) (ExecutionTrace.address(record) & Integer.MAX_VALUE),
+                        "Access at " + position + " is separated from its step");
+            }
+        }
+        for (int count : stepsOfThread) {
+            org.junit.jupiter.api.Assertions.assertEquals(steps, count);
+        }
+    }
+
+    @Test
+    void testDistinctObjectsHaveDistinctAddresses() {
+        int frame = ExecutionTrace.enter(METHOD);
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            objects.add(new Object());
+        }
+        for (Object object : objects) {
+            ExecutionTrace.step(frame, 0);
+            ExecutionTrace.readField(object, 7);
+        }
+        ExecutionTrace.step(frame, 1);
+        ExecutionTrace.writeField(objects.get(0), 7);
+
+        TraceBuffer trace = ExecutionTrace.getTrace();
+        Set<Long> addresses = new HashSet<>();
+        for (long position = 0; position < trace.size(); position++) {
+            long record = trace.get(position);
+            if (ExecutionTrace.kind(record) == ExecutionTrace.READ) {
+                addresses.add(ExecutionTrace.address(record));
+            }
+        }
+        org.junit.jupiter.api.Assertions.assertEquals(objects.size(), addresses.size());
+        // The same object keeps its address
+        long write = trace.get(trace.size() - 1);
+        org.junit.jupiter.api.Assertions.assertEquals(
+            ExecutionTrace.WRITE, ExecutionTrace.kind(write));
+        org.junit.jupiter.api.Assertions.assertEquals(
+            ExecutionTrace.address(trace.get(2)), ExecutionTrace.address(write));
+    }
+}
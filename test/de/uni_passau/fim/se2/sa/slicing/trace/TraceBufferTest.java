@@ -0,0 +1,49 @@
+package de.uni_passau.fim.se2.sa.slicing.trace;
+
+import org.junit.jupiter.api.Test;
+
+public class TraceBufferTest {
+
+    @Test
+    void testRecordsAreReadBackAcrossSpilledSegments() {
+        try (TraceBuffer buffer = new TraceBuffer(4, 8)) {
+            for (long i = 0; i < 30; i++) {
+                buffer.append(i * 31);
+            }
+            org.junit.jupiter.api.Assertions.assertEquals(30, buffer.size());
+            org.junit.jupiter.api.Assertions.assertEquals(28, buffer.getSpilledCount());
+            for (long i = 29; i >= 0; i--) {
+                org.junit.jupiter.api.Assertions.assertEquals(i * 31, buffer.get(i));
+            }
+            org.junit.jupiter.api.Assertions.assertThrows(
+                    IndexOutOfBoundsException.class, () -> buffer.get(30));
+        }
+    }
+
+    @Test
+    void testClearedBufferIsReused() {
+        try (TraceBuffer buffer = new TraceBuffer(2, 4)) {
+            for (long i = 0; i < 10; i++) {
+                buffer.append(i);
+            }
+            buffer.clear();
+            org.junit.jupiter.api.Assertions.assertEquals(0, buffer.size());
+            for (long i = 0; i < 6; i++) {
+                buffer.append(-i);
+            }
+            for (long i = 0; i < 6; i++) {
+                org.junit.jupiter.api.Assertions.assertEquals(-i, buffer.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testRecordsAreDecoded() {
+        long step = ExecutionTrace.STEP;
+        long record = step << 62 | 5L << 32 | 17;
+        org.junit.jupiter.api.Assertions.assertEquals(
+                ExecutionTrace.STEP, ExecutionTrace.kind(record));
+        org.junit.jupiter.api.Assertions.assertEquals(5, ExecutionTrace.frame(record));
+        org.junit.jupiter.api.Assertions.assertEquals(17, ExecutionTrace.payload(record));
+    }
+}